@@ -20,7 +20,6 @@ import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.plugin.batch.aggregator.function.AggregateFunction;
 
 import java.io.Serializable;
-import java.util.Map;
 
 /**
  * A class which represents the aggregation result of a group by aggregator.
@@ -29,9 +28,10 @@ import java.util.Map;
  */
 public class AggregateResult implements Serializable {
   private final Schema inputSchema;
-  private final Map<String, AggregateFunction> functions;
+  // function states, in the order of the aggregates of the group by config
+  private final AggregateFunction[] functions;
 
-  public AggregateResult(Schema inputSchema, Map<String, AggregateFunction> functions) {
+  public AggregateResult(Schema inputSchema, AggregateFunction[] functions) {
     this.inputSchema = inputSchema;
     this.functions = functions;
   }
@@ -40,7 +40,7 @@ public class AggregateResult implements Serializable {
     return inputSchema;
   }
 
-  public Map<String, AggregateFunction> getFunctions() {
+  public AggregateFunction[] getFunctions() {
     return functions;
   }
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.batch.aggregator.function.AggregateFunction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aggregation plan of a {@link GroupByAggregator} compiled for a single input schema.
+ * The group key schema, the output schema and the schema of every aggregate function slot are resolved once
+ * when the plan is compiled, so that they don't have to be rebuilt for every record or every group.
+ */
+final class AggregationPlan {
+  private final Schema inputSchema;
+  private final String[] groupByFields;
+  private final Schema groupKeySchema;
+  private final GroupByConfig.FunctionInfo[] functionInfos;
+  private final String[] aggregateNames;
+  private final Schema[] fieldSchemas;
+  private final Schema outputSchema;
+
+  private AggregationPlan(Schema inputSchema, String[] groupByFields, Schema groupKeySchema,
+                          GroupByConfig.FunctionInfo[] functionInfos, String[] aggregateNames,
+                          Schema[] fieldSchemas, Schema outputSchema) {
+    this.inputSchema = inputSchema;
+    this.groupByFields = groupByFields;
+    this.groupKeySchema = groupKeySchema;
+    this.functionInfos = functionInfos;
+    this.aggregateNames = aggregateNames;
+    this.fieldSchemas = fieldSchemas;
+    this.outputSchema = outputSchema;
+  }
+
+  /**
+   * Compiles the plan for the given input schema.
+   *
+   * @param inputSchema schema of the records being aggregated
+   * @param groupByFields fields to group by
+   * @param functionInfos aggregates to compute on each group
+   * @return the compiled plan
+   * @throws IllegalArgumentException if a group by field does not exist in the input schema
+   */
+  static AggregationPlan compile(Schema inputSchema, List<String> groupByFields,
+                                 List<GroupByConfig.FunctionInfo> functionInfos) {
+    List<Schema.Field> groupKeyFields = new ArrayList<>(groupByFields.size());
+    for (String groupByField : groupByFields) {
+      Schema.Field field = inputSchema.getField(groupByField);
+      if (field == null) {
+        throw new IllegalArgumentException(String.format(
+          "Cannot group by field '%s' because it does not exist in input schema %s",
+          groupByField, inputSchema));
+      }
+      groupKeyFields.add(field);
+    }
+
+    List<Schema.Field> outputFields = new ArrayList<>(groupKeyFields.size() + functionInfos.size());
+    outputFields.addAll(groupKeyFields);
+
+    int numFunctions = functionInfos.size();
+    String[] aggregateNames = new String[numFunctions];
+    Schema[] fieldSchemas = new Schema[numFunctions];
+    for (int i = 0; i < numFunctions; i++) {
+      GroupByConfig.FunctionInfo functionInfo = functionInfos.get(i);
+      Schema.Field inputField = inputSchema.getField(functionInfo.getField());
+      fieldSchemas[i] = inputField == null ? null : inputField.getSchema();
+      aggregateNames[i] = functionInfo.getName();
+      AggregateFunction aggregateFunction = functionInfo.getAggregateFunction(fieldSchemas[i]);
+      outputFields.add(Schema.Field.of(aggregateNames[i], aggregateFunction.getOutputSchema()));
+    }
+
+    return new AggregationPlan(inputSchema, groupByFields.toArray(new String[0]),
+                               Schema.recordOf("group.key.schema", groupKeyFields),
+                               functionInfos.toArray(new GroupByConfig.FunctionInfo[0]), aggregateNames,
+                               fieldSchemas, Schema.recordOf(inputSchema.getRecordName() + ".agg", outputFields));
+  }
+
+  Schema getInputSchema() {
+    return inputSchema;
+  }
+
+  Schema getOutputSchema() {
+    return outputSchema;
+  }
+
+  /**
+   * @return the group key of the given record
+   */
+  StructuredRecord getGroupKey(StructuredRecord record) {
+    StructuredRecord.Builder builder = StructuredRecord.builder(groupKeySchema);
+    for (String groupByField : groupByFields) {
+      builder.set(groupByField, record.get(groupByField));
+    }
+    return builder.build();
+  }
+
+  /**
+   * Creates the initialized aggregate functions for a new group. The functions are in the same order as the
+   * aggregates of the plan.
+   */
+  AggregateFunction[] newFunctions() {
+    AggregateFunction[] functions = new AggregateFunction[functionInfos.length];
+    for (int i = 0; i < functions.length; i++) {
+      functions[i] = functionInfos[i].getAggregateFunction(fieldSchemas[i]);
+      functions[i].initialize();
+    }
+    return functions;
+  }
+
+  /**
+   * Builds the output record from the group key and the aggregated functions.
+   */
+  StructuredRecord buildOutput(StructuredRecord groupKey, AggregateFunction[] functions) {
+    StructuredRecord.Builder builder = StructuredRecord.builder(outputSchema);
+    for (String groupByField : groupByFields) {
+      builder.set(groupByField, groupKey.get(groupByField));
+    }
+    for (int i = 0; i < functions.length; i++) {
+      builder.set(aggregateNames[i], functions[i].getAggregate());
+    }
+    return builder.build();
+  }
+}
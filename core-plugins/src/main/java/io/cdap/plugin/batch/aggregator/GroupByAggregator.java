@@ -42,6 +42,7 @@ import io.cdap.cdap.etl.api.relational.Relation;
 import io.cdap.cdap.etl.api.relational.RelationalTranformContext;
 import io.cdap.cdap.etl.api.relational.StringExpressionFactoryType;
 import io.cdap.plugin.batch.aggregator.function.AggregateFunction;
+import io.cdap.plugin.batch.aggregator.function.HyperLogLog;
 import io.cdap.plugin.batch.aggregator.function.JexlCondition;
 import io.cdap.plugin.common.SchemaValidator;
 
@@ -87,6 +88,9 @@ public class GroupByAggregator extends RecordReducibleAggregator<AggregateResult
     put("LOGICALOR", "LogicalOr");
     put("CORRECTEDSUMOFSQUARES", "CorrectedSumOfSquares");
     put("SUMOFSQUARES", "SumOfSquares");
+    put("APPROXCOUNTDISTINCT", "ApproxCountDistinct");
+    put("APPROXPERCENTILE", "ApproxPercentile");
+    put("APPROXMEDIAN", "ApproxMedian");
     put("COUNTIF", "CountIf");
     put("COUNTDISTINCTIF", "CountDistinctIf");
     put("SUMIF", "SumIf");
@@ -139,12 +143,16 @@ public class GroupByAggregator extends RecordReducibleAggregator<AggregateResult
           "STRING_AGG(CAST(%s AS STRING) ORDER BY LENGTH(CAST(%<s AS STRING)) ASC LIMIT 1)");
       put(GroupByConfig.Function.LONGESTSTRING,
           "STRING_AGG(CAST(%s AS STRING) ORDER BY LENGTH(CAST(%<s AS STRING)) DESC LIMIT 1)");
+      put(GroupByConfig.Function.APPROXCOUNTDISTINCT, "APPROX_COUNT_DISTINCT(%s)");
+      put(GroupByConfig.Function.APPROXMEDIAN, "APPROX_QUANTILES(CAST(%s AS FLOAT64), 2)[OFFSET(1)]");
     }};
 
   private List<String> groupByFields;
   private List<GroupByConfig.FunctionInfo> functionInfos;
-  private Schema outputSchema;
   private GroupByAggregationDefinition aggregationDefinition;
+  // aggregation plans compiled per input schema, with the most recently used one kept aside as a fast path
+  private transient Map<Schema, AggregationPlan> plans;
+  private transient AggregationPlan lastPlan;
 
   public GroupByAggregator(GroupByConfig conf) {
     super(conf.numPartitions);
@@ -214,6 +222,27 @@ public class GroupByAggregator extends RecordReducibleAggregator<AggregateResult
       }
     }
     validateConditionalFunctions(inputSchema, conf.getAggregates(), collector);
+    validateApproximations(collector);
+  }
+
+  private void validateApproximations(FailureCollector collector) {
+    if (!conf.containsMacro(GroupByConfig.APPROX_DISTINCT_PRECISION)) {
+      int precision = conf.getApproxDistinctPrecision();
+      if (precision < HyperLogLog.MIN_PRECISION || precision > HyperLogLog.MAX_PRECISION) {
+        collector.addFailure(String.format("Invalid approximate distinct count precision %d.", precision),
+                             String.format("Please specify a precision between %d and %d.",
+                                           HyperLogLog.MIN_PRECISION, HyperLogLog.MAX_PRECISION))
+          .withConfigProperty(GroupByConfig.APPROX_DISTINCT_PRECISION);
+      }
+    }
+    if (!conf.containsMacro(GroupByConfig.APPROX_PERCENTILE)) {
+      double percentile = conf.getApproxPercentile();
+      if (percentile < 0d || percentile > 1d) {
+        collector.addFailure(String.format("Invalid approximate percentile %s.", percentile),
+                             "Please specify a percentile between 0 and 1.")
+          .withConfigProperty(GroupByConfig.APPROX_PERCENTILE);
+      }
+    }
   }
 
   private void validateCountDistinct(Schema.Field inputField, FailureCollector collector, String validationFieldName) {
@@ -313,26 +342,20 @@ public class GroupByAggregator extends RecordReducibleAggregator<AggregateResult
   public void initialize(BatchRuntimeContext context) throws Exception {
     groupByFields = conf.getGroupByFields();
     functionInfos = conf.getAggregates();
+    plans = new HashMap<>();
     if (context.getInputSchema() != null) {
-      initAggregates(context.getInputSchema());
+      getPlan(context.getInputSchema());
     }
   }
 
   @Override
   public void groupBy(StructuredRecord record, Emitter<StructuredRecord> emitter) throws Exception {
-    // app should provide some way to make some data calculated in configurePipeline available here.
-    // then we wouldn't have to calculate schema here
-    StructuredRecord.Builder builder = StructuredRecord.builder(getGroupKeySchema(record.getSchema()));
-    for (String groupByField : conf.getGroupByFields()) {
-      builder.set(groupByField, record.get(groupByField));
-    }
-    emitter.emit(builder.build());
+    emitter.emit(getPlan(record.getSchema()).getGroupKey(record));
   }
 
   @Override
   public AggregateResult initializeAggregateValue(StructuredRecord record) {
-    Map<String, AggregateFunction> functions = initAggregates(record.getSchema());
-    functions.values().forEach(AggregateFunction::initialize);
+    AggregateFunction[] functions = getPlan(record.getSchema()).newFunctions();
     updateAggregates(functions, record);
     return new AggregateResult(record.getSchema(), functions);
   }
@@ -352,16 +375,7 @@ public class GroupByAggregator extends RecordReducibleAggregator<AggregateResult
   @Override
   public void finalize(StructuredRecord groupKey, AggregateResult aggValue,
                        Emitter<StructuredRecord> emitter) {
-    initAggregates(aggValue.getInputSchema());
-    StructuredRecord.Builder builder = StructuredRecord.builder(outputSchema);
-    for (String groupByField : groupByFields) {
-      builder.set(groupByField, groupKey.get(groupByField));
-    }
-
-    for (Map.Entry<String, AggregateFunction> aggregateFunction : aggValue.getFunctions().entrySet()) {
-      builder.set(aggregateFunction.getKey(), aggregateFunction.getValue().getAggregate());
-    }
-    emitter.emit(builder.build());
+    emitter.emit(getPlan(aggValue.getInputSchema()).buildOutput(groupKey, aggValue.getFunctions()));
   }
 
   private Schema getOutputSchema(Schema inputSchema, List<String> groupByFields,
@@ -385,15 +399,15 @@ public class GroupByAggregator extends RecordReducibleAggregator<AggregateResult
     return Schema.recordOf(inputSchema.getRecordName() + ".agg", outputFields);
   }
 
-  private void updateAggregates(Map<String, AggregateFunction> aggregateFunctions, StructuredRecord groupVal) {
-    for (AggregateFunction aggregateFunction : aggregateFunctions.values()) {
+  private void updateAggregates(AggregateFunction[] aggregateFunctions, StructuredRecord groupVal) {
+    for (AggregateFunction aggregateFunction : aggregateFunctions) {
       aggregateFunction.mergeValue(groupVal);
     }
   }
 
-  private void mergeAggregates(Map<String, AggregateFunction> agg1, Map<String, AggregateFunction> agg2) {
-    for (Map.Entry<String, AggregateFunction> aggregateFunction : agg1.entrySet()) {
-      aggregateFunction.getValue().mergeAggregates(agg2.get(aggregateFunction.getKey()));
+  private void mergeAggregates(AggregateFunction[] agg1, AggregateFunction[] agg2) {
+    for (int i = 0; i < agg1.length; i++) {
+      agg1[i].mergeAggregates(agg2[i]);
     }
   }
 
@@ -414,36 +428,25 @@ public class GroupByAggregator extends RecordReducibleAggregator<AggregateResult
     return Schema.Field.of(functionInfo.getName(), aggregateFunction.getOutputSchema());
   }
 
-  private Map<String, AggregateFunction> initAggregates(Schema valueSchema) {
-    List<Schema.Field> outputFields = new ArrayList<>(groupByFields.size() + functionInfos.size());
-    for (String groupByField : groupByFields) {
-      outputFields.add(valueSchema.getField(groupByField));
-    }
-
-    Map<String, AggregateFunction> functions = new HashMap<>();
-    for (GroupByConfig.FunctionInfo functionInfo : functionInfos) {
-      Schema.Field inputField = valueSchema.getField(functionInfo.getField());
-      Schema fieldSchema = inputField == null ? null : inputField.getSchema();
-      AggregateFunction aggregateFunction = functionInfo.getAggregateFunction(fieldSchema);
-      outputFields.add(Schema.Field.of(functionInfo.getName(), aggregateFunction.getOutputSchema()));
-      functions.put(functionInfo.getName(), aggregateFunction);
-    }
-    outputSchema = Schema.recordOf(valueSchema.getRecordName() + ".agg", outputFields);
-    return functions;
-  }
-
-  private Schema getGroupKeySchema(Schema inputSchema) {
-    List<Schema.Field> fields = new ArrayList<>();
-    for (String groupByField : conf.getGroupByFields()) {
-      Schema.Field fieldSchema = inputSchema.getField(groupByField);
-      if (fieldSchema == null) {
-        throw new IllegalArgumentException(String.format(
-          "Cannot group by field '%s' because it does not exist in input schema %s",
-          groupByField, inputSchema));
-      }
-      fields.add(fieldSchema);
-    }
-    return Schema.recordOf("group.key.schema", fields);
+  /**
+   * Returns the aggregation plan for the given input schema, compiling it the first time the schema is seen.
+   */
+  private AggregationPlan getPlan(Schema inputSchema) {
+    AggregationPlan plan = lastPlan;
+    if (plan != null && plan.getInputSchema() == inputSchema) {
+      return plan;
+    }
+    if (plans == null) {
+      plans = new HashMap<>();
+    }
+    if (groupByFields == null || functionInfos == null) {
+      groupByFields = conf.getGroupByFields();
+      functionInfos = conf.getAggregates();
+    }
+    plan = plans.computeIfAbsent(inputSchema,
+                                 schema -> AggregationPlan.compile(schema, groupByFields, functionInfos));
+    lastPlan = plan;
+    return plan;
   }
 
   @Override
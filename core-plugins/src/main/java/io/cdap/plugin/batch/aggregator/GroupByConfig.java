@@ -25,6 +25,9 @@ import io.cdap.cdap.api.annotation.Macro;
 import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.plugin.batch.aggregator.function.AggregateFunction;
 import io.cdap.plugin.batch.aggregator.function.AnyIf;
+import io.cdap.plugin.batch.aggregator.function.ApproxCountDistinct;
+import io.cdap.plugin.batch.aggregator.function.ApproxMedian;
+import io.cdap.plugin.batch.aggregator.function.ApproxPercentile;
 import io.cdap.plugin.batch.aggregator.function.Avg;
 import io.cdap.plugin.batch.aggregator.function.AvgIf;
 import io.cdap.plugin.batch.aggregator.function.CollectList;
@@ -44,6 +47,7 @@ import io.cdap.plugin.batch.aggregator.function.CountDistinctIf;
 import io.cdap.plugin.batch.aggregator.function.CountIf;
 import io.cdap.plugin.batch.aggregator.function.CountNulls;
 import io.cdap.plugin.batch.aggregator.function.First;
+import io.cdap.plugin.batch.aggregator.function.HyperLogLog;
 import io.cdap.plugin.batch.aggregator.function.JexlCondition;
 import io.cdap.plugin.batch.aggregator.function.Last;
 import io.cdap.plugin.batch.aggregator.function.LogicalAnd;
@@ -72,11 +76,15 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import javax.annotation.Nullable;
 
 /**
  * Config for group by types of plugins.
  */
 public class GroupByConfig extends AggregatorConfig {
+  static final String APPROX_DISTINCT_PRECISION = "approxDistinctPrecision";
+  static final String APPROX_PERCENTILE = "approxPercentile";
+  private static final double DEFAULT_APPROX_PERCENTILE = 0.5d;
 
   @Macro
   @Description("Aggregates to compute on grouped records. " +
@@ -96,15 +104,46 @@ public class GroupByConfig extends AggregatorConfig {
     "output records will have a 'user' field and 'numActions' field.")
   private final String groupByFields;
 
+  @Macro
+  @Nullable
+  @Description("Precision of the approxCountDistinct aggregates, as the base 2 logarithm of the number of registers " +
+    "kept per group. Must be between 4 and 18. Higher precisions are more accurate but use more memory. " +
+    "Defaults to 14, which has a standard error of about 0.8% and uses at most 16KB per group.")
+  private final Integer approxDistinctPrecision;
+
+  @Macro
+  @Nullable
+  @Description("Percentile computed by the approxPercentile aggregates, between 0 and 1. For example, 0.95 computes " +
+    "the 95th percentile. Defaults to 0.5.")
+  private final Double approxPercentile;
+
   public GroupByConfig() {
     this.groupByFields = "";
     this.aggregates = "";
+    this.approxDistinctPrecision = null;
+    this.approxPercentile = null;
   }
 
   @VisibleForTesting
   GroupByConfig(String groupByFields, String aggregates) {
+    this(groupByFields, aggregates, null, null);
+  }
+
+  @VisibleForTesting
+  GroupByConfig(String groupByFields, String aggregates, @Nullable Integer approxDistinctPrecision,
+                @Nullable Double approxPercentile) {
     this.groupByFields = groupByFields;
     this.aggregates = aggregates;
+    this.approxDistinctPrecision = approxDistinctPrecision;
+    this.approxPercentile = approxPercentile;
+  }
+
+  int getApproxDistinctPrecision() {
+    return approxDistinctPrecision == null ? HyperLogLog.DEFAULT_PRECISION : approxDistinctPrecision;
+  }
+
+  double getApproxPercentile() {
+    return approxPercentile == null ? DEFAULT_APPROX_PERCENTILE : approxPercentile;
   }
 
   /**
@@ -191,7 +230,8 @@ public class GroupByConfig extends AggregatorConfig {
         }
         functionCondition = functionCondition.trim();
       }
-      functionInfos.add(new FunctionInfo(name, field, function, functionCondition));
+      functionInfos.add(new FunctionInfo(name, field, function, functionCondition, getApproxDistinctPrecision(),
+                                         getApproxPercentile()));
     }
 
     if (functionInfos.isEmpty()) {
@@ -208,19 +248,27 @@ public class GroupByConfig extends AggregatorConfig {
     private final String field;
     private final Function function;
     private final String condition;
+    private final int approxDistinctPrecision;
+    private final double approxPercentile;
+    // shared by all the functions created from this info, so that the condition is only compiled once
+    private JexlCondition jexlCondition;
 
-    FunctionInfo(String name, String field, Function function, String condition) {
+    FunctionInfo(String name, String field, Function function, String condition, int approxDistinctPrecision,
+                 double approxPercentile) {
       this.name = name;
       this.field = field;
       this.function = function;
       this.condition = condition;
+      this.approxDistinctPrecision = approxDistinctPrecision;
+      this.approxPercentile = approxPercentile;
+    }
+
+    FunctionInfo(String name, String field, Function function, String condition) {
+      this(name, field, function, condition, HyperLogLog.DEFAULT_PRECISION, DEFAULT_APPROX_PERCENTILE);
     }
 
     FunctionInfo(String name, String field, Function function) {
-      this.name = name;
-      this.field = field;
-      this.function = function;
-      this.condition = null;
+      this(name, field, function, null);
     }
 
     public String getName() {
@@ -286,49 +334,62 @@ public class GroupByConfig extends AggregatorConfig {
           return new CorrectedSumOfSquares(field, fieldSchema);
         case SUMOFSQUARES:
           return new SumOfSquares(field, fieldSchema);
+        case APPROXCOUNTDISTINCT:
+          return new ApproxCountDistinct(field, approxDistinctPrecision);
+        case APPROXPERCENTILE:
+          return new ApproxPercentile(field, fieldSchema, approxPercentile);
+        case APPROXMEDIAN:
+          return new ApproxMedian(field, fieldSchema);
         case COUNTIF:
-          return new CountIf(field, JexlCondition.of(condition));
+          return new CountIf(field, getJexlCondition());
         case COUNTDISTINCTIF:
-          return new CountDistinctIf(field, JexlCondition.of(condition));
+          return new CountDistinctIf(field, getJexlCondition());
         case SUMIF:
-          return new SumIf(field, fieldSchema, JexlCondition.of(condition));
+          return new SumIf(field, fieldSchema, getJexlCondition());
         case AVGIF:
-          return new AvgIf(field, fieldSchema, JexlCondition.of(condition));
+          return new AvgIf(field, fieldSchema, getJexlCondition());
         case MINIF:
-          return new MinIf(field, fieldSchema, JexlCondition.of(condition));
+          return new MinIf(field, fieldSchema, getJexlCondition());
         case MAXIF:
-          return new MaxIf(field, fieldSchema, JexlCondition.of(condition));
+          return new MaxIf(field, fieldSchema, getJexlCondition());
         case STDDEVIF:
-          return new StddevIf(field, fieldSchema, JexlCondition.of(condition));
+          return new StddevIf(field, fieldSchema, getJexlCondition());
         case VARIANCEIF:
-          return new VarianceIf(field, fieldSchema, JexlCondition.of(condition));
+          return new VarianceIf(field, fieldSchema, getJexlCondition());
         case COLLECTLISTIF:
-          return new CollectListIf(field, fieldSchema, JexlCondition.of(condition));
+          return new CollectListIf(field, fieldSchema, getJexlCondition());
         case COLLECTSETIF:
-          return new CollectSetIf(field, fieldSchema, JexlCondition.of(condition));
+          return new CollectSetIf(field, fieldSchema, getJexlCondition());
         case LONGESTSTRINGIF:
-          return new LongestStringIf(field, fieldSchema, JexlCondition.of(condition));
+          return new LongestStringIf(field, fieldSchema, getJexlCondition());
         case SHORTESTSTRINGIF:
-          return new ShortestStringIf(field, fieldSchema, JexlCondition.of(condition));
+          return new ShortestStringIf(field, fieldSchema, getJexlCondition());
         case CONCATIF:
-          return new ConcatIf(field, fieldSchema, JexlCondition.of(condition));
+          return new ConcatIf(field, fieldSchema, getJexlCondition());
         case CONCATDISTINCTIF:
-          return new ConcatDistinctIf(field, fieldSchema, JexlCondition.of(condition));
+          return new ConcatDistinctIf(field, fieldSchema, getJexlCondition());
         case LOGICALANDIF:
-          return new LogicalAndIf(field, fieldSchema, JexlCondition.of(condition));
+          return new LogicalAndIf(field, fieldSchema, getJexlCondition());
         case LOGICALORIF:
-          return new LogicalOrIf(field, fieldSchema, JexlCondition.of(condition));
+          return new LogicalOrIf(field, fieldSchema, getJexlCondition());
         case CORRECTEDSUMOFSQUARESIF:
-          return new CorrectedSumOfSquaresIf(field, fieldSchema, JexlCondition.of(condition));
+          return new CorrectedSumOfSquaresIf(field, fieldSchema, getJexlCondition());
         case SUMOFSQUARESIF:
-          return new SumOfSquaresIf(field, fieldSchema, JexlCondition.of(condition));
+          return new SumOfSquaresIf(field, fieldSchema, getJexlCondition());
         case ANYIF:
-          return new AnyIf(field, fieldSchema, JexlCondition.of(condition));
+          return new AnyIf(field, fieldSchema, getJexlCondition());
       }
       // should never happen
       throw new IllegalStateException("Unknown function type " + function);
     }
 
+    private JexlCondition getJexlCondition() {
+      if (jexlCondition == null) {
+        jexlCondition = JexlCondition.of(condition);
+      }
+      return jexlCondition;
+    }
+
     @Override
     public boolean equals(Object o) {
       if (this == o) {
@@ -343,12 +404,14 @@ public class GroupByConfig extends AggregatorConfig {
       return Objects.equals(name, that.name) &&
         Objects.equals(field, that.field) &&
         Objects.equals(function, that.function) &&
-        Objects.equals(condition, that.condition);
+        Objects.equals(condition, that.condition) &&
+        approxDistinctPrecision == that.approxDistinctPrecision &&
+        Double.compare(approxPercentile, that.approxPercentile) == 0;
     }
 
     @Override
     public int hashCode() {
-      return Objects.hash(name, field, function, condition);
+      return Objects.hash(name, field, function, condition, approxDistinctPrecision, approxPercentile);
     }
 
     @Override
@@ -389,6 +452,9 @@ public class GroupByConfig extends AggregatorConfig {
     LOGICALOR(FunctionType.NONE),
     CORRECTEDSUMOFSQUARES(FunctionType.NONE),
     SUMOFSQUARES(FunctionType.NONE),
+    APPROXCOUNTDISTINCT(FunctionType.NONE),
+    APPROXPERCENTILE(FunctionType.NONE),
+    APPROXMEDIAN(FunctionType.NONE),
     COUNTIF(FunctionType.CONDITIONAL),
     COUNTDISTINCTIF(FunctionType.CONDITIONAL),
     SUMIF(FunctionType.CONDITIONAL),
@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator.function;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+
+/**
+ * Approximately counts the distinct non-null values of a specific column using a {@link HyperLogLog}.
+ * Unlike {@link CountDistinct}, the memory used per group is bounded by the precision and does not grow with
+ * the number of distinct values.
+ */
+public class ApproxCountDistinct implements AggregateFunction<Long, ApproxCountDistinct> {
+  private static final Schema SCHEMA = Schema.of(Schema.Type.LONG);
+  private final String fieldName;
+  private final int precision;
+  private HyperLogLog hyperLogLog;
+
+  public ApproxCountDistinct(String fieldName, int precision) {
+    this.fieldName = fieldName;
+    this.precision = precision;
+  }
+
+  @Override
+  public void initialize() {
+    hyperLogLog = new HyperLogLog(precision);
+  }
+
+  @Override
+  public void mergeValue(StructuredRecord record) {
+    hyperLogLog.add(record.get(fieldName));
+  }
+
+  @Override
+  public void mergeAggregates(ApproxCountDistinct otherAgg) {
+    hyperLogLog.merge(otherAgg.hyperLogLog);
+  }
+
+  @Override
+  public Long getAggregate() {
+    return hyperLogLog.cardinality();
+  }
+
+  @Override
+  public Schema getOutputSchema() {
+    return SCHEMA;
+  }
+}
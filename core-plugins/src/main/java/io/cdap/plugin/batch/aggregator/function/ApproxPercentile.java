@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator.function;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.batch.aggregator.AggregationUtils;
+
+/**
+ * Approximates a percentile of a numeric column using a mergeable {@link QuantileSketch}.
+ * The result is one of the values of the column, and is null if every value is null.
+ */
+public class ApproxPercentile implements AggregateFunction<Double, ApproxPercentile> {
+  private static final Schema SCHEMA = Schema.nullableOf(Schema.of(Schema.Type.DOUBLE));
+  private final String fieldName;
+  private final double percentile;
+  private QuantileSketch sketch;
+
+  public ApproxPercentile(String fieldName, Schema fieldSchema, double percentile) {
+    this.fieldName = fieldName;
+    AggregationUtils.ensureNumericType(fieldSchema, fieldName, getClass().getSimpleName());
+    if (percentile < 0d || percentile > 1d) {
+      throw new IllegalArgumentException(
+        String.format("Percentile must be between 0 and 1, but is %s.", percentile));
+    }
+    this.percentile = percentile;
+  }
+
+  @Override
+  public void initialize() {
+    sketch = new QuantileSketch(QuantileSketch.DEFAULT_LEVEL_CAPACITY);
+  }
+
+  @Override
+  public void mergeValue(StructuredRecord record) {
+    Number value = record.get(fieldName);
+    if (value != null) {
+      sketch.add(value.doubleValue());
+    }
+  }
+
+  @Override
+  public void mergeAggregates(ApproxPercentile otherAgg) {
+    sketch.merge(otherAgg.sketch);
+  }
+
+  @Override
+  public Double getAggregate() {
+    return sketch.getQuantile(percentile);
+  }
+
+  @Override
+  public Schema getOutputSchema() {
+    return SCHEMA;
+  }
+}
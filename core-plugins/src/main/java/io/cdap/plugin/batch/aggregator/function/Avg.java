@@ -49,7 +49,7 @@ public class Avg implements AggregateFunction<Double, Avg> {
     if (val == null) {
       return;
     }
-    computeAvg(1L, (Number) val);
+    computeAvg(1L, ((Number) val).doubleValue());
   }
 
   @Override
@@ -71,11 +71,11 @@ public class Avg implements AggregateFunction<Double, Avg> {
     return outputSchema;
   }
 
-  private void computeAvg(long deltaCount, Number oldAvg) {
+  private void computeAvg(long deltaCount, double oldAvg) {
     if (deltaCount == 0L) {
       return;
     }
     count += deltaCount;
-    avg = avg + (oldAvg.doubleValue() - avg) * deltaCount / count;
+    avg = avg + (oldAvg - avg) * deltaCount / count;
   }
 }
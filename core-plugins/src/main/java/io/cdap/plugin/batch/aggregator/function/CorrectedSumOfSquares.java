@@ -52,10 +52,10 @@ public class CorrectedSumOfSquares implements AggregateFunction<Double, Correcte
     if (val == null) {
       return;
     }
-    Number value = (Number) val;
+    double value = ((Number) val).doubleValue();
     numEntries++;
-    sum += value.doubleValue();
-    sumOfSquares += Math.pow(value.doubleValue(), 2d);
+    sum += value;
+    sumOfSquares += value * value;
   }
 
   @Override
@@ -0,0 +1,239 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator.function;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog cardinality estimator.
+ * http://algo.inria.fr/flajolet/Publications/FlFuGaMe07.pdf
+ *
+ * Small sets are kept as a sparse list of register updates and only switch to the dense array of 2^precision
+ * registers once the sparse list would take more memory, so that groups with few distinct values stay small.
+ */
+public final class HyperLogLog implements Serializable {
+  public static final int MIN_PRECISION = 4;
+  public static final int MAX_PRECISION = 18;
+  public static final int DEFAULT_PRECISION = 14;
+
+  private static final int INITIAL_SPARSE_CAPACITY = 8;
+
+  private final int precision;
+  // register updates encoded as (index << 6 | rank), null once the registers are dense
+  private int[] sparse;
+  private int sparseSize;
+  private byte[] registers;
+
+  public HyperLogLog(int precision) {
+    if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+      throw new IllegalArgumentException(String.format("HyperLogLog precision must be between %d and %d, but is %d.",
+                                                       MIN_PRECISION, MAX_PRECISION, precision));
+    }
+    this.precision = precision;
+    this.sparse = new int[INITIAL_SPARSE_CAPACITY];
+  }
+
+  /**
+   * Adds a value to the estimator. Null values are ignored.
+   */
+  public void add(Object value) {
+    if (value != null) {
+      addHash(hash(value));
+    }
+  }
+
+  /**
+   * Merges the other estimator into this one. Both estimators must have the same precision.
+   */
+  public void merge(HyperLogLog other) {
+    if (other.precision != precision) {
+      throw new IllegalArgumentException(String.format(
+        "Cannot merge HyperLogLog of precision %d into HyperLogLog of precision %d.", other.precision, precision));
+    }
+    if (other.registers != null) {
+      toDense();
+      for (int i = 0; i < registers.length; i++) {
+        if (other.registers[i] > registers[i]) {
+          registers[i] = other.registers[i];
+        }
+      }
+      return;
+    }
+    for (int i = 0; i < other.sparseSize; i++) {
+      int encoded = other.sparse[i];
+      update(encoded >>> 6, encoded & 0x3f);
+    }
+  }
+
+  /**
+   * @return the estimated number of distinct values added to this estimator
+   */
+  public long cardinality() {
+    byte[] values = registers;
+    if (values == null) {
+      values = new byte[1 << precision];
+      for (int i = 0; i < sparseSize; i++) {
+        int index = sparse[i] >>> 6;
+        values[index] = (byte) Math.max(values[index], sparse[i] & 0x3f);
+      }
+    }
+
+    int m = values.length;
+    double sum = 0d;
+    int zeros = 0;
+    for (byte value : values) {
+      sum += 1d / (1L << value);
+      if (value == 0) {
+        zeros++;
+      }
+    }
+    double estimate = alpha(m) * m * m / sum;
+    if (estimate <= 2.5d * m && zeros > 0) {
+      // linear counting is more accurate for small cardinalities
+      estimate = m * Math.log((double) m / zeros);
+    }
+    return Math.round(estimate);
+  }
+
+  private void addHash(long hash) {
+    int index = (int) (hash >>> (64 - precision));
+    // the sentinel bit bounds the rank to 64 - precision + 1
+    long remaining = (hash << precision) | (1L << (precision - 1));
+    update(index, Long.numberOfLeadingZeros(remaining) + 1);
+  }
+
+  private void update(int index, int rank) {
+    if (registers != null) {
+      if (rank > registers[index]) {
+        registers[index] = (byte) rank;
+      }
+      return;
+    }
+    if (sparseSize == sparse.length) {
+      compactSparse();
+    }
+    if (registers != null) {
+      update(index, rank);
+      return;
+    }
+    sparse[sparseSize++] = index << 6 | rank;
+  }
+
+  /**
+   * Removes duplicate updates from the sparse list, keeping the highest rank of each register. Grows the list,
+   * or switches to dense registers once the list would be larger than the registers.
+   */
+  private void compactSparse() {
+    Arrays.sort(sparse, 0, sparseSize);
+    int size = 0;
+    for (int i = 0; i < sparseSize; i++) {
+      // updates of the same register are adjacent and sorted by rank, so the last one wins
+      if (size > 0 && sparse[size - 1] >>> 6 == sparse[i] >>> 6) {
+        sparse[size - 1] = sparse[i];
+      } else {
+        sparse[size++] = sparse[i];
+      }
+    }
+    sparseSize = size;
+    if (sparseSize * 2 < sparse.length) {
+      return;
+    }
+    // an int per sparse entry against a byte per register
+    if (sparse.length * 2 * Integer.BYTES > (1 << precision)) {
+      toDense();
+    } else {
+      sparse = Arrays.copyOf(sparse, sparse.length * 2);
+    }
+  }
+
+  private void toDense() {
+    if (registers != null) {
+      return;
+    }
+    registers = new byte[1 << precision];
+    for (int i = 0; i < sparseSize; i++) {
+      int index = sparse[i] >>> 6;
+      registers[index] = (byte) Math.max(registers[index], sparse[i] & 0x3f);
+    }
+    sparse = null;
+    sparseSize = 0;
+  }
+
+  private static double alpha(int m) {
+    switch (m) {
+      case 16:
+        return 0.673d;
+      case 32:
+        return 0.697d;
+      case 64:
+        return 0.709d;
+      default:
+        return 0.7213d / (1d + 1.079d / m);
+    }
+  }
+
+  /**
+   * Computes a 64 bit hash of a value. The hash of a value only depends on its content, so that equal values
+   * hash the same in every task.
+   */
+  static long hash(Object value) {
+    if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+      return mix(((Number) value).longValue());
+    }
+    if (value instanceof Double || value instanceof Float) {
+      return mix(Double.doubleToLongBits(((Number) value).doubleValue()));
+    }
+    if (value instanceof Boolean) {
+      return mix((Boolean) value ? 1L : 0L);
+    }
+    if (value instanceof CharSequence) {
+      CharSequence chars = (CharSequence) value;
+      long hash = 0xcbf29ce484222325L;
+      for (int i = 0; i < chars.length(); i++) {
+        hash = (hash ^ chars.charAt(i)) * 0x100000001b3L;
+      }
+      return mix(hash);
+    }
+    if (value instanceof ByteBuffer) {
+      ByteBuffer buffer = (ByteBuffer) value;
+      long hash = 0xcbf29ce484222325L;
+      for (int i = buffer.position(); i < buffer.limit(); i++) {
+        hash = (hash ^ (buffer.get(i) & 0xff)) * 0x100000001b3L;
+      }
+      return mix(hash);
+    }
+    if (value instanceof byte[]) {
+      return hash(ByteBuffer.wrap((byte[]) value));
+    }
+    return mix(value.hashCode());
+  }
+
+  /**
+   * Finalization step of MurmurHash3, which spreads every input bit over the whole hash.
+   */
+  private static long mix(long value) {
+    long hash = value;
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
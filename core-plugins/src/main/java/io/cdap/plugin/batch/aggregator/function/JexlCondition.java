@@ -25,19 +25,31 @@ import org.apache.commons.jexl3.JexlScript;
 import org.apache.commons.jexl3.MapContext;
 
 import java.io.Serializable;
-import java.util.Iterator;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
 
 /**
- * Class used for evaluating Jexl condition
+ * Class used for evaluating Jexl condition.
+ *
+ * The condition is compiled once, and the fields it refers to are resolved once per input schema. Simple comparisons
+ * of a field with a constant, such as {@code price > 100} or {@code department == 'd1'}, are evaluated directly
+ * instead of going through the Jexl interpreter.
  */
 public class JexlCondition implements Condition, Serializable {
+  private static final JexlEngine ENGINE = new JexlBuilder().cache(1024).strict(true).silent(false).create();
+  // variable, comparison operator and constant of a simple comparison
+  private static final Pattern SIMPLE_COMPARISON = Pattern.compile(
+    "\\s*([A-Za-z_$][\\w$]*(?:\\.[A-Za-z_$][\\w$]*)*)\\s*(==|!=|>=|<=|>|<)\\s*" +
+      "(-?\\d+(?:\\.\\d+)?|'[^'\\\\]*'|\"[^\"\\\\]*\"|true|false)\\s*");
 
   private final String condition;
-  private transient JexlEngine engine;
-  private transient JexlScript script;
+  private transient volatile CompiledCondition compiled;
 
   private JexlCondition(String condition) {
     this.condition = condition;
@@ -45,63 +57,26 @@ public class JexlCondition implements Condition, Serializable {
 
   @Override
   public boolean apply(StructuredRecord record) {
-    JexlScript script = getScript();
-    Set<List<String>> variables = script.getVariables();
-    JexlContext context = new MapContext();
-
-    for (List<String> variable : variables) {
-      Object value = getValue(record, variable);
-      context.set(variable.stream().collect(Collectors.joining(".")), value);
-    }
-
-    Object result = this.script.execute(context);
-
-    if (result instanceof Boolean) {
-      return (boolean) result;
-    } else {
-      throw new IllegalArgumentException("incorrect condition");
-    }
+    return getCompiled().apply(record);
   }
 
   /**
-   * Return value of a field from a record based on provided path
+   * Compiles the condition the first time it is applied. This is the only place where a lock is taken.
    *
-   * @param record {@link StructuredRecord}
-   * @param path   path to a field in record
-   * @return {@link Object} value of a field in record
+   * @return {@link CompiledCondition}
    */
-  private Object getValue(StructuredRecord record, List<String> path) {
-    StructuredRecord structuredRecord = record;
-    Iterator<String> iterator = path.iterator();
-    Object value = null;
-    Schema.Field field = null;
-    while (iterator.hasNext()) {
-      field = structuredRecord.getSchema().getField(iterator.next());
-      if (field == null) {
-        throw new IllegalArgumentException("Field provided in condition is not in input schema.");
-      }
-      if (field.getSchema().getType().equals(Schema.Type.RECORD)) {
-        structuredRecord = structuredRecord.get(field.getName());
-      } else {
-        value = structuredRecord.get(field.getName());
+  private CompiledCondition getCompiled() {
+    CompiledCondition result = compiled;
+    if (result == null) {
+      synchronized (this) {
+        result = compiled;
+        if (result == null) {
+          result = new CompiledCondition(condition);
+          compiled = result;
+        }
       }
     }
-    return value;
-  }
-
-  /**
-   * Generates JexlScript containing condition
-   *
-   * @return {@link JexlScript}
-   */
-  private synchronized JexlScript getScript() {
-    if (engine == null) {
-      engine = new JexlBuilder().cache(1024).strict(true).silent(false).create();
-    }
-    if (script == null) {
-      script = engine.createScript(condition);
-    }
-    return script;
+    return result;
   }
 
   /**
@@ -121,9 +96,227 @@ public class JexlCondition implements Condition, Serializable {
    * @return set of lists representing full path of each variable
    */
   public static Set<List<String>> getVariables(String condition) {
-    JexlEngine engine = new JexlBuilder().cache(1024).strict(true).silent(false).create();
-    JexlScript script = engine.createScript(condition);
+    return ENGINE.createScript(condition).getVariables();
+  }
+
+  /**
+   * A compiled Jexl condition.
+   */
+  private static final class CompiledCondition {
+    private final JexlScript script;
+    private final List<List<String>> variables;
+    private final String[] variableNames;
+    @Nullable
+    private final SimpleComparison comparison;
+    // contexts are reused across records, since every variable is set again for each record
+    private final ThreadLocal<JexlContext> contexts = ThreadLocal.withInitial(MapContext::new);
+    private volatile SchemaAccessors accessors;
 
-    return script.getVariables();
+    CompiledCondition(String condition) {
+      this.script = ENGINE.createScript(condition);
+      this.variables = new ArrayList<>(script.getVariables());
+      this.variableNames = new String[variables.size()];
+      for (int i = 0; i < variableNames.length; i++) {
+        variableNames[i] = String.join(".", variables.get(i));
+      }
+      this.comparison = SimpleComparison.parse(condition, variables);
+    }
+
+    boolean apply(StructuredRecord record) {
+      FieldAccessor[] fieldAccessors = getAccessors(record.getSchema());
+
+      if (comparison != null) {
+        Boolean result = comparison.evaluate(fieldAccessors[0].get(record));
+        if (result != null) {
+          return result;
+        }
+      }
+
+      JexlContext context = contexts.get();
+      for (int i = 0; i < fieldAccessors.length; i++) {
+        context.set(variableNames[i], fieldAccessors[i].get(record));
+      }
+      Object result = script.execute(context);
+
+      if (result instanceof Boolean) {
+        return (boolean) result;
+      } else {
+        throw new IllegalArgumentException("incorrect condition");
+      }
+    }
+
+    private FieldAccessor[] getAccessors(Schema schema) {
+      SchemaAccessors current = accessors;
+      if (current != null && (current.schema == schema || current.schema.equals(schema))) {
+        return current.fieldAccessors;
+      }
+      FieldAccessor[] fieldAccessors = new FieldAccessor[variables.size()];
+      for (int i = 0; i < fieldAccessors.length; i++) {
+        fieldAccessors[i] = FieldAccessor.resolve(schema, variables.get(i));
+      }
+      accessors = new SchemaAccessors(schema, fieldAccessors);
+      return fieldAccessors;
+    }
+  }
+
+  /**
+   * Field accessors of the variables of a condition, resolved for an input schema.
+   */
+  private static final class SchemaAccessors {
+    private final Schema schema;
+    private final FieldAccessor[] fieldAccessors;
+
+    SchemaAccessors(Schema schema, FieldAccessor[] fieldAccessors) {
+      this.schema = schema;
+      this.fieldAccessors = fieldAccessors;
+    }
+  }
+
+  /**
+   * Reads the value of a variable from a record, following the nested records of its path.
+   */
+  private static final class FieldAccessor {
+    // record fields to descend into before reading the value
+    private final String[] recordPath;
+    @Nullable
+    private final String valueField;
+
+    private FieldAccessor(String[] recordPath, @Nullable String valueField) {
+      this.recordPath = recordPath;
+      this.valueField = valueField;
+    }
+
+    /**
+     * Resolves the path of a variable against a schema. The value is the last non record field of the path,
+     * read from the record it belongs to.
+     */
+    static FieldAccessor resolve(Schema schema, List<String> path) {
+      Schema current = schema;
+      List<String> recordPath = new ArrayList<>();
+      int valueDepth = 0;
+      String valueField = null;
+      for (String name : path) {
+        Schema.Field field = current.getField(name);
+        if (field == null) {
+          throw new IllegalArgumentException("Field provided in condition is not in input schema.");
+        }
+        if (field.getSchema().getType().equals(Schema.Type.RECORD)) {
+          recordPath.add(name);
+          current = field.getSchema();
+        } else {
+          valueField = name;
+          valueDepth = recordPath.size();
+        }
+      }
+      return new FieldAccessor(recordPath.subList(0, valueDepth).toArray(new String[0]), valueField);
+    }
+
+    @Nullable
+    Object get(StructuredRecord record) {
+      if (valueField == null) {
+        return null;
+      }
+      StructuredRecord current = record;
+      for (String name : recordPath) {
+        current = current.get(name);
+      }
+      return current.get(valueField);
+    }
+  }
+
+  /**
+   * A comparison of a variable with a constant, evaluated with the same semantics as the Jexl arithmetic.
+   */
+  private static final class SimpleComparison {
+    private final String operator;
+    private final Object constant;
+
+    private SimpleComparison(String operator, Object constant) {
+      this.operator = operator;
+      this.constant = constant;
+    }
+
+    /**
+     * @return the comparison, or null if the condition is not a simple comparison of its only variable
+     */
+    @Nullable
+    static SimpleComparison parse(String condition, List<List<String>> variables) {
+      Matcher matcher = SIMPLE_COMPARISON.matcher(condition);
+      if (!matcher.matches() || variables.size() != 1
+        || !String.join(".", variables.get(0)).equals(matcher.group(1))) {
+        return null;
+      }
+      String literal = matcher.group(3);
+      Object constant;
+      if (literal.startsWith("'") || literal.startsWith("\"")) {
+        constant = literal.substring(1, literal.length() - 1);
+        if (mayBeNumber((String) constant)) {
+          return null;
+        }
+      } else if (literal.equals("true") || literal.equals("false")) {
+        constant = Boolean.valueOf(literal);
+      } else if (literal.contains(".")) {
+        constant = Double.valueOf(literal);
+      } else {
+        try {
+          constant = Long.valueOf(literal);
+        } catch (NumberFormatException e) {
+          // leave literals that don't fit in a long to Jexl
+          return null;
+        }
+      }
+      return new SimpleComparison(matcher.group(2), constant);
+    }
+
+    /**
+     * @return the result of the comparison, or null if it has to be evaluated by Jexl
+     */
+    @Nullable
+    Boolean evaluate(@Nullable Object value) {
+      int compared;
+      if (value instanceof Number && constant instanceof Number && !(value instanceof BigDecimal)
+        && !(value instanceof BigInteger) && !(value instanceof Float && constant instanceof Double)) {
+        if (value instanceof Double || value instanceof Float || constant instanceof Double) {
+          double left = ((Number) value).doubleValue();
+          double right = ((Number) constant).doubleValue();
+          compared = left < right ? -1 : (left > right ? 1 : 0);
+        } else {
+          compared = Long.compare(((Number) value).longValue(), ((Number) constant).longValue());
+        }
+      } else if (value instanceof String && constant instanceof String && !mayBeNumber((String) value)) {
+        compared = ((String) value).compareTo((String) constant);
+      } else if (value instanceof Boolean && constant instanceof Boolean
+        && (operator.equals("==") || operator.equals("!="))) {
+        compared = value.equals(constant) ? 0 : 1;
+      } else {
+        return null;
+      }
+
+      switch (operator) {
+        case "==":
+          return compared == 0;
+        case "!=":
+          return compared != 0;
+        case ">":
+          return compared > 0;
+        case ">=":
+          return compared >= 0;
+        case "<":
+          return compared < 0;
+        default:
+          return compared <= 0;
+      }
+    }
+
+    /**
+     * Jexl compares strings that look like numbers as numbers, so they are left to Jexl.
+     */
+    private static boolean mayBeNumber(String value) {
+      if (value.isEmpty()) {
+        return false;
+      }
+      char first = value.charAt(0);
+      return Character.isDigit(first) || first == '-' || first == '+' || first == '.';
+    }
   }
 }
@@ -16,7 +16,6 @@
 
 package io.cdap.plugin.batch.aggregator.function;
 
-import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 
 /**
@@ -29,41 +28,12 @@ public class Max extends NumberFunction<Max> {
   }
 
   @Override
-  public void mergeValue(StructuredRecord record) {
-    combine(record.get(fieldName));
+  protected long combine(long current, long value) {
+    return Math.max(current, value);
   }
 
   @Override
-  public void mergeAggregates(Max otherAgg) {
-    combine(otherAgg.getAggregate());
-  }
-
-  private void combine(Number otherNum) {
-    if (otherNum == null) {
-      return;
-    }
-
-    if (number == null) {
-      number = otherNum;
-      return;
-    }
-
-    switch (fieldType) {
-      case INT:
-        number = Math.max((Integer) otherNum, (Integer) number);
-        return;
-      case LONG:
-        number = Math.max((Long) otherNum, (Long) number);
-        return;
-      case FLOAT:
-        number = Math.max((Float) otherNum, (Float) number);
-        return;
-      case DOUBLE:
-        number = Math.max((Double) otherNum, (Double) number);
-        return;
-      default:
-        throw new IllegalArgumentException(String.format("Field '%s' is of unsupported non-numeric type '%s'. ",
-                                                         fieldName, fieldType));
-    }
+  protected double combine(double current, double value) {
+    return Math.max(current, value);
   }
 }
@@ -16,12 +16,16 @@
 
 package io.cdap.plugin.batch.aggregator.function;
 
+import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.plugin.batch.aggregator.AggregationUtils;
 
 /**
  * Base class for number based aggregate functions.
- * Allows subclasses to implement typed methods instead of implementing their own casting logic.
+ * The aggregate is kept unboxed, as a long for int and long fields and as a double for float and double fields.
+ * Which of the two is used is decided once from the field schema, so that subclasses only implement the typed
+ * {@link #combine(long, long)} and {@link #combine(double, double)} methods and values are only boxed when the
+ * aggregate is returned.
  *
  * @param <V> type of aggregate function
  */
@@ -29,27 +33,96 @@ public abstract class NumberFunction<V extends NumberFunction> implements Aggreg
   protected final String fieldName;
   protected final Schema fieldSchema;
   protected final Schema.Type fieldType;
-  protected Number number;
+  private final boolean integral;
+  private final boolean isFloat;
+  private boolean hasValue;
+  private long longValue;
+  private double doubleValue;
 
   public NumberFunction(final String fieldName, Schema fieldSchema) {
     this.fieldName = fieldName;
     this.fieldSchema = fieldSchema;
     this.fieldType = fieldSchema.isNullable() ? fieldSchema.getNonNullable().getType() : fieldSchema.getType();
     AggregationUtils.ensureNumericType(fieldSchema, fieldName, this.getClass().getSimpleName());
+    this.integral = fieldType == Schema.Type.INT || fieldType == Schema.Type.LONG;
+    this.isFloat = fieldType == Schema.Type.FLOAT;
   }
 
+  /**
+   * Combines the current aggregate of an int or long field with a value.
+   */
+  protected abstract long combine(long current, long value);
+
+  /**
+   * Combines the current aggregate of a float or double field with a value.
+   */
+  protected abstract double combine(double current, double value);
+
   @Override
   public void initialize() {
-    this.number = null;
+    this.hasValue = false;
+    this.longValue = 0L;
+    this.doubleValue = 0d;
+  }
+
+  @Override
+  public void mergeValue(StructuredRecord record) {
+    Number value = record.get(fieldName);
+    if (value == null) {
+      return;
+    }
+    if (integral) {
+      mergeLong(value.longValue());
+    } else {
+      mergeDouble(value.doubleValue());
+    }
+  }
+
+  @Override
+  public void mergeAggregates(V otherAgg) {
+    NumberFunction<?> other = otherAgg;
+    if (!other.hasValue) {
+      return;
+    }
+    if (integral) {
+      mergeLong(other.longValue);
+    } else {
+      mergeDouble(other.doubleValue);
+    }
   }
 
   @Override
   public Number getAggregate() {
-    return number;
+    if (!hasValue) {
+      return null;
+    }
+    switch (fieldType) {
+      case INT:
+        // int arithmetic wraps around, so truncating the long gives the same result as int arithmetic would
+        return (int) longValue;
+      case LONG:
+        return longValue;
+      case FLOAT:
+        return (float) doubleValue;
+      default:
+        return doubleValue;
+    }
   }
 
   @Override
   public Schema getOutputSchema() {
     return fieldSchema;
   }
+
+  private void mergeLong(long value) {
+    longValue = hasValue ? combine(longValue, value) : value;
+    hasValue = true;
+  }
+
+  private void mergeDouble(double value) {
+    double combined = hasValue ? combine(doubleValue, value) : value;
+    // round after every step, so that float fields get the same result as float arithmetic
+    doubleValue = isFloat ? (float) combined : combined;
+    hasValue = true;
+  }
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator.function;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import javax.annotation.Nullable;
+
+/**
+ * Mergeable quantile sketch based on a hierarchy of compactors, as described in
+ * https://arxiv.org/abs/1603.05346 (KLL).
+ *
+ * Values at level h stand for 2^h values of the stream. When a level is full, it is sorted and every other value
+ * is promoted to the next level, which keeps the memory of the sketch logarithmic in the number of values.
+ * Compactions alternate between keeping the odd and the even values, so that the result is deterministic.
+ */
+public final class QuantileSketch implements Serializable {
+  public static final int DEFAULT_LEVEL_CAPACITY = 200;
+
+  private static final int INITIAL_LEVEL_SIZE = 8;
+
+  private final int levelCapacity;
+  private double[][] levels;
+  private int[] levelSizes;
+  private long count;
+  private boolean keepOdd;
+
+  public QuantileSketch(int levelCapacity) {
+    if (levelCapacity < 2) {
+      throw new IllegalArgumentException(String.format("Quantile sketch level capacity must be at least 2, but is %d.",
+                                                       levelCapacity));
+    }
+    this.levelCapacity = levelCapacity;
+    this.levels = new double[1][Math.min(INITIAL_LEVEL_SIZE, levelCapacity)];
+    this.levelSizes = new int[1];
+  }
+
+  /**
+   * Adds a value to the sketch.
+   */
+  public void add(double value) {
+    append(0, value);
+    count++;
+  }
+
+  /**
+   * Merges the other sketch into this one.
+   */
+  public void merge(QuantileSketch other) {
+    for (int level = 0; level < other.levels.length; level++) {
+      for (int i = 0; i < other.levelSizes[level]; i++) {
+        append(level, other.levels[level][i]);
+      }
+    }
+    count += other.count;
+  }
+
+  /**
+   * @return the number of values added to the sketch
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the approximate value at the given quantile, which is one of the values added to the sketch.
+   *
+   * @param quantile the quantile, between 0 and 1
+   * @return the value at the quantile, or null if the sketch is empty
+   */
+  @Nullable
+  public Double getQuantile(double quantile) {
+    // merge the sorted levels into a single sorted list of values with their weights
+    double[] values = new double[0];
+    long[] weights = new long[0];
+    long totalWeight = 0L;
+    for (int level = 0; level < levels.length; level++) {
+      double[] levelValues = Arrays.copyOf(levels[level], levelSizes[level]);
+      Arrays.sort(levelValues);
+      long levelWeight = 1L << level;
+      totalWeight += levelWeight * levelValues.length;
+
+      double[] mergedValues = new double[values.length + levelValues.length];
+      long[] mergedWeights = new long[mergedValues.length];
+      int i = 0;
+      int j = 0;
+      for (int k = 0; k < mergedValues.length; k++) {
+        if (j == levelValues.length || (i < values.length && values[i] <= levelValues[j])) {
+          mergedValues[k] = values[i];
+          mergedWeights[k] = weights[i++];
+        } else {
+          mergedValues[k] = levelValues[j++];
+          mergedWeights[k] = levelWeight;
+        }
+      }
+      values = mergedValues;
+      weights = mergedWeights;
+    }
+    if (values.length == 0) {
+      return null;
+    }
+
+    double rank = quantile * totalWeight;
+    long cumulative = 0L;
+    for (int i = 0; i < values.length; i++) {
+      cumulative += weights[i];
+      if (cumulative >= rank) {
+        return values[i];
+      }
+    }
+    return values[values.length - 1];
+  }
+
+  private void append(int level, double value) {
+    if (level == levels.length) {
+      levels = Arrays.copyOf(levels, level + 1);
+      levels[level] = new double[Math.min(INITIAL_LEVEL_SIZE, levelCapacity)];
+      levelSizes = Arrays.copyOf(levelSizes, level + 1);
+    }
+    if (levelSizes[level] == levelCapacity) {
+      compact(level);
+    } else if (levelSizes[level] == levels[level].length) {
+      // levels grow on demand, so that groups with few values stay small
+      levels[level] = Arrays.copyOf(levels[level], Math.min(levelCapacity, levels[level].length * 2));
+    }
+    levels[level][levelSizes[level]++] = value;
+  }
+
+  /**
+   * Sorts the values of a full level and promotes half of them to the next level.
+   */
+  private void compact(int level) {
+    double[] values = levels[level];
+    int size = levelSizes[level];
+    Arrays.sort(values, 0, size);
+    // an odd value out stays at this level, so that weights are preserved exactly
+    int start = size % 2;
+    levelSizes[level] = start;
+    int offset = keepOdd ? 1 : 0;
+    keepOdd = !keepOdd;
+    for (int i = start + offset; i < size; i += 2) {
+      append(level + 1, values[i]);
+    }
+  }
+}
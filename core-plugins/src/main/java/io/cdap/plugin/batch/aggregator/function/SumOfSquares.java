@@ -49,19 +49,13 @@ public class SumOfSquares implements AggregateFunction<Double, SumOfSquares> {
     if (val == null) {
       return;
     }
-    sumOfSquares += Math.pow(((Number) val).doubleValue(), 2d);
+    double value = ((Number) val).doubleValue();
+    sumOfSquares += value * value;
   }
 
   @Override
   public void mergeAggregates(SumOfSquares otherAgg) {
-    if (otherAgg.getAggregate() == null) {
-      return;
-    }
-    if (sumOfSquares == 0d) {
-      sumOfSquares = otherAgg.getAggregate();
-      return;
-    }
-    sumOfSquares += otherAgg.getAggregate();
+    sumOfSquares += otherAgg.sumOfSquares;
   }
 
   @Nullable
@@ -34,7 +34,7 @@ public class Variance implements AggregateFunction<Double, Variance> {
   private static final String AGG_MEAN_KEY = "mean";
   private final String fieldName;
   private final Schema outputSchema;
-  private Double variance;
+  private double variance;
   private double mean;
   private double squaredMean;
   private long count;
@@ -48,7 +48,7 @@ public class Variance implements AggregateFunction<Double, Variance> {
 
   @Override
   public void initialize() {
-    this.variance = null;
+    this.variance = 0d;
     this.mean = 0d;
     this.squaredMean = 0d;
     this.count = 0L;
@@ -84,10 +84,10 @@ public class Variance implements AggregateFunction<Double, Variance> {
 
   @Override
   public void mergeAggregates(Variance otherAgg) {
-    if (otherAgg.variance == null) {
+    if (otherAgg.count == 0L) {
       return;
     }
-    if (variance == null) {
+    if (count == 0L) {
       variance = otherAgg.variance;
       count = otherAgg.count;
       mean = otherAgg.mean;
@@ -117,7 +117,8 @@ public class Variance implements AggregateFunction<Double, Variance> {
   @Nullable
   @Override
   public Double getAggregate() {
-    if (variance == null) {
+    // this only happens when every value is null
+    if (count == 0L) {
       return null;
     }
 
@@ -79,6 +79,10 @@ public class TimePartitionedFileSetDataSetORCSink extends
     @Description("Whether to create inline indexes")
     private Boolean createIndex;
 
+    @Nullable
+    @Description("Comma separated list of the columns to create bloom filters for")
+    private String bloomFilterColumns;
+
     public TPFSOrcSinkConfig(String name, @Nullable String basePath, @Nullable String pathFormat,
                              @Nullable String timeZone, @Nullable String compressionCodec,
                              @Nullable Long compressionChunkSize, @Nullable Long stripeSize, @Nullable Long indexStride,
@@ -21,15 +21,16 @@ import com.google.common.base.Strings;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocalFileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.LongWritable;
-import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.JobContext;
 import org.apache.hadoop.mapreduce.RecordReader;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
 import org.apache.hadoop.mapreduce.lib.input.FileSplit;
-import org.apache.hadoop.mapreduce.lib.input.TextInputFormat;
 import org.apache.poi.hssf.usermodel.HSSFDateUtil;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
@@ -38,17 +39,24 @@ import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.apache.poi.ss.util.CellReference;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLStreamException;
 
 
 /**
- * {@link ExcelInputFormat} is {@link TextInputFormat} implementation for reading Excel files.
+ * {@link ExcelInputFormat} is {@link FileInputFormat} implementation for reading Excel files.
  *
  * The {@link ExcelInputFormat.ExcelRecordReader} reads a given sheet, and within a sheet reads
- * all columns and all rows.
+ * all columns and all rows. Files are not split, since a workbook can only be read as a whole.
  */
-public class ExcelInputFormat extends TextInputFormat {
+public class ExcelInputFormat extends FileInputFormat<LongWritable, ExcelRow> {
 
   public static final String SHEET_NAME = "Sheet Name";
   public static final String RE_PROCESS = "reprocess";
@@ -61,12 +69,21 @@ public class ExcelInputFormat extends TextInputFormat {
   public static final String FILE_PATTERN = "filePattern";
   public static final String SHEET = "sheet";
   public static final String SHEET_VALUE = "sheetValue";
+  public static final String SHARED_STRINGS_MEMORY_LIMIT = "sharedStringsMemoryLimit";
+
+  // Number of characters of the shared strings of a workbook kept in memory, beyond which they are kept in a file.
+  private static final long DEFAULT_SHARED_STRINGS_MEMORY_LIMIT = 16 * 1024 * 1024;
 
   @Override
-  public RecordReader<LongWritable, Text> createRecordReader(InputSplit split, TaskAttemptContext context) {
+  public RecordReader<LongWritable, ExcelRow> createRecordReader(InputSplit split, TaskAttemptContext context) {
     return new ExcelRecordReader();
   }
 
+  @Override
+  protected boolean isSplitable(JobContext context, Path filename) {
+    return false;
+  }
+
   public static void setConfigurations(Job job, String filePattern, String sheet, boolean reprocess,
                                        String sheetValue, String columnList, boolean skipFirstRow,
                                        String terminateIfEmptyRow, String rowLimit, String ifErrorRecord,
@@ -94,9 +111,12 @@ public class ExcelInputFormat extends TextInputFormat {
 
 
   /**
-   * Reads excel spread sheet, where the keys are the offset in the excel file and the text is the complete record.
+   * Reads excel spread sheet, where the keys are the index of the row and the value is the row.
+   *
+   * XLSX workbooks are streamed, row by row, from a local copy of the file. Other workbooks are loaded with the POI
+   * user model.
    */
-  public static class ExcelRecordReader extends RecordReader<LongWritable, Text> {
+  public static class ExcelRecordReader extends RecordReader<LongWritable, ExcelRow> {
 
     public static final String END = "END";
     public static final String MID = "MID";
@@ -106,18 +126,30 @@ public class ExcelInputFormat extends TextInputFormat {
 
     public static final String COLUMN_SEPERATOR = "\r";
 
+    // First bytes of a ZIP file, which XLSX workbooks are.
+    private static final byte[] ZIP_SIGNATURE = { 'P', 'K', 3, 4 };
+
     // Map key that represents the row index.
     private LongWritable key;
 
     // Map value that represents an excel row
-    private Text value;
+    private ExcelRow value;
 
-    // Specifies all the rows of an Excel spreadsheet - An iterator over all the rows.
+    // Next row, read ahead to know whether the current row is the last one.
+    private ExcelRow nextRow;
+
+    // Streaming reader of XLSX workbooks.
+    private XLSXSheetReader sheetReader;
+
+    // Rows of other workbooks - An iterator over all the rows.
     private Iterator<Row> rows;
 
     // InputStream handler for Excel files.
     private FSDataInputStream fileIn;
 
+    // Local copy of the file, deleted when the reader is closed.
+    private File localCopy;
+
     // Path of input file.
     private Path file;
 
@@ -145,82 +177,54 @@ public class ExcelInputFormat extends TextInputFormat {
       String sheet = job.get(SHEET);
       String sheetValue = job.get(SHEET_VALUE);
 
-      Sheet workSheet; // sheet can be used as common for XSSF and HSSF workbook
       try {
-        Workbook workbook = WorkbookFactory.create(fileIn);
-        if (sheet.equalsIgnoreCase(SHEET_NAME)) {
-          workSheet = workbook.getSheet(sheetValue);
+        if (isZip()) {
+          sheetReader = new XLSXSheetReader(getLocalFile(fs), file.toString(),
+                                            sheet.equalsIgnoreCase(SHEET_NAME) ? sheetValue : null,
+                                            sheet.equalsIgnoreCase(SHEET_NAME) ? 0 : Integer.parseInt(sheetValue),
+                                            job.getLong(SHARED_STRINGS_MEMORY_LIMIT,
+                                                        DEFAULT_SHARED_STRINGS_MEMORY_LIMIT));
+          lastRowNum = sheetReader.getLastRowNum();
         } else {
-          workSheet = workbook.getSheetAt(Integer.parseInt(sheetValue));
+          Sheet workSheet; // sheet can be used as common for XSSF and HSSF workbook
+          Workbook workbook = WorkbookFactory.create(fileIn);
+          if (sheet.equalsIgnoreCase(SHEET_NAME)) {
+            workSheet = workbook.getSheet(sheetValue);
+          } else {
+            workSheet = workbook.getSheetAt(Integer.parseInt(sheetValue));
+          }
+          rows = workSheet.iterator();
+          lastRowNum = workSheet.getLastRowNum();
         }
+        nextRow = readRow();
       } catch (Exception e) {
+        close();
         throw new IllegalArgumentException("Exception while reading excel sheet. " + e.getMessage(), e);
       }
 
-      rowCount = job.getInt(ROWS_LIMIT, workSheet.getPhysicalNumberOfRows());
-      rows = workSheet.iterator();
-      lastRowNum = workSheet.getLastRowNum();
+      rowCount = job.getInt(ROWS_LIMIT, Integer.MAX_VALUE);
       rowIdx = 0;
 
       boolean skipFirstRow = job.getBoolean(SKIP_FIRST_ROW, false);
       if (skipFirstRow) {
-        Preconditions.checkArgument(rows.hasNext(), "No rows found on sheet %s", sheetValue);
+        Preconditions.checkArgument(nextRow != null, "No rows found on sheet %s", sheetValue);
         rowIdx = 1;
-        rows.next();
+        nextRow = readRow();
       }
     }
 
     @Override
     public boolean nextKeyValue() throws IOException, InterruptedException {
-      if (!rows.hasNext() || rowCount == 0) {
+      if (nextRow == null || rowCount == 0) {
         return false;
       }
 
-      StringBuilder sb = new StringBuilder();
-
-      // Get the next row.
-      Row row = rows.next();
-
-      // For each row, iterate through each columns
-      Iterator<Cell> cellIterator = row.cellIterator();
-
-      sb.append(row.getRowNum()).append(CELL_SEPERATOR);
-      sb.append(file).append(CELL_SEPERATOR);
-      sb.append(row.getSheet().getSheetName()).append(CELL_SEPERATOR);
-
-      if (rowCount - 1 == 0 || !rows.hasNext()) {
-        sb.append(END).append(CELL_SEPERATOR);
-      } else {
-        sb.append(MID).append(CELL_SEPERATOR);
-      }
+      value = nextRow;
+      nextRow = readRow();
+      value.setLast(rowCount - 1 == 0 || nextRow == null);
       rowCount--;
 
       key = new LongWritable(rowIdx);
-      while (cellIterator.hasNext()) {
-        Cell cell = cellIterator.next();
-        String colName = CellReference.convertNumToColString(cell.getColumnIndex());
-        switch (cell.getCellType()) {
-          case Cell.CELL_TYPE_STRING:
-            sb.append(colName)
-              .append(COLUMN_SEPERATOR).append(cell.getStringCellValue()).append(CELL_SEPERATOR);
-            break;
-
-          case Cell.CELL_TYPE_BOOLEAN:
-            sb.append(colName)
-              .append(COLUMN_SEPERATOR).append(cell.getBooleanCellValue()).append(CELL_SEPERATOR);
-            break;
-
-          case Cell.CELL_TYPE_NUMERIC:
-            if (HSSFDateUtil.isCellDateFormatted(cell)) {
-              sb.append(colName).append(COLUMN_SEPERATOR).append(cell.getDateCellValue()).append(CELL_SEPERATOR);
-            } else {
-              sb.append(colName)
-                  .append(COLUMN_SEPERATOR).append(cell.getNumericCellValue()).append(CELL_SEPERATOR);
-            }
-            break;
-        }
-      }
-      value = new Text(sb.toString());
       rowIdx++;
 
       return true;
@@ -228,13 +232,26 @@ public class ExcelInputFormat extends TextInputFormat {
 
     @Override
     public float getProgress() throws IOException {
-        return rowIdx / lastRowNum;
+      // the last row num is an index, starting at 0
+      return lastRowNum < 0 ? 0.0f : Math.min(1.0f, (float) rowIdx / (lastRowNum + 1));
     }
 
     @Override
     public void close() throws IOException {
-      if (fileIn != null) {
-        fileIn.close();
+      try {
+        if (sheetReader != null) {
+          sheetReader.close();
+        }
+      } finally {
+        try {
+          if (fileIn != null) {
+            fileIn.close();
+          }
+        } finally {
+          if (localCopy != null) {
+            Files.deleteIfExists(localCopy.toPath());
+          }
+        }
       }
     }
 
@@ -244,8 +261,79 @@ public class ExcelInputFormat extends TextInputFormat {
     }
 
     @Override
-    public Text getCurrentValue() throws IOException, InterruptedException {
+    public ExcelRow getCurrentValue() throws IOException, InterruptedException {
       return value;
     }
+
+    private boolean isZip() throws IOException {
+      byte[] signature = new byte[ZIP_SIGNATURE.length];
+      int length = fileIn.read(0, signature, 0, signature.length);
+      for (int i = 0; i < signature.length; i++) {
+        if (i >= length || signature[i] != ZIP_SIGNATURE[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Returns the file on the local file system, copying it if it is on another file system, since the entries of
+     * the workbook are read in a different order than they are stored.
+     */
+    private File getLocalFile(FileSystem fs) throws IOException {
+      if (fs instanceof LocalFileSystem) {
+        return ((LocalFileSystem) fs).pathToFile(file);
+      }
+      localCopy = File.createTempFile("excel", ".xlsx");
+      Files.copy(fileIn, localCopy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      return localCopy;
+    }
+
+    @Nullable
+    private ExcelRow readRow() throws IOException {
+      if (sheetReader != null) {
+        try {
+          return sheetReader.readRow();
+        } catch (XMLStreamException e) {
+          throw new IOException("Exception while reading excel sheet. " + e.getMessage(), e);
+        }
+      }
+      if (!rows.hasNext()) {
+        return null;
+      }
+
+      // Get the next row.
+      Row row = rows.next();
+      List<String> columns = new ArrayList<>();
+      List<Object> values = new ArrayList<>();
+
+      // For each row, iterate through each columns
+      Iterator<Cell> cellIterator = row.cellIterator();
+      while (cellIterator.hasNext()) {
+        Cell cell = cellIterator.next();
+        String colName = CellReference.convertNumToColString(cell.getColumnIndex());
+        switch (cell.getCellType()) {
+          case Cell.CELL_TYPE_STRING:
+            columns.add(colName);
+            values.add(cell.getStringCellValue());
+            break;
+
+          case Cell.CELL_TYPE_BOOLEAN:
+            columns.add(colName);
+            values.add(cell.getBooleanCellValue());
+            break;
+
+          case Cell.CELL_TYPE_NUMERIC:
+            columns.add(colName);
+            if (HSSFDateUtil.isCellDateFormatted(cell)) {
+              values.add(cell.getDateCellValue());
+            } else {
+              values.add(cell.getNumericCellValue());
+            }
+            break;
+        }
+      }
+      return new ExcelRow(row.getRowNum(), file.toString(), row.getSheet().getSheetName(), columns, values);
+    }
   }
 }
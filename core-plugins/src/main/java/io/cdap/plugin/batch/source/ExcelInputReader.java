@@ -82,6 +82,7 @@ public class ExcelInputReader extends BatchSource<LongWritable, Object, Structur
   private static final String SHEET_VALUE = "sheetValue";
   private static final String TABLE_EXPIRY_PERIOD = "tableExpiryPeriod";
   private static final String ROWS_LIMIT = "rowsLimit";
+  private static final String SHARED_STRINGS_MEMORY_LIMIT = "sharedStringsMemoryLimit";
   private static final String COLUMN_LIST = "columnList";
   private static final String OUTPUT_SCHEMA = "outputSchema";
   private static final String COLUMN_MAPPING = "columnMapping";
@@ -91,13 +92,8 @@ public class ExcelInputReader extends BatchSource<LongWritable, Object, Structur
   private static final String EXIT_ON_ERROR = "Exit on error";
   private static final String WRITE_ERROR_DATASET = "Write to error dataset";
   private static final String NULL = "NULL";
-  private static final String END = "END";
   private static final String SHEET_NO = "Sheet Number";
 
-  // Non-printable ASCII character(EOT) to seperate column-values
-  private static final String CELL_SEPERATION = String.valueOf((char) 4);
-  private static final String COLUMN_SEPERATION = "\r";
-
   private static final Gson GSON = new Gson();
   private static final Type ARRAYLIST_PREPROCESSED_FILES = new TypeToken<ArrayList<String>>() { }.getType();
 
@@ -182,15 +178,12 @@ public class ExcelInputReader extends BatchSource<LongWritable, Object, Structur
 
     getOutputSchema();
     StructuredRecord.Builder builder = StructuredRecord.builder(outputSchema);
-    String inputValue = input.getValue().toString();
-
-    String[] excelRecord = inputValue.split(CELL_SEPERATION);
+    ExcelRow row = (ExcelRow) input.getValue();
 
-    String fileName = excelRecord[1];
-    String sheetName = excelRecord[2];
-    String ifEndRow = excelRecord[3];
+    String fileName = row.getFile();
+    String sheetName = row.getSheetName();
 
-    int currentRowNum = Integer.parseInt(excelRecord[0]);
+    int currentRowNum = row.getRowNum();
     if (currentRowNum - prevRowNum > 1 && excelInputreaderConfig.terminateIfEmptyRow.equalsIgnoreCase("true")) {
       throw new ExecutionException("Encountered empty row while reading Excel file :" + fileName +
                                      " . Terminating processing", new Throwable());
@@ -199,17 +192,18 @@ public class ExcelInputReader extends BatchSource<LongWritable, Object, Structur
 
     Map<String, String> excelColumnValueMap = new HashMap<>();
 
-    for (String column : excelRecord) {
-      String[] columnValue = column.split(COLUMN_SEPERATION);
-      if (columnValue.length > 1) {
-        String name = columnValue[0];
-        String value = columnValue[1];
+    for (int i = 0; i < row.getCellCount(); i++) {
+      String name = row.getColumn(i);
+      String value = String.valueOf(row.getValue(i));
+      // empty cells are treated as missing
+      if (value.isEmpty()) {
+        continue;
+      }
 
-        if (columnMapping.containsKey(name)) {
-          excelColumnValueMap.put(columnMapping.get(name), value);
-        } else {
-          excelColumnValueMap.put(name, value);
-        }
+      if (columnMapping.containsKey(name)) {
+        excelColumnValueMap.put(columnMapping.get(name), value);
+      } else {
+        excelColumnValueMap.put(name, value);
       }
     }
 
@@ -228,7 +222,7 @@ public class ExcelInputReader extends BatchSource<LongWritable, Object, Structur
 
       emitter.emit(builder.build());
 
-      if (ifEndRow.equalsIgnoreCase(END) && !Strings.isNullOrEmpty(excelInputreaderConfig.memoryTableName)) {
+      if (row.isLast() && !Strings.isNullOrEmpty(excelInputreaderConfig.memoryTableName)) {
         KeyValueTable processedFileMemoryTable = batchRuntimeContext.getDataset(excelInputreaderConfig.memoryTableName);
         processedFileMemoryTable.write(Bytes.toBytes(fileName), Bytes.toBytes(new Date().getTime()));
       }
@@ -238,10 +232,10 @@ public class ExcelInputReader extends BatchSource<LongWritable, Object, Structur
           throw new IllegalStateException("Terminating processing on error : " + e.getMessage());
         case WRITE_ERROR_DATASET:
           StructuredRecord.Builder errorRecordBuilder = StructuredRecord.builder(errorRecordSchema);
-          errorRecordBuilder.set(KEY, fileName + "_" + sheetName + "_" + excelRecord[0]);
+          errorRecordBuilder.set(KEY, fileName + "_" + sheetName + "_" + currentRowNum);
           errorRecordBuilder.set(FILE, fileName);
           errorRecordBuilder.set(SHEET, sheetName);
-          errorRecordBuilder.set(RECORD, inputValue);
+          errorRecordBuilder.set(RECORD, row.toString());
           Table errorTable = batchRuntimeContext.getDataset(excelInputreaderConfig.errorDatasetName);
           errorTable.write(errorRecordBuilder.build());
           break;
@@ -323,6 +317,10 @@ public class ExcelInputReader extends BatchSource<LongWritable, Object, Structur
                                        excelInputreaderConfig.columnList, excelInputreaderConfig.skipFirstRow,
                                        excelInputreaderConfig.terminateIfEmptyRow, excelInputreaderConfig.rowsLimit,
                                        excelInputreaderConfig.ifErrorRecord, processFiles);
+    if (excelInputreaderConfig.sharedStringsMemoryLimit != null) {
+      job.getConfiguration().setLong(ExcelInputFormat.SHARED_STRINGS_MEMORY_LIMIT,
+                                     excelInputreaderConfig.sharedStringsMemoryLimit);
+    }
 
     // Sets the input path(s).
     ExcelInputFormat.addInputPaths(job, excelInputreaderConfig.filePath);
@@ -519,6 +517,13 @@ public class ExcelInputReader extends BatchSource<LongWritable, Object, Structur
     @Macro
     private String rowsLimit;
 
+    @Nullable
+    @Name(SHARED_STRINGS_MEMORY_LIMIT)
+    @Description("Number of characters of the shared strings of an .xlsx workbook kept in memory. Shared strings " +
+      "beyond this limit are written to a local file and read back from it. Defaults to 16777216.")
+    @Macro
+    private Long sharedStringsMemoryLimit;
+
     @Nullable
     @Name("outputSchema")
     @Description("Comma separated mapping of column names in the output schema to the data types;" +
@@ -554,6 +559,13 @@ public class ExcelInputReader extends BatchSource<LongWritable, Object, Structur
           .withConfigProperty(ROWS_LIMIT);
       }
 
+      if (!containsMacro(SHARED_STRINGS_MEMORY_LIMIT) && sharedStringsMemoryLimit != null
+        && sharedStringsMemoryLimit < 0) {
+        collector.addFailure(String.format("Invalid shared strings memory limit: '%d'.", sharedStringsMemoryLimit),
+                             "The value should be greater than or equal to zero.")
+          .withConfigProperty(SHARED_STRINGS_MEMORY_LIMIT);
+      }
+
       if (Strings.isNullOrEmpty(columnList) &&
         Strings.isNullOrEmpty(outputSchema)) {
         collector.addFailure(
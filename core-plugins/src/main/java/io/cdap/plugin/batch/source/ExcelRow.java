@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.source;
+
+import java.util.List;
+
+/**
+ * A row of an Excel sheet read by {@link ExcelInputFormat}, with the column name and the value of each cell that
+ * has a string, boolean, numeric or date value. Values are {@link String}, {@link Boolean}, {@link Double} or
+ * {@link java.util.Date} objects.
+ */
+public final class ExcelRow {
+  private final int rowNum;
+  private final String file;
+  private final String sheetName;
+  private final String[] columns;
+  private final Object[] values;
+  private boolean last;
+
+  ExcelRow(int rowNum, String file, String sheetName, List<String> columns, List<Object> values) {
+    this.rowNum = rowNum;
+    this.file = file;
+    this.sheetName = sheetName;
+    this.columns = columns.toArray(new String[0]);
+    this.values = values.toArray();
+  }
+
+  /**
+   * @return the index of the row in the sheet, starting at 0
+   */
+  public int getRowNum() {
+    return rowNum;
+  }
+
+  public String getFile() {
+    return file;
+  }
+
+  public String getSheetName() {
+    return sheetName;
+  }
+
+  /**
+   * @return whether this is the last row read from the sheet
+   */
+  public boolean isLast() {
+    return last;
+  }
+
+  void setLast(boolean last) {
+    this.last = last;
+  }
+
+  public int getCellCount() {
+    return columns.length;
+  }
+
+  /**
+   * @return the name of the column of a cell, such as 'A'
+   */
+  public String getColumn(int cell) {
+    return columns[cell];
+  }
+
+  public Object getValue(int cell) {
+    return values[cell];
+  }
+
+  /**
+   * Returns the row as text, with the row number, file, sheet name, end marker and the column and value of each
+   * cell, separated by {@link ExcelInputFormat.ExcelRecordReader#CELL_SEPERATOR}.
+   */
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(rowNum).append(ExcelInputFormat.ExcelRecordReader.CELL_SEPERATOR);
+    sb.append(file).append(ExcelInputFormat.ExcelRecordReader.CELL_SEPERATOR);
+    sb.append(sheetName).append(ExcelInputFormat.ExcelRecordReader.CELL_SEPERATOR);
+    sb.append(last ? ExcelInputFormat.ExcelRecordReader.END : ExcelInputFormat.ExcelRecordReader.MID)
+      .append(ExcelInputFormat.ExcelRecordReader.CELL_SEPERATOR);
+    for (int i = 0; i < columns.length; i++) {
+      sb.append(columns[i]).append(ExcelInputFormat.ExcelRecordReader.COLUMN_SEPERATOR).append(values[i])
+        .append(ExcelInputFormat.ExcelRecordReader.CELL_SEPERATOR);
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.source;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The shared strings of an XLSX workbook, which cells of type 's' refer to by index.
+ *
+ * Strings are kept in memory up to a given number of characters. Beyond that, all strings are written to a local
+ * temporary file, and only their offsets in the file are kept in memory, along with a small cache of the most
+ * recently used strings.
+ */
+final class XLSXSharedStrings implements Closeable {
+  private static final int CACHE_SIZE = 1024;
+
+  private final long memoryLimit;
+  private List<String> strings = new ArrayList<>();
+  private long memoryChars;
+  private int size;
+  private File spillFile;
+  private OutputStream spillOutput;
+  private RandomAccessFile spillInput;
+  // offsets[i] is the offset of string i in the spill file, and offsets[size] the length of the file
+  private long[] offsets;
+  private final Map<Integer, String> cache = new LinkedHashMap<Integer, String>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+      return size() > CACHE_SIZE;
+    }
+  };
+
+  /**
+   * @param memoryLimit number of characters kept in memory before the strings are written to a file
+   */
+  XLSXSharedStrings(long memoryLimit) {
+    this.memoryLimit = memoryLimit;
+  }
+
+  /**
+   * Adds the next string of the workbook.
+   */
+  void add(String string) throws IOException {
+    if (spillFile == null && memoryChars + string.length() <= memoryLimit) {
+      strings.add(string);
+      memoryChars += string.length();
+      size++;
+      return;
+    }
+    if (spillFile == null) {
+      spill();
+    }
+    write(string);
+  }
+
+  /**
+   * Completes the strings, after which they can be read.
+   */
+  void finish() throws IOException {
+    if (spillOutput != null) {
+      spillOutput.close();
+      spillOutput = null;
+      spillInput = new RandomAccessFile(spillFile, "r");
+    }
+  }
+
+  /**
+   * Returns the string at the given index.
+   */
+  String get(int index) throws IOException {
+    if (index < 0 || index >= size) {
+      throw new IOException(String.format("Shared string index %d is out of range (0..%d).", index, size - 1));
+    }
+    if (spillInput == null) {
+      return strings.get(index);
+    }
+    String string = cache.get(index);
+    if (string == null) {
+      byte[] bytes = new byte[(int) (offsets[index + 1] - offsets[index])];
+      spillInput.seek(offsets[index]);
+      spillInput.readFully(bytes);
+      string = new String(bytes, StandardCharsets.UTF_8);
+      cache.put(index, string);
+    }
+    return string;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      if (spillOutput != null) {
+        spillOutput.close();
+      }
+      if (spillInput != null) {
+        spillInput.close();
+      }
+    } finally {
+      if (spillFile != null && !spillFile.delete()) {
+        spillFile.deleteOnExit();
+      }
+    }
+  }
+
+  private void spill() throws IOException {
+    spillFile = File.createTempFile("shared-strings", ".tmp");
+    spillOutput = new BufferedOutputStream(new FileOutputStream(spillFile));
+    offsets = new long[Math.max(1024, size * 2)];
+    List<String> inMemory = strings;
+    strings = null;
+    size = 0;
+    for (String string : inMemory) {
+      write(string);
+    }
+  }
+
+  private void write(String string) throws IOException {
+    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+    if (size + 1 == offsets.length) {
+      offsets = Arrays.copyOf(offsets, offsets.length * 2);
+    }
+    spillOutput.write(bytes);
+    offsets[size + 1] = offsets[size] + bytes.length;
+    size++;
+  }
+}
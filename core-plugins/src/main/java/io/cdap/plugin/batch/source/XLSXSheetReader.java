@@ -0,0 +1,524 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.source;
+
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Reads the rows of a sheet of an XLSX workbook by streaming through the XML of the sheet, so that memory does not
+ * grow with the size of the sheet.
+ *
+ * Cells are read like the POI user model reads them: formula, error and blank cells are skipped, strings of
+ * type 's', 'str' and 'inlineStr' are strings, cells of type 'b' are booleans, and numeric cells are dates when
+ * their style has a date format, or doubles otherwise.
+ */
+final class XLSXSheetReader implements Closeable {
+  private static final String PACKAGE_RELATIONSHIPS = "_rels/.rels";
+  private static final String OFFICE_DOCUMENT = "/officeDocument";
+  private static final String WORKSHEET = "/worksheet";
+  private static final String SHARED_STRINGS = "/sharedStrings";
+  private static final String STYLES = "/styles";
+  // escapes of characters that cannot be written in XML, which POI decodes in strings
+  private static final Pattern ESCAPED_CHARACTER = Pattern.compile("_x([0-9A-Fa-f]{4})_");
+
+  private final ZipFile zipFile;
+  private final XMLInputFactory inputFactory;
+  private final String file;
+  private final XLSXSharedStrings sharedStrings;
+  private final String sheetName;
+  private boolean date1904;
+  private boolean[] dateStyles = new boolean[0];
+  private InputStream sheetInput;
+  private XMLStreamReader sheetReader;
+  private int lastRowNum = -1;
+  private int previousRowNum = -1;
+  private final StringBuilder text = new StringBuilder();
+
+  /**
+   * Opens a sheet of a workbook.
+   *
+   * @param workbook the local XLSX file
+   * @param file the name of the file, set in the rows
+   * @param sheetName the name of the sheet to read, compared ignoring case, or null to read the sheet at the given
+   *                  index
+   * @param sheetIndex the index of the sheet to read, starting at 0
+   * @param sharedStringsMemoryLimit number of characters of shared strings to keep in memory
+   * @throws IllegalArgumentException if the sheet does not exist
+   */
+  XLSXSheetReader(File workbook, String file, @Nullable String sheetName, int sheetIndex,
+                  long sharedStringsMemoryLimit) throws IOException, XMLStreamException {
+    this.zipFile = new ZipFile(workbook);
+    this.file = file;
+    this.inputFactory = XMLInputFactory.newInstance();
+    inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    this.sharedStrings = new XLSXSharedStrings(sharedStringsMemoryLimit);
+    try {
+      String workbookPart = null;
+      for (Relationship relationship : readRelationships(PACKAGE_RELATIONSHIPS, "")) {
+        if (relationship.type.endsWith(OFFICE_DOCUMENT)) {
+          workbookPart = relationship.target;
+        }
+      }
+      if (workbookPart == null) {
+        throw new IOException(String.format("File '%s' is not an XLSX workbook.", file));
+      }
+      int separator = workbookPart.lastIndexOf('/');
+      String workbookFolder = workbookPart.substring(0, separator + 1);
+      Map<String, Relationship> relationships = new HashMap<>();
+      for (Relationship relationship : readRelationships(
+        workbookFolder + "_rels/" + workbookPart.substring(separator + 1) + ".rels", workbookFolder)) {
+        relationships.put(relationship.id, relationship);
+        if (relationship.type.endsWith(SHARED_STRINGS)) {
+          readSharedStrings(relationship.target);
+        } else if (relationship.type.endsWith(STYLES)) {
+          readStyles(relationship.target);
+        }
+      }
+      sharedStrings.finish();
+
+      String[] sheet = findSheet(workbookPart, sheetName, sheetIndex);
+      this.sheetName = sheet[0];
+      Relationship sheetRelationship = relationships.get(sheet[1]);
+      if (sheetRelationship == null || !sheetRelationship.type.endsWith(WORKSHEET)) {
+        throw new IllegalArgumentException(String.format("Sheet '%s' is not a worksheet.", sheet[0]));
+      }
+      sheetInput = openPart(sheetRelationship.target);
+      sheetReader = inputFactory.createXMLStreamReader(sheetInput);
+      // the dimension comes before the rows, and is read now so that the number of rows is known before any row
+      while (sheetReader.hasNext()) {
+        if (sheetReader.next() != XMLStreamConstants.START_ELEMENT) {
+          continue;
+        }
+        if ("dimension".equals(sheetReader.getLocalName())) {
+          readDimension(sheetReader.getAttributeValue(null, "ref"));
+          break;
+        }
+        if ("sheetData".equals(sheetReader.getLocalName())) {
+          break;
+        }
+      }
+    } catch (IOException | XMLStreamException | RuntimeException e) {
+      close();
+      throw e;
+    }
+  }
+
+  /**
+   * @return the name of the sheet, as written in the workbook
+   */
+  String getSheetName() {
+    return sheetName;
+  }
+
+  /**
+   * @return the index of the last row of the sheet, as declared by the dimension of the sheet, or -1 if unknown
+   */
+  int getLastRowNum() {
+    return lastRowNum;
+  }
+
+  /**
+   * Reads the next row of the sheet.
+   *
+   * @return the row, or null if all rows have been read
+   */
+  @Nullable
+  ExcelRow readRow() throws IOException, XMLStreamException {
+    while (sheetReader.hasNext()) {
+      int event = sheetReader.next();
+      if (event == XMLStreamConstants.START_ELEMENT && "row".equals(sheetReader.getLocalName())) {
+        return readCells();
+      } else if (event == XMLStreamConstants.END_ELEMENT && "sheetData".equals(sheetReader.getLocalName())) {
+        break;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      if (sheetReader != null) {
+        sheetReader.close();
+      }
+    } catch (XMLStreamException e) {
+      throw new IOException(e);
+    } finally {
+      try {
+        if (sheetInput != null) {
+          sheetInput.close();
+        }
+        sharedStrings.close();
+      } finally {
+        zipFile.close();
+      }
+    }
+  }
+
+  private ExcelRow readCells() throws IOException, XMLStreamException {
+    String reference = sheetReader.getAttributeValue(null, "r");
+    int rowNum = reference == null ? previousRowNum + 1 : Integer.parseInt(reference) - 1;
+    previousRowNum = rowNum;
+    List<String> columns = new ArrayList<>();
+    List<Object> values = new ArrayList<>();
+    int previousColumn = -1;
+    while (true) {
+      int event = sheetReader.next();
+      if (event == XMLStreamConstants.END_ELEMENT && "row".equals(sheetReader.getLocalName())) {
+        break;
+      }
+      if (event != XMLStreamConstants.START_ELEMENT || !"c".equals(sheetReader.getLocalName())) {
+        continue;
+      }
+      String cellReference = sheetReader.getAttributeValue(null, "r");
+      String columnName;
+      if (cellReference == null) {
+        columnName = CellReference.convertNumToColString(++previousColumn);
+      } else {
+        columnName = getColumnName(cellReference);
+        previousColumn = CellReference.convertColStringToIndex(columnName);
+      }
+      Object value = readCell();
+      if (value != null) {
+        columns.add(columnName);
+        values.add(value);
+      }
+    }
+    return new ExcelRow(rowNum, file, sheetName, columns, values);
+  }
+
+  /**
+   * Reads a cell, with the reader on its start element.
+   *
+   * @return the value of the cell, or null if the cell is skipped
+   */
+  @Nullable
+  private Object readCell() throws IOException, XMLStreamException {
+    String type = sheetReader.getAttributeValue(null, "t");
+    String style = sheetReader.getAttributeValue(null, "s");
+    boolean formula = false;
+    String value = null;
+    String inlineString = null;
+    while (true) {
+      int event = sheetReader.next();
+      if (event == XMLStreamConstants.END_ELEMENT && "c".equals(sheetReader.getLocalName())) {
+        break;
+      }
+      if (event != XMLStreamConstants.START_ELEMENT) {
+        continue;
+      }
+      switch (sheetReader.getLocalName()) {
+        case "f":
+          formula = true;
+          break;
+        case "v":
+          value = sheetReader.getElementText();
+          break;
+        case "is":
+          inlineString = readText(sheetReader, "is");
+          break;
+        default:
+          break;
+      }
+    }
+
+    if (formula) {
+      return null;
+    }
+    if (type == null || "n".equals(type)) {
+      if (value == null) {
+        return null;
+      }
+      double number = Double.parseDouble(value);
+      int styleIndex = style == null ? 0 : Integer.parseInt(style);
+      if (styleIndex < dateStyles.length && dateStyles[styleIndex] && DateUtil.isValidExcelDate(number)) {
+        return DateUtil.getJavaDate(number, date1904);
+      }
+      return number;
+    }
+    switch (type) {
+      case "s":
+        return value == null ? "" : sharedStrings.get(Integer.parseInt(value));
+      case "inlineStr":
+        return decode(inlineString != null ? inlineString : value == null ? "" : value);
+      case "str":
+        return decode(value == null ? "" : value);
+      case "b":
+        return "1".equals(value);
+      default:
+        // errors, and types the user model does not read
+        return null;
+    }
+  }
+
+  /**
+   * Returns the column of a cell reference such as 'B12'.
+   */
+  private static String getColumnName(String cellReference) {
+    int end = 0;
+    while (end < cellReference.length() && Character.isLetter(cellReference.charAt(end))) {
+      end++;
+    }
+    return cellReference.substring(0, end);
+  }
+
+  private void readDimension(@Nullable String reference) {
+    if (reference == null) {
+      return;
+    }
+    String lastCell = reference.substring(reference.indexOf(':') + 1).replaceAll("[^0-9]", "");
+    if (!lastCell.isEmpty()) {
+      lastRowNum = Integer.parseInt(lastCell) - 1;
+    }
+  }
+
+  /**
+   * Finds a sheet in the workbook.
+   *
+   * @return the name and the relationship id of the sheet
+   */
+  private String[] findSheet(String workbookPart, @Nullable String name, int index)
+    throws IOException, XMLStreamException {
+    List<String[]> sheets = new ArrayList<>();
+    try (InputStream input = openPart(workbookPart)) {
+      XMLStreamReader reader = inputFactory.createXMLStreamReader(input);
+      try {
+        while (reader.hasNext()) {
+          if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+            continue;
+          }
+          if ("workbookPr".equals(reader.getLocalName())) {
+            String date1904Value = reader.getAttributeValue(null, "date1904");
+            date1904 = "1".equals(date1904Value) || "true".equalsIgnoreCase(date1904Value);
+          } else if ("sheet".equals(reader.getLocalName())) {
+            String id = null;
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+              if ("id".equals(reader.getAttributeLocalName(i)) && reader.getAttributeNamespace(i) != null) {
+                id = reader.getAttributeValue(i);
+              }
+            }
+            sheets.add(new String[] { reader.getAttributeValue(null, "name"), id });
+          }
+        }
+      } finally {
+        reader.close();
+      }
+    }
+
+    if (name == null) {
+      if (index < 0 || index >= sheets.size()) {
+        throw new IllegalArgumentException(String.format("Sheet index (%d) is out of range (0..%d)",
+                                                         index, sheets.size() - 1));
+      }
+      return sheets.get(index);
+    }
+    for (String[] sheet : sheets) {
+      if (name.equalsIgnoreCase(sheet[0])) {
+        return sheet;
+      }
+    }
+    throw new IllegalArgumentException(String.format("Sheet '%s' does not exist.", name));
+  }
+
+  private void readSharedStrings(String part) throws IOException, XMLStreamException {
+    try (InputStream input = openPart(part)) {
+      XMLStreamReader reader = inputFactory.createXMLStreamReader(input);
+      try {
+        while (reader.hasNext()) {
+          if (reader.next() == XMLStreamConstants.START_ELEMENT && "si".equals(reader.getLocalName())) {
+            sharedStrings.add(decode(readText(reader, "si")));
+          }
+        }
+      } finally {
+        reader.close();
+      }
+    }
+  }
+
+  private void readStyles(String part) throws IOException, XMLStreamException {
+    Map<Integer, String> formats = new HashMap<>();
+    List<Boolean> styles = new ArrayList<>();
+    try (InputStream input = openPart(part)) {
+      XMLStreamReader reader = inputFactory.createXMLStreamReader(input);
+      try {
+        boolean cellFormats = false;
+        while (reader.hasNext()) {
+          int event = reader.next();
+          if (event == XMLStreamConstants.START_ELEMENT) {
+            String name = reader.getLocalName();
+            if ("numFmt".equals(name)) {
+              formats.put(Integer.parseInt(reader.getAttributeValue(null, "numFmtId")),
+                          reader.getAttributeValue(null, "formatCode"));
+            } else if ("cellXfs".equals(name)) {
+              cellFormats = true;
+            } else if (cellFormats && "xf".equals(name)) {
+              String formatId = reader.getAttributeValue(null, "numFmtId");
+              int format = formatId == null ? 0 : Integer.parseInt(formatId);
+              String formatString = formats.containsKey(format) ?
+                formats.get(format) : BuiltinFormats.getBuiltinFormat(format);
+              styles.add(DateUtil.isADateFormat(format, formatString));
+            }
+          } else if (event == XMLStreamConstants.END_ELEMENT && "cellXfs".equals(reader.getLocalName())) {
+            cellFormats = false;
+          }
+        }
+      } finally {
+        reader.close();
+      }
+    }
+    dateStyles = new boolean[styles.size()];
+    for (int i = 0; i < dateStyles.length; i++) {
+      dateStyles[i] = styles.get(i);
+    }
+  }
+
+  /**
+   * Reads the text of a string item, made of its 't' elements outside phonetic runs, with the reader on the start
+   * element of the item. The reader is left on the end element of the item.
+   */
+  private String readText(XMLStreamReader reader, String element) throws XMLStreamException {
+    text.setLength(0);
+    boolean inText = false;
+    boolean inPhonetic = false;
+    while (true) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        if ("t".equals(reader.getLocalName())) {
+          inText = !inPhonetic;
+        } else if ("rPh".equals(reader.getLocalName())) {
+          inPhonetic = true;
+        }
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        String name = reader.getLocalName();
+        if (element.equals(name)) {
+          return text.toString();
+        } else if ("t".equals(name)) {
+          inText = false;
+        } else if ("rPh".equals(name)) {
+          inPhonetic = false;
+        }
+      } else if (inText && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+        || event == XMLStreamConstants.SPACE)) {
+        text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+      }
+    }
+  }
+
+  private List<Relationship> readRelationships(String part, String folder) throws IOException, XMLStreamException {
+    List<Relationship> relationships = new ArrayList<>();
+    if (zipFile.getEntry(part) == null) {
+      return relationships;
+    }
+    try (InputStream input = openPart(part)) {
+      XMLStreamReader reader = inputFactory.createXMLStreamReader(input);
+      try {
+        while (reader.hasNext()) {
+          if (reader.next() == XMLStreamConstants.START_ELEMENT && "Relationship".equals(reader.getLocalName())
+            && !"External".equals(reader.getAttributeValue(null, "TargetMode"))) {
+            relationships.add(new Relationship(reader.getAttributeValue(null, "Id"),
+                                               reader.getAttributeValue(null, "Type"),
+                                               resolve(folder, reader.getAttributeValue(null, "Target"))));
+          }
+        }
+      } finally {
+        reader.close();
+      }
+    }
+    return relationships;
+  }
+
+  private InputStream openPart(String part) throws IOException {
+    ZipEntry entry = zipFile.getEntry(part);
+    if (entry == null) {
+      throw new IOException(String.format("Part '%s' is missing in file '%s'.", part, file));
+    }
+    return zipFile.getInputStream(entry);
+  }
+
+  /**
+   * Resolves the target of a relationship against the folder of its source part.
+   */
+  private static String resolve(String folder, String target) {
+    if (target.startsWith("/")) {
+      return target.substring(1);
+    }
+    List<String> segments = new ArrayList<>();
+    for (String segment : (folder + target).split("/")) {
+      if ("..".equals(segment)) {
+        if (!segments.isEmpty()) {
+          segments.remove(segments.size() - 1);
+        }
+      } else if (!segment.isEmpty() && !".".equals(segment)) {
+        segments.add(segment);
+      }
+    }
+    return String.join("/", segments);
+  }
+
+  /**
+   * Decodes the '_xHHHH_' escapes of a string.
+   */
+  private static String decode(String value) {
+    if (!value.contains("_x")) {
+      return value;
+    }
+    Matcher matcher = ESCAPED_CHARACTER.matcher(value);
+    StringBuffer decoded = new StringBuffer();
+    while (matcher.find()) {
+      matcher.appendReplacement(decoded, "");
+      decoded.append((char) Integer.parseInt(matcher.group(1), 16));
+    }
+    matcher.appendTail(decoded);
+    return decoded.toString();
+  }
+
+  /**
+   * A relationship between parts of the package.
+   */
+  private static final class Relationship {
+    private final String id;
+    private final String type;
+    private final String target;
+
+    private Relationship(String id, String type, String target) {
+      this.id = id;
+      this.type = type;
+      this.target = target;
+    }
+  }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.source;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Finds the elements with a given name in the bytes of an XML file, starting from any offset of the file, so that
+ * a file can be split at arbitrary offsets. The scanner looks for the start tag of the element, skipping comments,
+ * CDATA sections, processing instructions and declarations, and copies the bytes of the element up to its matching
+ * end tag. Element names are compared without their namespace prefix.
+ *
+ * Since the scan does not decode characters, the file must use an encoding that is compatible with ASCII.
+ */
+final class XMLElementScanner {
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final byte[] COMMENT_END = "-->".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] CDATA_END = "]]>".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] PROCESSING_INSTRUCTION_END = "?>".getBytes(StandardCharsets.US_ASCII);
+
+  private final InputStream in;
+  private final byte[] elementName;
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+  private int bufferLength;
+  private int bufferPosition;
+  private long position;
+  private byte[] name = new byte[64];
+  private int nameLength;
+  private byte[] record = new byte[BUFFER_SIZE];
+  private int recordLength;
+  private long recordStart;
+  private boolean capturing;
+
+  /**
+   * @param in stream positioned at the offset to start scanning from
+   * @param start offset of the stream in the file
+   * @param elementName name of the elements to find, without namespace prefix
+   */
+  XMLElementScanner(InputStream in, long start, String elementName) {
+    this.in = in;
+    this.position = start;
+    this.elementName = elementName.getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Finds the next element that starts before the given offset.
+   *
+   * @param end offset of the file at which elements stop being returned
+   * @return whether an element was found, in which case its bytes are available through {@link #getRecord()}
+   * @throws IOException if the stream could not be read or ended within the element
+   */
+  boolean next(long end) throws IOException {
+    recordLength = 0;
+    capturing = false;
+    int terminator;
+    try {
+      while (true) {
+        if (read() != '<') {
+          continue;
+        }
+        long tagStart = position - 1;
+        if (tagStart >= end) {
+          return false;
+        }
+        int next = read();
+        if (next == '!' || next == '?' || next == '/') {
+          skipMarkup(next);
+          continue;
+        }
+        terminator = readName(next);
+        if (isElementName()) {
+          recordStart = tagStart;
+          startCapture(terminator);
+          break;
+        }
+      }
+    } catch (EOFException e) {
+      return false;
+    }
+
+    try {
+      if (skipStartTag(terminator)) {
+        return true;
+      }
+      int depth = 1;
+      while (depth > 0) {
+        if (read() != '<') {
+          continue;
+        }
+        int next = read();
+        if (next == '!' || next == '?') {
+          skipMarkup(next);
+        } else if (next == '/') {
+          int endTerminator = readName(read());
+          if (isElementName()) {
+            depth--;
+          }
+          skipTo(endTerminator, '>');
+        } else {
+          int startTerminator = readName(next);
+          boolean matches = isElementName();
+          if (!skipStartTag(startTerminator) && matches) {
+            depth++;
+          }
+        }
+      }
+      return true;
+    } catch (EOFException e) {
+      throw new IOException(String.format("Reached the end of the file before the end of the '%s' element " +
+                                            "starting at offset %d.",
+                                          new String(elementName, StandardCharsets.UTF_8), recordStart), e);
+    }
+  }
+
+  /**
+   * @return the offset of the last element found in the file
+   */
+  long getRecordStart() {
+    return recordStart;
+  }
+
+  /**
+   * @return the array holding the bytes of the last element found, which is reused by the next element
+   */
+  byte[] getRecord() {
+    return record;
+  }
+
+  /**
+   * @return the number of bytes of the last element found
+   */
+  int getRecordLength() {
+    return recordLength;
+  }
+
+  /**
+   * @return the offset in the file of the next byte to scan
+   */
+  long getPosition() {
+    return position;
+  }
+
+  private void startCapture(int terminator) {
+    capturing = true;
+    append('<');
+    for (int i = 0; i < nameLength; i++) {
+      append(name[i]);
+    }
+    append(terminator);
+  }
+
+  /**
+   * Skips a comment, CDATA section, processing instruction, declaration or end tag, whose '<' and first byte
+   * have been read.
+   */
+  private void skipMarkup(int first) throws IOException {
+    if (first == '?') {
+      skipPast(PROCESSING_INSTRUCTION_END);
+    } else if (first == '/') {
+      skipTo(first, '>');
+    } else {
+      int next = read();
+      if (next == '-') {
+        skipPast(COMMENT_END);
+      } else if (next == '[') {
+        skipPast(CDATA_END);
+      } else {
+        // declaration, which may have an internal subset in brackets
+        int brackets = 0;
+        while (next != '>' || brackets > 0) {
+          if (next == '[') {
+            brackets++;
+          } else if (next == ']') {
+            brackets--;
+          }
+          next = read();
+        }
+      }
+    }
+  }
+
+  /**
+   * Skips the rest of a start tag whose name has been read, up to its closing '>'.
+   *
+   * @param current the byte following the name
+   * @return whether the element is empty, with a start tag ending with '/>'
+   */
+  private boolean skipStartTag(int current) throws IOException {
+    int previous = current;
+    while (current != '>') {
+      if (current == '"' || current == '\'') {
+        skipTo(read(), current);
+      }
+      previous = current;
+      current = read();
+    }
+    return previous == '/';
+  }
+
+  private void skipTo(int current, int last) throws IOException {
+    while (current != last) {
+      current = read();
+    }
+  }
+
+  private void skipPast(byte[] end) throws IOException {
+    // the end sequences have two or three bytes, compared with the last bytes read
+    int beforeLast = -1;
+    int last = -1;
+    while (true) {
+      int current = read();
+      if (current == end[end.length - 1] && last == end[end.length - 2]
+        && (end.length == 2 || beforeLast == end[0])) {
+        return;
+      }
+      beforeLast = last;
+      last = current;
+    }
+  }
+
+  /**
+   * Reads a name into {@link #name}.
+   *
+   * @param current the first byte of the name
+   * @return the byte following the name
+   */
+  private int readName(int current) throws IOException {
+    nameLength = 0;
+    while (current != '>' && current != '/' && !Character.isWhitespace(current)) {
+      if (nameLength == name.length) {
+        name = Arrays.copyOf(name, nameLength * 2);
+      }
+      name[nameLength++] = (byte) current;
+      current = read();
+    }
+    return current;
+  }
+
+  private boolean isElementName() {
+    int localStart = 0;
+    for (int i = 0; i < nameLength; i++) {
+      if (name[i] == ':') {
+        localStart = i + 1;
+      }
+    }
+    if (nameLength - localStart != elementName.length) {
+      return false;
+    }
+    for (int i = 0; i < elementName.length; i++) {
+      if (name[localStart + i] != elementName[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int read() throws IOException {
+    if (bufferPosition == bufferLength) {
+      bufferLength = in.read(buffer);
+      bufferPosition = 0;
+      if (bufferLength <= 0) {
+        bufferLength = 0;
+        throw new EOFException();
+      }
+    }
+    position++;
+    int current = buffer[bufferPosition++] & 0xff;
+    if (capturing) {
+      append(current);
+    }
+    return current;
+  }
+
+  private void append(int current) {
+    if (recordLength == record.length) {
+      record = Arrays.copyOf(record, recordLength * 2);
+    }
+    record[recordLength++] = (byte) current;
+  }
+}
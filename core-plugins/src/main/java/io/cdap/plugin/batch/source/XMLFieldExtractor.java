@@ -0,0 +1,215 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.source;
+
+import com.google.common.base.Strings;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Extracts the fields of a structured record from the StAX events of an XML record, without building the XML string
+ * of the record.
+ *
+ * Fields are mapped to paths relative to the record element, made of element names separated by '/' and optionally
+ * ending with an attribute name prefixed by '@', such as 'author/name', '@id' or 'author/@id'. The value of a field
+ * is the text content of the first element matching its path, or the value of the attribute of that element.
+ * The 'offset' and 'filename' fields of the schema, when not mapped, are set from the location of the record.
+ */
+final class XMLFieldExtractor {
+  static final String OFFSET_FIELD = "offset";
+  static final String FILENAME_FIELD = "filename";
+
+  private static final Pattern PATH = Pattern.compile("([\\w.\\-]+/)*([\\w.\\-]+|@[\\w.\\-]+)");
+
+  private final Schema schema;
+  private final String[] fieldNames;
+  private final String[][] elementPaths;
+  private final String[] attributes;
+  private final String[] values;
+  private final StringBuilder[] texts;
+  // depth of the element being captured for each field, or -1
+  private final int[] captureDepths;
+  private String[] elements = new String[16];
+
+  XMLFieldExtractor(Schema schema, Map<String, String> mappings) {
+    this.schema = schema;
+    int numFields = mappings.size();
+    this.fieldNames = new String[numFields];
+    this.elementPaths = new String[numFields][];
+    this.attributes = new String[numFields];
+    this.values = new String[numFields];
+    this.texts = new StringBuilder[numFields];
+    this.captureDepths = new int[numFields];
+    int index = 0;
+    for (Map.Entry<String, String> mapping : mappings.entrySet()) {
+      fieldNames[index] = mapping.getKey();
+      List<String> steps = new ArrayList<>(Arrays.asList(mapping.getValue().split("/")));
+      String last = steps.get(steps.size() - 1);
+      if (last.startsWith("@")) {
+        attributes[index] = last.substring(1);
+        steps.remove(steps.size() - 1);
+      }
+      elementPaths[index] = steps.toArray(new String[0]);
+      texts[index] = new StringBuilder();
+      index++;
+    }
+  }
+
+  /**
+   * Parses field mappings of the form 'field:path[,field:path]*'.
+   *
+   * @throws IllegalArgumentException if a mapping is invalid
+   */
+  static Map<String, String> parseMappings(String mappings) {
+    Map<String, String> parsed = new LinkedHashMap<>();
+    for (String mapping : mappings.split(",")) {
+      int separator = mapping.indexOf(':');
+      String field = separator < 0 ? "" : mapping.substring(0, separator).trim();
+      String path = separator < 0 ? "" : mapping.substring(separator + 1).trim();
+      if (Strings.isNullOrEmpty(field) || !PATH.matcher(path).matches()) {
+        throw new IllegalArgumentException(String.format("Invalid field mapping '%s'.", mapping.trim()));
+      }
+      if (parsed.put(field, path) != null) {
+        throw new IllegalArgumentException(String.format("Field '%s' is mapped more than once.", field));
+      }
+    }
+    return parsed;
+  }
+
+  /**
+   * Returns the default schema for the given mappings, with the offset and file name of the records and a nullable
+   * string for each mapped field.
+   */
+  static Schema getDefaultSchema(Map<String, String> mappings) {
+    List<Schema.Field> fields = new ArrayList<>();
+    fields.add(Schema.Field.of(OFFSET_FIELD, Schema.of(Schema.Type.LONG)));
+    fields.add(Schema.Field.of(FILENAME_FIELD, Schema.of(Schema.Type.STRING)));
+    for (String field : mappings.keySet()) {
+      if (!OFFSET_FIELD.equals(field) && !FILENAME_FIELD.equals(field)) {
+        fields.add(Schema.Field.of(field, Schema.nullableOf(Schema.of(Schema.Type.STRING))));
+      }
+    }
+    return Schema.recordOf("xmlSchema", fields);
+  }
+
+  /**
+   * Starts extracting the fields of a new record.
+   */
+  void startRecord() {
+    Arrays.fill(values, null);
+    Arrays.fill(captureDepths, -1);
+  }
+
+  /**
+   * Handles the start of an element of the record.
+   *
+   * @param name the name of the element, without namespace prefix
+   * @param reader the reader positioned on the start of the element
+   * @param depth the depth of the element in the record, 0 for the record element
+   */
+  void startElement(String name, XMLStreamReader reader, int depth) {
+    if (depth == elements.length) {
+      elements = Arrays.copyOf(elements, depth * 2);
+    }
+    elements[depth] = name;
+    for (int i = 0; i < fieldNames.length; i++) {
+      if (values[i] != null || captureDepths[i] >= 0 || elementPaths[i].length != depth || !matches(elementPaths[i])) {
+        continue;
+      }
+      if (attributes[i] == null) {
+        captureDepths[i] = depth;
+        texts[i].setLength(0);
+      } else {
+        values[i] = getAttribute(reader, attributes[i]);
+      }
+    }
+  }
+
+  /**
+   * Handles text of the record.
+   */
+  void characters(XMLStreamReader reader) {
+    for (int i = 0; i < fieldNames.length; i++) {
+      if (captureDepths[i] >= 0) {
+        texts[i].append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+      }
+    }
+  }
+
+  /**
+   * Handles the end of an element of the record.
+   *
+   * @param depth the depth of the element in the record, 0 for the record element
+   */
+  void endElement(int depth) {
+    for (int i = 0; i < fieldNames.length; i++) {
+      if (captureDepths[i] == depth) {
+        captureDepths[i] = -1;
+        values[i] = texts[i].toString();
+      }
+    }
+  }
+
+  /**
+   * Builds the record from the extracted fields.
+   */
+  StructuredRecord build(long offset, String fileName) {
+    StructuredRecord.Builder builder = StructuredRecord.builder(schema);
+    if (schema.getField(OFFSET_FIELD) != null) {
+      builder.set(OFFSET_FIELD, offset);
+    }
+    if (schema.getField(FILENAME_FIELD) != null) {
+      builder.set(FILENAME_FIELD, fileName);
+    }
+    for (int i = 0; i < fieldNames.length; i++) {
+      if (values[i] == null) {
+        builder.set(fieldNames[i], null);
+      } else {
+        builder.convertAndSet(fieldNames[i], values[i]);
+      }
+    }
+    return builder.build();
+  }
+
+  private boolean matches(String[] path) {
+    // the record element is at depth 0, and paths start with its children
+    for (int i = 0; i < path.length; i++) {
+      if (!path[i].equals(elements[i + 1])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String getAttribute(XMLStreamReader reader, String attribute) {
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      String name = reader.getAttributeLocalName(i);
+      if (attribute.equals(name.substring(name.indexOf(':') + 1))) {
+        return reader.getAttributeValue(i);
+      }
+    }
+    return null;
+  }
+}
@@ -25,12 +25,12 @@ import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
 
 import java.io.IOException;
-import java.util.Map;
 
 /**
- * InputFormat class for XMLReader plugin.
+ * InputFormat class for XMLReader plugin. Values are either a map from the file name to the XML string of a record,
+ * or a structured record when field mappings are configured.
  */
-public class XMLInputFormat extends FileInputFormat<LongWritable, Map<String, String>> {
+public class XMLInputFormat extends FileInputFormat<LongWritable, Object> {
   public static final String XML_INPUTFORMAT_PATH_NAME = "xml.inputformat.path.name";
   public static final String XML_INPUTFORMAT_NODE_PATH = "xml.inputformat.node.path";
   public static final String XML_INPUTFORMAT_PATTERN = "xml.inputformat.pattern";
@@ -40,16 +40,18 @@ public class XMLInputFormat extends FileInputFormat<LongWritable, Map<String, St
   public static final String XML_INPUTFORMAT_TARGET_FOLDER = "xml.inputformat.target.folder";
   public static final String XML_INPUTFORMAT_ENABLE_EXTERNAL_ENTITIES = "xml.inputformat.enable.externalentities";
   public static final String XML_INPUTFORMAT_SUPPORT_DTD = "xml.inputformat.support.dtd";
+  public static final String XML_INPUTFORMAT_SPLITTABLE = "xml.inputformat.splittable";
+  public static final String XML_INPUTFORMAT_FIELD_MAPPINGS = "xml.inputformat.field.mappings";
+  public static final String XML_INPUTFORMAT_SCHEMA = "xml.inputformat.schema";
 
   @Override
-  public RecordReader<LongWritable, Map<String, String>> createRecordReader(InputSplit split,
-                                                                            TaskAttemptContext context)
+  public RecordReader<LongWritable, Object> createRecordReader(InputSplit split, TaskAttemptContext context)
     throws IOException {
     return new XMLRecordReader();
   }
 
   protected boolean isSplitable(JobContext context, Path file) {
-    //XML files are not splittable hence returning false.
-    return false;
+    //XML files are only splittable when the reader syncs on the start tag of the records.
+    return context.getConfiguration().getBoolean(XML_INPUTFORMAT_SPLITTABLE, false);
   }
 }
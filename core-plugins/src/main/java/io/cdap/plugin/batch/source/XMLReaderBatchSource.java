@@ -66,6 +66,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 
 /**
@@ -80,12 +81,13 @@ public class XMLReaderBatchSource extends ReferenceBatchSource<LongWritable, Obj
   private static final Logger LOG = LoggerFactory.getLogger(XMLReaderBatchSource.class);
   private static final Gson GSON = new Gson();
   private static final Type ARRAYLIST_PREPROCESSED_FILES  = new TypeToken<ArrayList<String>>() { }.getType();
+  private static final String RECORD_FIELD = "record";
 
   public static final Schema DEFAULT_XML_SCHEMA = Schema.recordOf(
     "xmlSchema",
     Schema.Field.of("offset", Schema.of(Schema.Type.LONG)),
     Schema.Field.of("filename", Schema.of(Schema.Type.STRING)),
-    Schema.Field.of("record", Schema.of(Schema.Type.STRING))
+    Schema.Field.of(RECORD_FIELD, Schema.of(Schema.Type.STRING))
   );
 
   private final XMLReaderConfig config;
@@ -110,7 +112,7 @@ public class XMLReaderBatchSource extends ReferenceBatchSource<LongWritable, Obj
     FailureCollector collector = pipelineConfigurer.getStageConfigurer().getFailureCollector();
     config.validate(collector);
     collector.getOrThrowException();
-    pipelineConfigurer.getStageConfigurer().setOutputSchema(DEFAULT_XML_SCHEMA);
+    pipelineConfigurer.getStageConfigurer().setOutputSchema(config.getSchema());
     if (!config.containsMacro("tableName") && !Strings.isNullOrEmpty(config.tableName)) {
       pipelineConfigurer.createDataset(config.tableName, KeyValueTable.class.getName());
     }
@@ -139,6 +141,11 @@ public class XMLReaderBatchSource extends ReferenceBatchSource<LongWritable, Obj
 
     conf.setBoolean(XMLInputFormat.XML_INPUTFORMAT_ENABLE_EXTERNAL_ENTITIES, config.shouldEnableExternalEntities());
     conf.setBoolean(XMLInputFormat.XML_INPUTFORMAT_SUPPORT_DTD, config.shouldSupportDTD());
+    conf.setBoolean(XMLInputFormat.XML_INPUTFORMAT_SPLITTABLE, config.isSplittable());
+    if (!Strings.isNullOrEmpty(config.fieldMappings)) {
+      conf.set(XMLInputFormat.XML_INPUTFORMAT_FIELD_MAPPINGS, config.fieldMappings);
+      conf.set(XMLInputFormat.XML_INPUTFORMAT_SCHEMA, config.getSchema().toString());
+    }
 
     if (!config.containsMacro("tableName") && !Strings.isNullOrEmpty(config.tableName)) {
       setFileTrackingInfo(context, conf);
@@ -157,7 +164,7 @@ public class XMLReaderBatchSource extends ReferenceBatchSource<LongWritable, Obj
     XMLInputFormat.addInputPath(job, new Path(config.path));
     // create the external dataset with the given schema
     LineageRecorder lineageRecorder = new LineageRecorder(context, config.referenceName);
-    lineageRecorder.createExternalDataset(DEFAULT_XML_SCHEMA);
+    lineageRecorder.createExternalDataset(config.getSchema());
     Schema schema = context.getOutputSchema();
     if (schema != null && schema.getFields() != null) {
       lineageRecorder.recordRead("Read", "Read from XML.", TransformLineageRecorderUtils.getFields(schema));
@@ -202,6 +209,11 @@ public class XMLReaderBatchSource extends ReferenceBatchSource<LongWritable, Obj
 
   @Override
   public void transform(KeyValue<LongWritable, Object> input, Emitter<StructuredRecord> emitter) throws Exception {
+    if (input.getValue() instanceof StructuredRecord) {
+      // the fields were extracted by the record reader
+      emitter.emit((StructuredRecord) input.getValue());
+      return;
+    }
     Map<String, String> xmlRecord = (Map<String, String>) input.getValue();
     Set<String> keySet = xmlRecord.keySet();
     Iterator<String>  itr = keySet.iterator();
@@ -211,7 +223,7 @@ public class XMLReaderBatchSource extends ReferenceBatchSource<LongWritable, Obj
     StructuredRecord output = StructuredRecord.builder(DEFAULT_XML_SCHEMA)
       .set("offset", input.getKey().get())
       .set("filename", fileName)
-      .set("record", record)
+      .set(RECORD_FIELD, record)
       .build();
     emitter.emit(output);
   }
@@ -250,6 +262,9 @@ public class XMLReaderBatchSource extends ReferenceBatchSource<LongWritable, Obj
     public static final String TEMPORARY_FOLDER = "temporaryFolder";
     public static final String ACTION_AFTER_PROCESS = "actionAfterProcess";
     public static final String REPROCESSING_REQUIRED = "reprocessingRequired";
+    public static final String SPLITTABLE = "splittable";
+    public static final String FIELD_MAPPINGS = "fieldMappings";
+    public static final String SCHEMA = "schema";
 
 
     @Description("Path to file(s) to be read. If a directory is specified, terminate the path name with a \'/\'.")
@@ -309,6 +324,25 @@ public class XMLReaderBatchSource extends ReferenceBatchSource<LongWritable, Obj
     @Nullable
     private final Boolean supportDTD;
 
+    @Description("Whether XML files can be split so that large files are read by several tasks in parallel. " +
+      "Records are found by looking for the start tag of the last node of the node path, which must not appear " +
+      "elsewhere in the files. Files must use an encoding compatible with ASCII, such as UTF-8, and cannot be " +
+      "deleted, moved or archived after processing. Defaults to false.")
+    @Nullable
+    private final Boolean splittable;
+
+    @Description("Mapping of output field names to paths relative to the node path, such as " +
+      "'title:title,author:author/name,id:@id'. When set, the fields are extracted while reading the files and " +
+      "emitted as structured records, instead of emitting each record as an XML string.")
+    @Nullable
+    private final String fieldMappings;
+
+    @Description("Output schema when field mappings are set. Mapped fields are converted to their type in the " +
+      "schema, and the 'offset' and 'filename' fields are set from the location of the record. Defaults to the " +
+      "offset, the file name and a nullable string for each mapped field.")
+    @Nullable
+    private final String schema;
+
     @VisibleForTesting
     XMLReaderConfig(String referenceName, String path, @Nullable String pattern, String nodePath,
                     String actionAfterProcess, @Nullable String targetFolder, String reprocessingRequired,
@@ -325,6 +359,9 @@ public class XMLReaderBatchSource extends ReferenceBatchSource<LongWritable, Obj
       this.temporaryFolder = temporaryFolder;
       this.enableExternalEntities = false;
       this.supportDTD = false;
+      this.splittable = false;
+      this.fieldMappings = null;
+      this.schema = null;
     }
 
     @VisibleForTesting
@@ -332,6 +369,16 @@ public class XMLReaderBatchSource extends ReferenceBatchSource<LongWritable, Obj
                     String actionAfterProcess, @Nullable String targetFolder, String reprocessingRequired,
                     @Nullable String tableName, @Nullable Integer tableExpiryPeriod, String temporaryFolder,
                     @Nullable Boolean enableExternalEntities, @Nullable Boolean supportDTD) {
+      this(referenceName, path, pattern, nodePath, actionAfterProcess, targetFolder, reprocessingRequired, tableName,
+           tableExpiryPeriod, temporaryFolder, enableExternalEntities, supportDTD, false, null, null);
+    }
+
+    @VisibleForTesting
+    XMLReaderConfig(String referenceName, String path, @Nullable String pattern, String nodePath,
+                    String actionAfterProcess, @Nullable String targetFolder, String reprocessingRequired,
+                    @Nullable String tableName, @Nullable Integer tableExpiryPeriod, String temporaryFolder,
+                    @Nullable Boolean enableExternalEntities, @Nullable Boolean supportDTD,
+                    @Nullable Boolean splittable, @Nullable String fieldMappings, @Nullable String schema) {
       super(referenceName);
       this.path = path;
       this.pattern = pattern;
@@ -344,6 +391,9 @@ public class XMLReaderBatchSource extends ReferenceBatchSource<LongWritable, Obj
       this.temporaryFolder = temporaryFolder;
       this.enableExternalEntities = enableExternalEntities;
       this.supportDTD = supportDTD;
+      this.splittable = splittable;
+      this.fieldMappings = fieldMappings;
+      this.schema = schema;
     }
 
     @VisibleForTesting
@@ -375,6 +425,37 @@ public class XMLReaderBatchSource extends ReferenceBatchSource<LongWritable, Obj
       return supportDTD == null ? false : supportDTD;
     }
 
+    boolean isSplittable() {
+      return splittable != null && splittable;
+    }
+
+    /**
+     * Returns the output schema, which only differs from the default schema when field mappings are set.
+     * The 'record' field of the default schema is ignored when field mappings are set and do not map it.
+     */
+    Schema getSchema() {
+      if (Strings.isNullOrEmpty(fieldMappings)) {
+        return DEFAULT_XML_SCHEMA;
+      }
+      Map<String, String> mappings = XMLFieldExtractor.parseMappings(fieldMappings);
+      if (Strings.isNullOrEmpty(schema)) {
+        return XMLFieldExtractor.getDefaultSchema(mappings);
+      }
+      Schema outputSchema;
+      try {
+        outputSchema = Schema.parseJson(schema);
+      } catch (IOException e) {
+        throw new IllegalArgumentException("Invalid schema: " + e.getMessage(), e);
+      }
+      if (outputSchema.getField(RECORD_FIELD) == null || mappings.containsKey(RECORD_FIELD)) {
+        return outputSchema;
+      }
+      List<Schema.Field> fields = outputSchema.getFields().stream()
+        .filter(field -> !RECORD_FIELD.equals(field.getName()))
+        .collect(Collectors.toList());
+      return Schema.recordOf(outputSchema.getRecordName(), fields);
+    }
+
     void validate(FailureCollector collector) {
       if (!containsMacro(PATH) && Strings.isNullOrEmpty(path)) {
         collector.addFailure("Path cannot be empty.", null).withConfigProperty(PATH);
@@ -413,6 +494,16 @@ public class XMLReaderBatchSource extends ReferenceBatchSource<LongWritable, Obj
           .withConfigProperty(TARGET_FOLDER);
       }
 
+      boolean fileActionRequired = !Strings.isNullOrEmpty(actionAfterProcess)
+          && !actionAfterProcess.equalsIgnoreCase("NONE");
+      if (isSplittable() && fileActionRequired) {
+        collector.addFailure(String.format("Action '%s' cannot be used when files are splittable.", actionAfterProcess),
+                             "Files are read by several tasks, so they cannot be deleted, moved or archived.")
+          .withConfigProperty(ACTION_AFTER_PROCESS).withConfigProperty(SPLITTABLE);
+      }
+
+      validateFieldMappings(collector);
+
       if (!Strings.isNullOrEmpty(pattern)) {
         try {
           Pattern.compile(pattern);
@@ -432,5 +523,75 @@ public class XMLReaderBatchSource extends ReferenceBatchSource<LongWritable, Obj
         }
       }
     }
+
+    private void validateFieldMappings(FailureCollector collector) {
+      if (Strings.isNullOrEmpty(fieldMappings)) {
+        Schema outputSchema = Strings.isNullOrEmpty(schema) ? null : parseSchema(collector);
+        if (outputSchema != null && !DEFAULT_XML_SCHEMA.getFields().equals(outputSchema.getFields())) {
+          collector.addFailure("The schema can only be changed when field mappings are set.", null)
+            .withConfigProperty(SCHEMA);
+        }
+        return;
+      }
+      Map<String, String> mappings;
+      try {
+        mappings = XMLFieldExtractor.parseMappings(fieldMappings);
+      } catch (IllegalArgumentException e) {
+        collector.addFailure(e.getMessage(), "Mappings must be of the form 'field:path', where the path is made of " +
+                               "element names separated by '/' and may end with '@attribute'.")
+          .withConfigProperty(FIELD_MAPPINGS);
+        return;
+      }
+      if (Strings.isNullOrEmpty(schema)) {
+        return;
+      }
+      Schema outputSchema = parseSchema(collector);
+      if (outputSchema == null) {
+        return;
+      }
+      for (String field : mappings.keySet()) {
+        Schema.Field schemaField = outputSchema.getField(field);
+        if (schemaField == null) {
+          collector.addFailure(String.format("Mapped field '%s' is not in the schema.", field), null)
+            .withConfigProperty(FIELD_MAPPINGS).withOutputSchemaField(field);
+          continue;
+        }
+        Schema fieldSchema = schemaField.getSchema();
+        fieldSchema = fieldSchema.isNullable() ? fieldSchema.getNonNullable() : fieldSchema;
+        if (!fieldSchema.getType().isSimpleType() || fieldSchema.getLogicalType() != null) {
+          collector.addFailure(String.format("Mapped field '%s' is of unsupported type '%s'.", field,
+                                             fieldSchema.getDisplayName()),
+                               "Mapped fields must be of a simple type, such as string, int or double.")
+            .withOutputSchemaField(field);
+        }
+      }
+      for (Schema.Field schemaField : outputSchema.getFields()) {
+        String field = schemaField.getName();
+        // the record field of the default schema is left in the schema when mappings are set, and ignored
+        if (mappings.containsKey(field) || RECORD_FIELD.equals(field)) {
+          continue;
+        }
+        Schema.Type type = schemaField.getSchema().isNullable() ?
+          schemaField.getSchema().getNonNullable().getType() : schemaField.getSchema().getType();
+        if (XMLFieldExtractor.OFFSET_FIELD.equals(field) && type != Schema.Type.LONG) {
+          collector.addFailure("Field 'offset' must be of type long.", null).withOutputSchemaField(field);
+        } else if (XMLFieldExtractor.FILENAME_FIELD.equals(field) && type != Schema.Type.STRING) {
+          collector.addFailure("Field 'filename' must be of type string.", null).withOutputSchemaField(field);
+        } else if (!XMLFieldExtractor.OFFSET_FIELD.equals(field) && !XMLFieldExtractor.FILENAME_FIELD.equals(field)) {
+          collector.addFailure(String.format("Field '%s' is not mapped to a path.", field), null)
+            .withOutputSchemaField(field);
+        }
+      }
+    }
+
+    @Nullable
+    private Schema parseSchema(FailureCollector collector) {
+      try {
+        return Schema.parseJson(schema);
+      } catch (IOException e) {
+        collector.addFailure("Invalid schema: " + e.getMessage(), null).withConfigProperty(SCHEMA);
+        return null;
+      }
+    }
   }
 }
@@ -17,6 +17,7 @@
 package io.cdap.plugin.batch.source;
 
 import com.google.common.base.Strings;
+import io.cdap.cdap.api.data.schema.Schema;
 import org.apache.commons.lang.StringEscapeUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
@@ -31,10 +32,14 @@ import org.apache.hadoop.mapreduce.lib.input.FileSplit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.text.DecimalFormat;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 import javax.xml.stream.XMLInputFactory;
@@ -44,8 +49,13 @@ import javax.xml.stream.XMLStreamReader;
 
 /**
  * XMLRecordReader class to read through a given xml document and to output xml blocks as per node path specified.
+ * The blocks are emitted as a map from the file name to the XML string of the block, or as structured records
+ * when field mappings are configured.
+ *
+ * When files are splittable, the reader finds the blocks of its split by looking for the start tag of the last node
+ * of the node path, and the key of a block is its byte offset instead of its line number.
  */
-public class XMLRecordReader extends RecordReader<LongWritable, Map<String, String>> {
+public class XMLRecordReader extends RecordReader<LongWritable, Object> {
   private static final Logger LOG = LoggerFactory.getLogger(XMLRecordReader.class);
 
   public static final String CLOSING_END_TAG_DELIMITER = ">";
@@ -53,6 +63,9 @@ public class XMLRecordReader extends RecordReader<LongWritable, Map<String, Stri
   public static final String CLOSING_START_TAG_DELIMITER = ">";
   public static final String OPENING_START_TAG_DELIMITER = "<";
 
+  private static final Pattern ENCODING_DECLARATION =
+    Pattern.compile("<\\?xml[^>]*encoding\\s*=\\s*[\"']([A-Za-z0-9._\\-]+)[\"']");
+
   private String fileName;
   private XMLStreamReader reader;
   private String[] nodes;
@@ -67,9 +80,15 @@ public class XMLRecordReader extends RecordReader<LongWritable, Map<String, Stri
   private final DecimalFormat df = new DecimalFormat("#.##");
   private boolean enableExternalEntities;
   private boolean supportDTD;
+  private XMLInputFactory factory;
+  private XMLFieldExtractor fieldExtractor;
+  private XMLElementScanner scanner;
+  private long splitStart;
+  private long splitEnd;
+  private String encoding;
 
   private LongWritable currentKey;
-  private Map<String, String> currentValue;
+  private Object currentValue;
   private int nodeLevel = 0;
 
   @Override
@@ -81,11 +100,16 @@ public class XMLRecordReader extends RecordReader<LongWritable, Map<String, Stri
       } catch (XMLStreamException exception) {
         LOG.error("Error occurred while closing reader : " +  exception.getMessage());
       }
+    } else if (fdDataInputStream != null) {
+      fdDataInputStream.close();
     }
   }
 
   @Override
   public float getProgress() throws IOException {
+    if (scanner != null) {
+      return availableBytes == 0 ? 1f : Math.min(1f, (float) (scanner.getPosition() - splitStart) / availableBytes);
+    }
     float progress = (float) fdDataInputStream.getPos() /  availableBytes;
     return Float.valueOf(df.format(progress));
   }
@@ -96,7 +120,7 @@ public class XMLRecordReader extends RecordReader<LongWritable, Map<String, Stri
   }
 
   @Override
-  public Map<String, String> getCurrentValue() throws IOException, InterruptedException {
+  public Object getCurrentValue() throws IOException, InterruptedException {
     return currentValue;
   }
 
@@ -107,18 +131,13 @@ public class XMLRecordReader extends RecordReader<LongWritable, Map<String, Stri
     fileName = file.toUri().toString();
     Configuration conf = context.getConfiguration();
     fs = file.getFileSystem(conf);
-    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory = XMLInputFactory.newInstance();
     enableExternalEntities = conf.getBoolean(XMLInputFormat.XML_INPUTFORMAT_ENABLE_EXTERNAL_ENTITIES, false);
     supportDTD = conf.getBoolean(XMLInputFormat.XML_INPUTFORMAT_SUPPORT_DTD, false);
     factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, enableExternalEntities);
     factory.setProperty(XMLInputFactory.SUPPORT_DTD, supportDTD);
     fdDataInputStream = fs.open(file);
     availableBytes = split.getLength();
-    try {
-      reader = factory.createXMLStreamReader(fdDataInputStream);
-    } catch (XMLStreamException exception) {
-      throw new RuntimeException("XMLStreamException exception : ", exception);
-    }
     //Set required node path details.
     String nodePath = conf.get(XMLInputFormat.XML_INPUTFORMAT_NODE_PATH);
     //Remove preceding '/' in node path to avoid first unwanted element after split('/')
@@ -127,6 +146,28 @@ public class XMLRecordReader extends RecordReader<LongWritable, Map<String, Stri
     }
     nodes = nodePath.split("/");
 
+    String fieldMappings = conf.get(XMLInputFormat.XML_INPUTFORMAT_FIELD_MAPPINGS);
+    if (!Strings.isNullOrEmpty(fieldMappings)) {
+      fieldExtractor = new XMLFieldExtractor(Schema.parseJson(conf.get(XMLInputFormat.XML_INPUTFORMAT_SCHEMA)),
+                                             XMLFieldExtractor.parseMappings(fieldMappings));
+    }
+
+    if (conf.getBoolean(XMLInputFormat.XML_INPUTFORMAT_SPLITTABLE, false)) {
+      splitStart = fileSplit.getStart();
+      splitEnd = splitStart + fileSplit.getLength();
+      encoding = getEncoding();
+      fdDataInputStream.seek(splitStart);
+      scanner = new XMLElementScanner(fdDataInputStream, splitStart, nodes[nodes.length - 1]);
+      // blocks are parsed without their ancestors, where namespace prefixes may be declared
+      factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+    } else {
+      try {
+        reader = factory.createXMLStreamReader(fdDataInputStream);
+      } catch (XMLStreamException exception) {
+        throw new RuntimeException("XMLStreamException exception : ", exception);
+      }
+    }
+
     currentNodeLevelMap = new HashMap<>();
     tempFilePath = conf.get(XMLInputFormat.XML_INPUTFORMAT_PROCESSED_DATA_TEMP_FOLDER);
     fileAction = conf.get(XMLInputFormat.XML_INPUTFORMAT_FILE_ACTION);
@@ -136,14 +177,10 @@ public class XMLRecordReader extends RecordReader<LongWritable, Map<String, Stri
   @Override
   public boolean nextKeyValue() throws IOException, InterruptedException {
     currentKey = new LongWritable();
-    currentValue = new HashMap<>();
+    if (scanner != null) {
+      return nextSplitRecord();
+    }
     String lastNode = nodes[nodes.length - 1];
-    StringBuilder xmlRecord = new StringBuilder();
-
-    //Flag to know if xml record matching to node path has been read and ready to use.
-    boolean xmlRecordReady = false;
-    //Flag to know if matching node found as per node path
-    boolean nodeFound = false;
     try {
       while (reader.hasNext()) {
         int event = reader.next();
@@ -160,44 +197,21 @@ public class XMLRecordReader extends RecordReader<LongWritable, Map<String, Stri
               }
             }
             //Check if node hierarchy is valid and it matches with last node in node path
-            //then start appending tag information to create valid XML Record.
+            //then read the whole node as a record.
             if (validHierarchy && nodeNameStart.equals(lastNode)) {
-              appendStartTagInformation(nodeNameStart, xmlRecord);
-              //Set flag for valid node path found
-              nodeFound = true;
               //Set file offset
               currentKey.set(reader.getLocation().getLineNumber());
-            } else if (nodeFound) {
-              //Append all child nodes inside valid node path
-              appendStartTagInformation(nodeNameStart, xmlRecord);
+              currentValue = readRecord(reader, currentKey.get());
+              return true;
             }
             nodeLevel++;
             break;
-          case XMLStreamConstants.CHARACTERS:
-            if (nodeFound) {
-              xmlRecord.append(StringEscapeUtils.escapeXml(reader.getText()));
-            }
-            break;
           case XMLStreamConstants.END_ELEMENT:
-            String nodeNameEnd = reader.getLocalName();
-            if (nodeFound) {
-              //Add closing tag
-              xmlRecord.append(OPENING_END_TAG_DELIMITER).append(nodeNameEnd).append(CLOSING_END_TAG_DELIMITER);
-              if (nodeNameEnd.equals(lastNode)) {
-                nodeFound = false;
-                //Set flag for XML record is ready to emit.
-                xmlRecordReady = true;
-              }
-            }
             nodeLevel--;
             break;
-          case XMLStreamConstants.START_DOCUMENT:
+          default:
             break;
         }
-        if (xmlRecordReady) {
-          currentValue.put(fileName, xmlRecord.toString());
-          return true;
-        }
       }
     } catch (XMLStreamException exception) {
       throw new IllegalArgumentException(exception);
@@ -209,17 +223,144 @@ public class XMLRecordReader extends RecordReader<LongWritable, Map<String, Stri
     return false;
   }
 
+  /**
+   * Reads the next record of the split, parsing it on its own.
+   */
+  private boolean nextSplitRecord() throws IOException {
+    if (!scanner.next(splitEnd)) {
+      // every split reads the same file, only the first one records it as processed
+      if (splitStart == 0 && !Strings.isNullOrEmpty(tempFilePath)) {
+        updateFileTrackingInfo();
+      }
+      return false;
+    }
+    currentKey.set(scanner.getRecordStart());
+    try {
+      XMLStreamReader recordReader = factory.createXMLStreamReader(
+        new ByteArrayInputStream(scanner.getRecord(), 0, scanner.getRecordLength()), encoding);
+      try {
+        recordReader.nextTag();
+        currentValue = readRecord(recordReader, currentKey.get());
+      } finally {
+        recordReader.close();
+      }
+    } catch (XMLStreamException exception) {
+      throw new IllegalArgumentException(exception);
+    }
+    return true;
+  }
+
+  /**
+   * Reads a record from its start element up to its end element.
+   *
+   * @param recordReader reader positioned on the start element of the record
+   * @param offset offset of the record
+   * @return the record, which is either a map from the file name to the XML string of the record or a structured
+   *         record with the mapped fields
+   */
+  private Object readRecord(XMLStreamReader recordReader, long offset) throws XMLStreamException {
+    StringBuilder xmlRecord = new StringBuilder();
+    if (fieldExtractor != null) {
+      fieldExtractor.startRecord();
+    }
+    int depth = 0;
+    while (true) {
+      switch (recordReader.getEventType()) {
+        case XMLStreamConstants.START_ELEMENT:
+          String nodeNameStart = getLocalName(recordReader.getLocalName());
+          if (fieldExtractor != null) {
+            fieldExtractor.startElement(nodeNameStart, recordReader, depth);
+          } else {
+            appendStartTagInformation(recordReader, nodeNameStart, xmlRecord);
+          }
+          depth++;
+          break;
+        case XMLStreamConstants.CHARACTERS:
+          if (fieldExtractor != null) {
+            fieldExtractor.characters(recordReader);
+          } else {
+            xmlRecord.append(StringEscapeUtils.escapeXml(recordReader.getText()));
+          }
+          break;
+        case XMLStreamConstants.CDATA:
+          if (fieldExtractor != null) {
+            fieldExtractor.characters(recordReader);
+          }
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          depth--;
+          if (fieldExtractor != null) {
+            fieldExtractor.endElement(depth);
+          } else {
+            //Add closing tag
+            xmlRecord.append(OPENING_END_TAG_DELIMITER).append(getLocalName(recordReader.getLocalName()))
+              .append(CLOSING_END_TAG_DELIMITER);
+          }
+          break;
+        default:
+          break;
+      }
+      if (depth == 0) {
+        break;
+      }
+      recordReader.next();
+    }
+
+    if (fieldExtractor != null) {
+      return fieldExtractor.build(offset, fileName);
+    }
+    Map<String, String> value = new HashMap<>();
+    value.put(fileName, xmlRecord.toString());
+    return value;
+  }
+
+  /**
+   * Returns the local part of a name, which has a prefix when records are parsed without namespaces.
+   */
+  private static String getLocalName(String name) {
+    return name.substring(name.indexOf(':') + 1);
+  }
+
+  /**
+   * Returns the encoding declared by the file, which must be compatible with ASCII to split the file.
+   */
+  private String getEncoding() throws IOException {
+    byte[] header = new byte[(int) Math.min(1024, fs.getFileStatus(file).getLen())];
+    fdDataInputStream.readFully(0, header);
+    if (header.length >= 2 && ((header[0] == (byte) 0xFE && header[1] == (byte) 0xFF)
+      || (header[0] == (byte) 0xFF && header[1] == (byte) 0xFE))) {
+      throw new IOException(String.format("File '%s' cannot be split because it is not encoded in an encoding " +
+                                            "compatible with ASCII, such as UTF-8.", fileName));
+    }
+    Matcher matcher = ENCODING_DECLARATION.matcher(new String(header, StandardCharsets.ISO_8859_1));
+    if (!matcher.find()) {
+      return StandardCharsets.UTF_8.name();
+    }
+    String declared = matcher.group(1);
+    if (declared.toUpperCase().startsWith("UTF-16") || declared.toUpperCase().startsWith("UTF-32")) {
+      throw new IOException(String.format("File '%s' cannot be split because it is not encoded in an encoding " +
+                                            "compatible with ASCII, such as UTF-8.", fileName));
+    }
+    return declared;
+  }
+
   /**
    * Method to append start tag information along with attributes if any
    */
-  private void appendStartTagInformation(String nodeNameStart, StringBuilder xmlRecord) {
+  private void appendStartTagInformation(XMLStreamReader recordReader, String nodeNameStart,
+                                         StringBuilder xmlRecord) {
     xmlRecord.append(OPENING_START_TAG_DELIMITER).append(nodeNameStart);
-    int count = reader.getAttributeCount();
+    int count = recordReader.getAttributeCount();
     for (int i = 0; i < count; i++) {
+      String attributeName = recordReader.getAttributeLocalName(i);
+      //Namespace declarations are attributes when records are parsed without namespaces.
+      if (attributeName.equals("xmlns") || attributeName.startsWith("xmlns:")) {
+        continue;
+      }
       xmlRecord.append(" ")
-        .append(StringEscapeUtils.escapeXml(reader.getAttributeLocalName(i)))
+        .append(StringEscapeUtils.escapeXml(getLocalName(attributeName)))
         .append("=\"")
-        .append(StringEscapeUtils.escapeXml(reader.getAttributeValue(i)))
+        .append(StringEscapeUtils.escapeXml(recordReader.getAttributeValue(i)))
         .append("\"");
     }
     xmlRecord.append(CLOSING_START_TAG_DELIMITER);
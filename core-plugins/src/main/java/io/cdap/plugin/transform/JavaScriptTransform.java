@@ -26,6 +26,7 @@ import com.google.gson.JsonSyntaxException;
 import io.cdap.cdap.api.annotation.Description;
 import io.cdap.cdap.api.annotation.Name;
 import io.cdap.cdap.api.annotation.Plugin;
+import io.cdap.cdap.api.common.Bytes;
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.api.plugin.PluginConfig;
@@ -53,12 +54,18 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
+import javax.script.Bindings;
 import javax.script.Invocable;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
@@ -79,8 +86,11 @@ public class JavaScriptTransform extends Transform<StructuredRecord, StructuredR
   private static final String VARIABLE_NAME = "dont_name_your_variable_this";
   private static final String EMITTER_NAME = "dont_name_your_variable2_this";
   private static final String CONTEXT_NAME = "dont_name_your_context_this";
+  // marks the fields deleted by the script from the input record
+  private static final Object REMOVED = new Object();
   private ScriptEngine engine;
   private Invocable invocable;
+  private Object json;
   private Schema schema;
   private Schema errSchema;
   private final Config config;
@@ -201,15 +211,137 @@ public class JavaScriptTransform extends Transform<StructuredRecord, StructuredR
   @Override
   public void transform(StructuredRecord input, Emitter<StructuredRecord> emitter) {
     try {
-      engine.eval(String.format("var %s = %s;", VARIABLE_NAME, StructuredRecordStringConverter.toJsonString(input)));
       Emitter<Map> jsEmitter = new JSEmitter(emitter, schema == null ? input.getSchema() : schema);
-      engine.put(EMITTER_NAME, jsEmitter);
-      invocable.invokeFunction(FUNCTION_NAME);
+      invocable.invokeFunction(FUNCTION_NAME, new RecordBindings(input), jsEmitter);
     } catch (Exception e) {
       throw new IllegalArgumentException("Could not transform input: " + e.getMessage(), e);
     }
   }
 
+  /**
+   * The input record as seen by the script. Fields are converted when the script reads them, rather than
+   * converting the whole record up front. Fields of simple types are handed over as they are. Records, arrays,
+   * maps and bytes are converted to JavaScript objects the first time one of them is read, by parsing the JSON of
+   * the record once. Fields that the script does not assign or read as an object are emitted without decoding.
+   */
+  public final class RecordBindings extends AbstractMap<String, Object> implements Bindings {
+    private final StructuredRecord record;
+    // fields assigned by the script, or converted to JavaScript objects that the script may modify in place
+    private final Map<String, Object> values = new HashMap<>();
+    private Map<?, ?> parsed;
+
+    public RecordBindings(StructuredRecord record) {
+      this.record = record;
+    }
+
+    @Override
+    public Object get(Object key) {
+      if (values.containsKey(key)) {
+        Object value = values.get(key);
+        return value == REMOVED ? null : value;
+      }
+      Schema.Field field = key instanceof String ? record.getSchema().getField((String) key) : null;
+      if (field == null) {
+        return null;
+      }
+      Object value = record.get(field.getName());
+      if (value == null) {
+        return null;
+      }
+      Schema fieldSchema = field.getSchema().isNullable() ? field.getSchema().getNonNullable() : field.getSchema();
+      if (fieldSchema.getLogicalType() == null) {
+        switch (fieldSchema.getType()) {
+          case BOOLEAN:
+          case INT:
+          case DOUBLE:
+            return value;
+          case LONG:
+            // javascript numbers are doubles, which is also what the json of the record is parsed into
+            return ((Number) value).doubleValue();
+          case STRING:
+            return value.toString();
+        }
+      }
+      Object object = parse().get(field.getName());
+      values.put(field.getName(), object);
+      return object;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+      Object previous = get(key);
+      values.put(key, value);
+      return previous;
+    }
+
+    @Override
+    public Object remove(Object key) {
+      Object previous = get(key);
+      if (containsKey(key)) {
+        values.put((String) key, REMOVED);
+      }
+      return previous;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      if (values.containsKey(key)) {
+        return values.get(key) != REMOVED;
+      }
+      return key instanceof String && record.getSchema().getField((String) key) != null;
+    }
+
+    @Override
+    public Set<String> keySet() {
+      Set<String> keys = new LinkedHashSet<>();
+      //noinspection ConstantConditions
+      for (Schema.Field field : record.getSchema().getFields()) {
+        keys.add(field.getName());
+      }
+      for (Map.Entry<String, Object> entry : values.entrySet()) {
+        if (entry.getValue() == REMOVED) {
+          keys.remove(entry.getKey());
+        } else {
+          keys.add(entry.getKey());
+        }
+      }
+      return keys;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+      Set<Entry<String, Object>> entries = new LinkedHashSet<>();
+      for (String key : keySet()) {
+        entries.add(new SimpleImmutableEntry<>(key, get(key)));
+      }
+      return entries;
+    }
+
+    /**
+     * Returns whether the value of the field can be emitted as it is in the input record, because the script
+     * neither assigned it nor read it as an object, and its schema is the same in the output.
+     */
+    private boolean isUnchanged(Schema.Field field) {
+      if (values.containsKey(field.getName())) {
+        return false;
+      }
+      Schema.Field inputField = record.getSchema().getField(field.getName());
+      return inputField != null && inputField.getSchema().equals(field.getSchema());
+    }
+
+    private Map<?, ?> parse() {
+      if (parsed == null) {
+        try {
+          parsed = (Map<?, ?>) invocable.invokeMethod(json, "parse",
+                                                     StructuredRecordStringConverter.toJsonString(record));
+        } catch (IOException | ScriptException | NoSuchMethodException e) {
+          throw new RuntimeException("Failed to convert the input record to a JavaScript object", e);
+        }
+      }
+      return parsed;
+    }
+  }
+
   /**
    * Emitter to be used from within JavaScript code
    */
@@ -302,8 +434,14 @@ public class JavaScriptTransform extends Transform<StructuredRecord, StructuredR
 
   private StructuredRecord decodeRecord(Map nativeObject, Schema schema) {
     StructuredRecord.Builder builder = StructuredRecord.builder(schema);
+    RecordBindings bindings = nativeObject instanceof RecordBindings ? (RecordBindings) nativeObject : null;
     for (Schema.Field field : schema.getFields()) {
       String fieldName = field.getName();
+      if (bindings != null && bindings.isUnchanged(field)) {
+        Object value = bindings.record.get(fieldName);
+        builder.set(fieldName, value instanceof ByteBuffer ? Bytes.toBytes((ByteBuffer) value) : value);
+        continue;
+      }
       Object fieldVal = nativeObject.get(fieldName);
       builder.set(fieldName, decode(fieldVal, field.getSchema()));
     }
@@ -372,6 +510,10 @@ public class JavaScriptTransform extends Transform<StructuredRecord, StructuredR
   }
 
   private Object decodeUnion(Object object, List<Schema> schemas) {
+    // null is decoded as null by the null schema, and trying the other schemas first would only fail
+    if (object == null && schemas.stream().anyMatch(schema -> schema.getType() == Schema.Type.NULL)) {
+      return null;
+    }
     for (Schema schema : schemas) {
       try {
         return decode(object, schema);
@@ -409,14 +551,16 @@ public class JavaScriptTransform extends Transform<StructuredRecord, StructuredR
     engine.put(CONTEXT_NAME, new ScriptContext(LOG, metrics, context, lookupConfig, js, arguments));
 
     try {
-      // this is pretty ugly, but doing this so that we can pass the 'input' json into the transform function.
-      // that is, we want people to implement
-      // function transform(input) { ... }
-      // rather than function transform() { ... } and have them access a global variable in the function
-
-      String script = String.format("function %s() { return transform(%s, %s, %s); }\n%s",
-                                    FUNCTION_NAME, VARIABLE_NAME, EMITTER_NAME, CONTEXT_NAME, config.script);
+      // the script is evaluated once, and each record is then passed to the function defined here,
+      // so that people can implement
+      // function transform(input, emitter, context) { ... }
+      // without any script source being evaluated for each record.
+
+      String script = String.format("function %s(%s, %s) { return transform(%s, %s, %s); }\n%s",
+                                    FUNCTION_NAME, VARIABLE_NAME, EMITTER_NAME, VARIABLE_NAME, EMITTER_NAME,
+                                    CONTEXT_NAME, config.script);
       engine.eval(script);
+      json = engine.eval("JSON");
     } catch (ScriptException e) {
       collector.addFailure(String.format("Invalid script: %s.", e.getMessage()), null)
         .withConfigProperty(Config.SCRIPT);
@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.batch.aggregator.function.AggregateFunction;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link AggregationPlan}.
+ */
+public class AggregationPlanTest {
+  private static final Schema INPUT_SCHEMA = Schema.recordOf(
+    "purchase",
+    Schema.Field.of("user", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("item", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("price", Schema.of(Schema.Type.DOUBLE)));
+
+  @Test
+  public void testPlan() {
+    GroupByConfig config = new GroupByConfig("user", "total:sum(price), num:count(*), maxPrice:max(price)");
+    AggregationPlan plan = AggregationPlan.compile(INPUT_SCHEMA, config.getGroupByFields(), config.getAggregates());
+
+    Schema expectedOutput = Schema.recordOf(
+      "purchase.agg",
+      Schema.Field.of("user", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("total", Schema.of(Schema.Type.DOUBLE)),
+      Schema.Field.of("num", Schema.of(Schema.Type.LONG)),
+      Schema.Field.of("maxPrice", Schema.of(Schema.Type.DOUBLE)));
+    Assert.assertEquals(expectedOutput, plan.getOutputSchema());
+
+    StructuredRecord first = record("u1", "apple", 1.5d);
+    StructuredRecord second = record("u1", "pear", 2.5d);
+    StructuredRecord groupKey = plan.getGroupKey(first);
+    Assert.assertEquals(1, groupKey.getSchema().getFields().size());
+    Assert.assertEquals("u1", groupKey.get("user"));
+
+    AggregateFunction[] functions = plan.newFunctions();
+    AggregateFunction[] others = plan.newFunctions();
+    for (AggregateFunction function : functions) {
+      function.mergeValue(first);
+    }
+    for (AggregateFunction function : others) {
+      function.mergeValue(second);
+    }
+    for (int i = 0; i < functions.length; i++) {
+      functions[i].mergeAggregates(others[i]);
+    }
+
+    StructuredRecord output = plan.buildOutput(groupKey, functions);
+    Assert.assertEquals("u1", output.get("user"));
+    Assert.assertEquals(4d, (double) output.get("total"), 0.000001d);
+    Assert.assertEquals(2L, (long) output.get("num"));
+    Assert.assertEquals(2.5d, (double) output.get("maxPrice"), 0.000001d);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingGroupByField() {
+    GroupByConfig config = new GroupByConfig("customer", "num:count(*)");
+    AggregationPlan.compile(INPUT_SCHEMA, config.getGroupByFields(), config.getAggregates());
+  }
+
+  private static StructuredRecord record(String user, String item, double price) {
+    return StructuredRecord.builder(INPUT_SCHEMA)
+      .set("user", user)
+      .set("item", item)
+      .set("price", price)
+      .build();
+  }
+}
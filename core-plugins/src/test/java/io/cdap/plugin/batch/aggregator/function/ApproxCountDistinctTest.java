@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator.function;
+
+import io.cdap.cdap.api.data.schema.Schema;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+public class ApproxCountDistinctTest extends AggregateFunctionTest {
+
+  @Test
+  public void testSmallCardinality() {
+    Schema schema = Schema.recordOf("cities",
+                                    Schema.Field.of("city", Schema.nullableOf(Schema.of(Schema.Type.STRING))));
+    test(new ApproxCountDistinct("city", HyperLogLog.DEFAULT_PRECISION), schema, "city", 3L,
+         Arrays.asList("Mountain View", "Sunnyvale", null, "Sunnyvale", "RedwoodCity", "RedwoodCity"),
+         new ApproxCountDistinct("city", HyperLogLog.DEFAULT_PRECISION));
+  }
+
+  @Test
+  public void testLargeCardinality() {
+    Schema schema = Schema.recordOf("ids", Schema.Field.of("id", Schema.of(Schema.Type.LONG)));
+    long distinct = 200000L;
+    // every id appears twice, split over multiple partitions
+    Object count = getAggregateMultiplePartitions(
+      () -> new ApproxCountDistinct("id", HyperLogLog.DEFAULT_PRECISION), schema, "id",
+      LongStream.range(0, distinct * 2).map(i -> i % distinct).boxed().iterator());
+    Assert.assertEquals(distinct, (long) count, distinct * 0.03d);
+  }
+
+  @Test
+  public void testLowPrecision() {
+    Schema schema = Schema.recordOf("ids", Schema.Field.of("id", Schema.of(Schema.Type.INT)));
+    Object count = getAggregateSinglePartition(() -> new ApproxCountDistinct("id", HyperLogLog.MIN_PRECISION),
+                                               schema, "id", IntStream.range(0, 1000).boxed().iterator());
+    // 16 registers have a standard error of about 26%
+    Assert.assertEquals(1000L, (long) count, 1000 * 0.8d);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMergeDifferentPrecisions() {
+    HyperLogLog hyperLogLog = new HyperLogLog(10);
+    hyperLogLog.merge(new HyperLogLog(12));
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator.function;
+
+import io.cdap.cdap.api.data.schema.Schema;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class ApproxPercentileTest extends AggregateFunctionTest {
+  private static final Schema SCHEMA =
+    Schema.recordOf("latencies", Schema.Field.of("latency", Schema.nullableOf(Schema.of(Schema.Type.INT))));
+
+  @Test
+  public void testExactForSmallGroups() {
+    Schema fieldSchema = SCHEMA.getField("latency").getSchema();
+    test(new ApproxMedian("latency", fieldSchema), SCHEMA, "latency", 3d,
+         Arrays.asList(5, 1, null, 3, 2, 4),
+         new ApproxMedian("latency", fieldSchema));
+    test(new ApproxPercentile("latency", fieldSchema, 1d), SCHEMA, "latency", 5d,
+         Arrays.asList(5, 1, null, 3, 2, 4),
+         new ApproxPercentile("latency", fieldSchema, 1d));
+  }
+
+  @Test
+  public void testAllNulls() {
+    Schema fieldSchema = SCHEMA.getField("latency").getSchema();
+    test(new ApproxMedian("latency", fieldSchema), SCHEMA, "latency", null,
+         Arrays.asList(null, null),
+         new ApproxMedian("latency", fieldSchema));
+  }
+
+  @Test
+  public void testLargeGroups() {
+    Schema fieldSchema = SCHEMA.getField("latency").getSchema();
+    List<Integer> values = IntStream.range(0, 100000).boxed().collect(Collectors.toList());
+    Collections.shuffle(values, new Random(0));
+
+    Object p95 = getAggregateMultiplePartitions(() -> new ApproxPercentile("latency", fieldSchema, 0.95d),
+                                                SCHEMA, "latency", values.iterator());
+    Assert.assertEquals(95000d, (double) p95, 100000 * 0.02d);
+    Object median = getAggregateSinglePartition(() -> new ApproxMedian("latency", fieldSchema),
+                                                SCHEMA, "latency", values.iterator());
+    Assert.assertEquals(50000d, (double) median, 100000 * 0.02d);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNonNumericField() {
+    new ApproxMedian("name", Schema.of(Schema.Type.STRING));
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator.function;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for {@link JexlCondition}.
+ */
+public class JexlConditionTest {
+  private static final Schema ADDRESS_SCHEMA = Schema.recordOf(
+    "address",
+    Schema.Field.of("city", Schema.of(Schema.Type.STRING)));
+  private static final Schema SCHEMA = Schema.recordOf(
+    "purchase",
+    Schema.Field.of("i", Schema.of(Schema.Type.INT)),
+    Schema.Field.of("l", Schema.of(Schema.Type.LONG)),
+    Schema.Field.of("d", Schema.of(Schema.Type.DOUBLE)),
+    Schema.Field.of("s", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("b", Schema.of(Schema.Type.BOOLEAN)),
+    Schema.Field.of("n", Schema.nullableOf(Schema.of(Schema.Type.INT))),
+    Schema.Field.of("address", ADDRESS_SCHEMA));
+
+  @Test
+  public void testSimpleComparisonsMatchJexl() {
+    List<String> conditions = Arrays.asList(
+      "i == 5", "i != 5", "i > 5", "i >= 5", "i < 5", "i <= 5", "i > -3", "i == 5.0", "i < 5.5",
+      "l == 5", "l > 4", "d == 2.5", "d > 2", "d <= 2.5",
+      "s == 'abc'", "s != \"abc\"", "s > 'abb'", "s == '5'",
+      "b == true", "b != false",
+      "n == 5", "n != 5",
+      "address.city == 'Sunnyvale'");
+
+    List<StructuredRecord> records = Arrays.asList(
+      record(5, 5L, 2.5d, "abc", true, 5, "Sunnyvale"),
+      record(-3, 4L, 2d, "5", false, null, "Mountain View"),
+      record(6, 6L, 3d, "abd", true, 6, "Sunnyvale"));
+
+    for (String condition : conditions) {
+      // parentheses make the condition go through the Jexl interpreter
+      JexlCondition compiled = JexlCondition.of(condition);
+      JexlCondition interpreted = JexlCondition.of("(" + condition + ")");
+      for (StructuredRecord record : records) {
+        Assert.assertEquals(condition + " on " + record, interpreted.apply(record), compiled.apply(record));
+      }
+    }
+  }
+
+  @Test
+  public void testComplexCondition() {
+    JexlCondition condition = JexlCondition.of("i > 1 && address.city.equals('Sunnyvale')");
+    Assert.assertTrue(condition.apply(record(5, 5L, 2.5d, "abc", true, 5, "Sunnyvale")));
+    Assert.assertFalse(condition.apply(record(5, 5L, 2.5d, "abc", true, 5, "Mountain View")));
+    Assert.assertFalse(condition.apply(record(0, 5L, 2.5d, "abc", true, 5, "Sunnyvale")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingField() {
+    JexlCondition.of("x > 1").apply(record(5, 5L, 2.5d, "abc", true, 5, "Sunnyvale"));
+  }
+
+  private static StructuredRecord record(int i, long l, double d, String s, boolean b, Integer n, String city) {
+    return StructuredRecord.builder(SCHEMA)
+      .set("i", i)
+      .set("l", l)
+      .set("d", d)
+      .set("s", s)
+      .set("b", b)
+      .set("n", n)
+      .set("address", StructuredRecord.builder(ADDRESS_SCHEMA).set("city", city).build())
+      .build();
+  }
+}
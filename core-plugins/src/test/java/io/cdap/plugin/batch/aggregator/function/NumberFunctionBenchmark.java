@@ -0,0 +1,134 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.aggregator.function;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the unboxed {@link Sum} with the boxed implementation it replaced, on long and double fields.
+ * This is not run by the unit tests. Run it with the main method from the test classpath, for example from an IDE.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NumberFunctionBenchmark {
+  private static final int NUM_RECORDS = 10000;
+
+  @Param({"long", "double"})
+  public String type;
+
+  private Schema fieldSchema;
+  private StructuredRecord[] records;
+
+  @Setup
+  public void setup() {
+    fieldSchema = Schema.nullableOf(Schema.of(Schema.Type.valueOf(type.toUpperCase())));
+    Schema schema = Schema.recordOf("record", Schema.Field.of("x", fieldSchema));
+    Random random = new Random(0);
+    records = new StructuredRecord[NUM_RECORDS];
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      Object value = "long".equals(type) ? (Object) random.nextLong() : (Object) random.nextDouble();
+      records[i] = StructuredRecord.builder(schema).set("x", value).build();
+    }
+  }
+
+  @Benchmark
+  public Number sum() {
+    Sum sum = new Sum("x", fieldSchema);
+    sum.initialize();
+    for (StructuredRecord record : records) {
+      sum.mergeValue(record);
+    }
+    return sum.getAggregate();
+  }
+
+  @Benchmark
+  public Number boxedSum() {
+    BoxedSum sum = new BoxedSum("x", fieldSchema);
+    for (StructuredRecord record : records) {
+      sum.mergeValue(record);
+    }
+    return sum.number;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(NumberFunctionBenchmark.class.getSimpleName()).build()).run();
+  }
+
+  /**
+   * The sum as it was before aggregates were kept unboxed: a boxed number, and a dispatch on the type per record.
+   */
+  private static final class BoxedSum {
+    private final String fieldName;
+    private final Schema.Type fieldType;
+    private Number number;
+
+    private BoxedSum(String fieldName, Schema fieldSchema) {
+      this.fieldName = fieldName;
+      this.fieldType = fieldSchema.isNullable() ? fieldSchema.getNonNullable().getType() : fieldSchema.getType();
+    }
+
+    private void mergeValue(StructuredRecord record) {
+      Number otherNum = record.get(fieldName);
+      if (otherNum == null) {
+        return;
+      }
+      if (number == null) {
+        number = otherNum;
+        return;
+      }
+      switch (fieldType) {
+        case INT:
+          number = (Integer) number + (Integer) otherNum;
+          return;
+        case LONG:
+          number = (Long) number + (Long) otherNum;
+          return;
+        case FLOAT:
+          number = (Float) number + (Float) otherNum;
+          return;
+        case DOUBLE:
+          number = (Double) number + (Double) otherNum;
+          return;
+        default:
+          throw new IllegalArgumentException(String.format("Field '%s' is of unsupported non-numeric type '%s'. ",
+                                                           fieldName, fieldType));
+      }
+    }
+  }
+}
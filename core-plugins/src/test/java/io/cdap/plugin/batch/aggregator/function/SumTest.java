@@ -19,6 +19,8 @@ package io.cdap.plugin.batch.aggregator.function;
 import io.cdap.cdap.api.data.schema.Schema;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 /**
  *
  */
@@ -34,6 +36,24 @@ public class SumTest extends NumberTest {
     testFunction(sum, schema, sum1, 0, 0);
   }
 
+  @Test
+  public void testIntSumOverflow() {
+    Schema schema = Schema.recordOf("test", Schema.Field.of("x", Schema.of(Schema.Type.INT)));
+    Sum sum = new Sum("x", Schema.of(Schema.Type.INT));
+    Sum sum1 = new Sum("x", Schema.of(Schema.Type.INT));
+    // same result as int arithmetic
+    testFunction(sum, schema, sum1, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, 1, 0);
+  }
+
+  @Test
+  public void testNullSum() {
+    Schema schema = Schema.recordOf("test", Schema.Field.of("x", Schema.nullableOf(Schema.of(Schema.Type.LONG))));
+    Sum sum = new Sum("x", Schema.nullableOf(Schema.of(Schema.Type.LONG)));
+    Sum sum1 = new Sum("x", Schema.nullableOf(Schema.of(Schema.Type.LONG)));
+    test(sum, schema, "x", null, Arrays.asList(null, null), sum1);
+    test(sum, schema, "x", 5L, Arrays.asList(null, 5L), sum1);
+  }
+
   @Test
   public void testLongSum() {
     Schema schema = Schema.recordOf("test", Schema.Field.of("x", Schema.of(Schema.Type.LONG)));
@@ -0,0 +1,107 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.source;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Tests for {@link ExcelInputFormat}.
+ */
+public class ExcelInputFormatTest {
+  private static final String RELATIONSHIPS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+  private static final String PACKAGE_RELATIONSHIPS = "http://schemas.openxmlformats.org/package/2006/relationships";
+  private static final String MAIN = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  @Test
+  public void testXLSXProgress() throws Exception {
+    File file = writeWorkbook(10);
+    Configuration conf = new Configuration();
+    conf.set(ExcelInputFormat.SHEET, "Sheet Number");
+    conf.set(ExcelInputFormat.SHEET_VALUE, "0");
+    ExcelInputFormat.ExcelRecordReader reader = new ExcelInputFormat.ExcelRecordReader();
+    reader.initialize(new FileSplit(new Path(file.toURI()), 0, file.length(), new String[0]),
+                      new TaskAttemptContextImpl(conf, new TaskAttemptID()));
+    try {
+      Assert.assertEquals(0f, reader.getProgress(), 0f);
+      float progress = 0f;
+      int rows = 0;
+      while (reader.nextKeyValue()) {
+        rows++;
+        Assert.assertTrue(reader.getProgress() > progress);
+        progress = reader.getProgress();
+      }
+      Assert.assertEquals(10, rows);
+      Assert.assertEquals(1f, progress, 0f);
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * Writes a workbook with a sheet of numbers, with one cell per row, and the dimension of the sheet.
+   */
+  private File writeWorkbook(int numRows) throws IOException {
+    StringBuilder sheet = new StringBuilder()
+      .append("<worksheet xmlns=\"").append(MAIN).append("\">")
+      .append("<dimension ref=\"A1:A").append(numRows).append("\"/>")
+      .append("<sheetData>");
+    for (int i = 1; i <= numRows; i++) {
+      sheet.append("<row r=\"").append(i).append("\"><c r=\"A").append(i).append("\"><v>").append(i)
+        .append("</v></c></row>");
+    }
+    sheet.append("</sheetData></worksheet>");
+
+    File file = tmpFolder.newFile("progress.xlsx");
+    try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file))) {
+      writeEntry(zip, "_rels/.rels",
+                 "<Relationships xmlns=\"" + PACKAGE_RELATIONSHIPS + "\"><Relationship Id=\"rId1\" Type=\"" +
+                   RELATIONSHIPS + "/officeDocument\" Target=\"xl/workbook.xml\"/></Relationships>");
+      writeEntry(zip, "xl/workbook.xml",
+                 "<workbook xmlns=\"" + MAIN + "\" xmlns:r=\"" + RELATIONSHIPS + "\"><sheets>" +
+                   "<sheet name=\"Sheet1\" sheetId=\"1\" r:id=\"rId1\"/></sheets></workbook>");
+      writeEntry(zip, "xl/_rels/workbook.xml.rels",
+                 "<Relationships xmlns=\"" + PACKAGE_RELATIONSHIPS + "\"><Relationship Id=\"rId1\" Type=\"" +
+                   RELATIONSHIPS + "/worksheet\" Target=\"worksheets/sheet1.xml\"/></Relationships>");
+      writeEntry(zip, "xl/worksheets/sheet1.xml", sheet.toString());
+    }
+    return file;
+  }
+
+  private void writeEntry(ZipOutputStream zip, String name, String content) throws IOException {
+    zip.putNextEntry(new ZipEntry(name));
+    zip.write(content.getBytes(StandardCharsets.UTF_8));
+    zip.closeEntry();
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.source;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Tests for {@link XLSXSheetReader}.
+ */
+public class XLSXSheetReaderTest {
+
+  @Test
+  public void testReadRows() throws Exception {
+    // a limit of a few characters keeps the shared strings in a file
+    for (long sharedStringsMemoryLimit : new long[] { 1024 * 1024, 3 }) {
+      List<ExcelRow> rows = readRows("sheet1", 0, sharedStringsMemoryLimit);
+      Assert.assertEquals(3, rows.size());
+
+      ExcelRow header = rows.get(0);
+      Assert.assertEquals(0, header.getRowNum());
+      Assert.assertEquals("Sheet1", header.getSheetName());
+      Assert.assertEquals(6, header.getCellCount());
+      Assert.assertEquals("A", header.getColumn(0));
+      Assert.assertEquals("id", header.getValue(0));
+      Assert.assertEquals("join_date", header.getValue(5));
+
+      ExcelRow row = rows.get(1);
+      Assert.assertEquals(1, row.getRowNum());
+      Assert.assertEquals(1.0d, row.getValue(0));
+      Assert.assertEquals("romy", row.getValue(1));
+      Calendar calendar = Calendar.getInstance();
+      calendar.setTime((Date) row.getValue(5));
+      Assert.assertEquals(2018, calendar.get(Calendar.YEAR));
+      Assert.assertEquals(Calendar.JANUARY, calendar.get(Calendar.MONTH));
+      Assert.assertEquals(1, calendar.get(Calendar.DAY_OF_MONTH));
+
+      // the empty third row is not in the sheet, and the blank occupation cell is skipped
+      row = rows.get(2);
+      Assert.assertEquals(3, row.getRowNum());
+      Assert.assertEquals(5, row.getCellCount());
+      Assert.assertEquals("F", row.getColumn(4));
+    }
+  }
+
+  @Test
+  public void testSheetByIndex() throws Exception {
+    Assert.assertEquals(3, readRows(null, 0, 1024).size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingSheet() throws Exception {
+    readRows("Sheet2", 0, 1024);
+  }
+
+  private List<ExcelRow> readRows(String sheetName, int sheetIndex, long sharedStringsMemoryLimit) throws Exception {
+    File file = new File(getClass().getResource("/civil_test_data_one.xlsx").toURI());
+    List<ExcelRow> rows = new ArrayList<>();
+    try (XLSXSheetReader reader = new XLSXSheetReader(file, file.getPath(), sheetName, sheetIndex,
+                                                      sharedStringsMemoryLimit)) {
+      ExcelRow row;
+      while ((row = reader.readRow()) != null) {
+        rows.add(row);
+      }
+    }
+    return rows;
+  }
+}
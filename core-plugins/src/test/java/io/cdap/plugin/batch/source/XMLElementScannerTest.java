@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.source;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for {@link XMLElementScanner}.
+ */
+public class XMLElementScannerTest {
+  private static final String XML = "<?xml version=\"1.0\"?>\n" +
+    "<!DOCTYPE catalog [<!ELEMENT catalog ANY>]>\n" +
+    "<catalog>\n" +
+    "  <!-- <book id=\"commented\"/> -->\n" +
+    "  <book id=\"1\" note='a > b'><title>One</title><book-note><![CDATA[</book>]]></book-note></book>\n" +
+    "  <bk:book xmlns:bk=\"urn:books\" id=\"2\"><title>Two</title></bk:book>\n" +
+    "  <book id=\"3\"/>\n" +
+    "  <bookshelf/>\n" +
+    "</catalog>\n";
+
+  private static final List<String> BOOKS = Arrays.asList(
+    "<book id=\"1\" note='a > b'><title>One</title><book-note><![CDATA[</book>]]></book-note></book>",
+    "<bk:book xmlns:bk=\"urn:books\" id=\"2\"><title>Two</title></bk:book>",
+    "<book id=\"3\"/>");
+
+  @Test
+  public void testScanWholeFile() throws IOException {
+    byte[] bytes = XML.getBytes(StandardCharsets.UTF_8);
+    Assert.assertEquals(BOOKS, scan(bytes, 0, bytes.length));
+  }
+
+  @Test
+  public void testSplitsReadEachElementOnce() throws IOException {
+    byte[] bytes = XML.getBytes(StandardCharsets.UTF_8);
+    // the splits must start outside of the comment, where a start tag would be found otherwise
+    int firstSplitEnd = XML.indexOf("-->") + 3;
+    for (int splitSize = 1; splitSize < bytes.length; splitSize++) {
+      List<String> books = new ArrayList<>(scan(bytes, 0, firstSplitEnd));
+      for (int start = firstSplitEnd; start < bytes.length; start += splitSize) {
+        books.addAll(scan(bytes, start, Math.min(bytes.length, start + splitSize)));
+      }
+      Assert.assertEquals("Split size " + splitSize, BOOKS, books);
+    }
+  }
+
+  @Test
+  public void testNestedElement() throws IOException {
+    String xml = "<catalog><book id=\"4\"><book>Inner</book></book><book/></catalog>";
+    byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+    XMLElementScanner scanner = new XMLElementScanner(new ByteArrayInputStream(bytes), 0, "book");
+    Assert.assertTrue(scanner.next(bytes.length));
+    Assert.assertEquals("<book id=\"4\"><book>Inner</book></book>",
+                        new String(scanner.getRecord(), 0, scanner.getRecordLength(), StandardCharsets.UTF_8));
+    Assert.assertTrue(scanner.next(bytes.length));
+    Assert.assertEquals("<book/>", new String(scanner.getRecord(), 0, scanner.getRecordLength(),
+                                              StandardCharsets.UTF_8));
+    Assert.assertFalse(scanner.next(bytes.length));
+  }
+
+  @Test(expected = IOException.class)
+  public void testTruncatedElement() throws IOException {
+    byte[] bytes = "<catalog><book><title>One</title>".getBytes(StandardCharsets.UTF_8);
+    scan(bytes, 0, bytes.length);
+  }
+
+  private static List<String> scan(byte[] bytes, int start, int end) throws IOException {
+    ByteArrayInputStream in = new ByteArrayInputStream(bytes, start, bytes.length - start);
+    XMLElementScanner scanner = new XMLElementScanner(in, start, "book");
+    List<String> elements = new ArrayList<>();
+    while (scanner.next(end)) {
+      String element = new String(scanner.getRecord(), 0, scanner.getRecordLength(), StandardCharsets.UTF_8);
+      Assert.assertEquals(element, XML.substring((int) scanner.getRecordStart(),
+                                                 (int) scanner.getRecordStart() + element.length()));
+      elements.add(element);
+    }
+    return elements;
+  }
+}
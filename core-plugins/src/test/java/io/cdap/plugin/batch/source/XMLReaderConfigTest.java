@@ -16,6 +16,7 @@
 package io.cdap.plugin.batch.source;
 
 
+import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.etl.api.FailureCollector;
 import io.cdap.cdap.etl.api.validation.CauseAttributes;
 import io.cdap.cdap.etl.api.validation.ValidationFailure.Cause;
@@ -122,4 +123,64 @@ public class XMLReaderConfigTest {
     expectedCause.addAttribute(CauseAttributes.STAGE_CONFIG, XMLReaderBatchSource.XMLReaderConfig.TEMPORARY_FOLDER);
     Assert.assertEquals(expectedCause, collector.getValidationFailures().get(0).getCauses().get(0));
   }
+
+  @Test
+  public void testSplittableWithFileAction() {
+    XMLReaderBatchSource.XMLReaderConfig config = new XMLReaderBatchSource.XMLReaderConfig("splittableReference",
+                                                                                           "/opt/hdfs/catalog.xml",
+                                                                                           null, "/catalog/book/",
+                                                                                           "Delete", null, "No",
+                                                                                           "XMLTrackingTable", 30,
+                                                                                           "/tmp", false, false,
+                                                                                           true, null, null);
+    FailureCollector collector = new MockFailureCollector();
+    config.validate(collector);
+    Assert.assertEquals(1, collector.getValidationFailures().size());
+    Assert.assertEquals(2, collector.getValidationFailures().get(0).getCauses().size());
+    Cause expectedCause = new Cause();
+    expectedCause.addAttribute(CauseAttributes.STAGE_CONFIG,
+                               XMLReaderBatchSource.XMLReaderConfig.ACTION_AFTER_PROCESS);
+    Assert.assertEquals(expectedCause, collector.getValidationFailures().get(0).getCauses().get(0));
+  }
+
+  @Test
+  public void testInvalidFieldMappings() {
+    XMLReaderBatchSource.XMLReaderConfig config = new XMLReaderBatchSource.XMLReaderConfig("mappingsReference",
+                                                                                           "/opt/hdfs/catalog.xml",
+                                                                                           null, "/catalog/book/",
+                                                                                           "None", null, "No",
+                                                                                           "XMLTrackingTable", 30,
+                                                                                           "/tmp", false, false,
+                                                                                           true, "title:title,id",
+                                                                                           null);
+    FailureCollector collector = new MockFailureCollector();
+    config.validate(collector);
+    Assert.assertEquals(1, collector.getValidationFailures().size());
+    Assert.assertEquals(1, collector.getValidationFailures().get(0).getCauses().size());
+    Cause expectedCause = new Cause();
+    expectedCause.addAttribute(CauseAttributes.STAGE_CONFIG, XMLReaderBatchSource.XMLReaderConfig.FIELD_MAPPINGS);
+    Assert.assertEquals(expectedCause, collector.getValidationFailures().get(0).getCauses().get(0));
+  }
+
+  @Test
+  public void testRecordFieldIgnoredWithFieldMappings() {
+    // the schema the UI starts from, with the mapped fields added
+    Schema inputSchema = Schema.recordOf("etlSchemaBody",
+                                         Schema.Field.of("offset", Schema.of(Schema.Type.LONG)),
+                                         Schema.Field.of("filename", Schema.of(Schema.Type.STRING)),
+                                         Schema.Field.of("record", Schema.of(Schema.Type.STRING)),
+                                         Schema.Field.of("title", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+                                         Schema.Field.of("id", Schema.of(Schema.Type.INT)));
+    XMLReaderBatchSource.XMLReaderConfig config = new XMLReaderBatchSource.XMLReaderConfig(
+      "mappingsReference", "/opt/hdfs/catalog.xml", null, "/catalog/book/", "None", null, "No", "XMLTrackingTable", 30,
+      "/tmp", false, false, true, "title:title,id:@id", inputSchema.toString());
+    FailureCollector collector = new MockFailureCollector();
+    config.validate(collector);
+    Assert.assertEquals(0, collector.getValidationFailures().size());
+    Schema schema = config.getSchema();
+    Assert.assertNull(schema.getField("record"));
+    Assert.assertNotNull(schema.getField("offset"));
+    Assert.assertEquals(Schema.of(Schema.Type.INT), schema.getField("id").getSchema());
+    Assert.assertEquals(4, schema.getFields().size());
+  }
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.batch.source;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for {@link XMLRecordReader}.
+ */
+public class XMLRecordReaderTest {
+  private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+    "<catalog xmlns:bk=\"urn:books\">\n" +
+    "  <book id=\"1\"><title>Oberon's Legacy</title><price>5.95</price></book>\n" +
+    "  <book id=\"2\"><title>The Sundered Grail &amp; more</title></book>\n" +
+    "  <bk:book bk:id=\"3\"><title>Maeve</title><price>7.5</price></bk:book>\n" +
+    "</catalog>\n";
+
+  @ClassRule
+  public static final TemporaryFolder TEMP_FOLDER = new TemporaryFolder();
+
+  @Test
+  public void testSplitsReadSameRecords() throws Exception {
+    File file = writeFile();
+    List<Object> expected = read(file, new Configuration(), file.length());
+    Assert.assertEquals(Arrays.asList(
+      "<book id=\"1\"><title>Oberon&apos;s Legacy</title><price>5.95</price></book>",
+      "<book id=\"2\"><title>The Sundered Grail &amp; more</title></book>",
+      "<book id=\"3\"><title>Maeve</title><price>7.5</price></book>"), expected);
+
+    Configuration conf = new Configuration();
+    conf.setBoolean(XMLInputFormat.XML_INPUTFORMAT_SPLITTABLE, true);
+    for (long splitSize : new long[] { 10, 37, file.length() }) {
+      Assert.assertEquals(expected, read(file, conf, splitSize));
+    }
+  }
+
+  @Test
+  public void testFieldMappings() throws Exception {
+    File file = writeFile();
+    Schema schema = Schema.recordOf(
+      "book",
+      Schema.Field.of("filename", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("id", Schema.of(Schema.Type.INT)),
+      Schema.Field.of("title", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+      Schema.Field.of("price", Schema.nullableOf(Schema.of(Schema.Type.DOUBLE))));
+    Configuration conf = new Configuration();
+    conf.set(XMLInputFormat.XML_INPUTFORMAT_FIELD_MAPPINGS, "id:@id,title:title,price:price");
+    conf.set(XMLInputFormat.XML_INPUTFORMAT_SCHEMA, schema.toString());
+
+    String fileName = new Path(file.toURI()).toUri().toString();
+    List<Object> expected = Arrays.asList(
+      StructuredRecord.builder(schema).set("filename", fileName).set("id", 1).set("title", "Oberon's Legacy")
+        .set("price", 5.95d).build(),
+      StructuredRecord.builder(schema).set("filename", fileName).set("id", 2)
+        .set("title", "The Sundered Grail & more").build(),
+      StructuredRecord.builder(schema).set("filename", fileName).set("id", 3).set("title", "Maeve")
+        .set("price", 7.5d).build());
+    Assert.assertEquals(expected, read(file, conf, file.length()));
+
+    conf.setBoolean(XMLInputFormat.XML_INPUTFORMAT_SPLITTABLE, true);
+    Assert.assertEquals(expected, read(file, conf, 50));
+  }
+
+  private static File writeFile() throws Exception {
+    File file = new File(TEMP_FOLDER.getRoot(), "catalog.xml");
+    Files.write(file.toPath(), XML.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  private static List<Object> read(File file, Configuration conf, long splitSize) throws Exception {
+    conf.set(XMLInputFormat.XML_INPUTFORMAT_NODE_PATH, "/catalog/book");
+    conf.set(XMLInputFormat.XML_INPUTFORMAT_FILE_ACTION, "None");
+    List<Object> records = new ArrayList<>();
+    for (long start = 0; start < file.length(); start += splitSize) {
+      FileSplit split = new FileSplit(new Path(file.toURI()), start, Math.min(splitSize, file.length() - start),
+                                      new String[0]);
+      XMLRecordReader reader = new XMLRecordReader();
+      reader.initialize(split, new TaskAttemptContextImpl(conf, new TaskAttemptID()));
+      try {
+        while (reader.nextKeyValue()) {
+          Object value = reader.getCurrentValue();
+          // XML records are maps from the file name to the XML of the record
+          records.add(value instanceof StructuredRecord ? value : ((Map<?, ?>) value).values().iterator().next());
+        }
+      } finally {
+        reader.close();
+      }
+    }
+    return records;
+  }
+}
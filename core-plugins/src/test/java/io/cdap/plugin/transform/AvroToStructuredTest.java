@@ -23,6 +23,7 @@ import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.plugin.format.avro.AvroToStructuredTransformer;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.generic.GenericRecordBuilder;
+import org.apache.avro.util.Utf8;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -96,6 +97,29 @@ public class AvroToStructuredTest {
     Assert.assertEquals(0, array1Result.<Integer>get("int").intValue());
   }
 
+  @Test
+  public void testFieldsReadByName() throws Exception {
+    AvroToStructuredTransformer avroToStructuredTransformer = new AvroToStructuredTransformer();
+
+    org.apache.avro.Schema avroSchema = convertSchema(
+      Schema.recordOf("input",
+                      Schema.Field.of("b", Schema.of(Schema.Type.STRING)),
+                      Schema.Field.of("a", Schema.of(Schema.Type.INT))));
+    Schema schema = Schema.recordOf("output",
+                                    Schema.Field.of("a", Schema.of(Schema.Type.INT)),
+                                    Schema.Field.of("b", Schema.of(Schema.Type.STRING)),
+                                    Schema.Field.of("c", Schema.nullableOf(Schema.of(Schema.Type.STRING))));
+
+    for (int i = 0; i < 3; i++) {
+      GenericRecord avroRecord = new GenericRecordBuilder(avroSchema)
+        .set("a", i)
+        .set("b", new Utf8("b" + i))
+        .build();
+      StructuredRecord result = avroToStructuredTransformer.transform(avroRecord, schema);
+      Assert.assertEquals(StructuredRecord.builder(schema).set("a", i).set("b", "b" + i).build(), result);
+    }
+  }
+
   private org.apache.avro.Schema convertSchema(Schema cdapSchema) {
     return new org.apache.avro.Schema.Parser().parse(cdapSchema.toString());
   }
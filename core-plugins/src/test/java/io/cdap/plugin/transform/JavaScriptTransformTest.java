@@ -167,6 +167,48 @@ public class JavaScriptTransformTest {
     Assert.assertEquals(expectedListField, output.get("arrayField"));
   }
 
+  @Test
+  public void testSpecialCharacters() throws Exception {
+    JavaScriptTransform.Config config = new JavaScriptTransform.Config(
+      "function transform(x, emitter, context) { x.stringField = x.stringField + '!'; emitter.emit(x); }", null, null);
+    Transform<StructuredRecord, StructuredRecord> transform = new JavaScriptTransform(config);
+    transform.initialize(new MockTransformContext());
+
+    MockEmitter<StructuredRecord> emitter = new MockEmitter<>();
+    String[] values = { "\"quoted\" 'value'", "back\\slash", "line\nbreak", "\u2028separator", "" };
+    for (String value : values) {
+      transform.transform(StructuredRecord.builder(STRING_SCHEMA).set("stringField", value).build(), emitter);
+    }
+    Assert.assertEquals(values.length, emitter.getEmitted().size());
+    for (int i = 0; i < values.length; i++) {
+      Assert.assertEquals(values[i] + "!", emitter.getEmitted().get(i).get("stringField"));
+    }
+  }
+
+  @Test
+  public void testInputNotEvaluated() throws Exception {
+    // the record is passed to the function rather than assigned to a global variable by evaluating its json,
+    // and the fields that the script does not touch are emitted without being converted
+    JavaScriptTransform.Config config = new JavaScriptTransform.Config(
+      "function transform(x, emitter, context) { " +
+        "x.stringField = typeof dont_name_your_variable_this;" +
+        "x.mapField.baz = 19;" +
+        "emitter.emit(x);" +
+        "}",
+      null, null);
+    Transform<StructuredRecord, StructuredRecord> transform = new JavaScriptTransform(config);
+    transform.initialize(new MockTransformContext());
+
+    MockEmitter<StructuredRecord> emitter = new MockEmitter<>();
+    transform.transform(RECORD1, emitter);
+    StructuredRecord output = emitter.getEmitted().get(0);
+    Assert.assertEquals("undefined", output.get("stringField"));
+    Assert.assertEquals(ImmutableMap.of("foo", 13, "bar", 17, "baz", 19), output.get("mapField"));
+    Assert.assertSame(RECORD1.get("arrayField"), output.get("arrayField"));
+    Assert.assertSame(RECORD1.get("floatField"), output.get("floatField"));
+    Assert.assertEquals(99L, output.<Long>get("longField").longValue());
+  }
+
   @Test
   public void testSchemaValidation() throws Exception {
     Schema outputSchema = Schema.recordOf(
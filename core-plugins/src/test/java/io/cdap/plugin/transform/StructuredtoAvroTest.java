@@ -136,4 +136,32 @@ public class StructuredtoAvroTest {
     Assert.assertNull(result.get("byteBuffer"));
     Assert.assertNull(result.get("byteArray"));
   }
+
+  @Test
+  public void testReuseRecords() throws Exception {
+    Schema innerSchema = Schema.recordOf("inner", Schema.Field.of("x", Schema.of(Schema.Type.INT)));
+    Schema schema = Schema.recordOf("output",
+                                    Schema.Field.of("id", Schema.of(Schema.Type.LONG)),
+                                    Schema.Field.of("inner", Schema.nullableOf(innerSchema)));
+    StructuredToAvroTransformer avroTransformer = new StructuredToAvroTransformer(schema, true);
+
+    StructuredRecord inner = StructuredRecord.builder(innerSchema).set("x", 1).build();
+    GenericRecord first = avroTransformer.transform(
+      StructuredRecord.builder(schema).set("id", 1L).set("inner", inner).build());
+    Assert.assertEquals(1L, first.get("id"));
+    Assert.assertEquals(1, ((GenericRecord) first.get("inner")).get("x"));
+
+    // the same record is returned with the values of the next record, including nulls
+    GenericRecord second = avroTransformer.transform(StructuredRecord.builder(schema).set("id", 2L).build());
+    Assert.assertSame(first, second);
+    Assert.assertEquals(2L, second.get("id"));
+    Assert.assertNull(second.get("inner"));
+
+    // records are not reused by default
+    avroTransformer = new StructuredToAvroTransformer(schema);
+    first = avroTransformer.transform(StructuredRecord.builder(schema).set("id", 1L).build());
+    second = avroTransformer.transform(StructuredRecord.builder(schema).set("id", 2L).build());
+    Assert.assertNotSame(first, second);
+    Assert.assertEquals(1L, first.get("id"));
+  }
 }
@@ -73,6 +73,11 @@ public class DBRecord implements Writable, DBWritable, Configurable, DataSizeRep
    */
   private int [] columnTypes;
 
+  /**
+   * Decoder of the rows of the {@link ResultSet} this record was last read from.
+   */
+  private RowDecoder decoder;
+
   /**
    * Used to construct a DBRecord from a StructuredRecord in the ETL Pipeline
    *
@@ -115,6 +120,18 @@ public class DBRecord implements Writable, DBWritable, Configurable, DataSizeRep
     return bytesRead;
   }
 
+  /**
+   * @return a copy of this record that keeps the current row and size of data read when this record reads
+   *         the next row
+   */
+  public DBRecord copy() {
+    DBRecord copy = new DBRecord(record, columnTypes);
+    copy.conf = conf;
+    copy.bytesRead = bytesRead;
+    copy.bytesWritten = bytesWritten;
+    return copy;
+  }
+
   /**
    * Builds the {@link #record} using the specified {@link ResultSet}
    *
@@ -122,49 +139,15 @@ public class DBRecord implements Writable, DBWritable, Configurable, DataSizeRep
    */
   public void readFields(ResultSet resultSet) throws SQLException {
     bytesRead = 0;
-    ResultSetMetaData metadata = resultSet.getMetaData();
-    String outputSchemaString = conf.get(DBUtils.OVERRIDE_SCHEMA, null);
-    Schema outputSchema = null;
-
-    if (!Strings.isNullOrEmpty(outputSchemaString)) {
-      try {
-        outputSchema = Schema.parseJson(outputSchemaString);
-      } catch (IOException e) {
-        throw new IllegalArgumentException(String.format("Unable to parse schema string '%s'.", outputSchemaString), e);
-      }
-    }
-
-    List<Schema.Field> originalSchema = DBUtils.getOriginalSchema(resultSet, outputSchema);
-    String patternToReplace = conf.get(DBUtils.PATTERN_TO_REPLACE);
-    String replaceWith = conf.get(DBUtils.REPLACE_WITH);
-
-    // map of new name -> original name
-    Map<String, String> nameMap = new HashMap<>();
-    List<Schema.Field> newSchema = new ArrayList<>();
-    for (Schema.Field field : originalSchema) {
-      String newName = field.getName();
-      if (patternToReplace != null) {
-        newName = newName.replaceAll(patternToReplace, replaceWith == null ? "" : replaceWith);
-      }
-      nameMap.put(newName, field.getName());
-      newSchema.add(Schema.Field.of(newName, field.getSchema()));
+    // the record reader reuses the same DBRecord for every row of its result set,
+    // so the schema and column metadata only need to be resolved for the first row
+    if (decoder == null || decoder.resultSet != resultSet) {
+      decoder = RowDecoder.compile(resultSet, conf);
     }
-
-    List<Schema.Field> schemaFields = DBUtils.getSchemaFields(Schema.recordOf("resultSet", newSchema),
-                                                              conf.get(DBUtils.OVERRIDE_SCHEMA));
-    Schema schema = Schema.recordOf("dbRecord", schemaFields);
-    StructuredRecord.Builder recordBuilder = StructuredRecord.builder(schema);
-    for (int i = 0; i < schemaFields.size(); i++) {
-      Schema.Field field = schemaFields.get(i);
-      int sqlType = metadata.getColumnType(i + 1);
-      int sqlPrecision = metadata.getPrecision(i + 1);
-      int sqlScale = metadata.getScale(i + 1);
-
-      Schema outputFieldSchema = field.getSchema();
-      outputFieldSchema = outputFieldSchema.isNullable() ? outputFieldSchema.getNonNullable() : outputFieldSchema;
-      setField(resultSet, recordBuilder, field, sqlType, sqlPrecision, sqlScale, nameMap.getOrDefault(field.getName(),
-                                                                                                      field.getName()),
-               outputFieldSchema);
+    StructuredRecord.Builder recordBuilder = StructuredRecord.builder(decoder.schema);
+    for (int i = 0; i < decoder.fields.length; i++) {
+      setField(resultSet, recordBuilder, decoder.fields[i], decoder.sqlTypes[i], decoder.sqlPrecisions[i],
+               decoder.sqlScales[i], decoder.originalNames[i], decoder.outputFieldSchemas[i]);
     }
     record = recordBuilder.build();
   }
@@ -190,12 +173,8 @@ public class DBRecord implements Writable, DBWritable, Configurable, DataSizeRep
       bytesRead += decimal.unscaledValue().bitLength() / Byte.SIZE + Integer.BYTES;
       recordBuilder.setDecimal(field.getName(), decimal);
     } else if (o instanceof BigInteger) {
-      Schema schema = field.getSchema();
       BigInteger bigint = ((BigInteger) o);
-      if (schema.isNullable()) {
-        schema = schema.getNonNullable();
-      }
-      if (schema.getType() == Schema.Type.LONG) {
+      if (outputFieldSchema.getType() == Schema.Type.LONG) {
         Long int2long = bigint.longValueExact();
         bytesRead += Long.BYTES;
         recordBuilder.set(field.getName(), int2long);
@@ -206,11 +185,7 @@ public class DBRecord implements Writable, DBWritable, Configurable, DataSizeRep
       }
     } else {
       if (o != null) {
-        Schema schema = field.getSchema();
-        if (schema.isNullable()) {
-          schema = schema.getNonNullable();
-        }
-        switch (schema.getType()) {
+        switch (outputFieldSchema.getType()) {
           case INT:
           case BOOLEAN:
             bytesRead += Integer.BYTES;
@@ -227,7 +202,7 @@ public class DBRecord implements Writable, DBWritable, Configurable, DataSizeRep
           case STRING:
             String value = (String) o;
             //make sure value is in the right format for datetime
-            if (schema.getLogicalType() == Schema.LogicalType.DATETIME) {
+            if (outputFieldSchema.getLogicalType() == Schema.LogicalType.DATETIME) {
               try {
                 LocalDateTime.parse(value);
               } catch (DateTimeParseException exception) {
@@ -261,11 +236,22 @@ public class DBRecord implements Writable, DBWritable, Configurable, DataSizeRep
    * @param stmt the {@link PreparedStatement} to write the {@link StructuredRecord} to
    */
   public void write(PreparedStatement stmt) throws SQLException {
+    write(stmt, 0);
+  }
+
+  /**
+   * Writes the {@link #record} to the specified {@link PreparedStatement}, starting after the given number of
+   * parameters. This is used to write several records to a statement that inserts multiple rows.
+   *
+   * @param stmt the {@link PreparedStatement} to write the {@link StructuredRecord} to
+   * @param parameterOffset the number of parameters of the statement before the ones of this record
+   */
+  public void write(PreparedStatement stmt, int parameterOffset) throws SQLException {
     bytesWritten = 0;
     Schema recordSchema = record.getSchema();
     List<Schema.Field> schemaFields = recordSchema.getFields();
     for (int i = 0; i < schemaFields.size(); i++) {
-      writeToDB(stmt, schemaFields.get(i), i);
+      writeToDB(stmt, schemaFields.get(i), i, parameterOffset + i + 1);
     }
   }
 
@@ -325,13 +311,13 @@ public class DBRecord implements Writable, DBWritable, Configurable, DataSizeRep
     }
   }
 
-  private void writeToDB(PreparedStatement stmt, Schema.Field field, int fieldIndex) throws SQLException {
+  private void writeToDB(PreparedStatement stmt, Schema.Field field, int fieldIndex, int sqlIndex)
+    throws SQLException {
     String fieldName = field.getName();
     Schema fieldSchema = getNonNullableSchema(field);
     Schema.Type fieldType = fieldSchema.getType();
     Schema.LogicalType fieldLogicalType = fieldSchema.getLogicalType();
     Object fieldValue = record.get(fieldName);
-    int sqlIndex = fieldIndex + 1;
 
     if (fieldValue == null) {
       stmt.setNull(sqlIndex, columnTypes[fieldIndex]);
@@ -441,4 +427,77 @@ public class DBRecord implements Writable, DBWritable, Configurable, DataSizeRep
   public Configuration getConf() {
     return conf;
   }
+
+  /**
+   * Output schema and per column metadata of a {@link ResultSet}, resolved once from its {@link ResultSetMetaData}
+   * and the configured schema so that reading a row doesn't have to parse schemas or query the metadata again.
+   */
+  private static final class RowDecoder {
+    private final ResultSet resultSet;
+    private final Schema schema;
+    private final Schema.Field[] fields;
+    private final int[] sqlTypes;
+    private final int[] sqlPrecisions;
+    private final int[] sqlScales;
+    private final String[] originalNames;
+    private final Schema[] outputFieldSchemas;
+
+    private RowDecoder(ResultSet resultSet, Schema schema, int size) {
+      this.resultSet = resultSet;
+      this.schema = schema;
+      this.fields = new Schema.Field[size];
+      this.sqlTypes = new int[size];
+      this.sqlPrecisions = new int[size];
+      this.sqlScales = new int[size];
+      this.originalNames = new String[size];
+      this.outputFieldSchemas = new Schema[size];
+    }
+
+    private static RowDecoder compile(ResultSet resultSet, Configuration conf) throws SQLException {
+      ResultSetMetaData metadata = resultSet.getMetaData();
+      String outputSchemaString = conf.get(DBUtils.OVERRIDE_SCHEMA, null);
+      Schema outputSchema = null;
+
+      if (!Strings.isNullOrEmpty(outputSchemaString)) {
+        try {
+          outputSchema = Schema.parseJson(outputSchemaString);
+        } catch (IOException e) {
+          throw new IllegalArgumentException(String.format("Unable to parse schema string '%s'.", outputSchemaString),
+                                             e);
+        }
+      }
+
+      List<Schema.Field> originalSchema = DBUtils.getOriginalSchema(resultSet, outputSchema);
+      String patternToReplace = conf.get(DBUtils.PATTERN_TO_REPLACE);
+      String replaceWith = conf.get(DBUtils.REPLACE_WITH);
+
+      // map of new name -> original name
+      Map<String, String> nameMap = new HashMap<>();
+      List<Schema.Field> newSchema = new ArrayList<>();
+      for (Schema.Field field : originalSchema) {
+        String newName = field.getName();
+        if (patternToReplace != null) {
+          newName = newName.replaceAll(patternToReplace, replaceWith == null ? "" : replaceWith);
+        }
+        nameMap.put(newName, field.getName());
+        newSchema.add(Schema.Field.of(newName, field.getSchema()));
+      }
+
+      List<Schema.Field> schemaFields = DBUtils.getSchemaFields(Schema.recordOf("resultSet", newSchema),
+                                                                outputSchemaString);
+      RowDecoder decoder = new RowDecoder(resultSet, Schema.recordOf("dbRecord", schemaFields), schemaFields.size());
+      for (int i = 0; i < schemaFields.size(); i++) {
+        Schema.Field field = schemaFields.get(i);
+        decoder.fields[i] = field;
+        decoder.sqlTypes[i] = metadata.getColumnType(i + 1);
+        decoder.sqlPrecisions[i] = metadata.getPrecision(i + 1);
+        decoder.sqlScales[i] = metadata.getScale(i + 1);
+        decoder.originalNames[i] = nameMap.getOrDefault(field.getName(), field.getName());
+        Schema outputFieldSchema = field.getSchema();
+        decoder.outputFieldSchemas[i] = outputFieldSchema.isNullable() ?
+          outputFieldSchema.getNonNullable() : outputFieldSchema;
+      }
+      return decoder;
+    }
+  }
 }
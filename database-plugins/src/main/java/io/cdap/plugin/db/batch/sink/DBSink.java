@@ -19,6 +19,7 @@ package io.cdap.plugin.db.batch.sink;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import io.cdap.cdap.api.annotation.Description;
 import io.cdap.cdap.api.annotation.Macro;
@@ -65,10 +66,13 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 
@@ -104,6 +108,7 @@ public class DBSink extends ReferenceBatchSink<StructuredRecord, DBRecord, NullW
   public void configurePipeline(PipelineConfigurer pipelineConfigurer) {
     super.configurePipeline(pipelineConfigurer);
     FailureCollector collector = pipelineConfigurer.getStageConfigurer().getFailureCollector();
+    dbSinkConfig.validate(collector);
     if (dbSinkConfig.containsMacro(DBConnectorConfig.JDBC_PLUGIN_NAME)) {
       dbManager.validateCredentials(collector);
     } else {
@@ -114,8 +119,9 @@ public class DBSink extends ReferenceBatchSink<StructuredRecord, DBRecord, NullW
   @Override
   public void prepareRun(BatchSinkContext context) {
     FailureCollector collector = context.getFailureCollector();
+    dbSinkConfig.validate(collector);
     collector.getOrThrowException();
-    
+
     LOG.debug("tableName = {}; pluginType = {}; pluginName = {}; connectionString = {}; columns = {}; " +
                 "transaction isolation level: {}",
               dbSinkConfig.tableName, dbSinkConfig.jdbcPluginType, dbSinkConfig.getJdbcPluginName(),
@@ -234,6 +240,9 @@ public class DBSink extends ReferenceBatchSink<StructuredRecord, DBRecord, NullW
     public static final String COLUMNS = "columns";
     public static final String TABLE_NAME = "tableName";
     public static final String TRANSACTION_ISOLATION_LEVEL = "transactionIsolationLevel";
+    public static final String OPERATION_NAME = "operationName";
+    public static final String RELATION_TABLE_KEY = "relationTableKey";
+    public static final String ROWS_PER_INSERT = "rowsPerInsert";
 
     @Name(COLUMNS)
     @Description("Comma-separated list of columns in the specified table to export to.")
@@ -253,6 +262,80 @@ public class DBSink extends ReferenceBatchSink<StructuredRecord, DBRecord, NullW
       "and this setting is set to true. For drivers like that, this should be set to TRANSACTION_NONE.")
     @Macro
     public String transactionIsolationLevel;
+
+    @Nullable
+    @Name(OPERATION_NAME)
+    @Description("Operation used to write records. 'insert' inserts a row for every record. 'upsert' updates the " +
+      "row with the same values of the Table Key columns if there is one, and inserts a row otherwise, so that " +
+      "writing the same records again does not create duplicates. Defaults to 'insert'.")
+    @Macro
+    public String operationName;
+
+    @Nullable
+    @Name(RELATION_TABLE_KEY)
+    @Description("Comma-separated list of the columns that identify a row, used to find the row to update when the " +
+      "operation is 'upsert'. The columns must be part of the columns written, and usually form the primary key " +
+      "or a unique key of the table.")
+    @Macro
+    public String relationTableKey;
+
+    @Nullable
+    @Name(ROWS_PER_INSERT)
+    @Description("The number of rows inserted by each INSERT statement when the operation is 'insert'. Inserting " +
+      "several rows per statement reduces the number of statements the database has to execute. Defaults to 1.")
+    @Macro
+    public Integer rowsPerInsert;
+
+    public String getOperationName() {
+      return Strings.isNullOrEmpty(operationName) ? ETLDBOutputFormat.OPERATION_INSERT : operationName;
+    }
+
+    public List<String> getRelationTableKey() {
+      return relationTableKey == null ? Collections.emptyList() :
+        ImmutableList.copyOf(Splitter.on(",").omitEmptyStrings().trimResults().split(relationTableKey));
+    }
+
+    private void validate(FailureCollector collector) {
+      if (!containsMacro(OPERATION_NAME) && !ETLDBOutputFormat.OPERATION_INSERT.equalsIgnoreCase(getOperationName())
+        && !ETLDBOutputFormat.OPERATION_UPSERT.equalsIgnoreCase(getOperationName())) {
+        collector.addFailure(String.format("Invalid operation '%s'.", operationName),
+                             String.format("Operation must be '%s' or '%s'.", ETLDBOutputFormat.OPERATION_INSERT,
+                                           ETLDBOutputFormat.OPERATION_UPSERT))
+          .withConfigProperty(OPERATION_NAME);
+      }
+
+      if (!containsMacro(OPERATION_NAME) && !containsMacro(RELATION_TABLE_KEY) &&
+        ETLDBOutputFormat.OPERATION_UPSERT.equalsIgnoreCase(getOperationName())) {
+        List<String> keyColumns = getRelationTableKey();
+        if (keyColumns.isEmpty()) {
+          collector.addFailure("Table Key must be specified when the operation is 'upsert'.", null)
+            .withConfigProperty(RELATION_TABLE_KEY);
+        } else if (!containsMacro(COLUMNS) && columns != null) {
+          Set<String> columnNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+          columnNames.addAll(ImmutableList.copyOf(Splitter.on(",").omitEmptyStrings().trimResults().split(columns)));
+          for (String keyColumn : keyColumns) {
+            if (!columnNames.contains(keyColumn)) {
+              collector.addFailure(String.format("Table Key column '%s' is not one of the columns written.",
+                                                 keyColumn), "Add the column to the columns or remove it from the key.")
+                .withConfigProperty(RELATION_TABLE_KEY).withConfigProperty(COLUMNS);
+            }
+          }
+        }
+      }
+
+      if (!containsMacro(ROWS_PER_INSERT) && rowsPerInsert != null && rowsPerInsert < 1) {
+        collector.addFailure("Invalid number of rows per insert.", "Rows per insert must be a positive integer.")
+          .withConfigProperty(ROWS_PER_INSERT);
+      }
+
+      if (!containsMacro(ROWS_PER_INSERT) && rowsPerInsert != null && rowsPerInsert > 1
+        && !containsMacro(NAME_CONNECTION) && getConnection() != null && getConnectionString() != null
+        && !SinkQueryBuilder.supportsMultiRowInsert(getConnectionString())) {
+        collector.addFailure("Multi-row inserts are not supported by this database.",
+                             "Set rows per insert to 1, and use the batch size to send rows in JDBC batches.")
+          .withConfigProperty(ROWS_PER_INSERT);
+      }
+    }
   }
 
   private static class DBOutputFormatProvider implements OutputFormatProvider {
@@ -280,6 +363,13 @@ public class DBSink extends ReferenceBatchSink<StructuredRecord, DBRecord, NullW
       }
       conf.put(DBConfiguration.OUTPUT_TABLE_NAME_PROPERTY, dbSinkConfig.tableName);
       conf.put(DBConfiguration.OUTPUT_FIELD_NAMES_PROPERTY, dbSinkConfig.columns);
+      conf.put(ETLDBOutputFormat.OPERATION, dbSinkConfig.getOperationName().toLowerCase());
+      if (dbSinkConfig.relationTableKey != null) {
+        conf.put(ETLDBOutputFormat.KEY_COLUMNS, dbSinkConfig.relationTableKey);
+      }
+      if (dbSinkConfig.rowsPerInsert != null) {
+        conf.put(ETLDBOutputFormat.ROWS_PER_INSERT, String.valueOf(dbSinkConfig.rowsPerInsert));
+      }
 
       // Configure batch size for commit operations is specified.
       if (pipelineArguments.has(ETLDBOutputFormat.COMMIT_BATCH_SIZE)) {
@@ -19,6 +19,7 @@ package io.cdap.plugin.db.batch.sink;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
 import io.cdap.plugin.ConnectionConfig;
+import io.cdap.plugin.DBRecord;
 import io.cdap.plugin.DataSizeReporter;
 import io.cdap.plugin.common.db.DBUtils;
 import io.cdap.plugin.common.db.JDBCDriverShim;
@@ -41,7 +42,11 @@ import java.sql.Driver;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
+import java.util.stream.Collectors;
 
 /**
  * Class that extends {@link DBOutputFormat} to load the database driver class correctly.
@@ -55,6 +60,14 @@ public class ETLDBOutputFormat<K extends DBWritable, V>  extends DBOutputFormat<
   // Batch size before submitting a batch to the SQL engine. If set to 0, no batches will be submitted until commit.
   public static final String COMMIT_BATCH_SIZE = "io.cdap.plugin.db.output.commit.batch.size";
   public static final int DEFAULT_COMMIT_BATCH_SIZE = 1000;
+  // Whether rows are inserted, or inserted or updated depending on whether a row with the same key columns exists.
+  public static final String OPERATION = "io.cdap.plugin.db.output.operation";
+  public static final String OPERATION_INSERT = "insert";
+  public static final String OPERATION_UPSERT = "upsert";
+  // Comma-separated list of the columns identifying a row when upserting.
+  public static final String KEY_COLUMNS = "io.cdap.plugin.db.output.key.columns";
+  // Number of rows inserted by a single INSERT statement.
+  public static final String ROWS_PER_INSERT = "io.cdap.plugin.db.output.rows.per.insert";
 
   private static final Logger LOG = LoggerFactory.getLogger(ETLDBOutputFormat.class);
   private Configuration conf;
@@ -73,14 +86,39 @@ public class ETLDBOutputFormat<K extends DBWritable, V>  extends DBOutputFormat<
       fieldNames = new String[dbConf.getOutputFieldCount()];
     }
 
+    final String insertQuery;
+    final int rowsPerStatement;
+    if (OPERATION_UPSERT.equalsIgnoreCase(conf.get(OPERATION, OPERATION_INSERT))) {
+      List<String> columns = Arrays.stream(fieldNames).map(String::trim).collect(Collectors.toList());
+      insertQuery = SinkQueryBuilder.upsert(conf.get(DBConfiguration.URL_PROPERTY), tableName, columns,
+                                            Arrays.asList(conf.getTrimmedStrings(KEY_COLUMNS)));
+      rowsPerStatement = 1;
+    } else {
+      insertQuery = constructQuery(tableName, fieldNames);
+      int rowsPerInsert = Math.max(1, conf.getInt(ROWS_PER_INSERT, 1));
+      String url = conf.get(DBConfiguration.URL_PROPERTY);
+      // Phoenix does not support multi-row UPSERT statements, and some databases do not support multi-row INSERT
+      if (rowsPerInsert > 1 && (insertQuery.startsWith("UPSERT") || url == null
+        || !SinkQueryBuilder.supportsMultiRowInsert(url))) {
+        LOG.warn("Multi-row INSERT statements are not supported for '{}'. " +
+                   "Inserting one row per statement, in JDBC batches.", url);
+        rowsPerInsert = 1;
+      }
+      rowsPerStatement = rowsPerInsert;
+    }
+    final int numColumns = fieldNames.length;
+
     try {
       Connection connection = getConnection(conf);
-      PreparedStatement statement = connection.prepareStatement(constructQuery(tableName, fieldNames));
+      PreparedStatement statement = connection.prepareStatement(
+        SinkQueryBuilder.multiRowInsert(insertQuery, numColumns, rowsPerStatement));
       return new DBRecordWriter(connection, statement) {
 
         private boolean emptyData = true;
         private long bytesWritten = 0;
         private long recordsWritten = 0;
+        // rows waiting to fill a multi-row statement
+        private final List<DBRecord> pendingRows = new ArrayList<>();
 
         //Implementation of the close method below is the exact implementation in DBOutputFormat except that
         //we check if there is any data to be written and if not, we skip executeBatch call.
@@ -91,6 +129,14 @@ public class ETLDBOutputFormat<K extends DBWritable, V>  extends DBOutputFormat<
           try {
             if (!emptyData) {
               getStatement().executeBatch();
+              if (!pendingRows.isEmpty()) {
+                // the last rows don't fill a statement, they are inserted with a statement of their own
+                try (PreparedStatement lastStatement = getConnection().prepareStatement(
+                  SinkQueryBuilder.multiRowInsert(insertQuery, numColumns, pendingRows.size()))) {
+                  addRows(lastStatement);
+                  lastStatement.executeBatch();
+                }
+              }
               getConnection().commit();
               context.getCounter(FileOutputFormatCounter.BYTES_WRITTEN).increment(bytesWritten);
             }
@@ -119,18 +165,27 @@ public class ETLDBOutputFormat<K extends DBWritable, V>  extends DBOutputFormat<
 
         @Override
         public void write(K key, V value) throws IOException {
-          super.write(key, value);
-          if (key instanceof DataSizeReporter) {
-            bytesWritten += ((DataSizeReporter) key).getBytesWritten();
+          if (rowsPerStatement > 1) {
+            Preconditions.checkArgument(key instanceof DBRecord, "Multi-row inserts are only supported for %s, " +
+              "but found %s.", DBRecord.class.getName(), key.getClass().getName());
+            pendingRows.add((DBRecord) key);
+          } else {
+            super.write(key, value);
+            if (key instanceof DataSizeReporter) {
+              bytesWritten += ((DataSizeReporter) key).getBytesWritten();
+            }
           }
           if (value instanceof DataSizeReporter) {
             bytesWritten += ((DataSizeReporter) value).getBytesWritten();
           }
           recordsWritten++;
 
-          // Submit a batch to the SQL engine every 10k records
-          // This is done to reduce memory usage in the worker, as processed records can now be GC'd.
           try {
+            if (pendingRows.size() == rowsPerStatement) {
+              addRows(getStatement());
+            }
+            // Submit a batch to the SQL engine every 10k records
+            // This is done to reduce memory usage in the worker, as processed records can now be GC'd.
             if (batchSize > 0 && recordsWritten % batchSize == 0) {
               getStatement().executeBatch();
             }
@@ -145,6 +200,19 @@ public class ETLDBOutputFormat<K extends DBWritable, V>  extends DBOutputFormat<
 
           emptyData = false;
         }
+
+        /**
+         * Adds the pending rows to the batch of the given statement, which must insert exactly that many rows.
+         */
+        private void addRows(PreparedStatement statement) throws SQLException {
+          for (int i = 0; i < pendingRows.size(); i++) {
+            DBRecord row = pendingRows.get(i);
+            row.write(statement, i * numColumns);
+            bytesWritten += row.getBytesWritten();
+          }
+          statement.addBatch();
+          pendingRows.clear();
+        }
       };
     } catch (Exception ex) {
       throw Throwables.propagate(ex);
@@ -0,0 +1,158 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.batch.sink;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the parameterized statements used by {@link ETLDBOutputFormat} to write rows to a table.
+ * Parameters are always in the order of the columns, so that a row is written the same way whatever the statement.
+ */
+final class SinkQueryBuilder {
+  private static final String TARGET_ALIAS = "tgt";
+  private static final String SOURCE_ALIAS = "src";
+  // databases known to accept several rows in the VALUES clause of an INSERT statement
+  private static final List<String> MULTI_ROW_INSERT_PREFIXES = Arrays.asList(
+    "jdbc:postgresql:", "jdbc:redshift:", "jdbc:mysql:", "jdbc:mariadb:", "jdbc:sqlserver:", "jdbc:jtds:sqlserver:",
+    "jdbc:db2:", "jdbc:h2:", "jdbc:hsqldb:", "jdbc:derby:", "jdbc:sqlite:", "jdbc:snowflake:");
+
+  private SinkQueryBuilder() {
+  }
+
+  /**
+   * Returns whether the database of the connection string accepts INSERT statements with several rows of values.
+   * Databases that are not known to, like Oracle before 23c or Phoenix, are assumed not to.
+   *
+   * @param connectionString JDBC connection string of the database
+   * @return true if multi-row INSERT statements can be used
+   */
+  static boolean supportsMultiRowInsert(String connectionString) {
+    String url = connectionString.toLowerCase();
+    return MULTI_ROW_INSERT_PREFIXES.stream().anyMatch(url::startsWith);
+  }
+
+  /**
+   * Appends additional rows of parameters to a single row INSERT statement ending with its VALUES clause.
+   *
+   * @param insertQuery the single row INSERT statement
+   * @param numColumns number of parameters of a row
+   * @param numRows number of rows inserted by the statement
+   * @return the multi-row INSERT statement
+   */
+  static String multiRowInsert(String insertQuery, int numColumns, int numRows) {
+    String row = ",(" + String.join(",", Collections.nCopies(numColumns, "?")) + ")";
+    StringBuilder query = new StringBuilder(insertQuery.length() + row.length() * (numRows - 1));
+    query.append(insertQuery);
+    for (int i = 1; i < numRows; i++) {
+      query.append(row);
+    }
+    return query.toString();
+  }
+
+  /**
+   * Builds a statement that inserts a row, or updates the row with the same key columns if there is one,
+   * in the dialect of the database of the connection string.
+   *
+   * @param connectionString JDBC connection string of the database
+   * @param table the table to write to
+   * @param columns the columns to write
+   * @param keyColumns the columns identifying a row, which must be a subset of the columns
+   * @return the upsert statement
+   */
+  static String upsert(String connectionString, String table, List<String> columns, List<String> keyColumns) {
+    Set<String> keys = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    keys.addAll(keyColumns);
+    List<String> updatedColumns = new ArrayList<>();
+    for (String column : columns) {
+      if (!keys.contains(column)) {
+        updatedColumns.add(column);
+      }
+    }
+
+    String url = connectionString.toLowerCase();
+    if (url.startsWith("jdbc:phoenix")) {
+      return String.format("UPSERT INTO %s (%s) VALUES (%s)", table, String.join(",", columns),
+                           parameters(columns.size()));
+    }
+    if (url.startsWith("jdbc:postgresql:")) {
+      String insert = String.format("INSERT INTO %s (%s) VALUES (%s) ON CONFLICT (%s) ", table,
+                                    String.join(",", columns), parameters(columns.size()),
+                                    String.join(",", keyColumns));
+      if (updatedColumns.isEmpty()) {
+        return insert + "DO NOTHING";
+      }
+      return insert + "DO UPDATE SET " + updatedColumns.stream()
+        .map(column -> String.format("%s = EXCLUDED.%s", column, column))
+        .collect(Collectors.joining(", "));
+    }
+    if (url.startsWith("jdbc:mysql:") || url.startsWith("jdbc:mariadb:")) {
+      // updating a key column to its own value is a no-op, so that there is always something to update
+      List<String> assigned = updatedColumns.isEmpty() ? keyColumns.subList(0, 1) : updatedColumns;
+      return String.format("INSERT INTO %s (%s) VALUES (%s) ON DUPLICATE KEY UPDATE %s", table,
+                           String.join(",", columns), parameters(columns.size()), assigned.stream()
+                             .map(column -> String.format("%s = VALUES(%s)", column, column))
+                             .collect(Collectors.joining(", ")));
+    }
+
+    String source;
+    String target = String.format("%s %s", table, TARGET_ALIAS);
+    String terminator = "";
+    if (url.startsWith("jdbc:oracle:")) {
+      source = String.format("(SELECT %s FROM DUAL) %s", columns.stream()
+        .map(column -> "? AS " + column)
+        .collect(Collectors.joining(", ")), SOURCE_ALIAS);
+    } else {
+      source = String.format("(VALUES (%s)) AS %s (%s)", parameters(columns.size()), SOURCE_ALIAS,
+                             String.join(", ", columns));
+      if (url.startsWith("jdbc:sqlserver:") || url.startsWith("jdbc:jtds:sqlserver:")) {
+        // the lock prevents concurrent merges from inserting the same key, and merges must be terminated
+        target = String.format("%s WITH (HOLDLOCK) AS %s", table, TARGET_ALIAS);
+        terminator = ";";
+      }
+    }
+
+    String condition = keyColumns.stream()
+      .map(column -> String.format("%s.%s = %s.%s", TARGET_ALIAS, column, SOURCE_ALIAS, column))
+      .collect(Collectors.joining(" AND "));
+    String sourceValues = columns.stream()
+      .map(column -> SOURCE_ALIAS + "." + column)
+      .collect(Collectors.joining(", "));
+    StringBuilder merge = new StringBuilder()
+      .append("MERGE INTO ").append(target)
+      .append(" USING ").append(source)
+      .append(" ON (").append(condition).append(")");
+    if (!updatedColumns.isEmpty()) {
+      merge.append(" WHEN MATCHED THEN UPDATE SET ").append(updatedColumns.stream()
+        .map(column -> String.format("%s.%s = %s.%s", TARGET_ALIAS, column, SOURCE_ALIAS, column))
+        .collect(Collectors.joining(", ")));
+    }
+    merge.append(" WHEN NOT MATCHED THEN INSERT (").append(String.join(", ", columns))
+      .append(") VALUES (").append(sourceValues).append(")")
+      .append(terminator);
+    return merge.toString();
+  }
+
+  private static String parameters(int count) {
+    return String.join(",", Collections.nCopies(count, "?"));
+  }
+}
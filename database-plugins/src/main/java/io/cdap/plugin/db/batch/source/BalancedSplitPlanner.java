@@ -0,0 +1,158 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.batch.source;
+
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.lib.db.DataDrivenDBInputFormat;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Plans splits that hold about the same number of rows, instead of splitting the range of values of the split-by
+ * field evenly, which leaves most splits empty and a few splits with most of the rows when the values are skewed.
+ *
+ * The split boundaries are the maximum values of the split-by field in each of the numSplits tiles of the rows,
+ * computed by the database with the NTILE window function. The number of splits can also be derived from the
+ * number of rows returned by the import query and a target number of rows per split.
+ */
+final class BalancedSplitPlanner {
+  private static final String SPLIT_QUERY_ALIAS = "split_query";
+
+  private final String importQuery;
+  private final String boundingQuery;
+  private final String splitBy;
+
+  BalancedSplitPlanner(String importQuery, String boundingQuery, String splitBy) {
+    // the whole result of the import query is considered when planning splits
+    this.importQuery = importQuery.replace(DataDrivenDBInputFormat.SUBSTITUTE_TOKEN, "(1 = 1)");
+    this.boundingQuery = boundingQuery;
+    this.splitBy = splitBy;
+  }
+
+  /**
+   * Plans the splits.
+   *
+   * @param connection connection to the database
+   * @param numSplits number of splits to generate, ignored if rowsPerSplit is positive
+   * @param rowsPerSplit target number of rows per split, or a non-positive number to use numSplits
+   * @return the splits, or null if balanced splits are not supported for the split-by field, in which case
+   *         the splits should be planned over the range of values
+   * @throws SQLException if a query failed, for example because the database does not support NTILE
+   */
+  @Nullable
+  List<InputSplit> plan(Connection connection, int numSplits, long rowsPerSplit) throws SQLException {
+    BigDecimal min;
+    BigDecimal max;
+    try (Statement statement = connection.createStatement();
+         ResultSet results = statement.executeQuery(boundingQuery)) {
+      if (!results.next() || !isNumeric(results.getMetaData().getColumnType(1))) {
+        return null;
+      }
+      min = results.getBigDecimal(1);
+      max = results.getBigDecimal(2);
+    }
+    if (min == null || max == null) {
+      // the splits over the range of values take care of null values
+      return null;
+    }
+
+    if (rowsPerSplit > 0) {
+      long count = count(connection);
+      numSplits = (int) Math.max(1L, Math.min(Integer.MAX_VALUE, (count + rowsPerSplit - 1) / rowsPerSplit));
+    }
+    if (numSplits <= 1 || min.compareTo(max) == 0) {
+      return toSplits(splitBy, min, max, Collections.emptyList());
+    }
+    return toSplits(splitBy, min, max, getBoundaries(connection, numSplits));
+  }
+
+  private long count(Connection connection) throws SQLException {
+    try (Statement statement = connection.createStatement();
+         ResultSet results = statement.executeQuery(
+           String.format("SELECT COUNT(*) FROM (%s) %s", importQuery, SPLIT_QUERY_ALIAS))) {
+      results.next();
+      return results.getLong(1);
+    }
+  }
+
+  private List<BigDecimal> getBoundaries(Connection connection, int numSplits) throws SQLException {
+    // the split-by field may be qualified by a table name in the import query, but not in its result
+    String column = splitBy.substring(splitBy.lastIndexOf('.') + 1);
+    String query = String.format(
+      "SELECT MAX(%1$s) FROM (SELECT %1$s, NTILE(%2$d) OVER (ORDER BY %1$s) AS split_tile FROM (%3$s) %4$s " +
+        "WHERE %1$s IS NOT NULL) split_tiles GROUP BY split_tile ORDER BY 1",
+      column, numSplits, importQuery, SPLIT_QUERY_ALIAS);
+    List<BigDecimal> boundaries = new ArrayList<>(numSplits);
+    try (Statement statement = connection.createStatement();
+         ResultSet results = statement.executeQuery(query)) {
+      while (results.next()) {
+        boundaries.add(results.getBigDecimal(1));
+      }
+    }
+    return boundaries;
+  }
+
+  /**
+   * Builds the splits between the given boundaries. Each split holds the values greater than the previous boundary
+   * and lower than or equal to its own boundary, the first split starts at the minimum and the last split ends at
+   * the maximum. Boundaries out of the range of values or equal to the previous boundary are skipped.
+   */
+  static List<InputSplit> toSplits(String splitBy, BigDecimal min, BigDecimal max, List<BigDecimal> boundaries) {
+    List<InputSplit> splits = new ArrayList<>(boundaries.size() + 1);
+    String lowerClause = String.format("%s >= %s", splitBy, min.toPlainString());
+    BigDecimal previous = null;
+    for (BigDecimal boundary : boundaries) {
+      if (boundary == null || boundary.compareTo(max) >= 0 || boundary.compareTo(min) < 0 ||
+        (previous != null && boundary.compareTo(previous) <= 0)) {
+        continue;
+      }
+      String upperClause = String.format("%s <= %s", splitBy, boundary.toPlainString());
+      splits.add(new DataDrivenDBInputFormat.DataDrivenDBInputSplit(lowerClause, upperClause));
+      lowerClause = String.format("%s > %s", splitBy, boundary.toPlainString());
+      previous = boundary;
+    }
+    splits.add(new DataDrivenDBInputFormat.DataDrivenDBInputSplit(
+      lowerClause, String.format("%s <= %s", splitBy, max.toPlainString())));
+    return splits;
+  }
+
+  private static boolean isNumeric(int sqlType) {
+    switch (sqlType) {
+      case Types.TINYINT:
+      case Types.SMALLINT:
+      case Types.INTEGER:
+      case Types.BIGINT:
+      case Types.NUMERIC:
+      case Types.DECIMAL:
+      case Types.REAL:
+      case Types.FLOAT:
+      case Types.DOUBLE:
+        return true;
+      default:
+        return false;
+    }
+  }
+}
@@ -176,6 +176,12 @@ public class DBSource extends ReferenceBatchSource<LongWritable, DBRecord, Struc
     if (sourceConfig.numSplits != null) {
       hConf.setInt(MRJobConfig.NUM_MAPS, sourceConfig.numSplits);
     }
+    if (sourceConfig.getBalancedSplits()) {
+      hConf.setBoolean(DataDrivenETLDBInputFormat.BALANCED_SPLITS, true);
+      if (sourceConfig.rowsPerSplit != null) {
+        hConf.setLong(DataDrivenETLDBInputFormat.ROWS_PER_SPLIT, sourceConfig.rowsPerSplit);
+      }
+    }
     if (sourceConfig.schema != null) {
       hConf.set(DBUtils.OVERRIDE_SCHEMA, sourceConfig.schema);
     }
@@ -188,6 +194,9 @@ public class DBSource extends ReferenceBatchSource<LongWritable, DBRecord, Struc
     if (sourceConfig.fetchSize != null) {
       hConf.setInt(DBUtils.FETCH_SIZE, sourceConfig.fetchSize);
     }
+    if (sourceConfig.prefetchBatches != null) {
+      hConf.setInt(DataDrivenETLDBInputFormat.PREFETCH_BATCHES, sourceConfig.prefetchBatches);
+    }
     context.setInput(Input.of(sourceConfig.getReferenceName(),
                               new SourceInputFormatProvider(DataDrivenETLDBInputFormat.class, hConf)));
 
@@ -292,6 +301,9 @@ public class DBSource extends ReferenceBatchSource<LongWritable, DBRecord, Struc
     public static final String PATTERN_TO_REPLACE = "patternToReplace";
     public static final String REPLACE_WITH = "replaceWith";
     public static final String FETCH_SIZE = "fetchSize";
+    public static final String PREFETCH_BATCHES = "prefetchBatches";
+    public static final String BALANCED_SPLITS = "balancedSplits";
+    public static final String ROWS_PER_SPLIT = "rowsPerSplit";
 
     @Name(IMPORT_QUERY)
     @Description("The SELECT query to use to import data from the specified table. " +
@@ -324,6 +336,22 @@ public class DBSource extends ReferenceBatchSource<LongWritable, DBRecord, Struc
     @Macro
     Integer numSplits;
 
+    @Nullable
+    @Name(BALANCED_SPLITS)
+    @Description("Whether to generate splits that hold about the same number of rows, using the NTILE window " +
+      "function of the database on a numeric 'splitBy' field. Otherwise, the range of values returned by the " +
+      "boundingQuery is divided evenly between the splits, which can result in very uneven splits if the values " +
+      "are skewed. If the database does not support it, the range of values is divided evenly. Defaults to false.")
+    @Macro
+    Boolean balancedSplits;
+
+    @Nullable
+    @Name(ROWS_PER_SPLIT)
+    @Description("The target number of rows per split when generating balanced splits. If set, the number of " +
+      "splits is derived from the number of rows returned by the importQuery and numSplits must not be set.")
+    @Macro
+    Integer rowsPerSplit;
+
     @Nullable
     @Name(TRANSACTION_ISOLATION_LEVEL)
     @Description("The transaction isolation level for queries run by this sink. " +
@@ -359,6 +387,15 @@ public class DBSource extends ReferenceBatchSource<LongWritable, DBRecord, Struc
                   "with the tradeoff of higher memory usage.")
     Integer fetchSize;
 
+    @Nullable
+    @Name(PREFETCH_BATCHES)
+    @Macro
+    @Description("The number of batches of rows to read ahead of the pipeline per split, where a batch holds " +
+                   "'Fetch Size' rows. Rows are read from the database on a separate thread while the previous rows " +
+                   "are processed, which helps when the round trips to the database take a significant time. " +
+                   "If not set or set to 0, rows are read only when they are processed.")
+    Integer prefetchBatches;
+
     @Nullable
     private String getImportQuery() {
       return cleanQuery(importQuery);
@@ -368,6 +405,10 @@ public class DBSource extends ReferenceBatchSource<LongWritable, DBRecord, Struc
       return cleanQuery(boundingQuery);
     }
 
+    private boolean getBalancedSplits() {
+      return balancedSplits != null && balancedSplits;
+    }
+
     @SuppressWarnings("checkstyle:WhitespaceAround")
     private void validate(FailureCollector collector) {
       boolean hasOneSplit = false;
@@ -414,6 +455,29 @@ public class DBSource extends ReferenceBatchSource<LongWritable, DBRecord, Struc
         collector.addFailure("Invalid fetch size.", "Fetch size must be a positive integer.")
           .withConfigProperty(FETCH_SIZE);
       }
+
+      if (!containsMacro(ROWS_PER_SPLIT) && rowsPerSplit != null) {
+        if (rowsPerSplit <= 0) {
+          collector.addFailure("Invalid number of rows per split.", "Rows per split must be a positive integer.")
+            .withConfigProperty(ROWS_PER_SPLIT);
+        }
+        if (!containsMacro(BALANCED_SPLITS) && !getBalancedSplits()) {
+          collector.addFailure("Rows per split can only be set when generating balanced splits.",
+                               "Enable balanced splits or remove rows per split.")
+            .withConfigProperty(ROWS_PER_SPLIT).withConfigProperty(BALANCED_SPLITS);
+        }
+        if (!containsMacro(NUM_SPLITS) && numSplits != null) {
+          collector.addFailure("Number of Splits and Rows Per Split cannot both be set.",
+                               "Remove one of them.")
+            .withConfigProperty(ROWS_PER_SPLIT).withConfigProperty(NUM_SPLITS);
+        }
+      }
+
+      if (!containsMacro(PREFETCH_BATCHES) && prefetchBatches != null && prefetchBatches < 0) {
+        collector.addFailure("Invalid number of prefetch batches.",
+                             "Number of prefetch batches must be zero or a positive integer.")
+          .withConfigProperty(PREFETCH_BATCHES);
+      }
     }
 
     @Nullable
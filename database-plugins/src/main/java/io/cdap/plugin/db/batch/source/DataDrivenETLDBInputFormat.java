@@ -25,6 +25,8 @@ import io.cdap.plugin.db.batch.NoOpCommitConnection;
 import io.cdap.plugin.db.batch.TransactionIsolationLevel;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.MRJobConfig;
 import org.apache.hadoop.mapreduce.RecordReader;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.hadoop.mapreduce.lib.db.DBConfiguration;
@@ -40,6 +42,7 @@ import java.sql.Connection;
 import java.sql.Driver;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Properties;
 
 /**
@@ -47,6 +50,11 @@ import java.util.Properties;
  */
 public class DataDrivenETLDBInputFormat extends DataDrivenDBInputFormat {
   public static final String AUTO_COMMIT_ENABLED = "io.cdap.hydrator.db.autocommit.enabled";
+  public static final String PREFETCH_BATCHES = "io.cdap.hydrator.db.prefetch.batches";
+  public static final String BALANCED_SPLITS = "io.cdap.hydrator.db.split.balanced";
+  public static final String ROWS_PER_SPLIT = "io.cdap.hydrator.db.split.rows";
+  // number of rows in a prefetched batch when no fetch size is configured
+  private static final int DEFAULT_PREFETCH_BATCH_SIZE = 1000;
 
   private static final Logger LOG = LoggerFactory.getLogger(DataDrivenETLDBInputFormat.class);
   private Driver driver;
@@ -126,8 +134,49 @@ public class DataDrivenETLDBInputFormat extends DataDrivenDBInputFormat {
   }
 
   @Override
+  public List<InputSplit> getSplits(JobContext job) throws IOException {
+    Configuration conf = job.getConfiguration();
+    long rowsPerSplit = conf.getLong(ROWS_PER_SPLIT, 0L);
+    int numSplits = conf.getInt(MRJobConfig.NUM_MAPS, 1);
+    if (!conf.getBoolean(BALANCED_SPLITS, false) || (rowsPerSplit <= 0 && numSplits == 1)) {
+      return super.getSplits(job);
+    }
+
+    DBConfiguration dbConf = getDBConf();
+    BalancedSplitPlanner planner = new BalancedSplitPlanner(dbConf.getInputQuery(), getBoundingValsQuery(),
+                                                            dbConf.getInputOrderBy());
+    Connection connection = getConnection();
+    try {
+      List<InputSplit> splits = planner.plan(connection, numSplits, rowsPerSplit);
+      if (splits != null) {
+        LOG.debug("Planned {} balanced splits.", splits.size());
+        connection.commit();
+        closeConnection();
+        return splits;
+      }
+      LOG.info("Balanced splits are only supported for numeric split-by fields with values, " +
+                 "splitting the range of values of '{}' instead.", dbConf.getInputOrderBy());
+    } catch (SQLException e) {
+      LOG.warn("Failed to plan balanced splits, splitting the range of values of '{}' instead. " +
+                 "The database may not support the NTILE window function.", dbConf.getInputOrderBy(), e);
+      try {
+        // some databases don't accept any other query in a transaction after a failed one
+        connection.rollback();
+      } catch (SQLException rollbackException) {
+        e.addSuppressed(rollbackException);
+      }
+    }
+    return super.getSplits(job);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
   protected RecordReader createDBRecordReader(DBInputSplit split, Configuration conf) throws IOException {
-    final RecordReader dbRecordReader = super.createDBRecordReader(split, conf);
+    int prefetchBatches = conf.getInt(PREFETCH_BATCHES, 0);
+    final RecordReader dbRecordReader = prefetchBatches > 0 ?
+      new PrefetchingRecordReader(super.createDBRecordReader(split, conf), prefetchBatches,
+                                  conf.getInt(DBUtils.FETCH_SIZE, DEFAULT_PREFETCH_BATCH_SIZE)) :
+      super.createDBRecordReader(split, conf);
     return new RecordReader() {
       private long bytesRead = 0;
       private TaskAttemptContext taskAttemptContext;
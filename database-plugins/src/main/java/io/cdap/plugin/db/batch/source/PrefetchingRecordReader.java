@@ -0,0 +1,202 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.batch.source;
+
+import io.cdap.plugin.DBRecord;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RecordReader} that reads the rows of a split on a background thread, ahead of the task thread.
+ *
+ * The fetch thread advances the delegate reader, which runs the query, waits on the database for the next rows and
+ * decodes them, and hands the rows over in batches through a bounded queue. The task thread only takes rows from
+ * the queue, so the time spent waiting on the database overlaps with the time spent processing the previous rows.
+ * The delegate reader is only ever used by one thread at a time: by the task thread during initialization, then by
+ * the fetch thread, and by the task thread again once the fetch thread has stopped.
+ */
+class PrefetchingRecordReader extends RecordReader<LongWritable, DBRecord> {
+
+  /**
+   * Counters reporting how the time of a split was spent.
+   */
+  enum Counter {
+    // time spent by the fetch thread reading and decoding rows
+    FETCH_MILLIS,
+    // time spent by the task thread waiting for rows to be fetched
+    STALL_MILLIS
+  }
+
+  private static final Logger LOG = LoggerFactory.getLogger(PrefetchingRecordReader.class);
+
+  private final RecordReader<LongWritable, DBRecord> delegate;
+  private final int batchSize;
+  private final BlockingQueue<Batch> queue;
+  private final LongWritable key;
+  private TaskAttemptContext context;
+  private Thread fetchThread;
+  private volatile boolean closed;
+  // progress of the delegate, published by the fetch thread so that the task thread doesn't use the delegate
+  private volatile float progress;
+  private long fetchNanos;
+  private long stallNanos;
+  private Batch current;
+  private int position;
+  private DBRecord value;
+
+  PrefetchingRecordReader(RecordReader<LongWritable, DBRecord> delegate, int numBatches, int batchSize) {
+    this.delegate = delegate;
+    this.batchSize = batchSize;
+    this.queue = new ArrayBlockingQueue<>(numBatches);
+    this.key = new LongWritable();
+  }
+
+  @Override
+  public void initialize(InputSplit split, TaskAttemptContext context) throws IOException, InterruptedException {
+    delegate.initialize(split, context);
+    this.context = context;
+  }
+
+  @Override
+  public boolean nextKeyValue() throws IOException, InterruptedException {
+    if (fetchThread == null) {
+      fetchThread = new Thread(this::fetch, "db-prefetch-" + context.getTaskAttemptID());
+      fetchThread.setDaemon(true);
+      fetchThread.start();
+    }
+    while (current == null || position == current.size) {
+      if (current != null && current.last) {
+        return false;
+      }
+      long start = System.nanoTime();
+      current = queue.take();
+      stallNanos += System.nanoTime() - start;
+      position = 0;
+      if (current.failure != null) {
+        throw new IOException("Failed to fetch rows from the database.", current.failure);
+      }
+    }
+    key.set(current.keys[position]);
+    value = current.values[position];
+    // don't hold on to rows that were already returned
+    current.values[position] = null;
+    position++;
+    return true;
+  }
+
+  @Override
+  public LongWritable getCurrentKey() {
+    return key;
+  }
+
+  @Override
+  public DBRecord getCurrentValue() {
+    return value;
+  }
+
+  @Override
+  public float getProgress() {
+    return progress;
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    if (fetchThread != null) {
+      // unblock the fetch thread if it is waiting for room in the queue
+      queue.clear();
+      fetchThread.interrupt();
+      try {
+        fetchThread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    delegate.close();
+    if (context != null) {
+      long fetchMillis = TimeUnit.NANOSECONDS.toMillis(fetchNanos);
+      long stallMillis = TimeUnit.NANOSECONDS.toMillis(stallNanos);
+      context.getCounter(Counter.FETCH_MILLIS).increment(fetchMillis);
+      context.getCounter(Counter.STALL_MILLIS).increment(stallMillis);
+      LOG.debug("Spent {} ms fetching rows and {} ms waiting for fetched rows in task {}.",
+                fetchMillis, stallMillis, context.getTaskAttemptID());
+    }
+  }
+
+  private void fetch() {
+    try {
+      boolean last = false;
+      while (!last && !closed) {
+        long start = System.nanoTime();
+        Batch batch = new Batch(batchSize);
+        while (batch.size < batchSize) {
+          if (!delegate.nextKeyValue()) {
+            last = true;
+            break;
+          }
+          // the delegate reuses its key and value for every row, so they are copied before moving to the next row
+          batch.keys[batch.size] = delegate.getCurrentKey().get();
+          batch.values[batch.size] = delegate.getCurrentValue().copy();
+          batch.size++;
+        }
+        batch.last = last;
+        progress = delegate.getProgress();
+        fetchNanos += System.nanoTime() - start;
+        queue.put(batch);
+      }
+    } catch (InterruptedException e) {
+      // the reader is being closed
+      Thread.currentThread().interrupt();
+    } catch (Throwable t) {
+      if (!closed) {
+        Batch failed = new Batch(0);
+        failed.failure = t;
+        failed.last = true;
+        try {
+          queue.put(failed);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+
+  /**
+   * Rows handed over from the fetch thread to the task thread.
+   */
+  private static final class Batch {
+    private final long[] keys;
+    private final DBRecord[] values;
+    private int size;
+    private boolean last;
+    private Throwable failure;
+
+    private Batch(int capacity) {
+      this.keys = new long[capacity];
+      this.values = new DBRecord[capacity];
+    }
+  }
+}
@@ -345,6 +345,45 @@ public class DBRecordTest {
     Assert.assertEquals(formattedDateTime, dbRecord.getRecord().get("datetimestring"));
   }
 
+  @Test
+  public void testReadMultipleRows() throws SQLException {
+    ResultSetMetaData rsMetaMock = Mockito.mock(ResultSetMetaData.class);
+    Mockito.when(rsMetaMock.getColumnCount()).thenReturn(2);
+    Mockito.when(rsMetaMock.getColumnName(Mockito.eq(1))).thenReturn("ID_COL");
+    Mockito.when(rsMetaMock.getColumnType(Mockito.eq(1))).thenReturn(Types.INTEGER);
+    Mockito.when(rsMetaMock.isSigned(Mockito.eq(1))).thenReturn(true);
+    Mockito.when(rsMetaMock.isNullable(Mockito.eq(1))).thenReturn(ResultSetMetaData.columnNoNulls);
+    Mockito.when(rsMetaMock.getColumnName(Mockito.eq(2))).thenReturn("NAME_COL");
+    Mockito.when(rsMetaMock.getColumnType(Mockito.eq(2))).thenReturn(Types.VARCHAR);
+    Mockito.when(rsMetaMock.isNullable(Mockito.eq(2))).thenReturn(ResultSetMetaData.columnNullable);
+
+    ResultSet resultSetMock = Mockito.mock(ResultSet.class);
+    Mockito.when(resultSetMock.getMetaData()).thenReturn(rsMetaMock);
+    Mockito.when(resultSetMock.getObject("ID_COL")).thenReturn(1).thenReturn(2);
+    Mockito.when(resultSetMock.getObject("NAME_COL")).thenReturn("first").thenReturn(null);
+
+    Configuration configuration = new Configuration();
+    configuration.set(DBUtils.PATTERN_TO_REPLACE, "_COL");
+
+    DBRecord dbRecord = new DBRecord();
+    dbRecord.setConf(configuration);
+    dbRecord.readFields(resultSetMock);
+    StructuredRecord first = dbRecord.getRecord();
+    Assert.assertEquals(1, (int) first.get("ID"));
+    Assert.assertEquals("first", first.get("NAME"));
+    Assert.assertEquals(Integer.BYTES + "first".length(), dbRecord.getBytesRead());
+
+    dbRecord.readFields(resultSetMock);
+    StructuredRecord second = dbRecord.getRecord();
+    Assert.assertEquals(2, (int) second.get("ID"));
+    Assert.assertNull(second.get("NAME"));
+    Assert.assertEquals(Integer.BYTES, dbRecord.getBytesRead());
+    Assert.assertSame(first.getSchema(), second.getSchema());
+
+    // the metadata is only read for the first row of the result set
+    Mockito.verify(resultSetMock, Mockito.times(1)).getMetaData();
+  }
+
   @Test(expected = UnexpectedFormatException.class)
   public void testInvalidDatetime() throws SQLException {
     //When output schema has datetime type , valid datetime string values should be allowed.
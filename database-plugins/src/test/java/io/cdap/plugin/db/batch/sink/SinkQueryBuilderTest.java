@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.batch.sink;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for {@link SinkQueryBuilder}.
+ */
+public class SinkQueryBuilderTest {
+  private static final List<String> COLUMNS = Arrays.asList("id", "name", "email");
+  private static final List<String> KEY = Collections.singletonList("id");
+
+  @Test
+  public void testMultiRowInsert() {
+    Assert.assertEquals("INSERT INTO users (id,name) VALUES (?,?)",
+                        SinkQueryBuilder.multiRowInsert("INSERT INTO users (id,name) VALUES (?,?)", 2, 1));
+    Assert.assertEquals("INSERT INTO users (id,name) VALUES (?,?),(?,?),(?,?)",
+                        SinkQueryBuilder.multiRowInsert("INSERT INTO users (id,name) VALUES (?,?)", 2, 3));
+  }
+
+  @Test
+  public void testSupportsMultiRowInsert() {
+    Assert.assertTrue(SinkQueryBuilder.supportsMultiRowInsert("jdbc:postgresql://localhost:5432/prod"));
+    Assert.assertTrue(SinkQueryBuilder.supportsMultiRowInsert("jdbc:mysql://localhost:3306/prod"));
+    Assert.assertTrue(SinkQueryBuilder.supportsMultiRowInsert("JDBC:SQLSERVER://localhost:1433;databaseName=prod"));
+    Assert.assertFalse(SinkQueryBuilder.supportsMultiRowInsert("jdbc:oracle:thin:@localhost:1521:prod"));
+    Assert.assertFalse(SinkQueryBuilder.supportsMultiRowInsert("jdbc:phoenix:localhost"));
+    Assert.assertFalse(SinkQueryBuilder.supportsMultiRowInsert("jdbc:teradata://localhost/prod"));
+  }
+
+  @Test
+  public void testPostgresUpsert() {
+    Assert.assertEquals("INSERT INTO users (id,name,email) VALUES (?,?,?) ON CONFLICT (id) " +
+                          "DO UPDATE SET name = EXCLUDED.name, email = EXCLUDED.email",
+                        SinkQueryBuilder.upsert("jdbc:postgresql://localhost:5432/prod", "users", COLUMNS, KEY));
+    Assert.assertEquals("INSERT INTO users (id) VALUES (?) ON CONFLICT (id) DO NOTHING",
+                        SinkQueryBuilder.upsert("jdbc:postgresql://localhost:5432/prod", "users",
+                                                Collections.singletonList("id"), KEY));
+  }
+
+  @Test
+  public void testMySQLUpsert() {
+    Assert.assertEquals("INSERT INTO users (id,name,email) VALUES (?,?,?) " +
+                          "ON DUPLICATE KEY UPDATE name = VALUES(name), email = VALUES(email)",
+                        SinkQueryBuilder.upsert("jdbc:mysql://localhost:3306/prod", "users", COLUMNS, KEY));
+  }
+
+  @Test
+  public void testPhoenixUpsert() {
+    Assert.assertEquals("UPSERT INTO users (id,name,email) VALUES (?,?,?)",
+                        SinkQueryBuilder.upsert("jdbc:phoenix:localhost", "users", COLUMNS, KEY));
+  }
+
+  @Test
+  public void testOracleMerge() {
+    Assert.assertEquals("MERGE INTO users tgt USING (SELECT ? AS id, ? AS name, ? AS email FROM DUAL) src " +
+                          "ON (tgt.id = src.id) WHEN MATCHED THEN UPDATE SET tgt.name = src.name, " +
+                          "tgt.email = src.email WHEN NOT MATCHED THEN INSERT (id, name, email) " +
+                          "VALUES (src.id, src.name, src.email)",
+                        SinkQueryBuilder.upsert("jdbc:oracle:thin:@localhost:1521:prod", "users", COLUMNS, KEY));
+  }
+
+  @Test
+  public void testSqlServerMerge() {
+    Assert.assertEquals("MERGE INTO users WITH (HOLDLOCK) AS tgt USING (VALUES (?,?,?)) AS src (id, name, email) " +
+                          "ON (tgt.id = src.id) WHEN MATCHED THEN UPDATE SET tgt.name = src.name, " +
+                          "tgt.email = src.email WHEN NOT MATCHED THEN INSERT (id, name, email) " +
+                          "VALUES (src.id, src.name, src.email);",
+                        SinkQueryBuilder.upsert("jdbc:sqlserver://localhost:1433", "users", COLUMNS, KEY));
+  }
+
+  @Test
+  public void testAnsiMergeWithoutUpdatedColumns() {
+    Assert.assertEquals("MERGE INTO users tgt USING (VALUES (?,?)) AS src (id, name) " +
+                          "ON (tgt.id = src.id AND tgt.name = src.name) " +
+                          "WHEN NOT MATCHED THEN INSERT (id, name) VALUES (src.id, src.name)",
+                        SinkQueryBuilder.upsert("jdbc:hsqldb:mem:prod", "users", Arrays.asList("id", "name"),
+                                                Arrays.asList("id", "name")));
+  }
+}
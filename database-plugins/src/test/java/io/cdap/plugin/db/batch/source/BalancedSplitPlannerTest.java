@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.batch.source;
+
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.lib.db.DataDrivenDBInputFormat.DataDrivenDBInputSplit;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for {@link BalancedSplitPlanner}.
+ */
+public class BalancedSplitPlannerTest {
+
+  @Test
+  public void testSplitsBetweenBoundaries() {
+    List<InputSplit> splits = BalancedSplitPlanner.toSplits(
+      "id", new BigDecimal(1), new BigDecimal(1000000),
+      Arrays.asList(new BigDecimal(3), new BigDecimal(7), new BigDecimal(1000000)));
+
+    Assert.assertEquals(3, splits.size());
+    assertSplit("id >= 1", "id <= 3", splits.get(0));
+    assertSplit("id > 3", "id <= 7", splits.get(1));
+    assertSplit("id > 7", "id <= 1000000", splits.get(2));
+  }
+
+  @Test
+  public void testDuplicateBoundaries() {
+    // most rows have the same value, so that several tiles end on it
+    List<InputSplit> splits = BalancedSplitPlanner.toSplits(
+      "t.amount", new BigDecimal("0.5"), new BigDecimal("10.25"),
+      Arrays.asList(new BigDecimal("2"), new BigDecimal("2"), new BigDecimal("2"), new BigDecimal("10.25")));
+
+    Assert.assertEquals(2, splits.size());
+    assertSplit("t.amount >= 0.5", "t.amount <= 2", splits.get(0));
+    assertSplit("t.amount > 2", "t.amount <= 10.25", splits.get(1));
+  }
+
+  @Test
+  public void testSingleSplit() {
+    List<InputSplit> splits = BalancedSplitPlanner.toSplits("id", new BigDecimal(5), new BigDecimal(5),
+                                                            Collections.emptyList());
+    Assert.assertEquals(1, splits.size());
+    assertSplit("id >= 5", "id <= 5", splits.get(0));
+  }
+
+  private static void assertSplit(String lowerClause, String upperClause, InputSplit split) {
+    DataDrivenDBInputSplit dbSplit = (DataDrivenDBInputSplit) split;
+    Assert.assertEquals(lowerClause, dbSplit.getLowerClause());
+    Assert.assertEquals(upperClause, dbSplit.getUpperClause());
+  }
+}
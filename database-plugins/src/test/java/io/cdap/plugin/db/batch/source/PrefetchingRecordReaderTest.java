@@ -0,0 +1,148 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.db.batch.source;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.DBRecord;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+
+/**
+ * Tests for {@link PrefetchingRecordReader}.
+ */
+public class PrefetchingRecordReaderTest {
+  private static final Schema SCHEMA = Schema.recordOf("dbRecord", Schema.Field.of("id", Schema.of(Schema.Type.INT)));
+
+  @Test
+  public void testReadAllRows() throws Exception {
+    RowsRecordReader delegate = new RowsRecordReader(25, -1);
+    PrefetchingRecordReader reader = new PrefetchingRecordReader(delegate, 2, 4);
+    reader.initialize(Mockito.mock(InputSplit.class), mockContext());
+    Assert.assertEquals(0f, reader.getProgress(), 0f);
+
+    for (int i = 0; i < 25; i++) {
+      Assert.assertTrue(reader.nextKeyValue());
+      Assert.assertEquals(i, reader.getCurrentKey().get());
+      Assert.assertEquals(i, (int) reader.getCurrentValue().getRecord().get("id"));
+    }
+    Assert.assertFalse(reader.nextKeyValue());
+    Assert.assertFalse(reader.nextKeyValue());
+    // progress is published by the fetch thread along with the last batch
+    Assert.assertEquals(1f, reader.getProgress(), 0f);
+    reader.close();
+    Assert.assertTrue(delegate.closed);
+  }
+
+  @Test
+  public void testCloseBeforeEnd() throws Exception {
+    RowsRecordReader delegate = new RowsRecordReader(1000, -1);
+    PrefetchingRecordReader reader = new PrefetchingRecordReader(delegate, 1, 2);
+    reader.initialize(Mockito.mock(InputSplit.class), mockContext());
+
+    Assert.assertTrue(reader.nextKeyValue());
+    reader.close();
+    Assert.assertTrue(delegate.closed);
+  }
+
+  @Test
+  public void testFetchFailure() throws Exception {
+    RowsRecordReader delegate = new RowsRecordReader(10, 5);
+    PrefetchingRecordReader reader = new PrefetchingRecordReader(delegate, 2, 3);
+    reader.initialize(Mockito.mock(InputSplit.class), mockContext());
+
+    for (int i = 0; i < 3; i++) {
+      Assert.assertTrue(reader.nextKeyValue());
+    }
+    try {
+      reader.nextKeyValue();
+      Assert.fail("Expected the fetch failure to be rethrown");
+    } catch (IOException e) {
+      Assert.assertEquals("Failed on row 5", e.getCause().getMessage());
+    } finally {
+      reader.close();
+    }
+  }
+
+  private static TaskAttemptContext mockContext() {
+    TaskAttemptContext context = Mockito.mock(TaskAttemptContext.class);
+    Mockito.when(context.getCounter(Mockito.<Enum<?>>any())).thenReturn(Mockito.mock(Counter.class));
+    return context;
+  }
+
+  /**
+   * Reader that reuses its key for every row, like the JDBC record readers.
+   */
+  private static class RowsRecordReader extends RecordReader<LongWritable, DBRecord> {
+    private final int numRows;
+    private final int failingRow;
+    private final LongWritable key = new LongWritable();
+    private int row = -1;
+    private volatile boolean closed;
+
+    private RowsRecordReader(int numRows, int failingRow) {
+      this.numRows = numRows;
+      this.failingRow = failingRow;
+    }
+
+    @Override
+    public void initialize(InputSplit split, TaskAttemptContext context) {
+      // no-op
+    }
+
+    @Override
+    public boolean nextKeyValue() throws IOException {
+      row++;
+      if (row == failingRow) {
+        throw new IOException("Failed on row " + row);
+      }
+      if (row >= numRows) {
+        return false;
+      }
+      key.set(row);
+      return true;
+    }
+
+    @Override
+    public LongWritable getCurrentKey() {
+      return key;
+    }
+
+    @Override
+    public DBRecord getCurrentValue() {
+      return new DBRecord(StructuredRecord.builder(SCHEMA).set("id", row).build(), null);
+    }
+
+    @Override
+    public float getProgress() {
+      return numRows == 0 ? 1f : row / (float) numRows;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}
@@ -16,7 +16,6 @@
 
 package io.cdap.plugin.format.avro;
 
-import com.google.common.collect.Maps;
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.format.UnexpectedFormatException;
 import io.cdap.cdap.api.data.schema.Schema;
@@ -24,16 +23,36 @@ import io.cdap.plugin.common.RecordConverter;
 import org.apache.avro.generic.GenericRecord;
 
 import java.io.IOException;
+import java.lang.reflect.Array;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
 
 /**
- * Create StructuredRecords from GenericRecords
+ * Create StructuredRecords from GenericRecords.
+ *
+ * The conversion of each schema is compiled once into an array of field converters, which are then applied to every
+ * record with that schema.
  */
 public class AvroToStructuredTransformer extends RecordConverter<GenericRecord, StructuredRecord> {
-  private final Map<Integer, Schema> schemaCache = Maps.newHashMap();
+  private final Map<org.apache.avro.Schema, Schema> schemaCache = new HashMap<>();
+  private final Map<Schema, RecordTransform> recordTransforms = new HashMap<>();
+  private org.apache.avro.Schema lastAvroSchema;
+  private Schema lastStructuredSchema;
+  private Schema lastSchema;
+  private RecordTransform lastTransform;
+
+  /**
+   * Converts a value of a field.
+   */
+  private interface ValueConverter {
+    Object convert(Object value);
+  }
 
   public StructuredRecord transform(GenericRecord genericRecord) throws IOException {
     org.apache.avro.Schema genericRecordSchema = genericRecord.getSchema();
@@ -42,57 +61,233 @@ public class AvroToStructuredTransformer extends RecordConverter<GenericRecord,
 
   @Override
   public StructuredRecord transform(GenericRecord genericRecord, Schema structuredSchema) throws IOException {
-    StructuredRecord.Builder builder = StructuredRecord.builder(structuredSchema);
-    for (Schema.Field field : structuredSchema.getFields()) {
-      String fieldName = field.getName();
-      builder.set(fieldName, convertField(genericRecord.get(fieldName), field));
-    }
-    return builder.build();
+    return transform(genericRecord, structuredSchema, null).build();
   }
 
   public StructuredRecord.Builder transform(GenericRecord genericRecord, Schema structuredSchema,
                                             @Nullable String skipField) throws IOException {
-    StructuredRecord.Builder builder = StructuredRecord.builder(structuredSchema);
-    for (Schema.Field field : structuredSchema.getFields()) {
-      String fieldName = field.getName();
-      if (!fieldName.equals(skipField)) {
-        builder.set(fieldName, convertField(genericRecord.get(fieldName), field));
-      }
+    // the same schema instance is almost always used for all records, so avoid hashing it
+    if (structuredSchema != lastSchema) {
+      lastTransform = getRecordTransform(structuredSchema);
+      lastSchema = structuredSchema;
     }
+    return lastTransform.transform(genericRecord, skipField);
+  }
 
-    return builder;
+  public Schema convertSchema(org.apache.avro.Schema schema) throws IOException {
+    if (schema == lastAvroSchema) {
+      return lastStructuredSchema;
+    }
+    Schema structuredSchema = schemaCache.get(schema);
+    if (structuredSchema == null) {
+      structuredSchema = Schema.parseJson(schema.toString());
+      schemaCache.put(schema, structuredSchema);
+    }
+    lastAvroSchema = schema;
+    lastStructuredSchema = structuredSchema;
+    return structuredSchema;
+  }
+
+  private RecordTransform getRecordTransform(Schema schema) {
+    RecordTransform recordTransform = recordTransforms.get(schema);
+    if (recordTransform == null) {
+      recordTransform = new RecordTransform(schema);
+      recordTransforms.put(schema, recordTransform);
+    }
+    return recordTransform;
   }
 
   /**
-   * Overriding here to validate for datetime field
-   *
-   * @param field  Field value
-   * @param schema {@link Schema}
-   * @return Object value
-   * @throws IOException
+   * Compiles a converter for values of the given schema.
    */
-  protected Object convertField(Object field, Schema schema) throws IOException {
-    if (schema.getLogicalType() == Schema.LogicalType.DATETIME) {
+  private ValueConverter compile(Schema schema) {
+    if (schema.getType() == Schema.Type.UNION) {
+      return compileUnion(schema.getUnionSchemas());
+    }
+    ValueConverter converter = compileNonNull(schema);
+    ValueConverter nonNullConverter = value -> {
+      if (value == null) {
+        throw new NullPointerException("Found a null value for a non-nullable field.");
+      }
+      return converter.convert(value);
+    };
+    if (schema.getLogicalType() != Schema.LogicalType.DATETIME) {
+      return nonNullConverter;
+    }
+    return value -> {
       try {
-        LocalDateTime.parse(field.toString());
+        LocalDateTime.parse(value.toString());
       } catch (DateTimeParseException exception) {
         throw new UnexpectedFormatException(
-          String.format("Datetime value '%s' is not in ISO-8601 format.", field.toString()), exception);
+          String.format("Datetime value '%s' is not in ISO-8601 format.", value.toString()), exception);
       }
+      return nonNullConverter.convert(value);
+    };
+  }
+
+  private ValueConverter compileNonNull(Schema schema) {
+    Schema.Type type = schema.getType();
+    switch (type) {
+      case RECORD:
+        // compiled on first use, since schemas can be recursive
+        return new ValueConverter() {
+          private RecordTransform recordTransform;
+
+          @Override
+          public Object convert(Object value) {
+            if (recordTransform == null) {
+              recordTransform = getRecordTransform(schema);
+            }
+            return recordTransform.transform((GenericRecord) value, null).build();
+          }
+        };
+      case ARRAY:
+        return compileArray(compile(schema.getComponentSchema()));
+      case MAP:
+        return compileMap(compile(schema.getMapSchema().getKey()), compile(schema.getMapSchema().getValue()));
+      case NULL:
+        return value -> null;
+      case STRING:
+        return Object::toString;
+      case BYTES:
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+      case BOOLEAN:
+        return value -> value;
+      default:
+        return value -> {
+          throw new UnexpectedFormatException("field type " + type + " is not supported.");
+        };
     }
-    return super.convertField(field, schema);
   }
 
-  public Schema convertSchema(org.apache.avro.Schema schema) throws IOException {
-    int hashCode = schema.hashCode();
-    Schema structuredSchema;
+  private ValueConverter compileUnion(List<Schema> schemas) {
+    boolean isNullable = false;
+    List<ValueConverter> converters = new ArrayList<>(schemas.size());
+    for (Schema schema : schemas) {
+      if (schema.getType() == Schema.Type.NULL) {
+        isNullable = true;
+      } else {
+        converters.add(compile(schema));
+      }
+    }
+    boolean nullable = isNullable;
+    return value -> {
+      if (value == null && nullable) {
+        return null;
+      }
+      for (ValueConverter converter : converters) {
+        try {
+          return converter.convert(value);
+        } catch (Exception e) {
+          // if we couldn't convert, move to the next possibility
+        }
+      }
+      if (nullable) {
+        return null;
+      }
+      throw new UnexpectedFormatException("unable to determine union type.");
+    };
+  }
 
-    if (schemaCache.containsKey(hashCode)) {
-      structuredSchema = schemaCache.get(hashCode);
-    } else {
-      structuredSchema = Schema.parseJson(schema.toString());
-      schemaCache.put(hashCode, structuredSchema);
+  private static ValueConverter compileArray(ValueConverter elementConverter) {
+    return values -> {
+      List<Object> output;
+      if (values instanceof Collection) {
+        Collection<?> valuesList = (Collection<?>) values;
+        output = new ArrayList<>(valuesList.size());
+        for (Object value : valuesList) {
+          output.add(elementConverter.convert(value));
+        }
+      } else {
+        int length = Array.getLength(values);
+        output = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+          output.add(elementConverter.convert(Array.get(values, i)));
+        }
+      }
+      return output;
+    };
+  }
+
+  private static ValueConverter compileMap(ValueConverter keyConverter, ValueConverter valueConverter) {
+    return value -> {
+      Map<?, ?> map = (Map<?, ?>) value;
+      Map<Object, Object> converted = new HashMap<>();
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        converted.put(keyConverter.convert(entry.getKey()), valueConverter.convert(entry.getValue()));
+      }
+      return converted;
+    };
+  }
+
+  /**
+   * Transforms GenericRecords into StructuredRecords of a schema. The fields of the GenericRecords are read by
+   * position, with positions looked up once for each Avro schema of the input records.
+   */
+  private final class RecordTransform {
+    private final Schema schema;
+    private final String[] fieldNames;
+    private final ValueConverter[] converters;
+    private final Map<org.apache.avro.Schema, int[]> positions;
+    private org.apache.avro.Schema lastAvroSchema;
+    private int[] lastPositions;
+
+    private RecordTransform(Schema schema) {
+      List<Schema.Field> fields = schema.getFields();
+      this.schema = schema;
+      this.fieldNames = new String[fields.size()];
+      this.converters = new ValueConverter[fields.size()];
+      this.positions = new HashMap<>();
+      for (int i = 0; i < fieldNames.length; i++) {
+        fieldNames[i] = fields.get(i).getName();
+        converters[i] = compile(fields.get(i).getSchema());
+      }
+    }
+
+    StructuredRecord.Builder transform(GenericRecord genericRecord, @Nullable String skipField) {
+      org.apache.avro.Schema avroSchema = genericRecord.getSchema();
+      if (avroSchema != lastAvroSchema) {
+        int[] avroPositions = positions.get(avroSchema);
+        if (avroPositions == null) {
+          avroPositions = getPositions(avroSchema);
+          positions.put(avroSchema, avroPositions);
+        }
+        lastPositions = avroPositions;
+        lastAvroSchema = avroSchema;
+      }
+
+      StructuredRecord.Builder builder = StructuredRecord.builder(schema);
+      for (int i = 0; i < fieldNames.length; i++) {
+        String fieldName = fieldNames[i];
+        if (fieldName.equals(skipField)) {
+          continue;
+        }
+        Object value = lastPositions[i] < 0 ? null : genericRecord.get(lastPositions[i]);
+        Object converted;
+        try {
+          converted = converters[i].convert(value);
+        } catch (Exception e) {
+          throw new IllegalArgumentException(
+            String.format("Error converting field '%s': %s", fieldName, e.getMessage()), e);
+        }
+        builder.set(fieldName, converted);
+      }
+      return builder;
+    }
+
+    /**
+     * Returns the position in the Avro schema of each field, or -1 for fields that are not in the Avro schema.
+     */
+    private int[] getPositions(org.apache.avro.Schema avroSchema) {
+      int[] avroPositions = new int[fieldNames.length];
+      for (int i = 0; i < fieldNames.length; i++) {
+        org.apache.avro.Schema.Field avroField = avroSchema.getField(fieldNames[i]);
+        avroPositions[i] = avroField == null ? -1 : avroField.pos();
+      }
+      return avroPositions;
     }
-    return structuredSchema;
   }
 }
@@ -1,4 +1,3 @@
-
 /*
  * Copyright © 2018-2019 Cask Data, Inc.
  *
@@ -17,29 +16,59 @@
 
 package io.cdap.plugin.format.avro;
 
-import com.google.common.collect.Maps;
 import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.format.UnexpectedFormatException;
 import io.cdap.plugin.common.RecordConverter;
+import org.apache.avro.AvroRuntimeException;
 import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericRecord;
-import org.apache.avro.generic.GenericRecordBuilder;
 
 import java.io.IOException;
+import java.lang.reflect.Array;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
 
 /**
- * Creates GenericRecords from StructuredRecords
+ * Creates GenericRecords from StructuredRecords.
+ *
+ * The conversion of each schema is compiled once into an array of field converters, which are then applied to every
+ * record with that schema.
  */
 public class StructuredToAvroTransformer extends RecordConverter<StructuredRecord, GenericRecord> {
 
-  private final Map<Integer, Schema> schemaCache;
+  private final Map<io.cdap.cdap.api.data.schema.Schema, RecordTransform> recordTransforms;
   private final io.cdap.cdap.api.data.schema.Schema outputCDAPSchema;
+  private final boolean reuseRecords;
+  private io.cdap.cdap.api.data.schema.Schema lastSchema;
+  private RecordTransform lastTransform;
+
+  /**
+   * Converts a value of a field.
+   */
+  private interface ValueConverter {
+    Object convert(Object value);
+  }
 
   public StructuredToAvroTransformer(@Nullable io.cdap.cdap.api.data.schema.Schema outputSchema) {
-    this.schemaCache = Maps.newHashMap();
+    this(outputSchema, false);
+  }
+
+  /**
+   * @param outputSchema the schema of the records to create, or null to use the schema of each input record
+   * @param reuseRecords whether the same GenericRecord instance is returned for every record with the same schema.
+   *                     This can only be set if each record is consumed before the next one is transformed.
+   */
+  public StructuredToAvroTransformer(@Nullable io.cdap.cdap.api.data.schema.Schema outputSchema,
+                                     boolean reuseRecords) {
+    this.recordTransforms = new HashMap<>();
     this.outputCDAPSchema = outputSchema;
+    this.reuseRecords = reuseRecords;
   }
 
   public GenericRecord transform(StructuredRecord structuredRecord) throws IOException {
@@ -50,38 +79,220 @@ public class StructuredToAvroTransformer extends RecordConverter<StructuredRecor
   @Override
   public GenericRecord transform(StructuredRecord structuredRecord,
                                  io.cdap.cdap.api.data.schema.Schema schema) throws IOException {
-    io.cdap.cdap.api.data.schema.Schema structuredRecordSchema = structuredRecord.getSchema();
+    // the same schema instance is almost always used for all records, so avoid hashing it
+    if (schema != lastSchema) {
+      lastTransform = getRecordTransform(schema);
+      lastSchema = schema;
+    }
+    return lastTransform.transform(structuredRecord, reuseRecords);
+  }
 
-    Schema avroSchema = getAvroSchema(schema);
+  private RecordTransform getRecordTransform(io.cdap.cdap.api.data.schema.Schema schema) {
+    RecordTransform recordTransform = recordTransforms.get(schema);
+    if (recordTransform == null) {
+      recordTransform = new RecordTransform(new Schema.Parser().parse(schema.toString()));
+      recordTransforms.put(schema, recordTransform);
+    }
+    return recordTransform;
+  }
 
-    GenericRecordBuilder recordBuilder = new GenericRecordBuilder(avroSchema);
-    for (Schema.Field field : avroSchema.getFields()) {
-      String fieldName = field.name();
-      io.cdap.cdap.api.data.schema.Schema.Field schemaField = structuredRecordSchema.getField(fieldName);
-      if (schemaField == null) {
-        throw new IllegalArgumentException("Input record does not contain the " + fieldName + " field.");
+  /**
+   * Compiles a converter for values of the given schema.
+   */
+  private ValueConverter compile(io.cdap.cdap.api.data.schema.Schema schema) {
+    io.cdap.cdap.api.data.schema.Schema.Type type = schema.getType();
+    if (type == io.cdap.cdap.api.data.schema.Schema.Type.UNION) {
+      return compileUnion(schema.getUnionSchemas());
+    }
+    ValueConverter converter = compileNonNull(schema);
+    return value -> {
+      if (value == null) {
+        throw new NullPointerException("Found a null value for a non-nullable field.");
       }
-      recordBuilder.set(fieldName, convertField(structuredRecord.get(fieldName), schemaField));
+      return converter.convert(value);
+    };
+  }
+
+  private ValueConverter compileNonNull(io.cdap.cdap.api.data.schema.Schema schema) {
+    io.cdap.cdap.api.data.schema.Schema.Type type = schema.getType();
+    switch (type) {
+      case RECORD:
+        // compiled on first use, since schemas can be recursive
+        return new ValueConverter() {
+          private RecordTransform recordTransform;
+
+          @Override
+          public Object convert(Object value) {
+            if (recordTransform == null) {
+              recordTransform = getRecordTransform(schema);
+            }
+            return recordTransform.transform((StructuredRecord) value, false);
+          }
+        };
+      case ARRAY:
+        return compileArray(compile(schema.getComponentSchema()));
+      case MAP:
+        return compileMap(compile(schema.getMapSchema().getKey()), compile(schema.getMapSchema().getValue()));
+      case NULL:
+        return value -> null;
+      case STRING:
+        return Object::toString;
+      case BYTES:
+        return value -> value instanceof ByteBuffer ? value : ByteBuffer.wrap((byte[]) value);
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+      case BOOLEAN:
+        return value -> value;
+      default:
+        return value -> {
+          throw new UnexpectedFormatException("field type " + type + " is not supported.");
+        };
     }
-    return recordBuilder.build();
   }
 
-  @Override
-  protected Object convertBytes(Object field) {
-    if (field instanceof ByteBuffer) {
-      return field;
+  private ValueConverter compileUnion(List<io.cdap.cdap.api.data.schema.Schema> schemas) {
+    boolean isNullable = false;
+    List<ValueConverter> converters = new ArrayList<>(schemas.size());
+    for (io.cdap.cdap.api.data.schema.Schema schema : schemas) {
+      if (schema.getType() == io.cdap.cdap.api.data.schema.Schema.Type.NULL) {
+        isNullable = true;
+      } else {
+        converters.add(compile(schema));
+      }
+    }
+    boolean nullable = isNullable;
+    return value -> {
+      if (value == null && nullable) {
+        return null;
+      }
+      for (ValueConverter converter : converters) {
+        try {
+          return converter.convert(value);
+        } catch (Exception e) {
+          // if we couldn't convert, move to the next possibility
+        }
+      }
+      if (nullable) {
+        return null;
+      }
+      throw new UnexpectedFormatException("unable to determine union type.");
+    };
+  }
+
+  private static ValueConverter compileArray(ValueConverter elementConverter) {
+    return values -> {
+      List<Object> output;
+      if (values instanceof Collection) {
+        Collection<?> valuesList = (Collection<?>) values;
+        output = new ArrayList<>(valuesList.size());
+        for (Object value : valuesList) {
+          output.add(elementConverter.convert(value));
+        }
+      } else {
+        int length = Array.getLength(values);
+        output = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+          output.add(elementConverter.convert(Array.get(values, i)));
+        }
+      }
+      return output;
+    };
+  }
+
+  private static ValueConverter compileMap(ValueConverter keyConverter, ValueConverter valueConverter) {
+    return value -> {
+      Map<?, ?> map = (Map<?, ?>) value;
+      Map<Object, Object> converted = new HashMap<>();
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        converted.put(keyConverter.convert(entry.getKey()), valueConverter.convert(entry.getValue()));
+      }
+      return converted;
+    };
+  }
+
+  /**
+   * Transforms StructuredRecords into GenericRecords of an Avro schema. The fields of the Avro schema are converted
+   * by position, with converters compiled for each schema of the input records.
+   */
+  private final class RecordTransform {
+    private final Schema avroSchema;
+    private final Map<io.cdap.cdap.api.data.schema.Schema, ValueConverter[]> converters;
+    private io.cdap.cdap.api.data.schema.Schema lastInputSchema;
+    private ValueConverter[] lastConverters;
+    private GenericData.Record reusedRecord;
+
+    private RecordTransform(Schema avroSchema) {
+      this.avroSchema = avroSchema;
+      this.converters = new HashMap<>();
+    }
+
+    GenericRecord transform(StructuredRecord structuredRecord, boolean reuse) {
+      io.cdap.cdap.api.data.schema.Schema inputSchema = structuredRecord.getSchema();
+      if (inputSchema != lastInputSchema) {
+        ValueConverter[] inputConverters = converters.get(inputSchema);
+        if (inputConverters == null) {
+          inputConverters = compileFields(inputSchema);
+          converters.put(inputSchema, inputConverters);
+        }
+        lastConverters = inputConverters;
+        lastInputSchema = inputSchema;
+      }
+
+      GenericData.Record record = reuse && reusedRecord != null ? reusedRecord : new GenericData.Record(avroSchema);
+      for (int i = 0; i < lastConverters.length; i++) {
+        record.put(i, lastConverters[i].convert(structuredRecord));
+      }
+      if (reuse) {
+        reusedRecord = record;
+      }
+      return record;
+    }
+
+    /**
+     * Compiles converters that read each field of the Avro schema from records of the given schema.
+     */
+    private ValueConverter[] compileFields(io.cdap.cdap.api.data.schema.Schema inputSchema) {
+      List<Schema.Field> fields = avroSchema.getFields();
+      ValueConverter[] fieldConverters = new ValueConverter[fields.size()];
+      for (Schema.Field field : fields) {
+        String fieldName = field.name();
+        io.cdap.cdap.api.data.schema.Schema.Field schemaField = inputSchema.getField(fieldName);
+        if (schemaField == null) {
+          throw new IllegalArgumentException("Input record does not contain the " + fieldName + " field.");
+        }
+        ValueConverter converter = compile(schemaField.getSchema());
+        boolean acceptsNull = acceptsNull(field.schema()) || field.defaultVal() != null;
+        fieldConverters[field.pos()] = record -> {
+          Object converted;
+          try {
+            converted = converter.convert(((StructuredRecord) record).get(fieldName));
+          } catch (Exception e) {
+            throw new IllegalArgumentException(
+              String.format("Error converting field '%s': %s", fieldName, e.getMessage()), e);
+          }
+          if (converted == null && !acceptsNull) {
+            throw new AvroRuntimeException("Field " + field + " does not accept null values");
+          }
+          return converted;
+        };
+      }
+      return fieldConverters;
     }
-    return ByteBuffer.wrap((byte[]) field);
   }
 
-  private Schema getAvroSchema(io.cdap.cdap.api.data.schema.Schema cdapSchema) {
-    int hashCode = cdapSchema.hashCode();
-    if (schemaCache.containsKey(hashCode)) {
-      return schemaCache.get(hashCode);
-    } else {
-      Schema avroSchema = new Schema.Parser().parse(cdapSchema.toString());
-      schemaCache.put(hashCode, avroSchema);
-      return avroSchema;
+  private static boolean acceptsNull(Schema schema) {
+    if (schema.getType() == Schema.Type.NULL) {
+      return true;
+    }
+    if (schema.getType() == Schema.Type.UNION) {
+      for (Schema unionSchema : schema.getTypes()) {
+        if (unionSchema.getType() == Schema.Type.NULL) {
+          return true;
+        }
+      }
     }
+    return false;
   }
 }
@@ -48,7 +48,7 @@ public class RuntimeSuppliedSchemaAvroOutputFormat extends
 
     Configuration hConf = context.getConfiguration();
 
-    StructuredToAvroTransformer transformer = new StructuredToAvroTransformer(null);
+    StructuredToAvroTransformer transformer = new StructuredToAvroTransformer(null, true);
     return record -> {
       try {
         return new KeyValue<>(new AvroKey<>(transformer.transform(record)), NullWritable.get());
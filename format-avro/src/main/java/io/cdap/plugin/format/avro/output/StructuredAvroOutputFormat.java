@@ -48,7 +48,7 @@ public class StructuredAvroOutputFormat extends DelegatingOutputFormat<AvroKey<G
 
     Configuration hConf = context.getConfiguration();
     Schema schema = Schema.parseJson(hConf.get(AvroOutputFormatProvider.SCHEMA_KEY));
-    StructuredToAvroTransformer transformer = new StructuredToAvroTransformer(schema);
+    StructuredToAvroTransformer transformer = new StructuredToAvroTransformer(schema, true);
     return record -> {
       try {
         return new KeyValue<>(new AvroKey<>(transformer.transform(record)), NullWritable.get());
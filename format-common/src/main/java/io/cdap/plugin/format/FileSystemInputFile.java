@@ -31,11 +31,21 @@ public class FileSystemInputFile implements InputFile {
   private final FileSystem fs;
   private final Path path;
   private final long length;
+  private final long modificationTime;
 
   public FileSystemInputFile(FileSystem fs, FileStatus file) {
     this.fs = fs;
     this.path = file.getPath();
     this.length = file.getLen();
+    this.modificationTime = file.getModificationTime();
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  public long getModificationTime() {
+    return modificationTime;
   }
 
   @Override
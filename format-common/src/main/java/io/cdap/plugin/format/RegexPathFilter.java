@@ -18,6 +18,7 @@ package io.cdap.plugin.format;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.conf.Configured;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.PathFilter;
@@ -30,7 +31,11 @@ import java.util.regex.Pattern;
  */
 public class RegexPathFilter extends Configured implements PathFilter {
   private static final String REGEX = "path.filter.regex";
+  // regex metacharacters, which end the literal characters at the start of a regex
+  private static final String METACHARACTERS = ".[]{}()*+?^$|";
+  private static final String QUANTIFIERS = "*+?{";
   private Pattern pattern;
+  private String literalPrefix = "";
 
   public static void configure(Configuration conf, Pattern regex) {
     conf.set(REGEX, regex.pattern());
@@ -51,6 +56,71 @@ public class RegexPathFilter extends Configured implements PathFilter {
     }
   }
 
+  /**
+   * Same as {@link #accept(Path)}, using the status of the path instead of looking it up.
+   */
+  public boolean accept(FileStatus status) {
+    if (status.isDirectory()) {
+      return true;
+    } else if (status.isFile()) {
+      return pattern == null || pattern.matcher(status.getPath().toUri().getPath()).matches();
+    }
+    return false;
+  }
+
+  /**
+   * Returns whether the given directory, or its subdirectories, can contain files that this filter accepts. This is
+   * false if the path of the directory and the literal characters the regex starts with differ.
+   */
+  public boolean mayContainMatches(Path directory) {
+    if (literalPrefix.isEmpty()) {
+      return true;
+    }
+    String path = directory.toUri().getPath();
+    if (!path.endsWith("/")) {
+      path = path + "/";
+    }
+    return path.startsWith(literalPrefix) || literalPrefix.startsWith(path);
+  }
+
+  /**
+   * Returns the characters that every string matching the regex starts with, or an empty string if they cannot be
+   * told without parsing the regex.
+   */
+  static String getLiteralPrefix(String regex) {
+    // any alternative can start the match
+    if (regex.indexOf('|') >= 0) {
+      return "";
+    }
+    StringBuilder prefix = new StringBuilder();
+    int index = regex.startsWith("^") ? 1 : 0;
+    while (index < regex.length()) {
+      char current = regex.charAt(index);
+      char literal;
+      int next;
+      if (current == '\\') {
+        // escaped letters and digits are classes or references, such as \d or \1
+        if (index + 1 == regex.length() || Character.isLetterOrDigit(regex.charAt(index + 1))) {
+          break;
+        }
+        literal = regex.charAt(index + 1);
+        next = index + 2;
+      } else if (METACHARACTERS.indexOf(current) >= 0) {
+        break;
+      } else {
+        literal = current;
+        next = index + 1;
+      }
+      // a quantified character may be missing or repeated
+      if (next < regex.length() && QUANTIFIERS.indexOf(regex.charAt(next)) >= 0) {
+        break;
+      }
+      prefix.append(literal);
+      index = next;
+    }
+    return prefix.toString();
+  }
+
   @Override
   public void setConf(Configuration conf) {
     super.setConf(conf);
@@ -59,5 +129,6 @@ public class RegexPathFilter extends Configured implements PathFilter {
     }
     String regex = conf.get(REGEX);
     pattern = regex == null ? null : Pattern.compile(regex);
+    literalPrefix = regex == null ? "" : getLiteralPrefix(regex);
   }
 }
@@ -17,8 +17,10 @@
 package io.cdap.plugin.format.input;
 
 import io.cdap.cdap.api.data.format.StructuredRecord;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobContext;
 import org.apache.hadoop.mapreduce.RecordReader;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.hadoop.mapreduce.lib.input.CombineFileInputFormat;
@@ -26,6 +28,7 @@ import org.apache.hadoop.mapreduce.lib.input.CombineFileRecordReader;
 import org.apache.hadoop.mapreduce.lib.input.CombineFileSplit;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * Similar to CombineTextInputFormat except it uses PathTrackingInputFormat to keep track of filepaths that
@@ -33,6 +36,11 @@ import java.io.IOException;
  */
 public abstract class CombinePathTrackingInputFormat extends CombineFileInputFormat<NullWritable, StructuredRecord> {
 
+  @Override
+  protected List<FileStatus> listStatus(JobContext job) throws IOException {
+    return FileLister.listStatus(job);
+  }
+
   /**
    * Creates a RecordReader that delegates to some other RecordReader for each path in the input split.
    * The header for each file is set in the context Configuration to make it available to the delegate RecordReaders.
@@ -0,0 +1,423 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.input;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.Gson;
+import io.cdap.plugin.format.RegexPathFilter;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.PathFilter;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.hadoop.mapreduce.lib.input.InvalidInputException;
+import org.apache.hadoop.mapreduce.security.TokenCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+
+/**
+ * Lists the input files of a job the same way FileInputFormat does, with directories listed by a bounded pool of
+ * threads. If files are filtered by a {@link RegexPathFilter}, they are matched using the status returned by the
+ * listing instead of looking it up again, and directories that cannot contain matching files are not listed.
+ *
+ * If {@link #MANIFEST_DIR} is set, the listing of each directory is kept in a manifest for the input paths of the
+ * job. On the next run, a directory is only listed again if its modification time changed. Since the modification
+ * time of a directory only changes when files are added to or removed from it, this assumes that files are not
+ * modified in place. The manifest is only used for input paths on HDFS or the local file system, since object stores
+ * do not keep meaningful modification times for directories.
+ */
+public final class FileLister {
+  public static final String NUM_THREADS = "path.tracking.listing.threads";
+  public static final String MANIFEST_DIR = "path.tracking.listing.manifest.dir";
+  static final int DEFAULT_NUM_THREADS = 16;
+  // file systems that update the modification time of a directory when files are added to or removed from it,
+  // unlike object stores such as GCS or S3
+  private static final List<String> MANIFEST_SCHEMES = Arrays.asList("hdfs", "viewfs", "webhdfs", "swebhdfs", "file");
+  private static final Logger LOG = LoggerFactory.getLogger(FileLister.class);
+  private static final Gson GSON = new Gson();
+
+  private final Configuration conf;
+  private final PathFilter filter;
+  private final boolean recursive;
+  private final int numThreads;
+  private final Manifest previousManifest;
+  private final Manifest manifest;
+
+  /**
+   * Lists the input files of the given job, like {@link FileInputFormat#listStatus(JobContext)}. If a range of
+   * watermarks is set in the configuration, only the files in that range are returned.
+   */
+  public static List<FileStatus> listStatus(JobContext job) throws IOException {
+    Path[] dirs = FileInputFormat.getInputPaths(job);
+    if (dirs.length == 0) {
+      throw new IOException("No input paths specified in job");
+    }
+    Configuration conf = job.getConfiguration();
+    // get tokens for all the required FileSystems
+    TokenCache.obtainTokensForNamenodes(job.getCredentials(), dirs, conf);
+    List<FileStatus> files = new FileLister(conf, FileInputFormat.getInputPathFilter(job),
+                                            FileInputFormat.getInputDirRecursive(job)).list(dirs);
+    return FileWatermark.filter(files, conf);
+  }
+
+  FileLister(Configuration conf, @Nullable PathFilter filter, boolean recursive) {
+    this.conf = conf;
+    this.filter = filter;
+    this.recursive = recursive;
+    this.numThreads = Math.max(1, conf.getInt(NUM_THREADS, DEFAULT_NUM_THREADS));
+    this.previousManifest = new Manifest();
+    this.manifest = new Manifest();
+  }
+
+  List<FileStatus> list(Path[] dirs) throws IOException {
+    List<IOException> errors = new ArrayList<>();
+    List<FileStatus> roots = new ArrayList<>();
+    for (Path dir : dirs) {
+      FileStatus[] matches = dir.getFileSystem(conf).globStatus(dir);
+      if (matches == null) {
+        errors.add(new IOException("Input path does not exist: " + dir));
+        continue;
+      }
+      List<FileStatus> accepted = Arrays.stream(matches).filter(this::accept).collect(Collectors.toList());
+      if (accepted.isEmpty()) {
+        errors.add(new IOException("Input Pattern " + dir + " matches 0 files"));
+      }
+      roots.addAll(accepted);
+    }
+    if (!errors.isEmpty()) {
+      throw new InvalidInputException(errors);
+    }
+
+    Path manifestPath = getManifestPath(dirs);
+    if (manifestPath != null) {
+      readManifest(manifestPath);
+    }
+    Map<Path, List<FileStatus>> listings = listDirectories(roots);
+    if (manifestPath != null && !manifest.directories.equals(previousManifest.directories)) {
+      writeManifest(manifestPath);
+    }
+
+    // files are returned in the same order as if directories were listed one by one
+    List<FileStatus> result = new ArrayList<>();
+    for (FileStatus root : roots) {
+      if (root.isDirectory()) {
+        addFiles(root.getPath(), listings, result);
+      } else {
+        result.add(root);
+      }
+    }
+    LOG.debug("Found {} input files.", result.size());
+    return result;
+  }
+
+  private boolean accept(FileStatus status) {
+    // hidden files are skipped, like FileInputFormat does
+    String name = status.getPath().getName();
+    if (name.startsWith("_") || name.startsWith(".")) {
+      return false;
+    }
+    if (filter instanceof RegexPathFilter) {
+      return ((RegexPathFilter) filter).accept(status);
+    }
+    return filter == null || filter.accept(status.getPath());
+  }
+
+  private boolean shouldList(FileStatus status) {
+    return recursive && status.isDirectory()
+      && (!(filter instanceof RegexPathFilter) || ((RegexPathFilter) filter).mayContainMatches(status.getPath()));
+  }
+
+  private void addFiles(Path dir, Map<Path, List<FileStatus>> listings, List<FileStatus> result) {
+    for (FileStatus child : listings.get(dir)) {
+      if (!accept(child)) {
+        continue;
+      }
+      if (!recursive || !child.isDirectory()) {
+        result.add(child);
+      } else if (listings.containsKey(child.getPath())) {
+        addFiles(child.getPath(), listings, result);
+      }
+    }
+  }
+
+  /**
+   * Lists the given directories and, if listing is recursive, their subdirectories, one level at a time.
+   */
+  private Map<Path, List<FileStatus>> listDirectories(List<FileStatus> roots) throws IOException {
+    Map<Path, List<FileStatus>> listings = new HashMap<>();
+    List<DirectoryToList> level = roots.stream()
+      .filter(FileStatus::isDirectory)
+      .map(root -> new DirectoryToList(root, true))
+      .collect(Collectors.toList());
+    if (level.isEmpty()) {
+      return listings;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(
+      numThreads, new ThreadFactoryBuilder().setNameFormat("file-lister-%d").setDaemon(true).build());
+    try {
+      while (!level.isEmpty()) {
+        List<Future<Listing>> futures = new ArrayList<>(level.size());
+        for (DirectoryToList directory : level) {
+          futures.add(executor.submit(() -> list(directory)));
+        }
+        List<DirectoryToList> nextLevel = new ArrayList<>();
+        for (int i = 0; i < level.size(); i++) {
+          Listing listing = futures.get(i).get();
+          listings.put(level.get(i).status.getPath(), listing.children);
+          for (FileStatus child : listing.children) {
+            if (shouldList(child) && accept(child)) {
+              nextLevel.add(new DirectoryToList(child, !listing.fromManifest));
+            }
+          }
+        }
+        level = nextLevel;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while listing input files.", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Failed to list input files.", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    return listings;
+  }
+
+  private Listing list(DirectoryToList directory) throws IOException {
+    Path path = directory.status.getPath();
+    FileSystem fs = path.getFileSystem(conf);
+    FileStatus status = directory.status;
+    String key = path.toString();
+    Manifest.Directory cached = previousManifest.directories.get(key);
+    if (cached != null) {
+      // the status of directories found in the manifest may be out of date
+      if (!directory.statusIsCurrent) {
+        status = fs.getFileStatus(path);
+      }
+      if (cached.modificationTime == status.getModificationTime()) {
+        synchronized (manifest) {
+          manifest.directories.put(key, cached);
+        }
+        return new Listing(cached.toStatuses(), true);
+      }
+    }
+
+    List<FileStatus> children = new ArrayList<>();
+    RemoteIterator<? extends FileStatus> iterator = fs.listLocatedStatus(path);
+    while (iterator.hasNext()) {
+      children.add(iterator.next());
+    }
+    // an out of date modification time is still safe to keep, since it can only differ from the next one
+    synchronized (manifest) {
+      manifest.directories.put(key, new Manifest.Directory(status.getModificationTime(), children));
+    }
+    return new Listing(children, false);
+  }
+
+  @Nullable
+  private Path getManifestPath(Path[] dirs) throws IOException {
+    String manifestDir = conf.get(MANIFEST_DIR);
+    if (manifestDir == null) {
+      return null;
+    }
+    StringBuilder key = new StringBuilder();
+    for (Path dir : dirs) {
+      Path qualified = dir.getFileSystem(conf).makeQualified(dir);
+      String scheme = qualified.toUri().getScheme();
+      if (!MANIFEST_SCHEMES.contains(scheme)) {
+        LOG.warn("Ignoring the listing manifest directory {}, since the modification time of directories of '{}' " +
+                   "file systems does not show whether files were added or removed.", manifestDir, scheme);
+        return null;
+      }
+      key.append(qualified).append('\n');
+    }
+    String name = UUID.nameUUIDFromBytes(key.toString().getBytes(StandardCharsets.UTF_8)) + ".json";
+    return new Path(manifestDir, name);
+  }
+
+  private void readManifest(Path manifestPath) {
+    try {
+      FileSystem fs = manifestPath.getFileSystem(conf);
+      if (!fs.exists(manifestPath)) {
+        return;
+      }
+      try (Reader reader = new InputStreamReader(fs.open(manifestPath), StandardCharsets.UTF_8)) {
+        Manifest read = GSON.fromJson(reader, Manifest.class);
+        if (read != null && read.directories != null) {
+          previousManifest.directories.putAll(read.directories);
+        }
+      }
+    } catch (Exception e) {
+      LOG.warn("Unable to read the listing manifest {}, all the input directories will be listed.", manifestPath, e);
+    }
+  }
+
+  private void writeManifest(Path manifestPath) {
+    Path tmpPath = new Path(manifestPath.getParent(), "." + manifestPath.getName() + "." + UUID.randomUUID());
+    try {
+      FileSystem fs = manifestPath.getFileSystem(conf);
+      try (Writer writer = new OutputStreamWriter(fs.create(tmpPath, true), StandardCharsets.UTF_8)) {
+        GSON.toJson(manifest, writer);
+      }
+      fs.delete(manifestPath, false);
+      if (!fs.rename(tmpPath, manifestPath)) {
+        fs.delete(tmpPath, false);
+        LOG.warn("Unable to write the listing manifest {}.", manifestPath);
+      }
+    } catch (Exception e) {
+      LOG.warn("Unable to write the listing manifest {}.", manifestPath, e);
+    }
+  }
+
+  /**
+   * A directory to list, along with whether its status was just read, or may be out of date because it comes from
+   * a manifest.
+   */
+  private static final class DirectoryToList {
+    private final FileStatus status;
+    private final boolean statusIsCurrent;
+
+    private DirectoryToList(FileStatus status, boolean statusIsCurrent) {
+      this.status = status;
+      this.statusIsCurrent = statusIsCurrent;
+    }
+  }
+
+  /**
+   * The children of a directory.
+   */
+  private static final class Listing {
+    private final List<FileStatus> children;
+    private final boolean fromManifest;
+
+    private Listing(List<FileStatus> children, boolean fromManifest) {
+      this.children = children;
+      this.fromManifest = fromManifest;
+    }
+  }
+
+  /**
+   * The children of directories, along with the modification time of the directories when they were listed.
+   */
+  private static final class Manifest {
+    private final Map<String, Directory> directories = new HashMap<>();
+
+    /**
+     * A listed directory.
+     */
+    private static final class Directory {
+      private final long modificationTime;
+      private final List<Child> children;
+
+      private Directory(long modificationTime, List<FileStatus> statuses) {
+        this.modificationTime = modificationTime;
+        this.children = statuses.stream().map(Child::new).collect(Collectors.toList());
+      }
+
+      private List<FileStatus> toStatuses() {
+        return children.stream().map(Child::toStatus).collect(Collectors.toList());
+      }
+
+      @Override
+      public boolean equals(Object o) {
+        if (this == o) {
+          return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+          return false;
+        }
+        Directory that = (Directory) o;
+        return modificationTime == that.modificationTime && children.equals(that.children);
+      }
+
+      @Override
+      public int hashCode() {
+        return Long.hashCode(modificationTime) * 31 + children.hashCode();
+      }
+    }
+
+    /**
+     * A file or directory in a listed directory.
+     */
+    private static final class Child {
+      private final String path;
+      private final boolean directory;
+      private final long length;
+      private final long modificationTime;
+      private final long blockSize;
+      private final short replication;
+
+      private Child(FileStatus status) {
+        this.path = status.getPath().toString();
+        this.directory = status.isDirectory();
+        this.length = status.getLen();
+        this.modificationTime = status.getModificationTime();
+        this.blockSize = status.getBlockSize();
+        this.replication = status.getReplication();
+      }
+
+      private FileStatus toStatus() {
+        return new FileStatus(length, directory, replication, blockSize, modificationTime, new Path(path));
+      }
+
+      @Override
+      public boolean equals(Object o) {
+        if (this == o) {
+          return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+          return false;
+        }
+        Child that = (Child) o;
+        return path.equals(that.path) && directory == that.directory && length == that.length
+          && modificationTime == that.modificationTime && blockSize == that.blockSize
+          && replication == that.replication;
+      }
+
+      @Override
+      public int hashCode() {
+        return path.hashCode();
+      }
+    }
+  }
+}
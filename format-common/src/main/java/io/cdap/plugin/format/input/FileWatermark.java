@@ -0,0 +1,224 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.input;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * The position of a file when files are ordered by modification time, then by path. A source that reads files
+ * incrementally keeps the watermark of the last file read by its last successful run in a state file, and only reads
+ * the files after it. Since the modification time of a file changes when it is rewritten, files that are modified
+ * after they were read are read again. Files that keep an older modification time when they are added, such as files
+ * moved in by a rename or copied with their modification time preserved, are skipped if they are before the
+ * watermark.
+ */
+public final class FileWatermark implements Comparable<FileWatermark> {
+  /**
+   * The watermark before every file.
+   */
+  public static final FileWatermark EARLIEST = new FileWatermark(Long.MIN_VALUE, "");
+  static final String START = "path.tracking.watermark.start";
+  static final String END = "path.tracking.watermark.end";
+  private static final Gson GSON = new Gson();
+  private static final Logger LOG = LoggerFactory.getLogger(FileWatermark.class);
+
+  private final long modificationTime;
+  private final String path;
+
+  FileWatermark(long modificationTime, String path) {
+    this.modificationTime = modificationTime;
+    this.path = path;
+  }
+
+  public static FileWatermark of(FileStatus status) {
+    return new FileWatermark(status.getModificationTime(), status.getPath().toString());
+  }
+
+  /**
+   * Reads the watermark stored in the given state file, or returns {@link #EARLIEST} if the file does not exist.
+   * If a write failed before the new watermark was moved in place, the watermark is read from the temporary file
+   * of the new watermark if it is complete, or else from the backup of the previous watermark.
+   */
+  public static FileWatermark read(Path stateFile, Configuration conf) throws IOException {
+    FileSystem fs = stateFile.getFileSystem(conf);
+    if (fs.exists(stateFile)) {
+      return read(fs, stateFile);
+    }
+    for (Path file : new Path[] { getTmpFile(stateFile), getBackupFile(stateFile) }) {
+      if (!fs.exists(file)) {
+        continue;
+      }
+      try {
+        FileWatermark watermark = read(fs, file);
+        LOG.warn("Watermark file {} does not exist, using the watermark in {}.", stateFile, file);
+        return watermark;
+      } catch (IOException e) {
+        // the temporary file may not have been written completely
+        LOG.warn("Unable to read the watermark in {}.", file, e);
+      }
+    }
+    return EARLIEST;
+  }
+
+  /**
+   * Stores this watermark in the given state file. The watermark is written to a temporary file first, and the
+   * previous watermark is kept in a backup file until the temporary file is renamed to the state file, so that a
+   * failure at any point leaves a complete watermark to read.
+   */
+  public void write(Path stateFile, Configuration conf) throws IOException {
+    FileSystem fs = stateFile.getFileSystem(conf);
+    Path tmpFile = getTmpFile(stateFile);
+    Path backupFile = getBackupFile(stateFile);
+    try (Writer writer = new OutputStreamWriter(fs.create(tmpFile, true), StandardCharsets.UTF_8)) {
+      GSON.toJson(this, writer);
+    }
+    if (fs.exists(stateFile)) {
+      fs.delete(backupFile, false);
+      rename(fs, stateFile, backupFile);
+    }
+    rename(fs, tmpFile, stateFile);
+    fs.delete(backupFile, false);
+  }
+
+  @VisibleForTesting
+  static Path getTmpFile(Path stateFile) {
+    return new Path(stateFile.getParent(), "." + stateFile.getName() + ".tmp");
+  }
+
+  @VisibleForTesting
+  static Path getBackupFile(Path stateFile) {
+    return new Path(stateFile.getParent(), "." + stateFile.getName() + ".backup");
+  }
+
+  private static FileWatermark read(FileSystem fs, Path file) throws IOException {
+    try (Reader reader = new InputStreamReader(fs.open(file), StandardCharsets.UTF_8)) {
+      FileWatermark watermark = GSON.fromJson(reader, FileWatermark.class);
+      if (watermark == null || watermark.path == null) {
+        throw new IOException(String.format("Watermark file %s is empty.", file));
+      }
+      return watermark;
+    } catch (JsonParseException e) {
+      throw new IOException(String.format("Unable to parse the watermark file %s: %s", file, e.getMessage()), e);
+    }
+  }
+
+  private static void rename(FileSystem fs, Path source, Path target) throws IOException {
+    if (!fs.rename(source, target)) {
+      throw new IOException(String.format("Unable to rename %s to %s.", source, target));
+    }
+  }
+
+  /**
+   * Makes input formats that list files through {@link FileLister} only read the files after the start watermark,
+   * up to and including the end watermark.
+   */
+  public static void setRange(Configuration conf, FileWatermark start, FileWatermark end) {
+    conf.set(START, GSON.toJson(start));
+    conf.set(END, GSON.toJson(end));
+  }
+
+  /**
+   * Returns the watermark up to which a run reads the given files, which is the watermark of the last file after the
+   * start watermark. Files modified at the same time as the most recently modified file are left for the next run,
+   * since a file with the same modification time and a lower path may still be added after the files were listed.
+   * Returns the start watermark if there is no file to read.
+   */
+  public static FileWatermark end(List<FileStatus> statuses, FileWatermark start) {
+    List<FileWatermark> files = filter(statuses, start).stream()
+      .filter(FileStatus::isFile)
+      .map(FileWatermark::of)
+      .collect(Collectors.toList());
+    long latest = files.stream().mapToLong(file -> file.modificationTime).max().orElse(Long.MIN_VALUE);
+    return files.stream()
+      .filter(file -> file.modificationTime < latest)
+      .max(Comparator.naturalOrder())
+      .orElse(start);
+  }
+
+  /**
+   * Returns the files after the given watermark. Directories are always returned, like input formats do when they
+   * list a directory without recursion.
+   */
+  public static List<FileStatus> filter(List<FileStatus> statuses, FileWatermark start) {
+    return statuses.stream()
+      .filter(status -> status.isDirectory() || of(status).compareTo(start) > 0)
+      .collect(Collectors.toList());
+  }
+
+  /**
+   * Returns the files in the range set in the given configuration, or all of them if no range was set.
+   */
+  static List<FileStatus> filter(List<FileStatus> statuses, Configuration conf) {
+    String start = conf.get(START);
+    String end = conf.get(END);
+    if (start == null || end == null) {
+      return statuses;
+    }
+    FileWatermark startWatermark = GSON.fromJson(start, FileWatermark.class);
+    FileWatermark endWatermark = GSON.fromJson(end, FileWatermark.class);
+    return filter(statuses, startWatermark).stream()
+      .filter(status -> status.isDirectory() || of(status).compareTo(endWatermark) <= 0)
+      .collect(Collectors.toList());
+  }
+
+  @Override
+  public int compareTo(FileWatermark other) {
+    int result = Long.compare(modificationTime, other.modificationTime);
+    return result == 0 ? path.compareTo(other.path) : result;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    FileWatermark that = (FileWatermark) o;
+    return modificationTime == that.modificationTime && path.equals(that.path);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(modificationTime, path);
+  }
+
+  @Override
+  public String toString() {
+    return "FileWatermark{modificationTime=" + modificationTime + ", path='" + path + "'}";
+  }
+}
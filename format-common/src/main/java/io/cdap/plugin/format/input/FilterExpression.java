@@ -0,0 +1,472 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.input;
+
+import io.cdap.cdap.api.data.schema.Schema;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+
+/**
+ * A filter on the columns of a schema, which formats push down to their readers so that they can skip the data that
+ * does not match it.
+ *
+ * An expression is made of comparisons of a column with a value, such as {@code age >= 21}, {@code name = 'bob'} or
+ * {@code address.zip is not null}, combined with {@code and}, {@code or}, {@code not} and parentheses.
+ * The comparison operators are =, !=, <>, <, <=, > and >=. Columns are fields of the schema, where fields of nested
+ * records are separated by '.', and must be booleans, ints, longs, floats, doubles or strings. Booleans can only be
+ * compared with = and !=. Strings are enclosed in single quotes, which are escaped by doubling them.
+ *
+ * A null value only matches {@code is null} and != comparisons with a value, and {@code not} matches exactly the
+ * records that its operand does not match. Negations are applied to the comparisons when the expression is parsed,
+ * so that a parsed filter is only made of comparisons, conjunctions and disjunctions.
+ */
+public abstract class FilterExpression {
+
+  private FilterExpression() {
+    // only the nested classes extend it
+  }
+
+  /**
+   * Returns whether a record matches the filter.
+   *
+   * @param values returns the value of a column, given its name
+   */
+  public abstract boolean test(Function<String, Object> values);
+
+  /**
+   * Returns the filter that matches the records that this filter does not match.
+   */
+  public abstract FilterExpression negate();
+
+  /**
+   * Parses a filter expression on columns of the given schema.
+   *
+   * @throws IllegalArgumentException if the expression is not valid
+   */
+  public static FilterExpression parse(String expression, Schema schema) {
+    Parser parser = new Parser(expression, schema);
+    FilterExpression filter = parser.parseOr();
+    if (parser.position < parser.tokens.size()) {
+      throw parser.error("Unexpected '%s'", parser.tokens.get(parser.position));
+    }
+    return filter;
+  }
+
+  /**
+   * Comparison operators.
+   */
+  public enum Operator {
+    EQ, NOT_EQ, LT, LT_EQ, GT, GT_EQ;
+
+    Operator negate() {
+      switch (this) {
+        case EQ:
+          return NOT_EQ;
+        case NOT_EQ:
+          return EQ;
+        case LT:
+          return GT_EQ;
+        case LT_EQ:
+          return GT;
+        case GT:
+          return LT_EQ;
+        default:
+          return LT;
+      }
+    }
+  }
+
+  /**
+   * Comparison of a column with a value, or with null for {@code is null} and {@code is not null}.
+   */
+  public static final class Comparison extends FilterExpression {
+    private final String column;
+    private final Schema.Type type;
+    private final Operator operator;
+    private final Object value;
+
+    Comparison(String column, Schema.Type type, Operator operator, @Nullable Object value) {
+      this.column = column;
+      this.type = type;
+      this.operator = operator;
+      this.value = value;
+    }
+
+    /**
+     * @return the name of the column, where the names of nested fields are separated by '.'
+     */
+    public String getColumn() {
+      return column;
+    }
+
+    /**
+     * @return the type of the column, which is boolean, int, long, float, double or string
+     */
+    public Schema.Type getType() {
+      return type;
+    }
+
+    public Operator getOperator() {
+      return operator;
+    }
+
+    /**
+     * @return the value of the type of the column, or null if the column is compared with null,
+     *   in which case the operator is {@link Operator#EQ} or {@link Operator#NOT_EQ}
+     */
+    @Nullable
+    public Object getValue() {
+      return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean test(Function<String, Object> values) {
+      Object columnValue = values.apply(column);
+      if (value == null) {
+        return (columnValue == null) == (operator == Operator.EQ);
+      }
+      if (columnValue == null) {
+        return operator == Operator.NOT_EQ;
+      }
+      int comparison = ((Comparable<Object>) columnValue).compareTo(value);
+      switch (operator) {
+        case EQ:
+          return comparison == 0;
+        case NOT_EQ:
+          return comparison != 0;
+        case LT:
+          return comparison < 0;
+        case LT_EQ:
+          return comparison <= 0;
+        case GT:
+          return comparison > 0;
+        default:
+          return comparison >= 0;
+      }
+    }
+
+    @Override
+    public FilterExpression negate() {
+      if (value != null && operator != Operator.EQ && operator != Operator.NOT_EQ) {
+        // null matches neither a range nor its complement, so it is added to the complement
+        return new Or(new Comparison(column, type, operator.negate(), value),
+                      new Comparison(column, type, Operator.EQ, null));
+      }
+      return new Comparison(column, type, operator.negate(), value);
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s %s %s", column, operator, value);
+    }
+  }
+
+  /**
+   * Conjunction of two filters.
+   */
+  public static final class And extends FilterExpression {
+    private final FilterExpression left;
+    private final FilterExpression right;
+
+    And(FilterExpression left, FilterExpression right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    public FilterExpression getLeft() {
+      return left;
+    }
+
+    public FilterExpression getRight() {
+      return right;
+    }
+
+    @Override
+    public boolean test(Function<String, Object> values) {
+      return left.test(values) && right.test(values);
+    }
+
+    @Override
+    public FilterExpression negate() {
+      return new Or(left.negate(), right.negate());
+    }
+
+    @Override
+    public String toString() {
+      return String.format("(%s and %s)", left, right);
+    }
+  }
+
+  /**
+   * Disjunction of two filters.
+   */
+  public static final class Or extends FilterExpression {
+    private final FilterExpression left;
+    private final FilterExpression right;
+
+    Or(FilterExpression left, FilterExpression right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    public FilterExpression getLeft() {
+      return left;
+    }
+
+    public FilterExpression getRight() {
+      return right;
+    }
+
+    @Override
+    public boolean test(Function<String, Object> values) {
+      return left.test(values) || right.test(values);
+    }
+
+    @Override
+    public FilterExpression negate() {
+      return new And(left.negate(), right.negate());
+    }
+
+    @Override
+    public String toString() {
+      return String.format("(%s or %s)", left, right);
+    }
+  }
+
+  /**
+   * Recursive descent parser of filter expressions.
+   */
+  private static final class Parser {
+    private static final Pattern TOKEN = Pattern.compile(
+      "'(?:[^']|'')*'|-?(?:\\d+\\.?\\d*|\\.\\d+)(?:[eE][+-]?\\d+)?|[A-Za-z_][\\w.]*|<=|>=|!=|<>|=|<|>|[()]");
+
+    private final String expression;
+    private final Schema schema;
+    private final List<String> tokens = new ArrayList<>();
+    private int position;
+
+    Parser(String expression, Schema schema) {
+      this.expression = expression;
+      this.schema = schema;
+      tokenize();
+    }
+
+    private void tokenize() {
+      Matcher matcher = TOKEN.matcher(expression);
+      int length = expression.length();
+      int index = 0;
+      while (true) {
+        while (index < length && Character.isWhitespace(expression.charAt(index))) {
+          index++;
+        }
+        if (index == length) {
+          break;
+        }
+        matcher.region(index, length);
+        if (!matcher.lookingAt()) {
+          throw error("Unexpected character '%c'", expression.charAt(index));
+        }
+        tokens.add(matcher.group());
+        index = matcher.end();
+      }
+      if (tokens.isEmpty()) {
+        throw error("The expression is empty");
+      }
+    }
+
+    private FilterExpression parseOr() {
+      FilterExpression filter = parseAnd();
+      while (acceptKeyword("or")) {
+        filter = new Or(filter, parseAnd());
+      }
+      return filter;
+    }
+
+    private FilterExpression parseAnd() {
+      FilterExpression filter = parseUnary();
+      while (acceptKeyword("and")) {
+        filter = new And(filter, parseUnary());
+      }
+      return filter;
+    }
+
+    private FilterExpression parseUnary() {
+      if (acceptKeyword("not")) {
+        return parseUnary().negate();
+      }
+      if (accept("(")) {
+        FilterExpression filter = parseOr();
+        expect(")");
+        return filter;
+      }
+      return parseComparison();
+    }
+
+    private FilterExpression parseComparison() {
+      String column = next("a column");
+      Schema columnSchema = getColumnSchema(column);
+      if (acceptKeyword("is")) {
+        boolean not = acceptKeyword("not");
+        if (!acceptKeyword("null")) {
+          throw error("Expected 'null' after 'is'");
+        }
+        return new Comparison(column, columnSchema.getType(), not ? Operator.NOT_EQ : Operator.EQ, null);
+      }
+      String operatorToken = next("an operator");
+      Operator operator = getOperator(operatorToken);
+      if (operator == null) {
+        throw error("Expected an operator after '%s' but found '%s'", column, operatorToken);
+      }
+      String value = next("a value");
+      switch (columnSchema.getType()) {
+        case BOOLEAN:
+          if (operator != Operator.EQ && operator != Operator.NOT_EQ) {
+            throw error("Boolean column '%s' can only be compared with = and !=", column);
+          }
+          return new Comparison(column, Schema.Type.BOOLEAN, operator, parseBoolean(column, value));
+        case INT:
+          return new Comparison(column, Schema.Type.INT, operator, parseNumber(column, value, Integer::valueOf));
+        case LONG:
+          return new Comparison(column, Schema.Type.LONG, operator, parseNumber(column, value, Long::valueOf));
+        case FLOAT:
+          return new Comparison(column, Schema.Type.FLOAT, operator, parseNumber(column, value, Float::valueOf));
+        case DOUBLE:
+          return new Comparison(column, Schema.Type.DOUBLE, operator, parseNumber(column, value, Double::valueOf));
+        default:
+          return new Comparison(column, Schema.Type.STRING, operator, parseString(column, value));
+      }
+    }
+
+    @Nullable
+    private static Operator getOperator(String token) {
+      switch (token) {
+        case "=":
+          return Operator.EQ;
+        case "!=":
+        case "<>":
+          return Operator.NOT_EQ;
+        case "<":
+          return Operator.LT;
+        case "<=":
+          return Operator.LT_EQ;
+        case ">":
+          return Operator.GT;
+        case ">=":
+          return Operator.GT_EQ;
+        default:
+          return null;
+      }
+    }
+
+    /**
+     * Returns the non-nullable schema of a column, which can be a field of a nested record.
+     */
+    private Schema getColumnSchema(String column) {
+      Schema recordSchema = schema;
+      Schema columnSchema = null;
+      for (String name : column.split("\\.", -1)) {
+        if (recordSchema == null) {
+          throw error("Column '%s' is not a field of a record", column);
+        }
+        Schema.Field field = recordSchema.getField(name);
+        if (field == null) {
+          throw error("Column '%s' is not in the schema", column);
+        }
+        columnSchema = field.getSchema().isNullable() ? field.getSchema().getNonNullable() : field.getSchema();
+        recordSchema = columnSchema.getType() == Schema.Type.RECORD ? columnSchema : null;
+      }
+      switch (columnSchema.getType()) {
+        case BOOLEAN:
+        case INT:
+        case LONG:
+        case FLOAT:
+        case DOUBLE:
+        case STRING:
+          if (columnSchema.getLogicalType() == null) {
+            return columnSchema;
+          }
+          break;
+        default:
+          break;
+      }
+      throw error("Column '%s' of type '%s' cannot be filtered", column, columnSchema.getDisplayName());
+    }
+
+    private <T> T parseNumber(String column, String value, Function<String, T> parser) {
+      try {
+        return parser.apply(value);
+      } catch (NumberFormatException e) {
+        throw error("Value '%s' is not valid for column '%s'", value, column);
+      }
+    }
+
+    private boolean parseBoolean(String column, String value) {
+      if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
+        return Boolean.parseBoolean(value);
+      }
+      throw error("Value '%s' is not valid for boolean column '%s'", value, column);
+    }
+
+    private String parseString(String column, String value) {
+      if (value.length() < 2 || value.charAt(0) != '\'') {
+        throw error("Value '%s' for string column '%s' must be enclosed in single quotes", value, column);
+      }
+      return value.substring(1, value.length() - 1).replace("''", "'");
+    }
+
+    private String next(String expected) {
+      if (position == tokens.size()) {
+        throw error("Expected %s at the end", expected);
+      }
+      return tokens.get(position++);
+    }
+
+    private boolean accept(String token) {
+      if (position < tokens.size() && tokens.get(position).equals(token)) {
+        position++;
+        return true;
+      }
+      return false;
+    }
+
+    private boolean acceptKeyword(String keyword) {
+      if (position < tokens.size() && tokens.get(position).toLowerCase(Locale.ROOT).equals(keyword)) {
+        position++;
+        return true;
+      }
+      return false;
+    }
+
+    private void expect(String token) {
+      if (!accept(token)) {
+        throw error("Expected '%s'", token);
+      }
+    }
+
+    private IllegalArgumentException error(String message, Object... args) {
+      return new IllegalArgumentException(String.format("Invalid filter '%s': %s.", expression,
+                                                        String.format(message, args)));
+    }
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.input;
+
+import com.google.common.base.Strings;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.etl.api.FailureCollector;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+import javax.annotation.Nullable;
+
+/**
+ * The filter property of formats that push a {@link FilterExpression} down to their readers.
+ */
+public final class FilterProperty {
+  public static final String NAME = "filter";
+
+  private FilterProperty() {
+    // utility class
+  }
+
+  /**
+   * Validates the filter of a format against the schema of the format.
+   *
+   * @param conf the config of the format
+   * @param filter the filter, or null if there is none
+   * @param schema the schema of the format, or null if it is not known
+   * @param collector collects the validation failures
+   * @param parser parses the filter against the schema, throwing an {@link IllegalArgumentException} if the filter
+   *   is not valid or cannot be pushed down by the format
+   */
+  public static void validate(PathTrackingConfig conf, @Nullable String filter, @Nullable Schema schema,
+                              FailureCollector collector, BiConsumer<String, Schema> parser) {
+    if (conf.containsMacro(NAME) || Strings.isNullOrEmpty(filter)) {
+      return;
+    }
+    if (schema == null) {
+      if (!conf.containsMacro(PathTrackingConfig.NAME_SCHEMA)) {
+        collector.addFailure("A filter requires a schema.", "Specify the schema of the files.")
+          .withConfigProperty(NAME);
+      }
+      return;
+    }
+    try {
+      parser.accept(filter, schema);
+    } catch (IllegalArgumentException e) {
+      collector.addFailure(e.getMessage(), null).withConfigProperty(NAME);
+    }
+  }
+
+  /**
+   * Adds the filter to the properties of the input format, under the key read by its record readers.
+   *
+   * @param properties the properties of the input format
+   * @param key the key of the filter in the properties
+   * @param filter the filter, or null if there is none
+   */
+  public static void addTo(Map<String, String> properties, String key, @Nullable String filter) {
+    if (!Strings.isNullOrEmpty(filter)) {
+      properties.put(key, filter);
+    }
+  }
+}
@@ -16,6 +16,7 @@
 
 package io.cdap.plugin.format.plugin;
 
+import com.google.common.annotations.VisibleForTesting;
 import io.cdap.cdap.api.data.batch.Input;
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
@@ -38,6 +39,8 @@ import io.cdap.plugin.format.FileFormat;
 import io.cdap.plugin.format.RegexPathFilter;
 import io.cdap.plugin.format.SchemaDetector;
 import io.cdap.plugin.format.input.EmptyInputFormat;
+import io.cdap.plugin.format.input.FileLister;
+import io.cdap.plugin.format.input.FileWatermark;
 import io.cdap.plugin.format.input.PathTrackingInputFormat;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
@@ -76,6 +79,9 @@ public abstract class AbstractFileSource<T extends PluginConfig & FileSourceProp
   private static final Logger LOG = LoggerFactory.getLogger(AbstractFileSource.class);
   private static final String NAME_FORMAT = "format";
   private final T config;
+  private Configuration watermarkConf;
+  private Path watermarkPath;
+  private FileWatermark pendingWatermark;
 
   protected AbstractFileSource(T config) {
     this.config = config;
@@ -173,6 +179,7 @@ public abstract class AbstractFileSource<T extends PluginConfig & FileSourceProp
     validatePathField(collector, schema);
     collector.getOrThrowException();
 
+    pendingWatermark = null;
     Job job = JobUtils.createInstance();
     Configuration conf = job.getConfiguration();
 
@@ -220,6 +227,10 @@ public abstract class AbstractFileSource<T extends PluginConfig & FileSourceProp
         // schema will not be in the inputformat configuration if it was auto-detected, so need to add it here
         hConf.set(PathTrackingInputFormat.SCHEMA, schema.toString());
       }
+      String watermark = config.getWatermarkPath();
+      if (watermark != null) {
+        setWatermarkRange(job, new Path(watermark));
+      }
     }
 
     // set entries here again, in case anything set by PathTrackingInputFormat should be overridden
@@ -230,6 +241,20 @@ public abstract class AbstractFileSource<T extends PluginConfig & FileSourceProp
     context.setInput(Input.of(config.getReferenceName(), new SourceInputFormatProvider(inputFormatClass, conf)));
   }
 
+  @Override
+  public void onRunFinish(boolean succeeded, BatchSourceContext context) {
+    super.onRunFinish(succeeded, context);
+    if (succeeded && pendingWatermark != null) {
+      try {
+        pendingWatermark.write(watermarkPath, watermarkConf);
+        LOG.debug("Updated the watermark in {} to {}.", watermarkPath, pendingWatermark);
+      } catch (IOException e) {
+        LOG.error("Exception updating the watermark file {}, files read by this run will be read again.",
+                  watermarkPath, e);
+      }
+    }
+  }
+
   @Override
   public void transform(KeyValue<NullWritable, StructuredRecord> input,
                         Emitter<StructuredRecord> emitter) throws Exception {
@@ -252,6 +277,23 @@ public abstract class AbstractFileSource<T extends PluginConfig & FileSourceProp
     lineageRecorder.recordRead("Read", String.format("Read from %s files.", config.getFormatName()), outputFields);
   }
 
+  /**
+   * Restricts the input to the files after the watermark of the last successful run, up to the last file that
+   * currently exists, except for the most recently modified files. Files added while the run is in progress, and
+   * files modified at the same time as the most recent ones, are left for the next run.
+   */
+  @VisibleForTesting
+  void setWatermarkRange(Job job, Path stateFile) throws IOException {
+    Configuration conf = job.getConfiguration();
+    FileWatermark start = FileWatermark.read(stateFile, conf);
+    FileWatermark end = FileWatermark.end(FileLister.listStatus(job), start);
+    FileWatermark.setRange(conf, start, end);
+    LOG.info("Reading the files after watermark {}, up to watermark {}.", start, end);
+    watermarkConf = conf;
+    watermarkPath = stateFile;
+    pendingWatermark = end.equals(start) ? null : end;
+  }
+
   private void validateInputFormatProvider(FormatContext context, String fileFormat,
                                            @Nullable ValidatingInputFormat validatingInputFormat) {
     FailureCollector collector = context.getFailureCollector();
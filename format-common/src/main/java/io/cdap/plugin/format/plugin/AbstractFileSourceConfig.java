@@ -120,6 +120,15 @@ public abstract class AbstractFileSourceConfig extends PluginConfig implements F
   @Description("File encoding for the source files. The default encoding is 'UTF-8'")
   private String fileEncoding;
 
+  @Macro
+  @Nullable
+  @Description("Path of a file in which the source keeps track of the files that were read by successful runs. "
+    + "When set, each run only reads the files that were added or modified since the last successful run, "
+    + "based on their modification time. The most recently modified files are left for the next run. Files added "
+    + "with an older modification time, such as files moved in by a rename, are not read. If no value is given, "
+    + "every run reads all the files.")
+  private String watermarkPath;
+
   // this is a hidden property that only exists for wrangler's parse-as-csv that uses the header as the schema
   // when this is true and the format is text, the header will be the first record returned by every record reader
   @Nullable
@@ -245,6 +254,12 @@ public abstract class AbstractFileSourceConfig extends PluginConfig implements F
     }
   }
 
+  @Nullable
+  @Override
+  public String getWatermarkPath() {
+    return Strings.isNullOrEmpty(watermarkPath) ? null : watermarkPath;
+  }
+
   public boolean shouldCopyHeader() {
     return copyHeader;
   }
@@ -138,4 +138,12 @@ public interface FileSourceProperties {
    */
   @Nullable
   Schema getSchema();
+
+  /**
+   * The file that keeps track of the files read by successful runs, if files should be read incrementally.
+   */
+  @Nullable
+  default String getWatermarkPath() {
+    return null;
+  }
 }
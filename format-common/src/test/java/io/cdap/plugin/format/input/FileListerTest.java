@@ -0,0 +1,167 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.input;
+
+import io.cdap.plugin.format.RegexPathFilter;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.hadoop.mapreduce.lib.input.TextInputFormat;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for {@link FileLister}
+ */
+public class FileListerTest {
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  @Test
+  public void testSameFilesAsFileInputFormat() throws IOException {
+    File root = createTree();
+    for (boolean recursive : Arrays.asList(true, false)) {
+      Job job = createJob(root, recursive);
+      Assert.assertEquals(listWithFileInputFormat(job), list(job));
+    }
+  }
+
+  @Test
+  public void testHiddenFilesSkipped() throws IOException {
+    File root = createTree();
+    List<String> files = list(createJob(root, true));
+    Assert.assertEquals(7, files.size());
+    for (String file : files) {
+      Assert.assertFalse(file, file.contains("/_") || file.contains("/."));
+    }
+  }
+
+  @Test
+  public void testRegexFilter() throws IOException {
+    File root = createTree();
+    Job job = createJob(root, true);
+    String rootPath = new Path(root.toURI()).toUri().getPath();
+    RegexPathFilter.configure(job.getConfiguration(), Pattern.compile(rootPath + "/a/b/.*\\.csv"));
+    FileInputFormat.setInputPathFilter(job, RegexPathFilter.class);
+
+    List<String> files = list(job);
+    Assert.assertEquals(listWithFileInputFormat(job), files);
+    Assert.assertEquals(2, files.size());
+  }
+
+  @Test
+  public void testRegexFilterPrefix() {
+    Configuration conf = new Configuration();
+    RegexPathFilter.configure(conf, Pattern.compile("/data/2023/0[1-3]/.*\\.csv"));
+    RegexPathFilter filter = new RegexPathFilter();
+    filter.setConf(conf);
+    Assert.assertTrue(filter.mayContainMatches(new Path("/data")));
+    Assert.assertTrue(filter.mayContainMatches(new Path("/data/2023")));
+    Assert.assertTrue(filter.mayContainMatches(new Path("/data/2023/01")));
+    Assert.assertTrue(filter.mayContainMatches(new Path("/data/2023/01/x")));
+    Assert.assertFalse(filter.mayContainMatches(new Path("/data/2022")));
+    Assert.assertFalse(filter.mayContainMatches(new Path("/data/2023/11")));
+    Assert.assertFalse(filter.mayContainMatches(new Path("/other")));
+
+    // alternatives and optional characters can match any path
+    RegexPathFilter.configure(conf, Pattern.compile("/data/a|/other/b"));
+    filter.setConf(conf);
+    Assert.assertTrue(filter.mayContainMatches(new Path("/other")));
+    RegexPathFilter.configure(conf, Pattern.compile("/data/ab?/.*"));
+    filter.setConf(conf);
+    Assert.assertTrue(filter.mayContainMatches(new Path("/data/a")));
+    Assert.assertFalse(filter.mayContainMatches(new Path("/datb")));
+  }
+
+  @Test
+  public void testManifest() throws IOException {
+    File root = createTree();
+    File manifestDir = tmpFolder.newFolder("manifest");
+    File dir = new File(root, "a/b");
+    long modificationTime = 1600000000000L;
+    Assert.assertTrue(dir.setLastModified(modificationTime));
+    Job job = createJob(root, true);
+    job.getConfiguration().set(FileLister.MANIFEST_DIR, manifestDir.getAbsolutePath());
+    List<String> expected = listWithFileInputFormat(job);
+    Assert.assertEquals(expected, list(job));
+    Assert.assertEquals(1, manifestDir.list((parent, name) -> name.endsWith(".json")).length);
+
+    // directories whose modification time did not change are not listed again
+    Assert.assertTrue(new File(dir, "3.csv").delete());
+    Assert.assertTrue(dir.setLastModified(modificationTime));
+    Assert.assertEquals(expected, list(job));
+
+    // directories that changed are listed again
+    Assert.assertTrue(new File(dir, "5.csv").createNewFile());
+    Assert.assertTrue(dir.setLastModified(modificationTime + 10000));
+    List<String> files = list(job);
+    Assert.assertEquals(listWithFileInputFormat(job), files);
+    Assert.assertTrue(files.stream().anyMatch(file -> file.endsWith("/a/b/5.csv")));
+    Assert.assertFalse(files.stream().anyMatch(file -> file.endsWith("/a/b/3.csv")));
+  }
+
+  /**
+   * Creates a tree with 7 visible files, along with hidden files and directories.
+   */
+  private File createTree() throws IOException {
+    File root = tmpFolder.newFolder("root");
+    for (String path : Arrays.asList("0.txt", "_SUCCESS", ".0.txt.crc", "a/1.txt", "a/b/2.txt", "a/b/3.csv",
+                                     "a/b/4.csv", "a/c/5.txt", "a/_tmp/6.txt", "d/e/f/7.csv", ".hidden/8.txt")) {
+      File file = new File(root, path);
+      Assert.assertTrue(file.getParentFile().isDirectory() || file.getParentFile().mkdirs());
+      Assert.assertTrue(file.createNewFile());
+    }
+    return root;
+  }
+
+  private Job createJob(File root, boolean recursive) throws IOException {
+    Job job = Job.getInstance();
+    FileInputFormat.addInputPath(job, new Path(root.toURI()));
+    FileInputFormat.setInputDirRecursive(job, recursive);
+    job.getConfiguration().setInt(FileLister.NUM_THREADS, 3);
+    return job;
+  }
+
+  private List<String> list(JobContext job) throws IOException {
+    return toPaths(FileLister.listStatus(job));
+  }
+
+  private List<String> listWithFileInputFormat(JobContext job) throws IOException {
+    return toPaths(new TextInputFormat() {
+      @Override
+      protected List<FileStatus> listStatus(JobContext job) throws IOException {
+        return super.listStatus(job);
+      }
+    }.listStatus(job));
+  }
+
+  private List<String> toPaths(List<FileStatus> statuses) {
+    return statuses.stream().map(status -> status.getPath().toUri().getPath()).collect(Collectors.toList());
+  }
+}
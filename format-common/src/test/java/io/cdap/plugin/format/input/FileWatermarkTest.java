@@ -0,0 +1,167 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.input;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for {@link FileWatermark}
+ */
+public class FileWatermarkTest {
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  @Test
+  public void testReadWrite() throws IOException {
+    Configuration conf = new Configuration();
+    Path stateFile = new Path(new File(tmpFolder.getRoot(), "state/watermark.json").toURI());
+    Assert.assertEquals(FileWatermark.EARLIEST, FileWatermark.read(stateFile, conf));
+
+    FileWatermark watermark = new FileWatermark(1000L, "file:/input/a.csv");
+    watermark.write(stateFile, conf);
+    Assert.assertEquals(watermark, FileWatermark.read(stateFile, conf));
+
+    FileWatermark next = new FileWatermark(2000L, "file:/input/b.csv");
+    next.write(stateFile, conf);
+    Assert.assertEquals(next, FileWatermark.read(stateFile, conf));
+  }
+
+  @Test
+  public void testReadAfterFailedWrite() throws IOException {
+    Configuration conf = new Configuration();
+    Path stateFile = new Path(new File(tmpFolder.getRoot(), "state/watermark.json").toURI());
+    Path tmpFile = FileWatermark.getTmpFile(stateFile);
+    Path backupFile = FileWatermark.getBackupFile(stateFile);
+    FileSystem fs = stateFile.getFileSystem(conf);
+    FileWatermark watermark = new FileWatermark(1000L, "file:/input/a.csv");
+    watermark.write(stateFile, conf);
+    Assert.assertFalse(fs.exists(tmpFile));
+    Assert.assertFalse(fs.exists(backupFile));
+
+    // a write that failed after the previous watermark was moved to the backup file
+    Assert.assertTrue(fs.rename(stateFile, backupFile));
+    Assert.assertEquals(watermark, FileWatermark.read(stateFile, conf));
+
+    // the temporary file is only used if it was written completely
+    try (OutputStream output = fs.create(tmpFile, true)) {
+      output.write("{\"modificationTime\":2000,".getBytes(StandardCharsets.UTF_8));
+    }
+    Assert.assertEquals(watermark, FileWatermark.read(stateFile, conf));
+    FileWatermark next = new FileWatermark(2000L, "file:/input/b.csv");
+    next.write(stateFile, conf);
+    Assert.assertFalse(fs.exists(backupFile));
+    Assert.assertTrue(fs.rename(stateFile, tmpFile));
+    Assert.assertEquals(next, FileWatermark.read(stateFile, conf));
+
+    // the next write puts the state file back in place
+    FileWatermark last = new FileWatermark(3000L, "file:/input/c.csv");
+    last.write(stateFile, conf);
+    Assert.assertEquals(last, FileWatermark.read(stateFile, conf));
+    Assert.assertFalse(fs.exists(tmpFile));
+    Assert.assertFalse(fs.exists(backupFile));
+  }
+
+  @Test
+  public void testOrder() {
+    FileWatermark watermark = new FileWatermark(1000L, "file:/input/b.csv");
+    Assert.assertTrue(FileWatermark.EARLIEST.compareTo(watermark) < 0);
+    Assert.assertTrue(new FileWatermark(1000L, "file:/input/a.csv").compareTo(watermark) < 0);
+    Assert.assertTrue(new FileWatermark(1000L, "file:/input/c.csv").compareTo(watermark) > 0);
+    Assert.assertTrue(new FileWatermark(999L, "file:/input/c.csv").compareTo(watermark) < 0);
+    Assert.assertEquals(0, new FileWatermark(1000L, "file:/input/b.csv").compareTo(watermark));
+  }
+
+  @Test
+  public void testListRange() throws IOException {
+    File input = tmpFolder.newFolder("input");
+    for (String name : Arrays.asList("a.csv", "b.csv", "c.csv", "d.csv")) {
+      Assert.assertTrue(new File(input, name).createNewFile());
+    }
+    // a.csv and b.csv were modified at the same time, so they are ordered by path
+    setModificationTime(input, "a.csv", 1000000L);
+    setModificationTime(input, "b.csv", 1000000L);
+    setModificationTime(input, "c.csv", 2000000L);
+    setModificationTime(input, "d.csv", 3000000L);
+
+    Job job = Job.getInstance();
+    FileInputFormat.addInputPath(job, new Path(input.toURI()));
+    List<FileStatus> files = FileLister.listStatus(job);
+    Assert.assertEquals(Arrays.asList("a.csv", "b.csv", "c.csv", "d.csv"), getNames(files));
+
+    FileWatermark a = FileWatermark.of(files.stream().filter(file -> file.getPath().getName().equals("a.csv"))
+                                         .findFirst().get());
+    FileWatermark c = FileWatermark.of(files.stream().filter(file -> file.getPath().getName().equals("c.csv"))
+                                         .findFirst().get());
+    Assert.assertEquals(Arrays.asList("b.csv", "c.csv", "d.csv"), getNames(FileWatermark.filter(files, a)));
+
+    FileWatermark.setRange(job.getConfiguration(), a, c);
+    Assert.assertEquals(Arrays.asList("b.csv", "c.csv"), getNames(FileLister.listStatus(job)));
+
+    FileWatermark.setRange(job.getConfiguration(), c, c);
+    Assert.assertTrue(FileLister.listStatus(job).isEmpty());
+  }
+
+  @Test
+  public void testEnd() throws IOException {
+    File input = tmpFolder.newFolder("input");
+    for (String name : Arrays.asList("a.csv", "b.csv", "c.csv", "d.csv", "e.csv")) {
+      Assert.assertTrue(new File(input, name).createNewFile());
+    }
+    setModificationTime(input, "a.csv", 1000000L);
+    setModificationTime(input, "b.csv", 2000000L);
+    setModificationTime(input, "c.csv", 2000000L);
+    setModificationTime(input, "d.csv", 3000000L);
+    setModificationTime(input, "e.csv", 3000000L);
+
+    Job job = Job.getInstance();
+    FileInputFormat.addInputPath(job, new Path(input.toURI()));
+    List<FileStatus> files = FileLister.listStatus(job);
+    FileWatermark c = FileWatermark.of(files.stream().filter(file -> file.getPath().getName().equals("c.csv"))
+                                         .findFirst().get());
+
+    // the most recently modified files are left for the next run
+    Assert.assertEquals(c, FileWatermark.end(files, FileWatermark.EARLIEST));
+    Assert.assertEquals(c, FileWatermark.end(files, c));
+    Assert.assertEquals(FileWatermark.EARLIEST, FileWatermark.end(Collections.emptyList(), FileWatermark.EARLIEST));
+  }
+
+  private void setModificationTime(File dir, String name, long modificationTime) {
+    Assert.assertTrue(new File(dir, name).setLastModified(modificationTime));
+  }
+
+  private List<String> getNames(List<FileStatus> files) {
+    return files.stream().map(file -> file.getPath().getName()).sorted().collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.input;
+
+import io.cdap.cdap.api.data.schema.Schema;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for {@link FilterExpression}.
+ */
+public class FilterExpressionTest {
+  private static final Schema SCHEMA = Schema.recordOf(
+    "x",
+    Schema.Field.of("id", Schema.of(Schema.Type.INT)),
+    Schema.Field.of("name", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("score", Schema.nullableOf(Schema.of(Schema.Type.DOUBLE))),
+    Schema.Field.of("active", Schema.of(Schema.Type.BOOLEAN)),
+    Schema.Field.of("address", Schema.recordOf("address", Schema.Field.of("zip", Schema.of(Schema.Type.STRING)))));
+
+  @Test
+  public void testParse() {
+    FilterExpression filter = FilterExpression.parse("id >= 2 AND name <> 'it''s' or not active = true", SCHEMA);
+    Assert.assertEquals("((id GT_EQ 2 and name NOT_EQ it's) or active NOT_EQ true)", filter.toString());
+
+    filter = FilterExpression.parse("score<-1.5 and (address.zip is null or not id is null)", SCHEMA);
+    Assert.assertEquals("(score LT -1.5 and (address.zip EQ null or id NOT_EQ null))", filter.toString());
+    FilterExpression.Comparison comparison = (FilterExpression.Comparison) ((FilterExpression.And) filter).getLeft();
+    Assert.assertEquals(Schema.Type.DOUBLE, comparison.getType());
+    Assert.assertEquals(-1.5d, comparison.getValue());
+  }
+
+  @Test
+  public void testNulls() {
+    Map<String, Object> values = new HashMap<>();
+    values.put("id", 1);
+    Assert.assertTrue(FilterExpression.parse("name is null", SCHEMA).test(values::get));
+    Assert.assertTrue(FilterExpression.parse("name != 'a'", SCHEMA).test(values::get));
+    Assert.assertFalse(FilterExpression.parse("name = 'a'", SCHEMA).test(values::get));
+    Assert.assertFalse(FilterExpression.parse("score > 1", SCHEMA).test(values::get));
+    Assert.assertFalse(FilterExpression.parse("score <= 1", SCHEMA).test(values::get));
+    // not matches exactly the records that its operand does not match
+    Assert.assertTrue(FilterExpression.parse("not score > 1", SCHEMA).test(values::get));
+    Assert.assertTrue(FilterExpression.parse("not (id = 1 and score > 1)", SCHEMA).test(values::get));
+    Assert.assertFalse(FilterExpression.parse("not (id = 1 or score > 1)", SCHEMA).test(values::get));
+
+    values.put("score", 2d);
+    values.put("name", "b");
+    Assert.assertTrue(FilterExpression.parse("score > 1 and name >= 'a'", SCHEMA).test(values::get));
+    Assert.assertFalse(FilterExpression.parse("not score > 1", SCHEMA).test(values::get));
+  }
+
+  @Test
+  public void testInvalidFilters() {
+    for (String filter : Arrays.asList("", "id", "id >", "id = 'a'", "id = 1.5", "name = a", "unknown = 1",
+                                       "active > true", "address = 1", "id = 1 and", "(id = 1", "id = 1)",
+                                       "id = 1 # 2", "name is 'a'", "address.zip.code = 'a'")) {
+      try {
+        FilterExpression.parse(filter, SCHEMA);
+        Assert.fail(String.format("Filter '%s' was parsed.", filter));
+      } catch (IllegalArgumentException e) {
+        Assert.assertTrue(e.getMessage(), e.getMessage().startsWith(String.format("Invalid filter '%s': ", filter)));
+      }
+    }
+  }
+}
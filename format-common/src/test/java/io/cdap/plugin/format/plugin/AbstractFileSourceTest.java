@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.plugin;
+
+import io.cdap.plugin.format.input.FileWatermark;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Tests for {@link AbstractFileSource}
+ */
+public class AbstractFileSourceTest {
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  @Test
+  public void testWatermarkOnlyUpdatedOnSuccess() throws IOException {
+    File input = tmpFolder.newFolder("input");
+    createFile(input, "a.csv", 1000000L);
+    createFile(input, "b.csv", 2000000L);
+    createFile(input, "c.csv", 3000000L);
+    Configuration conf = new Configuration();
+    Path stateFile = new Path(new File(tmpFolder.getRoot(), "watermark.json").toURI());
+    Path pathB = new Path(new File(input, "b.csv").toURI());
+    FileWatermark b = FileWatermark.of(pathB.getFileSystem(conf).getFileStatus(pathB));
+    AbstractFileSource<AbstractFileSourceConfig> source = new AbstractFileSource<AbstractFileSourceConfig>(null) { };
+
+    // a failed run does not create the state file
+    source.setWatermarkRange(createJob(input), stateFile);
+    source.onRunFinish(false, null);
+    Assert.assertFalse(new File(stateFile.toUri()).exists());
+
+    // c.csv is the most recently modified file, so it is left for the next run
+    source.setWatermarkRange(createJob(input), stateFile);
+    source.onRunFinish(true, null);
+    Assert.assertEquals(b, FileWatermark.read(stateFile, conf));
+
+    // a failed run leaves the state file untouched
+    createFile(input, "d.csv", 4000000L);
+    File state = new File(stateFile.toUri());
+    long stateModificationTime = state.lastModified();
+    source.setWatermarkRange(createJob(input), stateFile);
+    source.onRunFinish(false, null);
+    Assert.assertEquals(b, FileWatermark.read(stateFile, conf));
+    Assert.assertEquals(stateModificationTime, state.lastModified());
+  }
+
+  private Job createJob(File input) throws IOException {
+    Job job = Job.getInstance();
+    FileInputFormat.addInputPath(job, new Path(input.toURI()));
+    return job;
+  }
+
+  private void createFile(File dir, String name, long modificationTime) throws IOException {
+    File file = new File(dir, name);
+    Assert.assertTrue(file.createNewFile());
+    Assert.assertTrue(file.setLastModified(modificationTime));
+  }
+}
@@ -76,6 +76,21 @@ public class DataTypeDetectorStatusKeeper {
     }
   }
 
+  /**
+   * Checks whether the data types met while investigating a column already determine its schema, which is the case
+   * once the column has both empty values and values that can only be read as strings.
+   * This is the only case where the schema is settled: the schema of a column is that of the data type of highest
+   * priority met, so a value of a higher priority type can still change any other schema. A nullable string is the
+   * schema of the highest priority type, string, with time and date values also read as strings.
+   *
+   * @param dataTypes Data types met while investigating the a column for automated data type detection.
+   * @return True if no other value can change the {@link Schema} of the column, false otherwise.
+   */
+  public static boolean isColumnDataTypeSettled(EnumSet<DataType> dataTypes) {
+    return dataTypes.contains(DataType.EMPTY) && (dataTypes.contains(DataType.STRING)
+      || dataTypes.contains(DataType.DATE) || dataTypes.contains(DataType.TIME));
+  }
+
   /**
    * Adds a data type with the corresponding column name at the status keeper.
    *
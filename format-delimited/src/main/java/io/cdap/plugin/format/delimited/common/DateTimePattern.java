@@ -52,7 +52,7 @@ public class DateTimePattern {
    * @return True if the given value is of type "DATE", false otherwise.
    */
   public static boolean isDate(String value) {
-    if (StringUtils.isEmpty(value)) {
+    if (StringUtils.isEmpty(value) || !startsWithNumber(value)) {
       return false;
     }
 
@@ -66,12 +66,21 @@ public class DateTimePattern {
    * @return true If the given value is of type "TIME", false otherwise.
    */
   public static boolean isTime(String value) {
-    if (StringUtils.isEmpty(value)) {
+    if (StringUtils.isEmpty(value) || !startsWithNumber(value)) {
       return false;
     }
     return isValueMatchingPattern(value, TIME_PATTERNS);
   }
 
+  /**
+   * Checks whether the value starts with a digit, optionally after a sign. All the supported date and time patterns
+   * start this way, so other values can be rejected without matching them against every pattern.
+   */
+  private static boolean startsWithNumber(String value) {
+    int index = value.charAt(0) == '+' || value.charAt(0) == '-' ? 1 : 0;
+    return index < value.length() && value.charAt(index) >= '0' && value.charAt(index) <= '9';
+  }
+
   /**
    * Checks whether a given value matches one of the provided patterns.
    *
@@ -17,45 +17,45 @@
 package io.cdap.plugin.format.delimited.common;
 
 import java.math.BigDecimal;
-import java.util.regex.Pattern;
 
 /**
  * Type Interface provides utility functions that allow you to detect the types of data.
+ *
+ * Numbers are recognized by scanning their characters rather than matching regular expressions, since every value of
+ * a sample goes through these checks.
  */
 public class TypeInference {
-  private static final Pattern patternInteger = Pattern.compile("^(\\+|-)?\\d+$");
-
-  private static final Pattern patternDouble = Pattern.compile(
-    "^[-+]?"// Positive/Negative sign
-      + "("// BEGIN Decimal part
-      + "[0-9]+([,\\.][0-9]+)?|"// Alternative I (w/o grouped integer part)
-      + "(" // BEGIN Alternative II (with grouped integer part)
-      + "[0-9]{1,3}" // starting digits
-      + "(" // BEGIN grouped part
-      + "((,[0-9]{3})*"// US integer part
-      + "(\\.[0-9]+)?"// US float part
-      + "|" // OR
-      + "((\\.[0-9]{3})*|([ \u00A0\u2007\u202F][0-9]{3})*)"// EU integer part
-      + "(,[0-9]+)?)"// EU float part
-      + ")"// END grouped part
-      + ")" // END Alternative II
-      + ")" // END Decimal part
-      + "([ ]?[eE][-+]?[0-9]+)?$"); // scientific part
-
-
-  private static final Pattern patternLong = Pattern.compile("[-+]?[0-9]+L");
+  // separators of groups of three digits in european numbers, such as 1 234,5
+  private static final String SPACE_SEPARATORS = " \u00A0\u2007\u202F";
 
   /**
-   * Detects if the given value is of a double type.
+   * Detects if the given value is of a double type. Besides plain decimal numbers, this accepts numbers with groups
+   * of digits, such as 1,234.5 or 1.234,5, and numbers followed by an exponent.
    *
    * @param value The given raw string value.
    * @return True if the value is a double type, false otherwise.
    */
   public static boolean isDouble(String value) {
-    if (!isEmpty(value) && patternDouble.matcher(value).matches()) {
-      return true;
+    if (isEmpty(value)) {
+      return false;
+    }
+    int length = value.length();
+    int start = skipSign(value, 0);
+    // digits cannot contain an 'e', so the first one starts the exponent
+    int mantissaEnd = start;
+    while (mantissaEnd < length && value.charAt(mantissaEnd) != 'e' && value.charAt(mantissaEnd) != 'E') {
+      mantissaEnd++;
     }
-    return false;
+    if (mantissaEnd < length) {
+      if (!isDigits(value, skipSign(value, mantissaEnd + 1), length)) {
+        return false;
+      }
+      // the exponent can be separated by a space
+      if (mantissaEnd > start && value.charAt(mantissaEnd - 1) == ' ') {
+        mantissaEnd--;
+      }
+    }
+    return isDecimal(value, start, mantissaEnd);
   }
 
   /**
@@ -65,10 +65,11 @@ public class TypeInference {
    * @return Result whether the given value is boolean or not.
    */
   public static boolean isLong(String value) {
-    if (!isEmpty(value) && patternLong.matcher(value).matches()) {
-      return true;
+    if (isEmpty(value)) {
+      return false;
     }
-    return false;
+    int length = value.length();
+    return value.charAt(length - 1) == 'L' && isDigits(value, skipSign(value, 0), length - 1);
   }
 
   /**
@@ -78,10 +79,7 @@ public class TypeInference {
    * @return true if the value is a integer type, false otherwise.
    */
   public static boolean isInteger(String value) {
-    if (!isEmpty(value) && patternInteger.matcher(value).matches()) {
-      return true;
-    }
-    return false;
+    return !isEmpty(value) && isDigits(value, skipSign(value, 0), value.length());
   }
 
   /**
@@ -124,7 +122,75 @@ public class TypeInference {
    * @return true if the value is blank or null, false otherwise.
    */
   public static boolean isEmpty(String value) {
-    return value == null || value.trim().length() == 0;
+    if (value == null) {
+      return true;
+    }
+    // same as checking whether the trimmed value is empty, without creating it
+    for (int i = 0; i < value.length(); i++) {
+      if (value.charAt(i) > ' ') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int skipSign(String value, int index) {
+    if (index < value.length() && (value.charAt(index) == '+' || value.charAt(index) == '-')) {
+      return index + 1;
+    }
+    return index;
+  }
+
+  private static int skipDigits(String value, int from, int to) {
+    int index = from;
+    while (index < to && value.charAt(index) >= '0' && value.charAt(index) <= '9') {
+      index++;
+    }
+    return index;
+  }
+
+  /**
+   * Checks whether the characters in the given range are one or more digits.
+   */
+  private static boolean isDigits(String value, int from, int to) {
+    return from < to && skipDigits(value, from, to) == to;
+  }
+
+  /**
+   * Checks whether the characters in the given range are a decimal number without sign or exponent. The fraction can
+   * follow a ',' or a '.', and the integer part can be made of groups of three digits, separated by ',' if the
+   * fraction follows a '.', or by '.' or spaces if the fraction follows a ','.
+   */
+  private static boolean isDecimal(String value, int from, int to) {
+    int digitsEnd = skipDigits(value, from, to);
+    if (digitsEnd == from) {
+      return false;
+    }
+    if (digitsEnd == to) {
+      return true;
+    }
+    char separator = value.charAt(digitsEnd);
+    if ((separator == ',' || separator == '.') && isDigits(value, digitsEnd + 1, to)) {
+      return true;
+    }
+    if (digitsEnd - from > 3) {
+      return false;
+    }
+    return isGrouped(value, digitsEnd, to, ",", '.') || isGrouped(value, digitsEnd, to, ".", ',')
+      || isGrouped(value, digitsEnd, to, SPACE_SEPARATORS, ',');
+  }
+
+  /**
+   * Checks whether the characters in the given range are groups of three digits that follow one of the given group
+   * separators, optionally followed by a fraction that follows the given fraction separator.
+   */
+  private static boolean isGrouped(String value, int from, int to, String groupSeparators, char fractionSeparator) {
+    int index = from;
+    while (index + 4 <= to && groupSeparators.indexOf(value.charAt(index)) >= 0
+      && skipDigits(value, index + 1, index + 4) == index + 4) {
+      index += 4;
+    }
+    return index == to || (value.charAt(index) == fractionSeparator && isDigits(value, index + 1, to));
   }
 
   /**
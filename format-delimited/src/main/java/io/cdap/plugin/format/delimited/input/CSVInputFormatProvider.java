@@ -78,6 +78,7 @@ public class CSVInputFormatProvider extends PathTrackingInputFormatProvider<Deli
     properties.put(PathTrackingDelimitedInputFormat.DELIMITER, ",");
     properties.put(PathTrackingDelimitedInputFormat.SKIP_HEADER, String.valueOf(conf.getSkipHeader()));
     properties.put(PathTrackingDelimitedInputFormat.ENABLE_QUOTES_VALUE, String.valueOf(conf.getEnableQuotedValues()));
+    properties.put(PathTrackingDelimitedInputFormat.ENABLE_MULTILINE, String.valueOf(conf.getEnableMultilineSupport()));
   }
 
   @Nullable
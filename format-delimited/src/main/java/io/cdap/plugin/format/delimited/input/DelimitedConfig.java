@@ -37,6 +37,7 @@ public class DelimitedConfig extends PathTrackingConfig {
 
   // properties
   public static final String NAME_ENABLE_QUOTES_VALUES = "enableQuotedValues";
+  public static final String NAME_ENABLE_MULTILINE = "enableMultilineSupport";
   public static final String NAME_OVERRIDE = "override";
   public static final String NAME_SAMPLE_SIZE = "sampleSize";
   public static final Map<String, PluginPropertyField> DELIMITED_FIELDS;
@@ -44,6 +45,9 @@ public class DelimitedConfig extends PathTrackingConfig {
   // description
   public static final String DESC_ENABLE_QUOTES =
     "Whether to treat content between quotes as a value. The default value is false.";
+  public static final String DESC_ENABLE_MULTILINE =
+    "Whether quoted values can contain line breaks. Only used if quoted values are enabled. "
+      + "The default value is false.";
   public static final String DESC_SKIP_HEADER =
     "Whether to skip the first line of each file. The default value is false.";
 
@@ -52,6 +56,8 @@ public class DelimitedConfig extends PathTrackingConfig {
     fields.put("skipHeader", new PluginPropertyField("skipHeader", DESC_SKIP_HEADER, "boolean", false, true));
     fields.put(NAME_ENABLE_QUOTES_VALUES,
       new PluginPropertyField(NAME_ENABLE_QUOTES_VALUES, DESC_ENABLE_QUOTES, "boolean", false, true));
+    fields.put(NAME_ENABLE_MULTILINE,
+      new PluginPropertyField(NAME_ENABLE_MULTILINE, DESC_ENABLE_MULTILINE, "boolean", false, true));
     DELIMITED_FIELDS = Collections.unmodifiableMap(fields);
   }
 
@@ -65,6 +71,11 @@ public class DelimitedConfig extends PathTrackingConfig {
   @Description(DESC_ENABLE_QUOTES)
   protected Boolean enableQuotedValues;
 
+  @Macro
+  @Nullable
+  @Description(DESC_ENABLE_MULTILINE)
+  protected Boolean enableMultilineSupport;
+
   public boolean getSkipHeader() {
     return skipHeader != null && skipHeader;
   }
@@ -73,6 +84,10 @@ public class DelimitedConfig extends PathTrackingConfig {
     return enableQuotedValues != null && enableQuotedValues;
   }
 
+  public boolean getEnableMultilineSupport() {
+    return enableMultilineSupport != null && enableMultilineSupport;
+  }
+
   public long getSampleSize() {
     return Long.parseLong(getProperties().getProperties().getOrDefault(NAME_SAMPLE_SIZE, "1000"));
   }
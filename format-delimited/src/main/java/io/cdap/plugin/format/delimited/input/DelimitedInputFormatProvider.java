@@ -26,19 +26,13 @@ import io.cdap.cdap.api.plugin.PluginClass;
 import io.cdap.cdap.api.plugin.PluginPropertyField;
 import io.cdap.cdap.etl.api.FailureCollector;
 import io.cdap.cdap.etl.api.validation.FormatContext;
-import io.cdap.cdap.etl.api.validation.InputFile;
 import io.cdap.cdap.etl.api.validation.InputFiles;
 import io.cdap.cdap.etl.api.validation.ValidatingInputFormat;
-import io.cdap.plugin.format.delimited.common.DataTypeDetectorStatusKeeper;
-import io.cdap.plugin.format.delimited.common.DataTypeDetectorUtils;
 import io.cdap.plugin.format.input.PathTrackingConfig;
 import io.cdap.plugin.format.input.PathTrackingInputFormatProvider;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
 
@@ -99,6 +93,7 @@ public class DelimitedInputFormatProvider extends PathTrackingInputFormatProvide
     properties.put(PathTrackingDelimitedInputFormat.DELIMITER, conf.delimiter == null ? "," : conf.delimiter);
     properties.put(PathTrackingDelimitedInputFormat.SKIP_HEADER, String.valueOf(conf.getSkipHeader()));
     properties.put(PathTrackingDelimitedInputFormat.ENABLE_QUOTES_VALUE, String.valueOf(conf.getEnableQuotedValues()));
+    properties.put(PathTrackingDelimitedInputFormat.ENABLE_MULTILINE, String.valueOf(conf.getEnableMultilineSupport()));
   }
 
   @Nullable
@@ -109,32 +104,11 @@ public class DelimitedInputFormatProvider extends PathTrackingInputFormatProvide
 
   static Schema detectSchema(DelimitedConfig conf, String delimiter,
                              InputFiles inputFiles, FormatContext context) throws IOException {
-    DataTypeDetectorStatusKeeper dataTypeDetectorStatusKeeper = new DataTypeDetectorStatusKeeper();
-    for (InputFile inputFile : inputFiles) {
-      String line;
-      String[] columnNames = null;
-      String[] rowValue;
-      try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputFile.open()))) {
-        for (int rowIndex = 0; rowIndex < conf.getSampleSize() && (line = reader.readLine()) != null; rowIndex++) {
-          rowValue = line.split(delimiter, -1);
-          if (rowIndex == 0) {
-            columnNames = DataTypeDetectorUtils.setColumnNames(line, conf.getSkipHeader(), conf.getEnableQuotedValues(),
-                                                               delimiter);
-            if (conf.getSkipHeader()) {
-              continue;
-            }
-          }
-          DataTypeDetectorUtils.detectDataTypeOfRowValues(conf.getOverride(), dataTypeDetectorStatusKeeper, columnNames,
-                                                          rowValue);
-        }
-        dataTypeDetectorStatusKeeper.validateDataTypeDetector();
-      }
-      List<Schema.Field> fields = DataTypeDetectorUtils.detectDataTypeOfEachDatasetColumn(
-        conf.getOverride(), columnNames, dataTypeDetectorStatusKeeper);
-      Schema schema = Schema.recordOf("text", fields);
-      return PathTrackingInputFormatProvider.addPathField(context.getFailureCollector(), schema, conf.getPathField());
+    Schema schema = new DelimitedSchemaDetector(conf, delimiter).detectSchema(inputFiles);
+    if (schema == null) {
+      return null;
     }
-    return null;
+    return PathTrackingInputFormatProvider.addPathField(context.getFailureCollector(), schema, conf.getPathField());
   }
 
   /**
@@ -0,0 +1,207 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.delimited.input;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Splits a line of delimited text into fields, working directly on the UTF-8 bytes of the line so that a line
+ * does not need to be decoded into a String and split into substrings.
+ *
+ * A field is exposed as a slice of the line bytes. When quoted values are enabled, fields that contain quotes are
+ * copied without their quotes into a buffer that is reused across fields and lines. The fields are the same as the
+ * ones of {@link com.google.common.base.Splitter} without quoted values, and of {@link SplitQuotesIterator} with
+ * quoted values. Since UTF-8 is self-synchronizing, a delimiter never matches within a multi-byte character.
+ */
+public final class DelimitedLineTokenizer {
+  private static final byte QUOTE = '"';
+
+  private final byte[] delimiter;
+  private final boolean quotedValues;
+  private byte[] line;
+  private int length;
+  private int position;
+  private boolean emptyLine;
+  private boolean endingWithDelimiter;
+  private byte[] buffer = new byte[64];
+  private byte[] fieldBytes;
+  private int fieldStart;
+  private int fieldLength;
+
+  public DelimitedLineTokenizer(String delimiter, boolean quotedValues) {
+    this.delimiter = delimiter.getBytes(StandardCharsets.UTF_8);
+    this.quotedValues = quotedValues;
+  }
+
+  /**
+   * Starts tokenizing a new line.
+   *
+   * @param line bytes of the line, which must not be modified until the line is tokenized
+   * @param length number of bytes of the line
+   */
+  public void reset(byte[] line, int length) {
+    this.line = line;
+    this.length = length;
+    this.position = 0;
+    // an empty line has a single empty field, except with quoted values
+    this.emptyLine = length == 0 && !quotedValues;
+    this.endingWithDelimiter = false;
+  }
+
+  /**
+   * Moves to the next field of the line.
+   *
+   * @return whether there is a next field
+   * @throws IllegalArgumentException if quoted values are enabled and the line has an unenclosed quote
+   */
+  public boolean next() {
+    // corner case when the delimiter is at the end of the line
+    if (endingWithDelimiter || emptyLine) {
+      endingWithDelimiter = false;
+      emptyLine = false;
+      setField(line, position, 0);
+      return true;
+    }
+    if (position == length) {
+      return false;
+    }
+
+    int start = position;
+    int quotes = 0;
+    int buffered = 0;
+    while (position < length) {
+      byte current = line[position];
+      if (quotedValues && current == QUOTE) {
+        if (quotes == 0) {
+          // start copying the field without its quotes
+          buffered = append(0, line, start, position - start);
+        }
+        quotes++;
+        position++;
+        continue;
+      }
+      if (quotes % 2 == 0 && isDelimiter(position)) {
+        int end = position;
+        position += delimiter.length;
+        endingWithDelimiter = position == length;
+        setField(start, end, buffered, quotes);
+        return true;
+      }
+      if (quotes > 0) {
+        buffered = append(buffered, line, position, 1);
+      }
+      position++;
+    }
+
+    if (quotes % 2 != 0) {
+      throw new IllegalArgumentException(
+        "Found a line with an unenclosed quote. Ensure that all values are properly"
+          + " quoted, or disable quoted values.");
+    }
+    setField(start, length, buffered, quotes);
+    return true;
+  }
+
+  /**
+   * Counts the fields of the line from its start, leaving the tokenizer at the end of the line.
+   */
+  public int countFields() {
+    reset(line, length);
+    int count = 0;
+    while (next()) {
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * @return whether the line contains a quote
+   */
+  public boolean containsQuote() {
+    for (int i = 0; i < length; i++) {
+      if (line[i] == QUOTE) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the array holding the bytes of the current field, which is either the line or an internal buffer
+   *         that is overwritten by the next field
+   */
+  public byte[] getFieldBytes() {
+    return fieldBytes;
+  }
+
+  /**
+   * @return the offset of the current field in {@link #getFieldBytes()}
+   */
+  public int getFieldStart() {
+    return fieldStart;
+  }
+
+  /**
+   * @return the number of bytes of the current field
+   */
+  public int getFieldLength() {
+    return fieldLength;
+  }
+
+  /**
+   * @return the current field decoded as a String
+   */
+  public String getFieldString() {
+    return fieldLength == 0 ? "" : new String(fieldBytes, fieldStart, fieldLength, StandardCharsets.UTF_8);
+  }
+
+  private boolean isDelimiter(int index) {
+    if (line[index] != delimiter[0] || index + delimiter.length > length) {
+      return false;
+    }
+    for (int i = 1; i < delimiter.length; i++) {
+      if (line[index + i] != delimiter[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void setField(int start, int end, int buffered, int quotes) {
+    if (quotes == 0) {
+      setField(line, start, end - start);
+    } else {
+      setField(buffer, 0, buffered);
+    }
+  }
+
+  private void setField(byte[] bytes, int start, int length) {
+    fieldBytes = bytes;
+    fieldStart = start;
+    fieldLength = length;
+  }
+
+  private int append(int buffered, byte[] bytes, int start, int length) {
+    if (buffered + length > buffer.length) {
+      byte[] grown = new byte[Math.max(buffer.length * 2, buffered + length)];
+      System.arraycopy(buffer, 0, grown, 0, buffered);
+      buffer = grown;
+    }
+    System.arraycopy(bytes, start, buffer, buffered, length);
+    return buffered + length;
+  }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.delimited.input;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.format.delimited.common.DelimitedStructuredRecordStringConverter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Parses lines of delimited text into records of a schema.
+ *
+ * The type of each field is resolved once for the schema. Integer, long and boolean fields are parsed directly
+ * from the bytes of the line, and string fields are decoded without further conversion. Other fields, and values
+ * that the fast paths do not accept, go through {@link DelimitedStructuredRecordStringConverter} so that they are
+ * converted, or fail, exactly the same way.
+ */
+final class DelimitedRecordParser {
+  private static final long INT_MIN = Integer.MIN_VALUE;
+  private static final long INT_MAX = Integer.MAX_VALUE;
+
+  private final Schema schema;
+  private final boolean quotedValues;
+  private final DelimitedLineTokenizer tokenizer;
+  private final Schema.Field[] fields;
+  private final FieldType[] fieldTypes;
+  private long parsedValue;
+
+  /**
+   * Type of a field, which decides how its value is parsed.
+   */
+  private enum FieldType {
+    INT,
+    LONG,
+    BOOLEAN,
+    STRING,
+    OTHER
+  }
+
+  DelimitedRecordParser(Schema schema, String delimiter, boolean quotedValues) {
+    this.schema = schema;
+    this.quotedValues = quotedValues;
+    this.tokenizer = new DelimitedLineTokenizer(delimiter, quotedValues);
+    List<Schema.Field> schemaFields = schema.getFields();
+    this.fields = schemaFields.toArray(new Schema.Field[0]);
+    this.fieldTypes = new FieldType[fields.length];
+    for (int i = 0; i < fields.length; i++) {
+      fieldTypes[i] = getFieldType(fields[i].getSchema());
+    }
+  }
+
+  /**
+   * Parses a line into a record builder.
+   *
+   * @param line bytes of the line
+   * @param length number of bytes of the line
+   * @return the builder with the values of the line
+   * @throws IOException if the line has more fields than the schema
+   */
+  StructuredRecord.Builder parse(byte[] line, int length) throws IOException {
+    StructuredRecord.Builder builder = StructuredRecord.builder(schema);
+    tokenizer.reset(line, length);
+    int index = 0;
+    while (tokenizer.next()) {
+      if (index == fields.length) {
+        throw tooManyFields();
+      }
+      setField(builder, index);
+      index++;
+    }
+    return builder;
+  }
+
+  private void setField(StructuredRecord.Builder builder, int index) {
+    Schema.Field field = fields[index];
+    byte[] bytes = tokenizer.getFieldBytes();
+    int start = tokenizer.getFieldStart();
+    int length = tokenizer.getFieldLength();
+    if (length == 0) {
+      builder.set(field.getName(), null);
+      return;
+    }
+    switch (fieldTypes[index]) {
+      case INT:
+        if (parseIntegral(bytes, start, length, INT_MIN, INT_MAX)) {
+          builder.set(field.getName(), (int) parsedValue);
+          return;
+        }
+        break;
+      case LONG:
+        if (parseIntegral(bytes, start, length, Long.MIN_VALUE, Long.MAX_VALUE)) {
+          builder.set(field.getName(), parsedValue);
+          return;
+        }
+        break;
+      case BOOLEAN:
+        if (isAscii(bytes, start, length)) {
+          builder.set(field.getName(), length == 4 && equalsIgnoreCase(bytes, start, "true"));
+          return;
+        }
+        break;
+      case STRING:
+        builder.set(field.getName(), tokenizer.getFieldString());
+        return;
+      default:
+        break;
+    }
+    DelimitedStructuredRecordStringConverter.parseAndSetFieldValue(builder, field, tokenizer.getFieldString());
+  }
+
+  private IOException tooManyFields() {
+    int numDataFields = tokenizer.countFields();
+    int numSchemaFields = fields.length;
+    String message =
+      String.format(
+        "Found a row with %d fields when the schema only contains %d field%s.",
+        numDataFields, numSchemaFields, numSchemaFields == 1 ? "" : "s");
+    // special error handling for the case when the user most likely set the schema to delimited
+    // when they meant to use 'text'.
+    Schema.Field bodyField = schema.getField("body");
+    if (bodyField != null) {
+      Schema bodySchema = bodyField.getSchema();
+      bodySchema = bodySchema.isNullable() ? bodySchema.getNonNullable() : bodySchema;
+      if (bodySchema.getType() == Schema.Type.STRING) {
+        return new IOException(message + " Did you mean to use the 'text' format?");
+      }
+    }
+    if (!quotedValues && tokenizer.containsQuote()) {
+      message += " Check if quoted values should be allowed.";
+    }
+    return new IOException(message + " Check that the schema contains the right number of fields.");
+  }
+
+  /**
+   * Parses an optionally signed sequence of ASCII digits into {@link #parsedValue}.
+   *
+   * @return false if the value is not such a sequence or is out of range, in which case it is left to the
+   *         string conversion
+   */
+  private boolean parseIntegral(byte[] bytes, int start, int length, long min, long max) {
+    int index = start;
+    int end = start + length;
+    boolean negative = false;
+    if (bytes[index] == '-' || bytes[index] == '+') {
+      negative = bytes[index] == '-';
+      index++;
+    }
+    // longer values, for example with leading zeros, are left to the string conversion
+    if (index == end || end - index > 19) {
+      return false;
+    }
+    // accumulate negatively so that the minimum value does not overflow
+    long result = 0;
+    for (; index < end; index++) {
+      int digit = bytes[index] - '0';
+      if (digit < 0 || digit > 9 || result < Long.MIN_VALUE / 10) {
+        return false;
+      }
+      result *= 10;
+      if (result < Long.MIN_VALUE + digit) {
+        return false;
+      }
+      result -= digit;
+    }
+    if (!negative) {
+      if (result == Long.MIN_VALUE) {
+        return false;
+      }
+      result = -result;
+    }
+    if (result < min || result > max) {
+      return false;
+    }
+    parsedValue = result;
+    return true;
+  }
+
+  private static boolean isAscii(byte[] bytes, int start, int length) {
+    for (int i = start; i < start + length; i++) {
+      if (bytes[i] < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean equalsIgnoreCase(byte[] bytes, int start, String lowerCaseValue) {
+    for (int i = 0; i < lowerCaseValue.length(); i++) {
+      if (Character.toLowerCase((char) bytes[start + i]) != lowerCaseValue.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static FieldType getFieldType(Schema fieldSchema) {
+    Schema schema = fieldSchema.isNullable() ? fieldSchema.getNonNullable() : fieldSchema;
+    if (schema.getLogicalType() != null) {
+      return FieldType.OTHER;
+    }
+    switch (schema.getType()) {
+      case INT:
+        return FieldType.INT;
+      case LONG:
+        return FieldType.LONG;
+      case BOOLEAN:
+        return FieldType.BOOLEAN;
+      case STRING:
+        return FieldType.STRING;
+      default:
+        return FieldType.OTHER;
+    }
+  }
+}
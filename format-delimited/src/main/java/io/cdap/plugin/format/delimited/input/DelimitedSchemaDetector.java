@@ -0,0 +1,335 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.delimited.input;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.etl.api.validation.InputFile;
+import io.cdap.cdap.etl.api.validation.InputFiles;
+import io.cdap.cdap.etl.api.validation.SeekableInputStream;
+import io.cdap.plugin.format.FileSystemInputFile;
+import io.cdap.plugin.format.delimited.common.DataType;
+import io.cdap.plugin.format.delimited.common.DataTypeDetectorStatusKeeper;
+import io.cdap.plugin.format.delimited.common.DataTypeDetectorUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.annotation.Nullable;
+
+/**
+ * Infers the schema of delimited files from a sample of their rows.
+ *
+ * Rows are sampled from the start of several files, spread over the list of input files, and from several offsets
+ * within large files. Samples are read in parallel, and sampling stops as soon as the type of every column can no
+ * longer change. Inferred schemas are cached by the path, modification time and size of the input files, along with
+ * the properties that affect the inference.
+ */
+final class DelimitedSchemaDetector {
+  private static final int MAX_SAMPLED_FILES = 16;
+  // files are only sampled at several offsets if each sample covers at least this many bytes
+  private static final long MIN_BYTES_PER_OFFSET = 16 * 1024 * 1024;
+  private static final int MAX_OFFSETS_PER_FILE = 4;
+  private static final int MAX_THREADS = 8;
+  // rows read by a sample between checks of whether sampling can stop
+  private static final int MERGE_INTERVAL = 100;
+  private static final int MAX_CACHED_SCHEMAS = 64;
+  private static final Map<List<Object>, Schema> CACHE = new LinkedHashMap<List<Object>, Schema>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<List<Object>, Schema> eldest) {
+      return size() > MAX_CACHED_SCHEMAS;
+    }
+  };
+
+  private final DelimitedConfig conf;
+  private final String delimiter;
+  private final Map<String, Schema> override;
+  private final long sampleSize;
+
+  DelimitedSchemaDetector(DelimitedConfig conf, String delimiter) {
+    this.conf = conf;
+    this.delimiter = delimiter;
+    this.override = conf.getOverride();
+    this.sampleSize = conf.getSampleSize();
+  }
+
+  /**
+   * Infers the schema of the given files, or returns null if there are no files.
+   */
+  @Nullable
+  Schema detectSchema(InputFiles inputFiles) throws IOException {
+    List<InputFile> files = new ArrayList<>();
+    for (InputFile inputFile : inputFiles) {
+      files.add(inputFile);
+    }
+    if (files.isEmpty()) {
+      return null;
+    }
+
+    List<Object> cacheKey = getCacheKey(files);
+    if (cacheKey != null) {
+      synchronized (CACHE) {
+        Schema schema = CACHE.get(cacheKey);
+        if (schema != null) {
+          return schema;
+        }
+      }
+    }
+
+    Schema schema = inferSchema(files);
+    if (cacheKey != null) {
+      synchronized (CACHE) {
+        CACHE.put(cacheKey, schema);
+      }
+    }
+    return schema;
+  }
+
+  /**
+   * Returns the key of the schema of the given files in the cache, or null if the schema cannot be cached because
+   * the modification time of some files is not known.
+   */
+  @Nullable
+  private List<Object> getCacheKey(List<InputFile> files) {
+    List<Object> fileKeys = new ArrayList<>(files.size());
+    for (InputFile file : files) {
+      if (!(file instanceof FileSystemInputFile)) {
+        return null;
+      }
+      FileSystemInputFile fileSystemFile = (FileSystemInputFile) file;
+      fileKeys.add(Arrays.asList(fileSystemFile.getPath().toString(), fileSystemFile.getModificationTime(),
+                                 fileSystemFile.getLength()));
+    }
+    return Arrays.asList(delimiter, conf.getSkipHeader(), conf.getEnableQuotedValues(),
+                         conf.getEnableMultilineSupport(), sampleSize, override, fileKeys);
+  }
+
+  private Schema inferSchema(List<InputFile> files) throws IOException {
+    // column names come from the first line of the first file
+    String firstLine;
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(files.get(0).open()))) {
+      firstLine = reader.readLine();
+    }
+    DataTypeDetectorStatusKeeper dataTypeDetectorStatusKeeper = new DataTypeDetectorStatusKeeper();
+    if (firstLine == null) {
+      dataTypeDetectorStatusKeeper.validateDataTypeDetector();
+    }
+    String[] columnNames = DataTypeDetectorUtils.setColumnNames(firstLine, conf.getSkipHeader(),
+                                                                conf.getEnableQuotedValues(), delimiter);
+
+    ColumnTypes columnTypes = new ColumnTypes(columnNames);
+    List<Sample> samples = getSamples(files);
+    if (samples.size() == 1) {
+      samples.get(0).read(columnTypes);
+    } else {
+      readInParallel(samples, columnTypes);
+    }
+
+    dataTypeDetectorStatusKeeper.setDataTypeDetectionStatus(columnTypes.getDataTypes());
+    dataTypeDetectorStatusKeeper.validateDataTypeDetector();
+    List<Schema.Field> fields = DataTypeDetectorUtils.detectDataTypeOfEachDatasetColumn(
+      override, columnNames, dataTypeDetectorStatusKeeper);
+    return Schema.recordOf("text", fields);
+  }
+
+  /**
+   * Returns the samples to read, from the start of files spread over the list of files, and from evenly spaced
+   * offsets within large files. Offsets are not used if quoted values can span multiple lines, since the start of a
+   * record cannot be told from the start of a line.
+   */
+  private List<Sample> getSamples(List<InputFile> files) {
+    int sampledFiles = Math.min(files.size(), MAX_SAMPLED_FILES);
+    List<Sample> samples = new ArrayList<>();
+    for (int i = 0; i < sampledFiles; i++) {
+      InputFile file = files.get((int) ((long) i * files.size() / sampledFiles));
+      long length = file.getLength();
+      int offsets = 1;
+      if (!(conf.getEnableQuotedValues() && conf.getEnableMultilineSupport())) {
+        offsets = (int) Math.max(1, Math.min(MAX_OFFSETS_PER_FILE, length / MIN_BYTES_PER_OFFSET));
+      }
+      for (int j = 0; j < offsets; j++) {
+        samples.add(new Sample(file, j * (length / offsets)));
+      }
+    }
+    return samples;
+  }
+
+  private void readInParallel(List<Sample> samples, ColumnTypes columnTypes) throws IOException {
+    ExecutorService executor = Executors.newFixedThreadPool(
+      Math.min(samples.size(), MAX_THREADS),
+      new ThreadFactoryBuilder().setNameFormat("delimited-schema-detector-%d").setDaemon(true).build());
+    try {
+      List<Future<?>> futures = new ArrayList<>(samples.size());
+      for (Sample sample : samples) {
+        futures.add(executor.submit(() -> {
+          sample.read(columnTypes);
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while detecting the schema.", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException(cause);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Rows read from a file, starting at an offset.
+   */
+  private final class Sample {
+    private final InputFile file;
+    private final long offset;
+
+    private Sample(InputFile file, long offset) {
+      this.file = file;
+      this.offset = offset;
+    }
+
+    private void read(ColumnTypes columnTypes) throws IOException {
+      if (columnTypes.isSettled()) {
+        return;
+      }
+      List<EnumSet<DataType>> dataTypes = columnTypes.newDataTypes();
+      try (SeekableInputStream inputStream = file.open()) {
+        inputStream.seek(offset);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
+        // skip the rest of the line the offset falls in
+        if (offset > 0 && reader.readLine() == null) {
+          return;
+        }
+        // the header line counts towards the sample size, and is the first line of each file
+        boolean skipFirst = offset == 0 && conf.getSkipHeader();
+        String line;
+        for (int rowIndex = 0; rowIndex < sampleSize && (line = reader.readLine()) != null; rowIndex++) {
+          if (rowIndex == 0 && skipFirst) {
+            continue;
+          }
+          addDataTypes(line, dataTypes);
+          if (rowIndex % MERGE_INTERVAL == MERGE_INTERVAL - 1 && columnTypes.merge(dataTypes)) {
+            return;
+          }
+        }
+      }
+      columnTypes.merge(dataTypes);
+    }
+
+    /**
+     * Adds the data type of each value of the line to the data types of its column. Missing values at the end of
+     * the line are empty, the same way they are read by the pipeline.
+     */
+    private void addDataTypes(String line, List<EnumSet<DataType>> dataTypes) {
+      int valueStart = 0;
+      for (int column = 0; column < dataTypes.size(); column++) {
+        String value = "";
+        if (valueStart >= 0) {
+          int valueEnd = line.indexOf(delimiter, valueStart);
+          if (valueEnd < 0) {
+            value = line.substring(valueStart);
+            valueStart = -1;
+          } else {
+            value = line.substring(valueStart, valueEnd);
+            valueStart = valueEnd + delimiter.length();
+          }
+        }
+        EnumSet<DataType> columnDataTypes = dataTypes.get(column);
+        if (columnDataTypes != null) {
+          columnDataTypes.add(DataTypeDetectorStatusKeeper.detectValueDataType(value));
+        }
+      }
+    }
+  }
+
+  /**
+   * Data types met in each column by all the samples.
+   */
+  private final class ColumnTypes {
+    private final String[] columnNames;
+    // data types of each column, or null for columns whose schema is overridden
+    private final List<EnumSet<DataType>> dataTypes;
+    private volatile boolean settled;
+
+    private ColumnTypes(String[] columnNames) {
+      this.columnNames = columnNames;
+      this.dataTypes = newDataTypes();
+      // if the schema of every column is overridden, no sample is read
+      this.settled = dataTypes.stream().allMatch(Objects::isNull);
+    }
+
+    private List<EnumSet<DataType>> newDataTypes() {
+      List<EnumSet<DataType>> columnDataTypes = new ArrayList<>(columnNames.length);
+      for (String columnName : columnNames) {
+        columnDataTypes.add(override.containsKey(columnName) ? null : EnumSet.noneOf(DataType.class));
+      }
+      return columnDataTypes;
+    }
+
+    private boolean isSettled() {
+      return settled;
+    }
+
+    /**
+     * Adds the data types met by a sample, and returns whether no other value can change the type of any column.
+     */
+    private synchronized boolean merge(List<EnumSet<DataType>> sampleDataTypes) {
+      boolean allSettled = true;
+      for (int i = 0; i < dataTypes.size(); i++) {
+        EnumSet<DataType> columnDataTypes = dataTypes.get(i);
+        if (columnDataTypes != null) {
+          columnDataTypes.addAll(sampleDataTypes.get(i));
+          allSettled &= DataTypeDetectorStatusKeeper.isColumnDataTypeSettled(columnDataTypes);
+        }
+      }
+      settled = allSettled;
+      return settled;
+    }
+
+    private synchronized Map<String, EnumSet<DataType>> getDataTypes() {
+      Map<String, EnumSet<DataType>> dataTypesByName = new LinkedHashMap<>();
+      for (int i = 0; i < columnNames.length; i++) {
+        EnumSet<DataType> columnDataTypes = dataTypes.get(i);
+        if (columnDataTypes != null && !columnDataTypes.isEmpty()) {
+          dataTypesByName.put(columnNames[i], columnDataTypes);
+        }
+      }
+      return dataTypesByName;
+    }
+  }
+}
@@ -16,14 +16,8 @@
 
 package io.cdap.plugin.format.delimited.input;
 
-import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Splitter;
-import com.google.common.collect.AbstractIterator;
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
-import io.cdap.cdap.format.StructuredRecordStringConverter;
-import io.cdap.plugin.common.SchemaValidator;
-import io.cdap.plugin.format.delimited.common.DelimitedStructuredRecordStringConverter;
 import io.cdap.plugin.format.input.PathTrackingInputFormat;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.NullWritable;
@@ -33,7 +27,6 @@ import org.apache.hadoop.mapreduce.RecordReader;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.hadoop.mapreduce.lib.input.FileSplit;
 import java.io.IOException;
-import java.util.Iterator;
 import javax.annotation.Nullable;
 
 /**
@@ -43,8 +36,7 @@ public class PathTrackingDelimitedInputFormat extends PathTrackingInputFormat {
   static final String DELIMITER = "delimiter";
   static final String ENABLE_QUOTES_VALUE = "enable_quotes_value";
   static final String SKIP_HEADER = "skip_header";
-
-  private static final String QUOTE = "\"";
+  static final String ENABLE_MULTILINE = "enable_multiline";
 
   @Override
   protected RecordReader<NullWritable, StructuredRecord.Builder> createRecordReader(FileSplit split,
@@ -52,12 +44,18 @@ public class PathTrackingDelimitedInputFormat extends PathTrackingInputFormat {
     @Nullable String pathField,
     @Nullable Schema schema) {
 
-    RecordReader<LongWritable, Text> delegate = getDefaultRecordReaderDelegate(split, context);
     String delimiter = context.getConfiguration().get(DELIMITER);
     boolean skipHeader = context.getConfiguration().getBoolean(SKIP_HEADER, false);
     boolean enableQuotesValue = context.getConfiguration().getBoolean(ENABLE_QUOTES_VALUE, false);
+    // quoted values can only span multiple lines if they are enabled, and if the file is already in UTF-8
+    String encoding = context.getConfiguration().get(SOURCE_FILE_ENCODING);
+    boolean multiline = enableQuotesValue && context.getConfiguration().getBoolean(ENABLE_MULTILINE, false)
+      && (encoding == null || TARGET_ENCODING.equalsIgnoreCase(encoding));
+    RecordReader<LongWritable, Text> delegate =
+      multiline ? new QuotedRecordReader(delimiter) : getDefaultRecordReaderDelegate(split, context);
 
     return new RecordReader<NullWritable, StructuredRecord.Builder>() {
+      private DelimitedRecordParser parser;
 
       @Override
       public void initialize(InputSplit split, TaskAttemptContext context) throws IOException, InterruptedException {
@@ -83,55 +81,11 @@ public class PathTrackingDelimitedInputFormat extends PathTrackingInputFormat {
 
       @Override
       public StructuredRecord.Builder getCurrentValue() throws IOException, InterruptedException {
-        String delimitedString = delegate.getCurrentValue().toString();
-
-        StructuredRecord.Builder builder = StructuredRecord.builder(schema);
-        Iterator<Schema.Field> fields = schema.getFields().iterator();
-        Iterator<String> splitsIterator = getSplitsIterator(enableQuotesValue, delimitedString, delimiter);
-
-        while (splitsIterator.hasNext()) {
-          String part = splitsIterator.next();
-          if (!fields.hasNext()) {
-            int numDataFields = 0;
-            splitsIterator = getSplitsIterator(enableQuotesValue, delimitedString, delimiter);
-            while (splitsIterator.hasNext()) {
-              splitsIterator.next();
-              numDataFields++;
-            }
-            int numSchemaFields = schema.getFields().size();
-            String message =
-              String.format(
-                "Found a row with %d fields when the schema only contains %d field%s.",
-                numDataFields, numSchemaFields, numSchemaFields == 1 ? "" : "s");
-            // special error handling for the case when the user most likely set the schema to delimited
-            // when they meant to use 'text'.
-            Schema.Field bodyField = schema.getField("body");
-            if (bodyField != null) {
-              Schema bodySchema = bodyField.getSchema();
-              bodySchema = bodySchema.isNullable() ? bodySchema.getNonNullable() : bodySchema;
-              if (bodySchema.getType() == Schema.Type.STRING) {
-                throw new IOException(message + " Did you mean to use the 'text' format?");
-              }
-            }
-            if (!enableQuotesValue && delimitedString.contains(QUOTE)) {
-              message += " Check if quoted values should be allowed.";
-            }
-            throw new IOException(
-              message + " Check that the schema contains the right number of fields.");
-          }
-
-          Schema.Field nextField = fields.next();
-          DelimitedStructuredRecordStringConverter.parseAndSetFieldValue(builder, nextField, part);
-        }
-        return builder;
-      }
-
-      private Iterator<String> getSplitsIterator(boolean enableQuotesValue, String delimitedString, String delimiter) {
-        if (enableQuotesValue) {
-          return new SplitQuotesIterator(delimitedString, delimiter);
-        } else {
-          return Splitter.on(delimiter).split(delimitedString).iterator();
+        if (parser == null) {
+          parser = new DelimitedRecordParser(schema, delimiter, enableQuotesValue);
         }
+        Text line = delegate.getCurrentValue();
+        return parser.parse(line.getBytes(), line.getLength());
       }
 
       @Override
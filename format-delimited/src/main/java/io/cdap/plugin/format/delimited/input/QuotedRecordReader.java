@@ -0,0 +1,358 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.delimited.input;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads records of delimited text in which quoted values can contain line breaks. Like LineRecordReader, records are
+ * keyed by their offset in the file and end with '\n', '\r' or "\r\n", except that line breaks between an odd number
+ * of quotes are part of the record, the same way {@link DelimitedLineTokenizer} treats quotes.
+ *
+ * Files stay splittable. A split reads the records that start between the record boundary found at its start and the
+ * one found at its end. To find a boundary, the reader looks ahead a bounded number of bytes for a quote that can
+ * only be an opening or a closing quote of a RFC 4180 value, which tells whether the split starts within quotes.
+ * If no such quote is found, the split is assumed to start outside of quotes. Since the boundary between two splits
+ * is computed the same way by both readers, every record is read exactly once, and a reader fails instead of
+ * returning partial records if a record spans the boundary that was found.
+ *
+ * Compressed files are read as a whole by the split that starts at the beginning of the file.
+ */
+final class QuotedRecordReader extends RecordReader<LongWritable, Text> {
+  static final int DEFAULT_LOOK_AHEAD = 64 * 1024;
+  private static final int BUFFER_SIZE = 64 * 1024;
+  // bytes read before the start of a split, to find whether its first quotes follow a delimiter
+  private static final int LOOK_BEHIND = 256;
+  private static final byte QUOTE = '"';
+  private static final byte CR = '\r';
+  private static final byte LF = '\n';
+
+  private final byte[] delimiter;
+  private final int lookAhead;
+  private final byte[] buffer;
+  private InputStream in;
+  private long start;
+  private long end;
+  private long stop;
+  private long pos;
+  private int bufferPosition;
+  private int bufferLength;
+  private LongWritable key;
+  private Text value;
+
+  /**
+   * The quote state before a run of quotes, as inferred from the bytes around it.
+   */
+  private enum QuoteState {
+    INSIDE,
+    OUTSIDE,
+    UNKNOWN
+  }
+
+  QuotedRecordReader(String delimiter) {
+    this(delimiter, DEFAULT_LOOK_AHEAD);
+  }
+
+  @VisibleForTesting
+  QuotedRecordReader(String delimiter, int lookAhead) {
+    this.delimiter = delimiter.getBytes(StandardCharsets.UTF_8);
+    this.lookAhead = lookAhead;
+    this.buffer = new byte[BUFFER_SIZE];
+  }
+
+  @Override
+  public void initialize(InputSplit genericSplit, TaskAttemptContext context) throws IOException {
+    FileSplit split = (FileSplit) genericSplit;
+    Configuration conf = context.getConfiguration();
+    Path path = split.getPath();
+    FileSystem fs = path.getFileSystem(conf);
+    start = split.getStart();
+    end = start + split.getLength();
+    FSDataInputStream fileIn = fs.open(path);
+    CompressionCodec codec = new CompressionCodecFactory(conf).getCodec(path);
+    if (codec != null) {
+      if (start == 0) {
+        in = codec.createInputStream(fileIn);
+        stop = Long.MAX_VALUE;
+      } else {
+        fileIn.close();
+        in = null;
+        stop = 0;
+      }
+      pos = 0;
+      return;
+    }
+
+    long fileLength = fs.getFileStatus(path).getLen();
+    long begin = start == 0 ? 0 : findRecordStart(fileIn, start, fileLength);
+    stop = end >= fileLength ? Long.MAX_VALUE : findRecordStart(fileIn, end, fileLength);
+    fileIn.seek(begin);
+    in = fileIn;
+    pos = begin;
+  }
+
+  @Override
+  public boolean nextKeyValue() throws IOException {
+    if (key == null) {
+      key = new LongWritable();
+      value = new Text();
+    }
+    if (in == null || pos >= stop || (bufferPosition == bufferLength && !fill())) {
+      return false;
+    }
+
+    long recordStart = pos;
+    key.set(recordStart);
+    value.clear();
+    boolean quoted = false;
+    while (true) {
+      int recordEnd = -1;
+      for (int i = bufferPosition; i < bufferLength; i++) {
+        byte current = buffer[i];
+        if (current == QUOTE) {
+          quoted = !quoted;
+        } else if (!quoted && (current == LF || current == CR)) {
+          recordEnd = i;
+          break;
+        }
+      }
+      if (recordEnd < 0) {
+        value.append(buffer, bufferPosition, bufferLength - bufferPosition);
+        consume(bufferLength - bufferPosition);
+        if (!fill()) {
+          break;
+        }
+        continue;
+      }
+      value.append(buffer, bufferPosition, recordEnd - bufferPosition);
+      byte terminator = buffer[recordEnd];
+      consume(recordEnd + 1 - bufferPosition);
+      if (terminator == CR && (bufferPosition < bufferLength || fill()) && buffer[bufferPosition] == LF) {
+        consume(1);
+      }
+      break;
+    }
+
+    if (stop != Long.MAX_VALUE && pos > stop) {
+      throw new IOException(String.format(
+        "Unable to split the file at offset %d, since the record that starts at offset %d ends at offset %d. "
+          + "Ensure that all quotes are properly closed, or read the file without splitting it.",
+        stop, recordStart, pos));
+    }
+    return true;
+  }
+
+  @Override
+  public LongWritable getCurrentKey() {
+    return key;
+  }
+
+  @Override
+  public Text getCurrentValue() {
+    return value;
+  }
+
+  @Override
+  public float getProgress() {
+    if (start == end) {
+      return 0.0f;
+    }
+    return Math.min(1.0f, (pos - start) / (float) (end - start));
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (in != null) {
+      in.close();
+    }
+  }
+
+  private boolean fill() throws IOException {
+    bufferPosition = 0;
+    bufferLength = Math.max(0, in.read(buffer, 0, buffer.length));
+    return bufferLength > 0;
+  }
+
+  private void consume(int length) {
+    bufferPosition += length;
+    pos += length;
+  }
+
+  /**
+   * Finds the offset of the first record that starts at or after the given offset, or the file length if there is
+   * no such record.
+   */
+  @VisibleForTesting
+  long findRecordStart(FSDataInputStream fileIn, long offset, long fileLength) throws IOException {
+    long windowStart = Math.max(0, offset - LOOK_BEHIND);
+    int windowLength = (int) Math.min(fileLength - windowStart, offset - windowStart + lookAhead);
+    byte[] window = new byte[windowLength];
+    fileIn.readFully(windowStart, window);
+    boolean windowAtEnd = windowStart + windowLength == fileLength;
+    int index = (int) (offset - windowStart);
+
+    boolean quoted = startsQuoted(window, index, windowStart == 0, windowAtEnd);
+    if (!quoted && index > 0 && isRecordEnd(window, index - 1, windowAtEnd)) {
+      return offset;
+    }
+
+    // scan for the first line break outside of quotes, reading past the window if needed
+    long position = offset;
+    byte[] bytes = window;
+    int length = windowLength;
+    boolean previousCR = false;
+    while (true) {
+      for (; index < length; index++, position++) {
+        byte current = bytes[index];
+        if (previousCR) {
+          // "\r\n" ends a single record
+          return current == LF ? position + 1 : position;
+        }
+        if (current == QUOTE) {
+          quoted = !quoted;
+        } else if (!quoted && current == LF) {
+          return position + 1;
+        } else if (!quoted && current == CR) {
+          previousCR = true;
+        }
+      }
+      if (position >= fileLength) {
+        return fileLength;
+      }
+      if (bytes == window) {
+        bytes = new byte[BUFFER_SIZE];
+      }
+      length = (int) Math.min(bytes.length, fileLength - position);
+      fileIn.readFully(position, bytes, 0, length);
+      index = 0;
+    }
+  }
+
+  /**
+   * Infers whether the given index of the window is within quotes, from the first run of quotes after it whose
+   * surroundings tell whether it opens or closes a quoted value. Outside of quotes is assumed if there is none.
+   */
+  private boolean startsQuoted(byte[] window, int index, boolean windowAtFileStart, boolean windowAtEnd) {
+    // if the index is in the middle of a run of quotes, start from the beginning of the run
+    int runStart = index;
+    while (runStart > 0 && window[runStart - 1] == QUOTE) {
+      runStart--;
+    }
+    int quotes = runStart - index;
+    int position = runStart;
+    while (position < window.length) {
+      if (window[position] != QUOTE) {
+        position++;
+        continue;
+      }
+      int runEnd = position;
+      while (runEnd < window.length && window[runEnd] == QUOTE) {
+        runEnd++;
+      }
+      if (runEnd == window.length && !windowAtEnd) {
+        break;
+      }
+      QuoteState state = getStateBefore(window, position, runEnd, windowAtFileStart);
+      if (state != QuoteState.UNKNOWN) {
+        // the quotes between the index and the run flip the state
+        return (state == QuoteState.INSIDE) == (quotes % 2 == 0);
+      }
+      quotes += runEnd - position;
+      position = runEnd;
+    }
+    return false;
+  }
+
+  /**
+   * Infers the quote state before a run of quotes. In RFC 4180, a value can only be opened by a quote at its start,
+   * and a closing quote must be followed by a delimiter or a line break. So a run that does not follow the start of
+   * a value must be within quotes, and an odd run at the start of a value that is not followed by its end must open
+   * the value.
+   */
+  private QuoteState getStateBefore(byte[] window, int runStart, int runEnd, boolean windowAtFileStart) {
+    boolean followsValueStart;
+    if (runStart == 0) {
+      if (!windowAtFileStart) {
+        return QuoteState.UNKNOWN;
+      }
+      followsValueStart = true;
+    } else {
+      followsValueStart = window[runStart - 1] == LF || window[runStart - 1] == CR
+        || endsWithDelimiter(window, runStart);
+    }
+    if (!followsValueStart) {
+      return QuoteState.INSIDE;
+    }
+    boolean precedesValueEnd = runEnd == window.length || window[runEnd] == LF || window[runEnd] == CR
+      || startsWithDelimiter(window, runEnd);
+    if ((runEnd - runStart) % 2 == 1 && !precedesValueEnd) {
+      return QuoteState.OUTSIDE;
+    }
+    return QuoteState.UNKNOWN;
+  }
+
+  private boolean isRecordEnd(byte[] window, int index, boolean windowAtEnd) {
+    if (window[index] == LF) {
+      return true;
+    }
+    if (window[index] != CR) {
+      return false;
+    }
+    // a '\r' followed by '\n' does not end a record by itself
+    return index + 1 < window.length ? window[index + 1] != LF : windowAtEnd;
+  }
+
+  private boolean endsWithDelimiter(byte[] window, int index) {
+    if (index < delimiter.length) {
+      return false;
+    }
+    for (int i = 0; i < delimiter.length; i++) {
+      if (window[index - delimiter.length + i] != delimiter[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean startsWithDelimiter(byte[] window, int index) {
+    if (index + delimiter.length > window.length) {
+      return false;
+    }
+    for (int i = 0; i < delimiter.length; i++) {
+      if (window[index + i] != delimiter[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -51,6 +51,14 @@ public class DelimitedOutputFormatProvider extends AbstractOutputFormatProvider
 
   @Override
   public void validate(FormatContext context) {
+    if (!conf.containsMacro("delimiter") && !conf.containsMacro("enableQuotedValues")
+      && conf.shouldQuoteValues() && conf.delimiter != null && conf.delimiter.contains("\"")) {
+      context.getFailureCollector().addFailure(
+        String.format("The delimiter %s cannot contain \" when quoted values are enabled.", conf.delimiter),
+        "Check the delimiter.")
+        .withConfigProperty("delimiter");
+    }
+
     Schema inputSchema = context.getInputSchema();
     // this is possible if schema is macro enabled
     if (inputSchema == null) {
@@ -77,7 +85,8 @@ public class DelimitedOutputFormatProvider extends AbstractOutputFormatProvider
     if (conf.containsMacro("delimiter")) {
       return Collections.emptyMap();
     }
-    return StructuredDelimitedOutputFormat.getConfiguration(conf.delimiter, conf.shouldWriteHeader());
+    return StructuredDelimitedOutputFormat.getConfiguration(conf.delimiter, conf.shouldWriteHeader(),
+                                                           conf.shouldQuoteValues());
   }
 
   /**
@@ -101,6 +110,8 @@ public class DelimitedOutputFormatProvider extends AbstractOutputFormatProvider
     Map<String, PluginPropertyField> properties = new HashMap<>();
     properties.put("delimiter", new PluginPropertyField("delimiter", Conf.DELIMITER_DESC, "string", false, true));
     properties.put("writeHeader", new PluginPropertyField("writeHeader", Conf.HEADER_DESC, "boolean", false, true));
+    properties.put("enableQuotedValues",
+                   new PluginPropertyField("enableQuotedValues", Conf.QUOTES_DESC, "boolean", false, true));
     return new PluginClass(ValidatingOutputFormat.PLUGIN_TYPE, NAME, DESC,
                            DelimitedOutputFormatProvider.class.getName(), "conf", properties);
   }
@@ -27,13 +27,24 @@ import javax.annotation.Nullable;
  */
 public class DelimitedPluginConfig extends PluginConfig {
   protected static final String HEADER_DESC = "Whether to write a header to each output file.";
+  protected static final String QUOTES_DESC = "Whether to enclose values that contain the delimiter, quotes or "
+    + "line breaks in quotes, with quotes escaped by doubling them. The default value is false.";
 
   @Macro
   @Nullable
   @Description(HEADER_DESC)
   private Boolean writeHeader;
 
+  @Macro
+  @Nullable
+  @Description(QUOTES_DESC)
+  private Boolean enableQuotedValues;
+
   public boolean shouldWriteHeader() {
     return writeHeader == null ? false : writeHeader;
   }
+
+  public boolean shouldQuoteValues() {
+    return enableQuotedValues != null && enableQuotedValues;
+  }
 }
@@ -17,34 +17,35 @@
 package io.cdap.plugin.format.delimited.output;
 
 import io.cdap.cdap.api.data.format.StructuredRecord;
-import io.cdap.cdap.api.data.schema.Schema;
-import io.cdap.cdap.api.dataset.lib.KeyValue;
-import io.cdap.cdap.format.StructuredRecordStringConverter;
-import io.cdap.plugin.format.output.DelegatingOutputFormat;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.NullWritable;
-import org.apache.hadoop.io.Text;
-import org.apache.hadoop.mapreduce.OutputFormat;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.GzipCodec;
+import org.apache.hadoop.mapreduce.RecordWriter;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
-import org.apache.hadoop.mapreduce.lib.output.TextOutputFormat;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.hadoop.util.ReflectionUtils;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-import javax.annotation.Nullable;
 
 /**
- * Converts StructuredRecord into string before delegating to TextOutputFormat.
+ * Writes StructuredRecords as delimited lines of text, compressed the same way TextOutputFormat compresses its output.
  */
-public class StructuredDelimitedOutputFormat extends DelegatingOutputFormat<NullWritable, Text> {
+public class StructuredDelimitedOutputFormat extends FileOutputFormat<NullWritable, StructuredRecord> {
   static final String DELIMITER_KEY = "delimiter";
   static final String HEADER_KEY = "write.header";
+  static final String QUOTES_KEY = "enable.quoted.values";
 
-  static Map<String, String> getConfiguration(String delimiter, boolean writeHeader) {
+  static Map<String, String> getConfiguration(String delimiter, boolean writeHeader, boolean quoteValues) {
     // base64 encode the delimiter to deal with some common delimiters that are illegal XML characters.
     // most control characters fall into this category.
     // trying to set it in the Hadoop conf will cause parse errors
@@ -52,33 +53,27 @@ public class StructuredDelimitedOutputFormat extends DelegatingOutputFormat<Null
     Map<String, String> configs = new HashMap<>();
     configs.put(DELIMITER_KEY, encoded);
     configs.put(HEADER_KEY, String.valueOf(writeHeader));
+    configs.put(QUOTES_KEY, String.valueOf(quoteValues));
     return Collections.unmodifiableMap(configs);
   }
 
   @Override
-  protected OutputFormat<NullWritable, Text> createDelegate() {
-    return new TextOutputFormat<>();
-  }
-
-  @Override
-  protected Function<StructuredRecord, KeyValue<NullWritable, Text>> getConversion(TaskAttemptContext context) {
-    String delimiter = getDelimiter(context.getConfiguration());
-    return record -> new KeyValue<>(NullWritable.get(),
-                                    new Text(StructuredRecordStringConverter.toDelimitedString(record, delimiter)));
-  }
-
-  @Nullable
-  @Override
-  protected Function<StructuredRecord, KeyValue<NullWritable, Text>> getHeader(TaskAttemptContext context) {
+  public RecordWriter<NullWritable, StructuredRecord> getRecordWriter(TaskAttemptContext context)
+    throws IOException {
     Configuration hConf = context.getConfiguration();
-    boolean writeHeader = Boolean.parseBoolean(hConf.get(HEADER_KEY));
-    if (!writeHeader) {
-      return null;
+    CompressionCodec codec = null;
+    String extension = "";
+    if (getCompressOutput(context)) {
+      Class<? extends CompressionCodec> codecClass = getOutputCompressorClass(context, GzipCodec.class);
+      codec = ReflectionUtils.newInstance(codecClass, hConf);
+      extension = codec.getDefaultExtension();
     }
-    String delimiter = getDelimiter(hConf);
-    return record -> new KeyValue<>(NullWritable.get(), new Text(record.getSchema().getFields().stream()
-                                                                   .map(Schema.Field::getName)
-                                                                   .collect(Collectors.joining(delimiter))));
+    Path file = getDefaultWorkFile(context, extension);
+    FileSystem fs = file.getFileSystem(hConf);
+    FSDataOutputStream fileOut = fs.create(file, false);
+    OutputStream out = codec == null ? fileOut : codec.createOutputStream(fileOut);
+    return new StructuredDelimitedRecordWriter(out, getDelimiter(hConf), Boolean.parseBoolean(hConf.get(HEADER_KEY)),
+                                               Boolean.parseBoolean(hConf.get(QUOTES_KEY)));
   }
 
   private String getDelimiter(Configuration hConf) {
@@ -0,0 +1,270 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.delimited.output;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.format.StructuredRecordStringConverter;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes StructuredRecords as delimited lines of UTF-8 text.
+ *
+ * Values are encoded straight into a reused buffer by writers compiled from the schema of the records, so that no
+ * intermediate line is built for each record. Values are written the same way as
+ * {@link StructuredRecordStringConverter#toDelimitedString(StructuredRecord, String)}, with nulls written as empty
+ * values. If quoted values are enabled, values that contain the delimiter, quotes or line breaks are enclosed in
+ * quotes, with quotes escaped by doubling them, as described in RFC 4180.
+ */
+class StructuredDelimitedRecordWriter extends RecordWriter<NullWritable, StructuredRecord> {
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final byte QUOTE = '"';
+  private static final byte NEWLINE = '\n';
+  // characters that integers are written with
+  private static final String NUMBER_CHARS = "-0123456789";
+
+  private final OutputStream out;
+  private final String delimiter;
+  private final byte[] delimiterBytes;
+  private final boolean writeHeader;
+  private final boolean quoteValues;
+  private final byte[] buffer;
+  private int position;
+  private Schema schema;
+  private FieldWriter[] fieldWriters;
+
+  /**
+   * Writes the value of a field.
+   */
+  private interface FieldWriter {
+    void write(Object value) throws IOException;
+  }
+
+  StructuredDelimitedRecordWriter(OutputStream out, String delimiter, boolean writeHeader, boolean quoteValues) {
+    this.out = out;
+    this.delimiter = delimiter;
+    this.delimiterBytes = delimiter.getBytes(StandardCharsets.UTF_8);
+    this.writeHeader = writeHeader;
+    this.quoteValues = quoteValues;
+    this.buffer = new byte[BUFFER_SIZE];
+  }
+
+  @Override
+  public void write(NullWritable key, StructuredRecord record) throws IOException {
+    Schema recordSchema = record.getSchema();
+    if (recordSchema != schema) {
+      // the header is written with the fields of the first record
+      if (schema == null && writeHeader) {
+        writeHeader(recordSchema);
+      }
+      // records almost always share the same schema instance, so writers are rarely compiled more than once
+      if (!recordSchema.equals(schema)) {
+        fieldWriters = compile(recordSchema);
+      }
+      schema = recordSchema;
+    }
+
+    List<Schema.Field> fields = recordSchema.getFields();
+    for (int i = 0; i < fieldWriters.length; i++) {
+      if (i > 0) {
+        write(delimiterBytes);
+      }
+      Object value = record.get(fields.get(i).getName());
+      if (value != null) {
+        fieldWriters[i].write(value);
+      }
+    }
+    ensureCapacity(1);
+    buffer[position++] = NEWLINE;
+  }
+
+  @Override
+  public void close(TaskAttemptContext context) throws IOException {
+    try {
+      flush();
+    } finally {
+      out.close();
+    }
+  }
+
+  private void writeHeader(Schema recordSchema) throws IOException {
+    List<Schema.Field> fields = recordSchema.getFields();
+    for (int i = 0; i < fields.size(); i++) {
+      if (i > 0) {
+        write(delimiterBytes);
+      }
+      writeString(fields.get(i).getName());
+    }
+    ensureCapacity(1);
+    buffer[position++] = NEWLINE;
+  }
+
+  private FieldWriter[] compile(Schema recordSchema) {
+    List<Schema.Field> fields = recordSchema.getFields();
+    FieldWriter[] writers = new FieldWriter[fields.size()];
+    for (int i = 0; i < writers.length; i++) {
+      writers[i] = compile(recordSchema, fields.get(i));
+    }
+    return writers;
+  }
+
+  private FieldWriter compile(Schema recordSchema, Schema.Field field) {
+    Schema fieldSchema = field.getSchema();
+    if (fieldSchema.isNullable()) {
+      fieldSchema = fieldSchema.getNonNullable();
+    }
+    if (fieldSchema.getLogicalType() == null) {
+      switch (fieldSchema.getType()) {
+        case INT:
+        case LONG:
+          if (!quoteValues || !containsAny(delimiter, NUMBER_CHARS)) {
+            return value -> writeLong(((Number) value).longValue());
+          }
+          return value -> writeString(value.toString());
+        case STRING:
+        case FLOAT:
+        case DOUBLE:
+        case BOOLEAN:
+          return value -> writeString(value.toString());
+        default:
+          break;
+      }
+    }
+    // other values are formatted by the converter, as a record with just the field
+    Schema fieldRecordSchema = Schema.recordOf(recordSchema.getRecordName(), field);
+    return value -> writeString(StructuredRecordStringConverter.toDelimitedString(
+      StructuredRecord.builder(fieldRecordSchema).set(field.getName(), value).build(), delimiter));
+  }
+
+  private static boolean containsAny(String value, String chars) {
+    for (int i = 0; i < chars.length(); i++) {
+      if (value.indexOf(chars.charAt(i)) >= 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean needsQuotes(String value) {
+    if (value.contains(delimiter)) {
+      return true;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == QUOTE || c == '\n' || c == '\r') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Writes a string as UTF-8, enclosed in quotes if needed. Unpaired surrogates are written as '?', like
+   * {@link String#getBytes(java.nio.charset.Charset)} does.
+   */
+  private void writeString(String value) throws IOException {
+    boolean quote = quoteValues && needsQuotes(value);
+    if (quote) {
+      ensureCapacity(1);
+      buffer[position++] = QUOTE;
+    }
+    int length = value.length();
+    for (int i = 0; i < length; i++) {
+      // a character takes at most 4 bytes, or 2 bytes for an escaped quote
+      ensureCapacity(4);
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        if (quote && c == QUOTE) {
+          buffer[position++] = QUOTE;
+        }
+        buffer[position++] = (byte) c;
+      } else if (c < 0x800) {
+        buffer[position++] = (byte) (0xc0 | (c >> 6));
+        buffer[position++] = (byte) (0x80 | (c & 0x3f));
+      } else if (!Character.isSurrogate(c)) {
+        buffer[position++] = (byte) (0xe0 | (c >> 12));
+        buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+        buffer[position++] = (byte) (0x80 | (c & 0x3f));
+      } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, value.charAt(++i));
+        buffer[position++] = (byte) (0xf0 | (codePoint >> 18));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+        buffer[position++] = (byte) (0x80 | (codePoint & 0x3f));
+      } else {
+        buffer[position++] = '?';
+      }
+    }
+    if (quote) {
+      ensureCapacity(1);
+      buffer[position++] = QUOTE;
+    }
+  }
+
+  /**
+   * Writes the decimal digits of a number, the same way {@link Long#toString(long)} does.
+   */
+  private void writeLong(long value) throws IOException {
+    ensureCapacity(20);
+    // digits are computed from the negative value, since the minimum value cannot be negated
+    long remaining = value;
+    if (value < 0) {
+      buffer[position++] = '-';
+    } else {
+      remaining = -value;
+    }
+    int start = position;
+    do {
+      buffer[position++] = (byte) ('0' - remaining % 10);
+      remaining /= 10;
+    } while (remaining != 0);
+    for (int i = start, j = position - 1; i < j; i++, j--) {
+      byte digit = buffer[i];
+      buffer[i] = buffer[j];
+      buffer[j] = digit;
+    }
+  }
+
+  private void write(byte[] bytes) throws IOException {
+    if (bytes.length > buffer.length) {
+      flush();
+      out.write(bytes);
+      return;
+    }
+    ensureCapacity(bytes.length);
+    System.arraycopy(bytes, 0, buffer, position, bytes.length);
+    position += bytes.length;
+  }
+
+  private void ensureCapacity(int length) throws IOException {
+    if (position + length > buffer.length) {
+      flush();
+    }
+  }
+
+  private void flush() throws IOException {
+    out.write(buffer, 0, position);
+    position = 0;
+  }
+}
@@ -70,13 +70,16 @@ public class TSVOutputFormatProvider extends AbstractOutputFormatProvider {
 
   @Override
   public Map<String, String> getOutputFormatConfiguration() {
-    return StructuredDelimitedOutputFormat.getConfiguration("\t", conf.shouldWriteHeader());
+    return StructuredDelimitedOutputFormat.getConfiguration("\t", conf.shouldWriteHeader(), conf.shouldQuoteValues());
   }
 
   private static PluginClass getPluginClass() {
     Map<String, PluginPropertyField> properties = new HashMap<>();
     properties.put("writeHeader", new PluginPropertyField("writeHeader", DelimitedOutputFormatProvider.Conf.HEADER_DESC,
                                                           "boolean", false, true));
+    properties.put("enableQuotedValues",
+                   new PluginPropertyField("enableQuotedValues", DelimitedOutputFormatProvider.Conf.QUOTES_DESC,
+                                           "boolean", false, true));
     return new PluginClass(ValidatingOutputFormat.PLUGIN_TYPE, NAME, DESC, TSVOutputFormatProvider.class.getName(),
                            "conf", properties);
   }
@@ -38,6 +38,19 @@ public class TypeInferenceTest {
     assertTrue(TypeInference.isDouble("-12.3"));
   }
 
+  @Test
+  public void testIsDoubleWithGroupsAndExponent() {
+    assertTrue(TypeInference.isDouble("1,234,567.89"));
+    assertTrue(TypeInference.isDouble("1.234.567,89"));
+    assertTrue(TypeInference.isDouble("1 234,5"));
+    assertTrue(TypeInference.isDouble("+1.5e-3"));
+    assertTrue(TypeInference.isDouble("2 E10"));
+    assertFalse(TypeInference.isDouble("1,23.4"));
+    assertFalse(TypeInference.isDouble("1234,567.8"));
+    assertFalse(TypeInference.isDouble("1.5e"));
+    assertFalse(TypeInference.isDouble("."));
+  }
+
   @Test
   public void testIsNotDouble() {
     assertFalse(TypeInference.isDouble("Hello!"));
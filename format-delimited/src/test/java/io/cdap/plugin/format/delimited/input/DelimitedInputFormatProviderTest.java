@@ -76,6 +76,54 @@ public class DelimitedInputFormatProviderTest {
     return schema;
   }
 
+  @Test
+  public void testSchemaDetectionSamplesAllFiles() throws IOException {
+    File directory = TMP_FOLDER.newFolder();
+    writeFile(new File(directory, "first.csv"), "1,x\n2,y\n");
+    writeFile(new File(directory, "second.csv"), "3,z\nfour,\n");
+    Schema schema = detectSchema(new CSVInputFormatProvider(new DelimitedConfig()), directory);
+    Schema expected = Schema.recordOf("text",
+                                      Schema.Field.of("body_0", Schema.of(Schema.Type.STRING)),
+                                      Schema.Field.of("body_1", Schema.nullableOf(Schema.of(Schema.Type.STRING))));
+    Assert.assertEquals(expected, schema);
+  }
+
+  @Test
+  public void testSchemaDetectionCache() throws IOException {
+    File file = TMP_FOLDER.newFile(UUID.randomUUID() + ".csv");
+    writeFile(file, "1,2\n");
+    long modificationTime = file.lastModified();
+    ValidatingInputFormat inputFormat = new CSVInputFormatProvider(new DelimitedConfig());
+    Schema intSchema = Schema.recordOf("text",
+                                       Schema.Field.of("body_0", Schema.of(Schema.Type.INT)),
+                                       Schema.Field.of("body_1", Schema.of(Schema.Type.INT)));
+    Assert.assertEquals(intSchema, detectSchema(inputFormat, file));
+
+    // a file with the same size and modification time is assumed to be unchanged
+    writeFile(file, "a,b\n");
+    Assert.assertTrue(file.setLastModified(modificationTime));
+    Assert.assertEquals(intSchema, detectSchema(inputFormat, file));
+
+    writeFile(file, "a,b\n");
+    Assert.assertTrue(file.setLastModified(modificationTime + 10000));
+    Schema stringSchema = Schema.recordOf("text",
+                                          Schema.Field.of("body_0", Schema.of(Schema.Type.STRING)),
+                                          Schema.Field.of("body_1", Schema.of(Schema.Type.STRING)));
+    Assert.assertEquals(stringSchema, detectSchema(inputFormat, file));
+  }
+
+  private static void writeFile(File file, String content) throws IOException {
+    try (FileOutputStream fos = new FileOutputStream(file)) {
+      fos.write(content.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  private static Schema detectSchema(ValidatingInputFormat inputFormat, File path) throws IOException {
+    FormatContext formatContext = new FormatContext(new MockFailureCollector(), null);
+    return new SchemaDetector(inputFormat).detectSchema(path.getAbsolutePath(), formatContext,
+                                                        Collections.emptyMap());
+  }
+
   @Test
   public void testAddPathField() throws IOException {
     String delimiter = "|";
@@ -0,0 +1,90 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.delimited.input;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for {@link DelimitedLineTokenizer}.
+ */
+public class DelimitedLineTokenizerTest {
+
+  @Test
+  public void testSameFieldsAsSplitter() {
+    for (String line : Arrays.asList("", "a", "a,b,c", ",", "a,,", ",a", "\"a,b\",c", "é,ü,€")) {
+      Assert.assertEquals(ImmutableList.copyOf(Splitter.on(",").split(line)), tokenize(line, ",", false));
+    }
+    for (String line : Arrays.asList("a", "aaa", "aaaaaaa", "baab")) {
+      Assert.assertEquals(ImmutableList.copyOf(Splitter.on("aa").split(line)), tokenize(line, "aa", false));
+    }
+  }
+
+  @Test
+  public void testSameFieldsAsSplitQuotesIterator() {
+    for (String line : Arrays.asList("", "a", "a,b,c", ",", "a,,", "\"a,b\",c", "a\"b,c\"d,e", "\"\",\"x\"",
+                                     "1###\"sam###x\"###é")) {
+      String delimiter = line.contains("###") ? "###" : ",";
+      Assert.assertEquals(ImmutableList.copyOf(new SplitQuotesIterator(line, delimiter)),
+                          tokenize(line, delimiter, true));
+    }
+  }
+
+  @Test
+  public void testLongQuotedField() {
+    StringBuilder value = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      value.append("v,").append(i);
+    }
+    Assert.assertEquals(Arrays.asList("a", value.toString(), "b"),
+                        tokenize("a,\"" + value + "\",b", ",", true));
+  }
+
+  @Test
+  public void testCountFields() {
+    DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer(",", true);
+    byte[] line = "a,\"b,c\",d,".getBytes(StandardCharsets.UTF_8);
+    tokenizer.reset(line, line.length);
+    Assert.assertTrue(tokenizer.next());
+    Assert.assertEquals(4, tokenizer.countFields());
+    Assert.assertTrue(tokenizer.containsQuote());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnenclosedQuote() {
+    tokenize("a,\"b,c", ",", true);
+  }
+
+  private static List<String> tokenize(String line, String delimiter, boolean quotedValues) {
+    // the line is followed by bytes that are not part of it, like in a reused Text
+    byte[] bytes = (line + ",garbage").getBytes(StandardCharsets.UTF_8);
+    DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer(delimiter, quotedValues);
+    tokenizer.reset(bytes, line.getBytes(StandardCharsets.UTF_8).length);
+    List<String> fields = new ArrayList<>();
+    while (tokenizer.next()) {
+      fields.add(tokenizer.getFieldString());
+    }
+    return fields;
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.delimited.input;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tests for {@link DelimitedRecordParser}.
+ */
+public class DelimitedRecordParserTest {
+  private static final Schema SCHEMA = Schema.recordOf(
+    "record",
+    Schema.Field.of("i", Schema.nullableOf(Schema.of(Schema.Type.INT))),
+    Schema.Field.of("l", Schema.nullableOf(Schema.of(Schema.Type.LONG))),
+    Schema.Field.of("b", Schema.nullableOf(Schema.of(Schema.Type.BOOLEAN))),
+    Schema.Field.of("s", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("d", Schema.nullableOf(Schema.of(Schema.Type.DOUBLE))));
+
+  @Test
+  public void testParse() throws IOException {
+    StructuredRecord record = parse("-2147483648,+0009223372036854775807,TrUe,\"x,y\",1.5");
+    Assert.assertEquals(Integer.MIN_VALUE, (int) record.get("i"));
+    Assert.assertEquals(Long.MAX_VALUE, (long) record.get("l"));
+    Assert.assertTrue(record.get("b"));
+    Assert.assertEquals("x,y", record.get("s"));
+    Assert.assertEquals(1.5d, record.get("d"), 0d);
+
+    record = parse("7,,no,é");
+    Assert.assertEquals(7, (int) record.get("i"));
+    Assert.assertNull(record.get("l"));
+    Assert.assertFalse(record.get("b"));
+    Assert.assertEquals("é", record.get("s"));
+    Assert.assertNull(record.get("d"));
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testIntOverflow() throws IOException {
+    parse("2147483648");
+  }
+
+  @Test
+  public void testTooManyFields() {
+    try {
+      parse("1,2,true,s,1.0,extra");
+      Assert.fail("Expected the row to be rejected");
+    } catch (IOException e) {
+      Assert.assertEquals("Found a row with 6 fields when the schema only contains 5 fields. " +
+                            "Check that the schema contains the right number of fields.", e.getMessage());
+    }
+  }
+
+  private static StructuredRecord parse(String line) throws IOException {
+    byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+    return new DelimitedRecordParser(SCHEMA, ",", true).parse(bytes, bytes.length).build();
+  }
+}
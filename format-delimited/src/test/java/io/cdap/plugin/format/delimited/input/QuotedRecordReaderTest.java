@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.delimited.input;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Tests for {@link QuotedRecordReader}
+ */
+public class QuotedRecordReaderTest {
+  @ClassRule
+  public static final TemporaryFolder TMP_FOLDER = new TemporaryFolder();
+
+  private static final List<String> RECORDS = Arrays.asList(
+    "1,\"a\nb\",c",
+    "2,\"\",\"\"\"quoted\"\"\"",
+    "3,\"x,\r\ny\",\"\"\"\nz\"\"\"",
+    "4,plain,value",
+    "5,\"\"\"\",\"line\n\nbreaks\"",
+    "6,\"end\"");
+
+  @Test
+  public void testReadWithoutSplits() throws IOException {
+    File file = writeFile("\n");
+    Assert.assertEquals(RECORDS, read(file, file.length(), QuotedRecordReader.DEFAULT_LOOK_AHEAD));
+  }
+
+  @Test
+  public void testRecordsReadOnceAcrossSplits() throws IOException {
+    for (String lineSeparator : Arrays.asList("\n", "\r\n")) {
+      File file = writeFile(lineSeparator);
+      for (long splitSize = 1; splitSize <= file.length(); splitSize++) {
+        Assert.assertEquals("Split size " + splitSize, RECORDS,
+                            read(file, splitSize, QuotedRecordReader.DEFAULT_LOOK_AHEAD));
+      }
+    }
+  }
+
+  @Test
+  public void testSmallLookAhead() throws IOException {
+    // if the quote state cannot be inferred within the look ahead, splits must fail instead of returning bad records
+    File file = writeFile("\n");
+    int failures = 0;
+    for (long splitSize = 1; splitSize <= file.length(); splitSize++) {
+      try {
+        Assert.assertEquals("Split size " + splitSize, RECORDS, read(file, splitSize, 4));
+      } catch (IOException e) {
+        failures++;
+      }
+    }
+    Assert.assertTrue(failures > 0);
+  }
+
+  @Test(expected = IOException.class)
+  public void testUnclosedQuoteAcrossSplits() throws IOException {
+    File file = TMP_FOLDER.newFile(UUID.randomUUID() + ".csv");
+    try (FileOutputStream fos = new FileOutputStream(file)) {
+      fos.write("1,\"unclosed\n2,b\n3,c\n4,d\n".getBytes(StandardCharsets.UTF_8));
+    }
+    read(file, 12, QuotedRecordReader.DEFAULT_LOOK_AHEAD);
+  }
+
+  private File writeFile(String lineSeparator) throws IOException {
+    File file = TMP_FOLDER.newFile(UUID.randomUUID() + ".csv");
+    try (FileOutputStream fos = new FileOutputStream(file)) {
+      fos.write((String.join(lineSeparator, RECORDS) + lineSeparator).getBytes(StandardCharsets.UTF_8));
+    }
+    return file;
+  }
+
+  private List<String> read(File file, long splitSize, int lookAhead) throws IOException {
+    TaskAttemptContext context = new TaskAttemptContextImpl(new Configuration(), new TaskAttemptID());
+    Path path = new Path(file.toURI());
+    List<String> records = new ArrayList<>();
+    for (long start = 0; start < file.length(); start += splitSize) {
+      FileSplit split = new FileSplit(path, start, Math.min(splitSize, file.length() - start), new String[0]);
+      try (QuotedRecordReader reader = new QuotedRecordReader(",", lookAhead)) {
+        reader.initialize(split, context);
+        while (reader.nextKeyValue()) {
+          records.add(reader.getCurrentValue().toString());
+        }
+      }
+    }
+    return records;
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.delimited.output;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.format.StructuredRecordStringConverter;
+import org.apache.hadoop.io.NullWritable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for {@link StructuredDelimitedRecordWriter}.
+ */
+public class StructuredDelimitedRecordWriterTest {
+  private static final Schema SCHEMA = Schema.recordOf(
+    "x",
+    Schema.Field.of("id", Schema.of(Schema.Type.LONG)),
+    Schema.Field.of("count", Schema.nullableOf(Schema.of(Schema.Type.INT))),
+    Schema.Field.of("name", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("score", Schema.of(Schema.Type.DOUBLE)),
+    Schema.Field.of("active", Schema.of(Schema.Type.BOOLEAN)),
+    Schema.Field.of("day", Schema.nullableOf(Schema.of(Schema.LogicalType.DATE))));
+
+  private static final List<StructuredRecord> RECORDS = Arrays.asList(
+    StructuredRecord.builder(SCHEMA)
+      .set("id", Long.MIN_VALUE).set("count", 0).set("name", "plain").set("score", 1.5d).set("active", true)
+      .setDate("day", LocalDate.of(2023, 1, 31)).build(),
+    StructuredRecord.builder(SCHEMA)
+      .set("id", Long.MAX_VALUE).set("count", -12).set("name", "a,\"b\"\nc").set("score", -0.25d)
+      .set("active", false).build(),
+    StructuredRecord.builder(SCHEMA)
+      .set("id", 7L).set("name", "é中😀").set("score", 1e20d).set("active", true).build());
+
+  @Test
+  public void testSameAsConverter() throws Exception {
+    StringBuilder expected = new StringBuilder();
+    for (StructuredRecord record : RECORDS) {
+      expected.append(StructuredRecordStringConverter.toDelimitedString(record, ",")).append('\n');
+    }
+    Assert.assertEquals(expected.toString(), write(",", false, false, RECORDS));
+  }
+
+  @Test
+  public void testQuotedValuesAndHeader() throws Exception {
+    String expected = "id,count,name,score,active,day\n"
+      + "-9223372036854775808,0,plain,1.5,true,2023-01-31\n"
+      + "9223372036854775807,-12,\"a,\"\"b\"\"\nc\",-0.25,false,\n"
+      + "7,,é中😀,1.0E20,true,\n";
+    Assert.assertEquals(expected, write(",", true, true, RECORDS));
+
+    // numbers and dates are quoted too if they contain the delimiter
+    Assert.assertEquals("\"-9223372036854775808\"-0-plain-1.5-true-\"2023-01-31\"\n",
+                        write("-", false, true, RECORDS.subList(0, 1)));
+  }
+
+  @Test
+  public void testLargeRecords() throws Exception {
+    char[] chars = new char[100000];
+    Arrays.fill(chars, 'é');
+    String name = new String(chars);
+    Schema schema = Schema.recordOf("x",
+                                    Schema.Field.of("id", Schema.of(Schema.Type.INT)),
+                                    Schema.Field.of("name", Schema.of(Schema.Type.STRING)));
+    List<StructuredRecord> records = new ArrayList<>();
+    StringBuilder expected = new StringBuilder();
+    // the values and the delimiter are larger than the buffer of the writer
+    String delimiter = new String(new char[70000]).replace('\0', '|');
+    for (int i = 0; i < 3; i++) {
+      records.add(StructuredRecord.builder(schema).set("id", i).set("name", name).build());
+      expected.append(i).append(delimiter).append(name).append('\n');
+    }
+    Assert.assertEquals(expected.toString(), write(delimiter, false, false, records));
+  }
+
+  private static String write(String delimiter, boolean writeHeader, boolean quoteValues,
+                              List<StructuredRecord> records) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    StructuredDelimitedRecordWriter writer =
+      new StructuredDelimitedRecordWriter(out, delimiter, writeHeader, quoteValues);
+    for (StructuredRecord record : records) {
+      writer.write(NullWritable.get(), record);
+    }
+    writer.close(null);
+    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+  }
+}
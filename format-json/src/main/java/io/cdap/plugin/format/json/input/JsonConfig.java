@@ -0,0 +1,65 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.json.input;
+
+import com.google.common.base.Strings;
+import io.cdap.cdap.api.annotation.Description;
+import io.cdap.cdap.api.annotation.Macro;
+import io.cdap.cdap.api.plugin.PluginPropertyField;
+import io.cdap.plugin.format.input.PathTrackingConfig;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Config for the json format.
+ */
+public class JsonConfig extends PathTrackingConfig {
+  public static final String NAME_RECORD_DELIMITER = "recordDelimiter";
+  public static final Map<String, PluginPropertyField> JSON_FIELDS;
+
+  private static final String RECORD_DELIMITER_DESC =
+    "Delimiter between JSON records. By default, each line is a JSON object. When set, the text between delimiters "
+      + "can contain several JSON objects spanning multiple lines, which can be wrapped in JSON arrays. "
+      + "Files are split on the delimiter, which must not occur inside of records. "
+      + "The escape sequences \\n, \\r and \\t can be used.";
+
+  static {
+    Map<String, PluginPropertyField> fields = new HashMap<>(FIELDS);
+    fields.put(NAME_RECORD_DELIMITER,
+               new PluginPropertyField(NAME_RECORD_DELIMITER, RECORD_DELIMITER_DESC, "string", false, true));
+    JSON_FIELDS = Collections.unmodifiableMap(fields);
+  }
+
+  @Macro
+  @Nullable
+  @Description(RECORD_DELIMITER_DESC)
+  private String recordDelimiter;
+
+  /**
+   * @return the record delimiter with its escape sequences replaced, or null if records are lines
+   */
+  @Nullable
+  public String getRecordDelimiter() {
+    if (Strings.isNullOrEmpty(recordDelimiter)) {
+      return null;
+    }
+    return recordDelimiter.replace("\\n", "\n").replace("\\r", "\r").replace("\\t", "\t");
+  }
+}
@@ -27,20 +27,22 @@ import io.cdap.cdap.etl.api.validation.ValidatingInputFormat;
 import io.cdap.plugin.format.input.PathTrackingConfig;
 import io.cdap.plugin.format.input.PathTrackingInputFormatProvider;
 
+import java.util.Map;
+
 /**
  * Reads json into StructuredRecords.
  */
 @Plugin(type = ValidatingInputFormat.PLUGIN_TYPE)
 @Name(JsonInputFormatProvider.NAME)
 @Description(JsonInputFormatProvider.DESC)
-public class JsonInputFormatProvider extends PathTrackingInputFormatProvider<PathTrackingConfig> {
+public class JsonInputFormatProvider extends PathTrackingInputFormatProvider<JsonConfig> {
   static final String NAME = "json";
   static final String DESC = "Plugin for reading files in json format.";
   public static final PluginClass PLUGIN_CLASS =
     new PluginClass(ValidatingInputFormat.PLUGIN_TYPE, NAME, DESC, JsonInputFormatProvider.class.getName(),
-                    "conf", PathTrackingConfig.FIELDS);
+                    "conf", JsonConfig.JSON_FIELDS);
 
-  public JsonInputFormatProvider(PathTrackingConfig conf) {
+  public JsonInputFormatProvider(JsonConfig conf) {
     super(conf);
   }
 
@@ -49,6 +51,14 @@ public class JsonInputFormatProvider extends PathTrackingInputFormatProvider<Pat
     return CombineJsonInputFormat.class.getName();
   }
 
+  @Override
+  protected void addFormatProperties(Map<String, String> properties) {
+    String recordDelimiter = conf.getRecordDelimiter();
+    if (recordDelimiter != null) {
+      properties.put(PathTrackingJsonInputFormat.RECORD_DELIMITER, recordDelimiter);
+    }
+  }
+
   @Override
   protected void validate() {
     if (!conf.containsMacro(PathTrackingConfig.NAME_SCHEMA) && conf.getSchema() == null) {
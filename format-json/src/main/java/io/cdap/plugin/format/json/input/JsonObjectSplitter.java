@@ -0,0 +1,84 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.json.input;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Splits text read between two record delimiters into the JSON objects it contains.
+ *
+ * The text can contain any number of JSON objects, which can span multiple lines. Brackets and commas between the
+ * objects are ignored, so that the objects of a JSON array are split into separate objects, even when the array
+ * itself spans several delimiters.
+ */
+final class JsonObjectSplitter {
+
+  private JsonObjectSplitter() {
+    // no-op
+  }
+
+  /**
+   * Adds the JSON objects of the given text to a list.
+   *
+   * @throws IOException if the text contains something other than JSON objects, or an object that is not complete
+   */
+  static void split(String text, List<String> objects) throws IOException {
+    int length = text.length();
+    int index = 0;
+    while (index < length) {
+      char c = text.charAt(index);
+      if (c == '{') {
+        int end = findObjectEnd(text, index);
+        objects.add(text.substring(index, end));
+        index = end;
+      } else if (c == '[' || c == ']' || c == ',' || Character.isWhitespace(c)) {
+        index++;
+      } else {
+        throw new IOException(String.format("Unexpected character '%c' at position %d. JSON records must be objects.",
+                                            c, index));
+      }
+    }
+  }
+
+  /**
+   * Returns the index after the end of the object starting at the given index.
+   */
+  private static int findObjectEnd(String text, int start) throws IOException {
+    int depth = 0;
+    boolean inString = false;
+    for (int index = start; index < text.length(); index++) {
+      char c = text.charAt(index);
+      if (inString) {
+        if (c == '\\') {
+          index++;
+        } else if (c == '"') {
+          inString = false;
+        }
+      } else if (c == '"') {
+        inString = true;
+      } else if (c == '{' || c == '[') {
+        depth++;
+      } else if ((c == '}' || c == ']') && --depth == 0) {
+        return index + 1;
+      }
+    }
+    throw new IOException(String.format("JSON object starting at position %d is not complete. "
+                                          + "Check that the record delimiter does not occur inside of records.",
+                                        start));
+  }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.json.input;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.format.StructuredRecordStringConverter;
+import io.cdap.plugin.common.SchemaValidator;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Decodes JSON objects into records of a schema in a single pass, using readers compiled from the schema.
+ *
+ * Properties that are not in the schema are skipped without being decoded, and datetime values are validated as they
+ * are read. Values are read like {@link StructuredRecordStringConverter#fromJsonString(String, Schema)} reads them.
+ * Schemas with types that are not compiled, such as enums, bytes, unions other than nullable types and logical types
+ * other than datetime, and objects that cannot be read by the compiled readers are decoded with
+ * {@link StructuredRecordStringConverter}, so that they give the same records and errors as before.
+ */
+final class JsonRecordDecoder {
+  private final Schema schema;
+  private final Schema modifiedSchema;
+  @Nullable
+  private final RecordValueReader recordReader;
+
+  /**
+   * Reads a JSON value.
+   */
+  private interface ValueReader {
+    Object read(JsonReader reader) throws IOException;
+  }
+
+  /**
+   * @param schema the schema of the records
+   * @param pathField the field that is set to the path of the file after decoding, which can be missing from
+   *                  the JSON objects even if it is not nullable
+   */
+  JsonRecordDecoder(Schema schema, @Nullable String pathField) {
+    this.schema = schema;
+    this.modifiedSchema = getModifiedSchema(schema, pathField);
+    this.recordReader = compileRecord(schema, pathField, new HashSet<>());
+  }
+
+  /**
+   * Decodes a JSON object into a record builder, on which only the path field may not be set.
+   */
+  StructuredRecord.Builder decode(String json) throws IOException {
+    if (recordReader != null) {
+      JsonReader reader = new JsonReader(new StringReader(json));
+      try {
+        StructuredRecord.Builder builder = StructuredRecord.builder(schema);
+        if (recordReader.readFields(reader, builder) && reader.peek() == JsonToken.END_DOCUMENT) {
+          return builder;
+        }
+      } catch (IOException | RuntimeException e) {
+        // decode it again below, to fail with the same error as the converter
+      }
+    }
+    return decodeWithConverter(json);
+  }
+
+  private StructuredRecord.Builder decodeWithConverter(String json) throws IOException {
+    StructuredRecord record = StructuredRecordStringConverter.fromJsonString(json, modifiedSchema);
+    StructuredRecord.Builder builder = StructuredRecord.builder(schema);
+    for (Schema.Field field : schema.getFields()) {
+      Object value = record.get(field.getName());
+      if (value != null) {
+        SchemaValidator.validateDateTimeField(field.getSchema(), field.getName(), value);
+      }
+      builder.set(field.getName(), value);
+    }
+    return builder;
+  }
+
+  private static Schema getModifiedSchema(Schema schema, @Nullable String pathField) {
+    // if the path field is set, it might not be nullable
+    // if it's not nullable, decoding a string into a StructuredRecord will fail because a non-nullable
+    // field will have a null value.
+    // so in these cases, a modified schema is used where the path field is nullable
+    if (pathField == null) {
+      return schema;
+    }
+    List<Schema.Field> fieldCopies = new ArrayList<>(schema.getFields().size());
+    for (Schema.Field field : schema.getFields()) {
+      if (field.getName().equals(pathField) && !field.getSchema().isNullable()) {
+        fieldCopies.add(Schema.Field.of(field.getName(), Schema.nullableOf(field.getSchema())));
+      } else {
+        fieldCopies.add(field);
+      }
+    }
+    return Schema.recordOf(schema.getRecordName(), fieldCopies);
+  }
+
+  /**
+   * Compiles a reader for the given schema, or returns null if values of the schema are decoded with the converter.
+   *
+   * @param fieldName the name of the record field the values belong to, for datetime validation errors
+   * @param records the names of the records being compiled, as recursive records are decoded with the converter
+   */
+  @Nullable
+  private static ValueReader compile(Schema schema, String fieldName, Set<String> records) {
+    Schema.LogicalType logicalType = schema.getLogicalType();
+    if (logicalType != null) {
+      if (logicalType != Schema.LogicalType.DATETIME) {
+        return null;
+      }
+      return reader -> {
+        String value = expect(reader, JsonToken.STRING).nextString();
+        SchemaValidator.validateDateTimeField(schema, fieldName, value);
+        return value;
+      };
+    }
+    switch (schema.getType()) {
+      case NULL:
+        return reader -> {
+          reader.nextNull();
+          return null;
+        };
+      case BOOLEAN:
+        return reader -> expect(reader, JsonToken.BOOLEAN).nextBoolean();
+      case INT:
+        return reader -> expect(reader, JsonToken.NUMBER).nextInt();
+      case LONG:
+        return reader -> expect(reader, JsonToken.NUMBER).nextLong();
+      case FLOAT:
+        return reader -> (float) expect(reader, JsonToken.NUMBER).nextDouble();
+      case DOUBLE:
+        return reader -> expect(reader, JsonToken.NUMBER).nextDouble();
+      case STRING:
+        return reader -> expect(reader, JsonToken.STRING).nextString();
+      case ARRAY:
+        return compileArray(schema.getComponentSchema(), fieldName, records);
+      case MAP:
+        return compileMap(schema.getMapSchema(), fieldName, records);
+      case RECORD:
+        RecordValueReader recordReader = compileRecord(schema, null, records);
+        return recordReader == null ? null : recordReader::read;
+      case UNION:
+        return compileNullable(schema, fieldName, records);
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Checks the type of the next value, so that values the converter may read differently, such as numbers in
+   * strings, are decoded with the converter.
+   */
+  private static JsonReader expect(JsonReader reader, JsonToken token) throws IOException {
+    if (reader.peek() != token) {
+      throw new IllegalStateException(String.format("Expected %s but was %s.", token, reader.peek()));
+    }
+    return reader;
+  }
+
+  @Nullable
+  private static ValueReader compileArray(Schema componentSchema, String fieldName, Set<String> records) {
+    ValueReader componentReader = compile(componentSchema, fieldName, records);
+    if (componentReader == null) {
+      return null;
+    }
+    return reader -> {
+      List<Object> values = new ArrayList<>();
+      reader.beginArray();
+      while (reader.hasNext()) {
+        values.add(componentReader.read(reader));
+      }
+      reader.endArray();
+      return values;
+    };
+  }
+
+  @Nullable
+  private static ValueReader compileMap(Map.Entry<Schema, Schema> mapSchema, String fieldName, Set<String> records) {
+    Schema keySchema = mapSchema.getKey();
+    ValueReader valueReader = compile(mapSchema.getValue(), fieldName, records);
+    if (keySchema.getType() != Schema.Type.STRING || keySchema.getLogicalType() != null || valueReader == null) {
+      return null;
+    }
+    return reader -> {
+      Map<String, Object> values = new HashMap<>();
+      reader.beginObject();
+      while (reader.hasNext()) {
+        values.put(reader.nextName(), valueReader.read(reader));
+      }
+      reader.endObject();
+      return values;
+    };
+  }
+
+  @Nullable
+  private static ValueReader compileNullable(Schema schema, String fieldName, Set<String> records) {
+    List<Schema> unionSchemas = schema.getUnionSchemas();
+    if (unionSchemas.size() != 2 || !schema.isNullable()) {
+      return null;
+    }
+    ValueReader valueReader = compile(schema.getNonNullable(), fieldName, records);
+    if (valueReader == null) {
+      return null;
+    }
+    return reader -> {
+      if (reader.peek() == JsonToken.NULL) {
+        reader.nextNull();
+        return null;
+      }
+      return valueReader.read(reader);
+    };
+  }
+
+  @Nullable
+  private static RecordValueReader compileRecord(Schema schema, @Nullable String pathField, Set<String> records) {
+    if (!records.add(schema.getRecordName())) {
+      return null;
+    }
+    List<Schema.Field> fields = schema.getFields();
+    ValueReader[] fieldReaders = new ValueReader[fields.size()];
+    for (int i = 0; i < fieldReaders.length; i++) {
+      Schema.Field field = fields.get(i);
+      fieldReaders[i] = compile(field.getSchema(), field.getName(), records);
+      if (fieldReaders[i] == null) {
+        return null;
+      }
+    }
+    records.remove(schema.getRecordName());
+    return new RecordValueReader(schema, pathField, fieldReaders);
+  }
+
+  /**
+   * Reads JSON objects into records, skipping the properties that are not fields of the record.
+   */
+  private static final class RecordValueReader {
+    private final Schema schema;
+    private final Map<String, Integer> fieldIndexes;
+    private final String[] fieldNames;
+    private final ValueReader[] fieldReaders;
+    private final boolean[] required;
+    // records are not recursive, so that the same record is never read inside itself
+    private final boolean[] found;
+
+    RecordValueReader(Schema schema, @Nullable String pathField, ValueReader[] fieldReaders) {
+      List<Schema.Field> fields = schema.getFields();
+      this.schema = schema;
+      this.fieldIndexes = new HashMap<>();
+      this.fieldNames = new String[fields.size()];
+      this.fieldReaders = fieldReaders;
+      this.required = new boolean[fields.size()];
+      this.found = new boolean[fields.size()];
+      for (int i = 0; i < fieldNames.length; i++) {
+        Schema.Field field = fields.get(i);
+        fieldIndexes.put(field.getName(), i);
+        fieldNames[i] = field.getName();
+        required[i] = !field.getSchema().isNullable() && !field.getName().equals(pathField);
+      }
+    }
+
+    StructuredRecord read(JsonReader reader) throws IOException {
+      StructuredRecord.Builder builder = StructuredRecord.builder(schema);
+      readFields(reader, builder);
+      return builder.build();
+    }
+
+    /**
+     * Reads the fields of a JSON object into a builder.
+     *
+     * @return whether all the required fields were set
+     */
+    boolean readFields(JsonReader reader, StructuredRecord.Builder builder) throws IOException {
+      Arrays.fill(found, false);
+      reader.beginObject();
+      while (reader.hasNext()) {
+        Integer index = fieldIndexes.get(reader.nextName());
+        if (index == null) {
+          reader.skipValue();
+          continue;
+        }
+        builder.set(fieldNames[index], fieldReaders[index].read(reader));
+        found[index] = true;
+      }
+      reader.endObject();
+      for (int i = 0; i < found.length; i++) {
+        if (required[i] && !found[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -18,8 +18,6 @@ package io.cdap.plugin.format.json.input;
 
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
-import io.cdap.cdap.format.StructuredRecordStringConverter;
-import io.cdap.plugin.common.SchemaValidator;
 import io.cdap.plugin.format.input.PathTrackingInputFormat;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.NullWritable;
@@ -38,27 +36,11 @@ import javax.annotation.Nullable;
  * Json format that tracks which file each record was read from.
  */
 public class PathTrackingJsonInputFormat extends PathTrackingInputFormat {
-
-
-  private Schema getModifiedSchema(Schema schema, @Nullable String pathField) {
-    // if the path field is set, it might not be nullable
-    // if it's not nullable, decoding a string into a StructuredRecord will fail because a non-nullable
-    // field will have a null value.
-    // so in these cases, a modified schema is used where the path field is nullable
-    if (pathField == null) {
-      return schema;
-    }
-    List<Schema.Field> fieldCopies = new ArrayList<>(schema.getFields().size());
-    for (Schema.Field field : schema.getFields()) {
-      if (field.getName().equals(pathField) && !field.getSchema().isNullable()) {
-        fieldCopies.add(Schema.Field.of(field.getName(), Schema.nullableOf(field.getSchema())));
-      } else {
-        fieldCopies.add(field);
-      }
-    }
-    return Schema.recordOf(schema.getRecordName(), fieldCopies);
-  }
-
+  /**
+   * The delimiter between records, used by the line record readers. When it is set, the text between two delimiters
+   * is split into the JSON objects it contains.
+   */
+  static final String RECORD_DELIMITER = "textinputformat.record.delimiter";
 
   @Override
   protected RecordReader<NullWritable, StructuredRecord.Builder> createRecordReader(FileSplit split,
@@ -69,9 +51,12 @@ public class PathTrackingJsonInputFormat extends PathTrackingInputFormat {
     if (schema == null) {
       throw new IllegalStateException("The file you have selected requires a schema to be parsed.");
     }
-    Schema modifiedSchema = getModifiedSchema(schema, pathField);
+    JsonRecordDecoder decoder = new JsonRecordDecoder(schema, pathField);
+    boolean splitObjects = context.getConfiguration().get(RECORD_DELIMITER) != null;
 
     return new RecordReader<NullWritable, StructuredRecord.Builder>() {
+      private final List<String> objects = new ArrayList<>();
+      private int objectIndex;
 
       @Override
       public void initialize(InputSplit split, TaskAttemptContext context) throws IOException, InterruptedException {
@@ -80,7 +65,19 @@ public class PathTrackingJsonInputFormat extends PathTrackingInputFormat {
 
       @Override
       public boolean nextKeyValue() throws IOException, InterruptedException {
-        return delegate.nextKeyValue();
+        if (!splitObjects) {
+          return delegate.nextKeyValue();
+        }
+        objectIndex++;
+        while (objectIndex >= objects.size()) {
+          if (!delegate.nextKeyValue()) {
+            return false;
+          }
+          objects.clear();
+          objectIndex = 0;
+          JsonObjectSplitter.split(delegate.getCurrentValue().toString(), objects);
+        }
+        return true;
       }
 
       @Override
@@ -90,15 +87,8 @@ public class PathTrackingJsonInputFormat extends PathTrackingInputFormat {
 
       @Override
       public StructuredRecord.Builder getCurrentValue() throws IOException, InterruptedException {
-        String json = delegate.getCurrentValue().toString();
-        StructuredRecord record = StructuredRecordStringConverter.fromJsonString(json, modifiedSchema);
-        StructuredRecord.Builder builder = StructuredRecord.builder(schema);
-        for (Schema.Field field : schema.getFields()) {
-          Object value = record.get(field.getName());
-          SchemaValidator.validateDateTimeField(field.getSchema(), field.getName(), value);
-          builder.set(field.getName(), value);
-        }
-        return builder;
+        String json = splitObjects ? objects.get(objectIndex) : delegate.getCurrentValue().toString();
+        return decoder.decode(json);
       }
 
       @Override
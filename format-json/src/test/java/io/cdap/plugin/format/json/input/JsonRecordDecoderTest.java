@@ -0,0 +1,134 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.json.input;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.format.UnexpectedFormatException;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.format.StructuredRecordStringConverter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for {@link JsonRecordDecoder} and {@link JsonObjectSplitter}.
+ */
+public class JsonRecordDecoderTest {
+  private static final Schema INNER_SCHEMA = Schema.recordOf(
+    "inner",
+    Schema.Field.of("name", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("created", Schema.nullableOf(Schema.of(Schema.LogicalType.DATETIME))));
+  private static final Schema SCHEMA = Schema.recordOf(
+    "record",
+    Schema.Field.of("id", Schema.of(Schema.Type.LONG)),
+    Schema.Field.of("count", Schema.nullableOf(Schema.of(Schema.Type.INT))),
+    Schema.Field.of("price", Schema.of(Schema.Type.DOUBLE)),
+    Schema.Field.of("ratio", Schema.nullableOf(Schema.of(Schema.Type.FLOAT))),
+    Schema.Field.of("valid", Schema.of(Schema.Type.BOOLEAN)),
+    Schema.Field.of("tags", Schema.nullableOf(Schema.arrayOf(Schema.of(Schema.Type.STRING)))),
+    Schema.Field.of("attributes", Schema.nullableOf(Schema.mapOf(Schema.of(Schema.Type.STRING),
+                                                                 Schema.of(Schema.Type.LONG)))),
+    Schema.Field.of("inner", Schema.nullableOf(INNER_SCHEMA)),
+    Schema.Field.of("path", Schema.of(Schema.Type.STRING)));
+
+  @Test
+  public void testDecode() throws Exception {
+    JsonRecordDecoder decoder = new JsonRecordDecoder(SCHEMA, "path");
+    String json = "{\"unknown\":{\"a\":[1,{\"b\":null}]},\"id\":10000000000,\"count\":5,\"price\":2.5,\"ratio\":0.5,"
+      + "\"valid\":true,\"tags\":[\"a\",\"b\"],\"attributes\":{\"x\":1},"
+      + "\"inner\":{\"name\":\"n\",\"created\":\"2023-01-02T03:04:05\",\"other\":\"o\"}}";
+    StructuredRecord record = decoder.decode(json).set("path", "file").build();
+
+    StructuredRecord expected = StructuredRecord.builder(SCHEMA)
+      .set("id", 10000000000L)
+      .set("count", 5)
+      .set("price", 2.5d)
+      .set("ratio", 0.5f)
+      .set("valid", true)
+      .set("tags", ImmutableList.of("a", "b"))
+      .set("attributes", ImmutableMap.of("x", 1L))
+      .set("inner", StructuredRecord.builder(INNER_SCHEMA).set("name", "n").set("created", "2023-01-02T03:04:05")
+        .build())
+      .set("path", "file")
+      .build();
+    Assert.assertEquals(expected, record);
+  }
+
+  @Test
+  public void testNullsAndMissingFields() throws Exception {
+    JsonRecordDecoder decoder = new JsonRecordDecoder(SCHEMA, "path");
+    StructuredRecord record = decoder.decode("{\"id\":1,\"count\":null,\"price\":1,\"valid\":false,"
+                                               + "\"inner\":{\"name\":\"n\",\"created\":null}}")
+      .set("path", "file").build();
+    Assert.assertEquals(1L, (long) record.<Long>get("id"));
+    Assert.assertNull(record.get("count"));
+    Assert.assertEquals(1d, record.<Double>get("price"), 0d);
+    Assert.assertNull(record.get("tags"));
+    Assert.assertNull(record.<StructuredRecord>get("inner").get("created"));
+  }
+
+  @Test
+  public void testSameAsConverter() throws Exception {
+    Schema schema = Schema.recordOf(
+      "record",
+      Schema.Field.of("id", Schema.of(Schema.Type.LONG)),
+      Schema.Field.of("tags", Schema.arrayOf(Schema.nullableOf(Schema.of(Schema.Type.DOUBLE)))),
+      Schema.Field.of("inner", Schema.nullableOf(INNER_SCHEMA)));
+    JsonRecordDecoder decoder = new JsonRecordDecoder(schema, null);
+    for (String json : Arrays.asList("{\"id\":1,\"tags\":[1.5,null,2]}",
+                                     "{\"tags\":[],\"id\":-3,\"inner\":{\"name\":\"\\u00e9\\n\"}}  ")) {
+      Assert.assertEquals(StructuredRecordStringConverter.fromJsonString(json, schema), decoder.decode(json).build());
+    }
+  }
+
+  @Test
+  public void testInvalidDatetime() throws Exception {
+    JsonRecordDecoder decoder = new JsonRecordDecoder(INNER_SCHEMA, null);
+    try {
+      decoder.decode("{\"name\":\"n\",\"created\":\"2023-01-02 03:04\"}");
+      Assert.fail("Invalid datetime was decoded.");
+    } catch (UnexpectedFormatException e) {
+      Assert.assertEquals("Datetime field 'created' with value '2023-01-02 03:04' is not in ISO-8601 format.",
+                          e.getMessage());
+    }
+  }
+
+  @Test
+  public void testSplitObjects() throws Exception {
+    List<String> objects = new ArrayList<>();
+    JsonObjectSplitter.split("[\n  {\"a\": \"}{\\\"\",\n   \"b\": [1, {}]},\n  {\"a\": \"x\"}\n]", objects);
+    JsonObjectSplitter.split("{\"a\": 1}{\"a\": 2},", objects);
+    JsonObjectSplitter.split("  ", objects);
+    Assert.assertEquals(Arrays.asList("{\"a\": \"}{\\\"\",\n   \"b\": [1, {}]}", "{\"a\": \"x\"}", "{\"a\": 1}",
+                                      "{\"a\": 2}"), objects);
+  }
+
+  @Test(expected = java.io.IOException.class)
+  public void testSplitIncompleteObject() throws Exception {
+    JsonObjectSplitter.split("{\"a\": {\"b\": 1}", new ArrayList<>());
+  }
+
+  @Test(expected = java.io.IOException.class)
+  public void testSplitNonObject() throws Exception {
+    JsonObjectSplitter.split("[1, 2]", new ArrayList<>());
+  }
+}
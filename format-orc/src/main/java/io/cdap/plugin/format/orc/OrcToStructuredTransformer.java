@@ -0,0 +1,399 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.orc;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ListColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.MapColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.StructColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.TimestampColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.orc.TypeDescription;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Reads the rows of ORC {@link VectorizedRowBatch}es into StructuredRecords, using converters compiled from the ORC
+ * schema of the file and the schema of the records, so that the type of each column is only looked at once per file.
+ *
+ * Only the columns of the file that are fields of the schema are read. Fields of the schema that are not in the file
+ * must be nullable, and are left empty.
+ */
+public class OrcToStructuredTransformer {
+  private final Schema schema;
+  private final TypeDescription fileSchema;
+  private final String[] fieldNames;
+  private final Map<String, String> fileColumns;
+  // index of the file column of each field of the schema, or -1 if the field is not read from the file
+  private final int[] columns;
+  private final ValueConverter[] converters;
+
+  /**
+   * Converts the value of a row of a column vector.
+   */
+  private interface ValueConverter {
+    Object convert(ColumnVector vector, int row);
+  }
+
+  /**
+   * @param fileSchema the ORC schema of the file, which must be a struct
+   * @param schema the schema of the records
+   * @param pathField the field of the schema that is set to the path of the file, which is not read from the file
+   * @throws IllegalArgumentException if a field of the schema cannot be read from the file
+   */
+  public OrcToStructuredTransformer(TypeDescription fileSchema, Schema schema, @Nullable String pathField) {
+    if (fileSchema.getCategory() != TypeDescription.Category.STRUCT) {
+      throw new IllegalArgumentException(
+        String.format("ORC files with a schema of type '%s' are not supported. The schema must be a struct.",
+                      fileSchema));
+    }
+    List<Schema.Field> fields = schema.getFields();
+    this.schema = schema;
+    this.fileSchema = fileSchema;
+    this.fieldNames = new String[fields.size()];
+    this.fileColumns = new HashMap<>();
+    this.columns = new int[fields.size()];
+    this.converters = new ValueConverter[fields.size()];
+    for (int i = 0; i < fields.size(); i++) {
+      Schema.Field field = fields.get(i);
+      fieldNames[i] = field.getName();
+      columns[i] = field.getName().equals(pathField) ? -1 : findColumn(fileSchema, field.getName());
+      if (columns[i] < 0) {
+        if (!field.getSchema().isNullable() && !field.getName().equals(pathField)) {
+          throw new IllegalArgumentException(
+            String.format("Field '%s' is not in the ORC file and is not nullable.", field.getName()));
+        }
+        continue;
+      }
+      fileColumns.put(field.getName(), fileSchema.getFieldNames().get(columns[i]));
+      converters[i] = compile(fileSchema.getChildren().get(columns[i]), field.getSchema(), field.getName());
+    }
+  }
+
+  /**
+   * Returns which columns of the file are read, indexed by column id, to only read those columns from the file.
+   */
+  public boolean[] getIncludedColumns() {
+    boolean[] included = new boolean[fileSchema.getMaximumId() + 1];
+    included[fileSchema.getId()] = true;
+    for (int column : columns) {
+      if (column >= 0) {
+        TypeDescription columnType = fileSchema.getChildren().get(column);
+        Arrays.fill(included, columnType.getId(), columnType.getMaximumId() + 1, true);
+      }
+    }
+    return included;
+  }
+
+  /**
+   * Returns the name of the file column a field of the schema is read from, or null if it is not read from the file.
+   */
+  @Nullable
+  public String getFileColumn(String fieldName) {
+    return fileColumns.get(fieldName);
+  }
+
+  /**
+   * Reads the values of the fields of a row of a batch, in the order of the fields of the schema.
+   * The values of the fields that are not read from the file are null.
+   */
+  public void read(VectorizedRowBatch batch, int row, Object[] values) {
+    for (int i = 0; i < columns.length; i++) {
+      values[i] = columns[i] < 0 ? null : converters[i].convert(batch.cols[columns[i]], row);
+    }
+  }
+
+  /**
+   * Returns a record builder with the values of the fields read by {@link #read(VectorizedRowBatch, int, Object[])}.
+   */
+  public StructuredRecord.Builder toBuilder(Object[] values) {
+    StructuredRecord.Builder builder = StructuredRecord.builder(schema);
+    for (int i = 0; i < fieldNames.length; i++) {
+      if (values[i] != null) {
+        builder.set(fieldNames[i], values[i]);
+      }
+    }
+    return builder;
+  }
+
+  /**
+   * Converts the ORC schema of a file into the schema of its records, in which every field is nullable.
+   *
+   * @throws IllegalArgumentException if the schema contains unions, or is not a struct
+   */
+  public static Schema convertSchema(TypeDescription fileSchema) {
+    if (fileSchema.getCategory() != TypeDescription.Category.STRUCT) {
+      throw new IllegalArgumentException(
+        String.format("ORC files with a schema of type '%s' are not supported. The schema must be a struct.",
+                      fileSchema));
+    }
+    return convertSchema(fileSchema, new int[1]);
+  }
+
+  /**
+   * @param recordCount the number of records converted so far, to give each record a unique name
+   */
+  private static Schema convertSchema(TypeDescription type, int[] recordCount) {
+    switch (type.getCategory()) {
+      case BOOLEAN:
+        return Schema.of(Schema.Type.BOOLEAN);
+      case BYTE:
+      case SHORT:
+      case INT:
+        return Schema.of(Schema.Type.INT);
+      case LONG:
+        return Schema.of(Schema.Type.LONG);
+      case FLOAT:
+        return Schema.of(Schema.Type.FLOAT);
+      case DOUBLE:
+        return Schema.of(Schema.Type.DOUBLE);
+      case STRING:
+      case VARCHAR:
+      case CHAR:
+        return Schema.of(Schema.Type.STRING);
+      case BINARY:
+        return Schema.of(Schema.Type.BYTES);
+      case DATE:
+        return Schema.of(Schema.LogicalType.DATE);
+      case TIMESTAMP:
+        return Schema.of(Schema.LogicalType.TIMESTAMP_MICROS);
+      case DECIMAL:
+        return Schema.decimalOf(type.getPrecision(), type.getScale());
+      case LIST:
+        return Schema.arrayOf(Schema.nullableOf(convertSchema(type.getChildren().get(0), recordCount)));
+      case MAP:
+        return Schema.mapOf(convertSchema(type.getChildren().get(0), recordCount),
+                            Schema.nullableOf(convertSchema(type.getChildren().get(1), recordCount)));
+      case STRUCT:
+        String name = recordCount[0] == 0 ? "record" : "record" + recordCount[0];
+        recordCount[0]++;
+        List<Schema.Field> fields = new ArrayList<>();
+        for (int i = 0; i < type.getFieldNames().size(); i++) {
+          fields.add(Schema.Field.of(type.getFieldNames().get(i),
+                                     Schema.nullableOf(convertSchema(type.getChildren().get(i), recordCount))));
+        }
+        return Schema.recordOf(name, fields);
+      default:
+        throw new IllegalArgumentException(String.format("ORC columns of type '%s' are not supported.", type));
+    }
+  }
+
+  /**
+   * Returns the index of the field of a struct with the given name, ignoring case if no field has the exact name,
+   * as Hive lowercases the names of columns. Returns -1 if the struct has no such field.
+   */
+  private static int findColumn(TypeDescription struct, String name) {
+    List<String> names = struct.getFieldNames();
+    int index = names.indexOf(name);
+    for (int i = 0; i < names.size() && index < 0; i++) {
+      if (names.get(i).equalsIgnoreCase(name)) {
+        index = i;
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Compiles a converter of the values of a column of the given type into values of the given schema,
+   * which handles nulls and repeating vectors.
+   */
+  private static ValueConverter compile(TypeDescription type, Schema schema, String fieldName) {
+    ValueConverter converter = compileNonNull(type, schema.isNullable() ? schema.getNonNullable() : schema,
+                                              fieldName);
+    return (vector, row) -> {
+      int index = vector.isRepeating ? 0 : row;
+      if (!vector.noNulls && vector.isNull[index]) {
+        return null;
+      }
+      return converter.convert(vector, index);
+    };
+  }
+
+  private static ValueConverter compileNonNull(TypeDescription type, Schema schema, String fieldName) {
+    Schema.LogicalType logicalType = schema.getLogicalType();
+    Schema.Type schemaType = logicalType == null ? schema.getType() : null;
+    switch (type.getCategory()) {
+      case BOOLEAN:
+        if (schemaType == Schema.Type.BOOLEAN) {
+          return (vector, row) -> ((LongColumnVector) vector).vector[row] != 0;
+        }
+        break;
+      case BYTE:
+      case SHORT:
+      case INT:
+      case LONG:
+        // logical types are written as their physical type by the orc output format
+        if (schema.getType() == Schema.Type.INT) {
+          return (vector, row) -> (int) ((LongColumnVector) vector).vector[row];
+        }
+        if (schema.getType() == Schema.Type.LONG) {
+          return (vector, row) -> ((LongColumnVector) vector).vector[row];
+        }
+        break;
+      case FLOAT:
+      case DOUBLE:
+        if (schemaType == Schema.Type.FLOAT) {
+          return (vector, row) -> (float) ((DoubleColumnVector) vector).vector[row];
+        }
+        if (schemaType == Schema.Type.DOUBLE) {
+          return (vector, row) -> ((DoubleColumnVector) vector).vector[row];
+        }
+        break;
+      case STRING:
+      case VARCHAR:
+      case CHAR:
+        if (schemaType == Schema.Type.STRING) {
+          return (vector, row) -> {
+            BytesColumnVector bytesVector = (BytesColumnVector) vector;
+            return new String(bytesVector.vector[row], bytesVector.start[row], bytesVector.length[row],
+                              StandardCharsets.UTF_8);
+          };
+        }
+        break;
+      case BINARY:
+        if (schema.getType() == Schema.Type.BYTES) {
+          return (vector, row) -> {
+            BytesColumnVector bytesVector = (BytesColumnVector) vector;
+            int start = bytesVector.start[row];
+            return Arrays.copyOfRange(bytesVector.vector[row], start, start + bytesVector.length[row]);
+          };
+        }
+        break;
+      case DATE:
+        if (logicalType == Schema.LogicalType.DATE) {
+          return (vector, row) -> (int) ((LongColumnVector) vector).vector[row];
+        }
+        break;
+      case TIMESTAMP:
+        if (logicalType == Schema.LogicalType.TIMESTAMP_MICROS) {
+          return (vector, row) -> {
+            TimestampColumnVector timestampVector = (TimestampColumnVector) vector;
+            // the milliseconds are both in the time and in the nanos of the timestamp
+            return Math.floorDiv(timestampVector.time[row], 1000L) * 1000000L + timestampVector.nanos[row] / 1000;
+          };
+        }
+        if (logicalType == Schema.LogicalType.TIMESTAMP_MILLIS) {
+          return (vector, row) -> ((TimestampColumnVector) vector).time[row];
+        }
+        break;
+      case DECIMAL:
+        if (logicalType == Schema.LogicalType.DECIMAL) {
+          int scale = schema.getScale();
+          return (vector, row) -> {
+            BigDecimal decimal = ((DecimalColumnVector) vector).vector[row].getHiveDecimal().bigDecimalValue();
+            return decimal.setScale(scale).unscaledValue().toByteArray();
+          };
+        }
+        break;
+      case LIST:
+        if (schemaType == Schema.Type.ARRAY) {
+          return compileList(type.getChildren().get(0), schema.getComponentSchema(), fieldName);
+        }
+        break;
+      case MAP:
+        if (schemaType == Schema.Type.MAP) {
+          return compileMap(type, schema.getMapSchema(), fieldName);
+        }
+        break;
+      case STRUCT:
+        if (schemaType == Schema.Type.RECORD) {
+          return compileStruct(type, schema);
+        }
+        break;
+      default:
+        break;
+    }
+    throw new IllegalArgumentException(
+      String.format("Field '%s' of type '%s' cannot be read from an ORC column of type '%s'.",
+                    fieldName, schema.getDisplayName(), type));
+  }
+
+  private static ValueConverter compileList(TypeDescription elementType, Schema componentSchema, String fieldName) {
+    ValueConverter elementConverter = compile(elementType, componentSchema, fieldName);
+    return (vector, row) -> {
+      ListColumnVector listVector = (ListColumnVector) vector;
+      int offset = (int) listVector.offsets[row];
+      int length = (int) listVector.lengths[row];
+      List<Object> values = new ArrayList<>(length);
+      for (int i = offset; i < offset + length; i++) {
+        values.add(elementConverter.convert(listVector.child, i));
+      }
+      return values;
+    };
+  }
+
+  private static ValueConverter compileMap(TypeDescription type, Map.Entry<Schema, Schema> mapSchema,
+                                           String fieldName) {
+    ValueConverter keyConverter = compile(type.getChildren().get(0), mapSchema.getKey(), fieldName);
+    ValueConverter valueConverter = compile(type.getChildren().get(1), mapSchema.getValue(), fieldName);
+    return (vector, row) -> {
+      MapColumnVector mapVector = (MapColumnVector) vector;
+      int offset = (int) mapVector.offsets[row];
+      int length = (int) mapVector.lengths[row];
+      Map<Object, Object> values = new HashMap<>();
+      for (int i = offset; i < offset + length; i++) {
+        values.put(keyConverter.convert(mapVector.keys, i), valueConverter.convert(mapVector.values, i));
+      }
+      return values;
+    };
+  }
+
+  private static ValueConverter compileStruct(TypeDescription type, Schema recordSchema) {
+    List<Schema.Field> fields = recordSchema.getFields();
+    int[] columns = new int[fields.size()];
+    ValueConverter[] converters = new ValueConverter[fields.size()];
+    for (int i = 0; i < fields.size(); i++) {
+      Schema.Field field = fields.get(i);
+      columns[i] = findColumn(type, field.getName());
+      if (columns[i] < 0) {
+        if (!field.getSchema().isNullable()) {
+          throw new IllegalArgumentException(
+            String.format("Field '%s' of record '%s' is not in the ORC file and is not nullable.",
+                          field.getName(), recordSchema.getRecordName()));
+        }
+        continue;
+      }
+      converters[i] = compile(type.getChildren().get(columns[i]), field.getSchema(), field.getName());
+    }
+    return (vector, row) -> {
+      ColumnVector[] fieldVectors = ((StructColumnVector) vector).fields;
+      StructuredRecord.Builder builder = StructuredRecord.builder(recordSchema);
+      for (int i = 0; i < columns.length; i++) {
+        if (columns[i] >= 0) {
+          Object value = converters[i].convert(fieldVectors[columns[i]], row);
+          if (value != null) {
+            builder.set(fields.get(i).getName(), value);
+          }
+        }
+      }
+      return builder.build();
+    };
+  }
+}
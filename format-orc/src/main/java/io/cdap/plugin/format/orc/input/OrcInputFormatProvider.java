@@ -0,0 +1,233 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.orc.input;
+
+import io.cdap.cdap.api.annotation.Description;
+import io.cdap.cdap.api.annotation.Macro;
+import io.cdap.cdap.api.annotation.Name;
+import io.cdap.cdap.api.annotation.Plugin;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.api.plugin.PluginClass;
+import io.cdap.cdap.api.plugin.PluginPropertyField;
+import io.cdap.cdap.etl.api.validation.FormatContext;
+import io.cdap.cdap.etl.api.validation.InputFile;
+import io.cdap.cdap.etl.api.validation.InputFiles;
+import io.cdap.cdap.etl.api.validation.SeekableInputStream;
+import io.cdap.cdap.etl.api.validation.ValidatingInputFormat;
+import io.cdap.plugin.format.input.FilterExpression;
+import io.cdap.plugin.format.input.FilterProperty;
+import io.cdap.plugin.format.input.PathTrackingConfig;
+import io.cdap.plugin.format.input.PathTrackingInputFormatProvider;
+import io.cdap.plugin.format.orc.OrcToStructuredTransformer;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FSInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.util.Progressable;
+import org.apache.orc.OrcFile;
+import org.apache.orc.Reader;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Provides and sets up configuration for an orc input format.
+ */
+@Plugin(type = ValidatingInputFormat.PLUGIN_TYPE)
+@Name(OrcInputFormatProvider.NAME)
+@Description(OrcInputFormatProvider.DESC)
+public class OrcInputFormatProvider extends PathTrackingInputFormatProvider<OrcInputFormatProvider.Conf> {
+  static final String NAME = "orc";
+  static final String DESC = "Plugin for reading files in orc format.";
+  static final String NAME_FILTER = FilterProperty.NAME;
+  public static final PluginClass PLUGIN_CLASS =
+    new PluginClass(ValidatingInputFormat.PLUGIN_TYPE, NAME, DESC, OrcInputFormatProvider.class.getName(),
+                    "conf", Conf.ORC_FIELDS);
+
+  public OrcInputFormatProvider(OrcInputFormatProvider.Conf conf) {
+    super(conf);
+  }
+
+  @Override
+  public String getInputFormatClassName() {
+    return CombineOrcInputFormat.class.getName();
+  }
+
+  @Override
+  protected void addFormatProperties(Map<String, String> properties) {
+    FilterProperty.addTo(properties, PathTrackingOrcInputFormat.FILTER, conf.filter);
+  }
+
+  @Override
+  public void validate(FormatContext context) {
+    FilterProperty.validate(conf, conf.filter, getSchema(context), context.getFailureCollector(),
+                            FilterExpression::parse);
+  }
+
+  @Nullable
+  @Override
+  public Schema detectSchema(FormatContext context, InputFiles inputFiles) throws IOException {
+    for (InputFile inputFile : inputFiles) {
+      if (!inputFile.getName().toLowerCase().endsWith(".orc")) {
+        continue;
+      }
+      // only the footer of the file is read
+      Path path = new Path(inputFile.getName());
+      Reader reader = OrcFile.createReader(path, OrcFile.readerOptions(new Configuration())
+        .filesystem(new InputFileSystem(inputFile))
+        .maxLength(inputFile.getLength()));
+      Schema schema;
+      try {
+        schema = OrcToStructuredTransformer.convertSchema(reader.getSchema());
+      } catch (IllegalArgumentException e) {
+        throw new IOException(String.format("Unable to detect the schema of '%s': %s", inputFile.getName(),
+                                            e.getMessage()), e);
+      }
+      return addPathField(schema, context.getFailureCollector());
+    }
+    throw new IOException("Unable to find any files that end with .orc");
+  }
+
+  /**
+   * Read only file system of a single input file, which ORC reads the footer of the file from.
+   */
+  private static class InputFileSystem extends FileSystem {
+    private final InputFile file;
+
+    InputFileSystem(InputFile file) {
+      this.file = file;
+    }
+
+    @Override
+    public URI getUri() {
+      return URI.create("inputfile:///");
+    }
+
+    @Override
+    public FSDataInputStream open(Path path, int bufferSize) throws IOException {
+      SeekableInputStream inputStream = file.open();
+      return new FSDataInputStream(new FSInputStream() {
+
+        @Override
+        public void seek(long pos) throws IOException {
+          inputStream.seek(pos);
+        }
+
+        @Override
+        public long getPos() throws IOException {
+          return inputStream.getPos();
+        }
+
+        @Override
+        public boolean seekToNewSource(long targetPos) {
+          return false;
+        }
+
+        @Override
+        public int read() throws IOException {
+          return inputStream.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+          return inputStream.read(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+          inputStream.close();
+        }
+      });
+    }
+
+    @Override
+    public FileStatus getFileStatus(Path path) {
+      return new FileStatus(file.getLength(), false, 1, file.getLength(), 0L, path);
+    }
+
+    @Override
+    public FSDataOutputStream create(Path path, FsPermission permission, boolean overwrite, int bufferSize,
+                                     short replication, long blockSize, Progressable progress) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FSDataOutputStream append(Path path, int bufferSize, Progressable progress) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean rename(Path src, Path dst) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean delete(Path path, boolean recursive) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FileStatus[] listStatus(Path path) {
+      return new FileStatus[] { getFileStatus(path) };
+    }
+
+    @Override
+    public void setWorkingDirectory(Path path) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Path getWorkingDirectory() {
+      return new Path("/");
+    }
+
+    @Override
+    public boolean mkdirs(Path path, FsPermission permission) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * Config for the orc format.
+   */
+  public static class Conf extends PathTrackingConfig {
+    public static final Map<String, PluginPropertyField> ORC_FIELDS;
+    private static final String FILTER_DESC =
+      "Filter on the columns of the schema, such as \"age >= 21 and country = 'US'\". Stripes and row groups whose "
+        + "statistics show that they don't match the filter are skipped, and only the records that match the filter "
+        + "are read.";
+
+    static {
+      Map<String, PluginPropertyField> fields = new HashMap<>(FIELDS);
+      fields.put(NAME_FILTER, new PluginPropertyField(NAME_FILTER, FILTER_DESC, "string", false, true));
+      ORC_FIELDS = Collections.unmodifiableMap(fields);
+    }
+
+    @Macro
+    @Nullable
+    @Description(FILTER_DESC)
+    private String filter;
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.orc.input;
+
+import io.cdap.plugin.format.input.FilterExpression;
+import org.apache.hadoop.hive.ql.io.sarg.PredicateLeaf;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgumentFactory;
+import org.apache.orc.TypeDescription;
+
+import java.util.List;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+/**
+ * Converts filters into ORC search arguments, which ORC uses to skip the stripes and row groups whose statistics show
+ * that they cannot match the filter.
+ *
+ * Search arguments do not filter rows, so the rows that are read still have to be tested against the filter.
+ * Comparisons on columns that are not top level columns of the file are left out of the search argument, which then
+ * matches more rows than the filter.
+ */
+final class OrcSearchArguments {
+
+  private OrcSearchArguments() {
+    // no-op
+  }
+
+  /**
+   * Returns the search argument of a filter, or null if none of its comparisons can be pushed down.
+   *
+   * @param fileColumns returns the name of the top level column of the file that a column of the filter is read from,
+   *                    or null if it is not read from a top level column
+   */
+  @Nullable
+  static SearchArgument create(FilterExpression filter, Function<String, String> fileColumns) {
+    if (!isPushable(filter, fileColumns)) {
+      return null;
+    }
+    SearchArgument.Builder builder = SearchArgumentFactory.newBuilder();
+    add(builder, filter, fileColumns);
+    return builder.build();
+  }
+
+  /**
+   * Returns the names of the top level columns of a file, indexed by column id, which ORC uses to find the columns of
+   * the search argument.
+   */
+  static String[] getColumnNames(TypeDescription fileSchema) {
+    String[] columnNames = new String[fileSchema.getMaximumId() + 1];
+    List<String> fieldNames = fileSchema.getFieldNames();
+    List<TypeDescription> children = fileSchema.getChildren();
+    for (int i = 0; i < fieldNames.size(); i++) {
+      columnNames[children.get(i).getId()] = fieldNames.get(i);
+    }
+    return columnNames;
+  }
+
+  private static boolean isPushable(FilterExpression filter, Function<String, String> fileColumns) {
+    if (filter instanceof FilterExpression.And) {
+      FilterExpression.And and = (FilterExpression.And) filter;
+      return isPushable(and.getLeft(), fileColumns) || isPushable(and.getRight(), fileColumns);
+    }
+    if (filter instanceof FilterExpression.Or) {
+      FilterExpression.Or or = (FilterExpression.Or) filter;
+      return isPushable(or.getLeft(), fileColumns) && isPushable(or.getRight(), fileColumns);
+    }
+    return fileColumns.apply(((FilterExpression.Comparison) filter).getColumn()) != null;
+  }
+
+  /**
+   * Adds a pushable filter to a search argument. Sides of conjunctions that cannot be pushed are left out.
+   */
+  private static void add(SearchArgument.Builder builder, FilterExpression filter,
+                          Function<String, String> fileColumns) {
+    if (filter instanceof FilterExpression.And) {
+      FilterExpression.And and = (FilterExpression.And) filter;
+      builder.startAnd();
+      for (FilterExpression side : new FilterExpression[] { and.getLeft(), and.getRight() }) {
+        if (isPushable(side, fileColumns)) {
+          add(builder, side, fileColumns);
+        }
+      }
+      builder.end();
+      return;
+    }
+    if (filter instanceof FilterExpression.Or) {
+      FilterExpression.Or or = (FilterExpression.Or) filter;
+      builder.startOr();
+      add(builder, or.getLeft(), fileColumns);
+      add(builder, or.getRight(), fileColumns);
+      builder.end();
+      return;
+    }
+
+    FilterExpression.Comparison comparison = (FilterExpression.Comparison) filter;
+    String column = fileColumns.apply(comparison.getColumn());
+    PredicateLeaf.Type type = getType(comparison);
+    Object value = getLiteral(comparison.getValue());
+    if (value == null) {
+      if (comparison.getOperator() == FilterExpression.Operator.EQ) {
+        builder.isNull(column, type);
+      } else {
+        builder.startNot().isNull(column, type).end();
+      }
+      return;
+    }
+    switch (comparison.getOperator()) {
+      case EQ:
+        builder.equals(column, type, value);
+        break;
+      case NOT_EQ:
+        // nulls match != comparisons with a value
+        builder.startOr().isNull(column, type).startNot().equals(column, type, value).end().end();
+        break;
+      case LT:
+        builder.lessThan(column, type, value);
+        break;
+      case LT_EQ:
+        builder.lessThanEquals(column, type, value);
+        break;
+      case GT:
+        builder.startNot().lessThanEquals(column, type, value).end();
+        break;
+      default:
+        builder.startNot().lessThan(column, type, value).end();
+        break;
+    }
+  }
+
+  private static PredicateLeaf.Type getType(FilterExpression.Comparison comparison) {
+    switch (comparison.getType()) {
+      case BOOLEAN:
+        return PredicateLeaf.Type.BOOLEAN;
+      case INT:
+      case LONG:
+        return PredicateLeaf.Type.LONG;
+      case FLOAT:
+      case DOUBLE:
+        return PredicateLeaf.Type.FLOAT;
+      default:
+        return PredicateLeaf.Type.STRING;
+    }
+  }
+
+  /**
+   * Returns the value of a comparison as a literal of its search argument type, which uses longs for all integers
+   * and doubles for all floating point numbers.
+   */
+  @Nullable
+  private static Object getLiteral(@Nullable Object value) {
+    if (value instanceof Integer) {
+      return ((Integer) value).longValue();
+    }
+    if (value instanceof Float) {
+      return ((Float) value).doubleValue();
+    }
+    return value;
+  }
+}
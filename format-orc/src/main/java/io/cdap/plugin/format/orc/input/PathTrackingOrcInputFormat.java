@@ -0,0 +1,183 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.orc.input;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.format.input.FilterExpression;
+import io.cdap.plugin.format.input.PathTrackingInputFormat;
+import io.cdap.plugin.format.orc.OrcToStructuredTransformer;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.apache.orc.OrcFile;
+import org.apache.orc.Reader;
+import org.apache.orc.TypeDescription;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * ORC format that tracks which file each record was read from.
+ *
+ * Files are read in batches of rows with ORC's vectorized reader. Each split reads the stripes that start in it,
+ * and only the columns of the schema. When a filter is set, stripes and row groups that cannot match it are skipped,
+ * and the rows that do not match it are dropped.
+ */
+public class PathTrackingOrcInputFormat extends PathTrackingInputFormat {
+  /**
+   * Filter expression on the columns of the schema, parsed by {@link FilterExpression}.
+   */
+  static final String FILTER = "path.tracking.orc.filter";
+
+  @Override
+  protected RecordReader<NullWritable, StructuredRecord.Builder> createRecordReader(FileSplit split,
+                                                                                    TaskAttemptContext context,
+                                                                                    @Nullable String pathField,
+                                                                                    @Nullable Schema schema) {
+    return new OrcRecordReader(schema, pathField, context.getConfiguration().get(FILTER));
+  }
+
+  /**
+   * Reads the rows of the stripes of a split into StructuredRecords.
+   */
+  static class OrcRecordReader extends RecordReader<NullWritable, StructuredRecord.Builder> {
+    private final String pathField;
+    private final String filterExpression;
+    private Schema schema;
+    private FilterExpression filter;
+    private OrcToStructuredTransformer transformer;
+    private org.apache.orc.RecordReader rows;
+    private VectorizedRowBatch batch;
+    private int batchRow;
+    private Object[] values;
+    private Map<String, Integer> fieldIndexes;
+
+    OrcRecordReader(@Nullable Schema schema, @Nullable String pathField, @Nullable String filterExpression) {
+      this.schema = schema;
+      this.pathField = pathField;
+      this.filterExpression = filterExpression;
+    }
+
+    @Override
+    public void initialize(InputSplit split, TaskAttemptContext context) throws IOException {
+      FileSplit fileSplit = (FileSplit) split;
+      Configuration conf = context.getConfiguration();
+      Path path = fileSplit.getPath();
+      Reader reader = OrcFile.createReader(path, OrcFile.readerOptions(conf).filesystem(path.getFileSystem(conf)));
+      TypeDescription fileSchema = reader.getSchema();
+      if (schema == null) {
+        schema = getSchema(fileSchema, pathField);
+      }
+      transformer = new OrcToStructuredTransformer(fileSchema, schema, pathField);
+
+      // ORC reads the stripes that start in the range, so that each stripe is read by a single split
+      Reader.Options options = new Reader.Options()
+        .range(fileSplit.getStart(), fileSplit.getLength())
+        .include(transformer.getIncludedColumns());
+      if (filterExpression != null) {
+        filter = FilterExpression.parse(filterExpression, schema);
+        SearchArgument searchArgument = OrcSearchArguments.create(filter, transformer::getFileColumn);
+        if (searchArgument != null) {
+          options.searchArgument(searchArgument, OrcSearchArguments.getColumnNames(fileSchema));
+        }
+      }
+      rows = reader.rows(options);
+      batch = fileSchema.createRowBatch();
+
+      List<Schema.Field> fields = schema.getFields();
+      values = new Object[fields.size()];
+      fieldIndexes = new HashMap<>();
+      for (int i = 0; i < fields.size(); i++) {
+        fieldIndexes.put(fields.get(i).getName(), i);
+      }
+    }
+
+    @Override
+    public boolean nextKeyValue() throws IOException {
+      while (true) {
+        while (batchRow < batch.size) {
+          int row = batch.selectedInUse ? batch.selected[batchRow] : batchRow;
+          batchRow++;
+          transformer.read(batch, row, values);
+          if (filter == null || filter.test(this::getValue)) {
+            return true;
+          }
+        }
+        if (!rows.nextBatch(batch)) {
+          return false;
+        }
+        batchRow = 0;
+      }
+    }
+
+    /**
+     * Returns the value of a column of the filter in the current row.
+     */
+    @Nullable
+    private Object getValue(String column) {
+      String[] names = column.split("\\.");
+      Object value = values[fieldIndexes.get(names[0])];
+      for (int i = 1; i < names.length && value != null; i++) {
+        value = ((StructuredRecord) value).get(names[i]);
+      }
+      return value;
+    }
+
+    @Override
+    public NullWritable getCurrentKey() {
+      return NullWritable.get();
+    }
+
+    @Override
+    public StructuredRecord.Builder getCurrentValue() {
+      return transformer.toBuilder(values);
+    }
+
+    @Override
+    public float getProgress() throws IOException {
+      return rows.getProgress();
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (rows != null) {
+        rows.close();
+      }
+    }
+
+    private static Schema getSchema(TypeDescription fileSchema, @Nullable String pathField) {
+      Schema schema = OrcToStructuredTransformer.convertSchema(fileSchema);
+      if (pathField == null) {
+        return schema;
+      }
+      List<Schema.Field> fields = new ArrayList<>(schema.getFields());
+      fields.add(Schema.Field.of(pathField, Schema.of(Schema.Type.STRING)));
+      return Schema.recordOf(schema.getRecordName(), fields);
+    }
+  }
+}
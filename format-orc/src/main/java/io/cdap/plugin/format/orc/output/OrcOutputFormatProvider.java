@@ -16,6 +16,7 @@
 
 package io.cdap.plugin.format.orc.output;
 
+import com.google.common.base.Strings;
 import io.cdap.cdap.api.annotation.Description;
 import io.cdap.cdap.api.annotation.Macro;
 import io.cdap.cdap.api.annotation.Name;
@@ -48,8 +49,10 @@ public class OrcOutputFormatProvider extends AbstractOutputFormatProvider {
   private static final String SNAPPY_CODEC = "SNAPPY";
   private static final String ZLIB_CODEC = "ZLIB";
   private static final String COMPRESS_SIZE = "orc.compress.size";
+  private static final String STRIPE_SIZE = "orc.stripe.size";
   private static final String ROW_INDEX_STRIDE = "orc.row.index.stride";
   private static final String CREATE_INDEX = "orc.create.index";
+  private static final String BLOOM_FILTER_COLUMNS = "orc.bloom.filter.columns";
   private final Conf conf;
 
   public OrcOutputFormatProvider(Conf conf) {
@@ -77,15 +80,18 @@ public class OrcOutputFormatProvider extends AbstractOutputFormatProvider {
       if (conf.compressionChunkSize != null) {
         configuration.put(COMPRESS_SIZE, String.valueOf(conf.compressionChunkSize));
       }
-      if (conf.stripeSize != null) {
-        configuration.put(COMPRESS_SIZE, String.valueOf(conf.stripeSize.toString()));
-      }
-      if (conf.indexStride != null) {
-        configuration.put(ROW_INDEX_STRIDE, String.valueOf(conf.indexStride));
-      }
-      if (conf.createIndex != null) {
-        configuration.put(CREATE_INDEX, String.valueOf(conf.createIndex));
-      }
+    }
+    if (conf.stripeSize != null) {
+      configuration.put(STRIPE_SIZE, String.valueOf(conf.stripeSize));
+    }
+    if (conf.indexStride != null) {
+      configuration.put(ROW_INDEX_STRIDE, String.valueOf(conf.indexStride));
+    }
+    if (conf.createIndex != null) {
+      configuration.put(CREATE_INDEX, String.valueOf(conf.createIndex));
+    }
+    if (!Strings.isNullOrEmpty(conf.bloomFilterColumns)) {
+      configuration.put(BLOOM_FILTER_COLUMNS, conf.bloomFilterColumns);
     }
     return configuration;
   }
@@ -102,6 +108,9 @@ public class OrcOutputFormatProvider extends AbstractOutputFormatProvider {
     private static final String INDEX_STRIDE_DESC =
       "Number of rows between index entries. The value must be at least 1000.";
     private static final String INDEX_CREATE_DESC = "Whether to create inline indexes.";
+    private static final String BLOOM_FILTER_COLUMNS_DESC =
+      "Comma separated list of the columns to create bloom filters for, which let readers skip row groups "
+        + "that don't contain the values they look for.";
 
     @Macro
     @Description(SCHEMA_DESC)
@@ -131,6 +140,11 @@ public class OrcOutputFormatProvider extends AbstractOutputFormatProvider {
     @Nullable
     @Description(INDEX_CREATE_DESC)
     private Boolean createIndex;
+
+    @Macro
+    @Nullable
+    @Description(BLOOM_FILTER_COLUMNS_DESC)
+    private String bloomFilterColumns;
   }
 
   private static String parseOrcSchema(String configuredSchema) {
@@ -157,6 +171,8 @@ public class OrcOutputFormatProvider extends AbstractOutputFormatProvider {
     properties.put("indexStride", new PluginPropertyField("indexStride", Conf.INDEX_STRIDE_DESC, "long", false, true));
     properties.put("createIndex",
                    new PluginPropertyField("createIndex", Conf.INDEX_CREATE_DESC, "boolean", false, true));
+    properties.put("bloomFilterColumns", new PluginPropertyField("bloomFilterColumns", Conf.BLOOM_FILTER_COLUMNS_DESC,
+                                                                 "string", false, true));
     return new PluginClass(ValidatingOutputFormat.PLUGIN_TYPE, NAME, DESC, OrcOutputFormatProvider.class.getName(),
                            "conf", properties);
   }
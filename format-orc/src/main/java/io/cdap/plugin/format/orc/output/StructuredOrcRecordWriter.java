@@ -0,0 +1,307 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.orc.output;
+
+import io.cdap.cdap.api.common.Bytes;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ListColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.MapColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.MultiValuedColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.StructColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.Writer;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes StructuredRecords to an ORC file by appending their values to a reused {@link VectorizedRowBatch}, which is
+ * added to the file when it is full.
+ *
+ * Values are set with setters compiled from the schema of the records and the ORC schema of the file, so that no
+ * intermediate objects are created for each record. Columns of the file are matched with fields of the records by
+ * name. Columns without a field are null, and fields without a column are not written.
+ */
+class StructuredOrcRecordWriter extends RecordWriter<NullWritable, StructuredRecord> {
+  private final Writer writer;
+  private final VectorizedRowBatch batch;
+  private Schema schema;
+  private RecordSetter recordSetter;
+
+  /**
+   * Sets the value of a row of a column vector.
+   */
+  private interface ValueSetter {
+    void set(ColumnVector vector, int row, Object value);
+  }
+
+  StructuredOrcRecordWriter(Writer writer) {
+    this.writer = writer;
+    this.batch = writer.getSchema().createRowBatch();
+    // allocates the buffers of the byte vectors
+    this.batch.reset();
+  }
+
+  @Override
+  public void write(NullWritable key, StructuredRecord record) throws IOException {
+    if (record.getSchema() != schema) {
+      // records almost always share the same schema instance, so setters are rarely compiled more than once
+      if (!record.getSchema().equals(schema)) {
+        recordSetter = new RecordSetter(record.getSchema(), writer.getSchema());
+      }
+      schema = record.getSchema();
+    }
+    recordSetter.set(batch.cols, batch.size++, record);
+    if (batch.size == batch.getMaxSize()) {
+      writer.addRowBatch(batch);
+      batch.reset();
+    }
+  }
+
+  @Override
+  public void close(TaskAttemptContext context) throws IOException {
+    if (batch.size > 0) {
+      writer.addRowBatch(batch);
+      batch.reset();
+    }
+    writer.close();
+  }
+
+  /**
+   * Compiles a setter of values of the given schema into a column of the given type, which handles nulls.
+   */
+  private static ValueSetter compile(Schema schema, TypeDescription type, String fieldName) {
+    ValueSetter setter = compileNonNull(schema.isNullable() ? schema.getNonNullable() : schema, type, fieldName);
+    return (vector, row, value) -> {
+      if (value == null) {
+        vector.noNulls = false;
+        vector.isNull[row] = true;
+        return;
+      }
+      vector.isNull[row] = false;
+      setter.set(vector, row, value);
+    };
+  }
+
+  private static ValueSetter compileNonNull(Schema schema, TypeDescription type, String fieldName) {
+    // logical types are written as their physical type, like the ORC schema of the file is
+    switch (schema.getType()) {
+      case NULL:
+        return (vector, row, value) -> {
+          // set by the null handling of the setter
+        };
+      case BOOLEAN:
+        if (type.getCategory() == TypeDescription.Category.BOOLEAN) {
+          return (vector, row, value) -> ((LongColumnVector) vector).vector[row] = (Boolean) value ? 1L : 0L;
+        }
+        break;
+      case INT:
+      case LONG:
+        switch (type.getCategory()) {
+          case BYTE:
+          case SHORT:
+          case INT:
+          case LONG:
+          case DATE:
+            return (vector, row, value) -> ((LongColumnVector) vector).vector[row] = ((Number) value).longValue();
+          default:
+            break;
+        }
+        break;
+      case FLOAT:
+      case DOUBLE:
+        if (type.getCategory() == TypeDescription.Category.FLOAT
+          || type.getCategory() == TypeDescription.Category.DOUBLE) {
+          return (vector, row, value) -> ((DoubleColumnVector) vector).vector[row] = ((Number) value).doubleValue();
+        }
+        break;
+      case STRING:
+      case ENUM:
+        if (isBytes(type)) {
+          return (vector, row, value) ->
+            ((BytesColumnVector) vector).setVal(row, value.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        break;
+      case BYTES:
+        if (isBytes(type)) {
+          return StructuredOrcRecordWriter::setBytes;
+        }
+        break;
+      case ARRAY:
+        if (type.getCategory() == TypeDescription.Category.LIST) {
+          return compileList(schema.getComponentSchema(), type.getChildren().get(0), fieldName);
+        }
+        break;
+      case MAP:
+        if (type.getCategory() == TypeDescription.Category.MAP) {
+          return compileMap(schema.getMapSchema(), type, fieldName);
+        }
+        break;
+      case RECORD:
+        if (type.getCategory() == TypeDescription.Category.STRUCT) {
+          RecordSetter recordSetter = new RecordSetter(schema, type);
+          return (vector, row, value) ->
+            recordSetter.set(((StructColumnVector) vector).fields, row, (StructuredRecord) value);
+        }
+        break;
+      default:
+        break;
+    }
+    throw new IllegalArgumentException(
+      String.format("Field '%s' of type '%s' cannot be written to an ORC column of type '%s'.",
+                    fieldName, schema.getDisplayName(), type));
+  }
+
+  private static boolean isBytes(TypeDescription type) {
+    switch (type.getCategory()) {
+      case STRING:
+      case VARCHAR:
+      case CHAR:
+      case BINARY:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static void setBytes(ColumnVector vector, int row, Object value) {
+    BytesColumnVector bytesVector = (BytesColumnVector) vector;
+    if (value instanceof byte[]) {
+      bytesVector.setVal(row, (byte[]) value);
+      return;
+    }
+    ByteBuffer buffer = (ByteBuffer) value;
+    if (buffer.hasArray()) {
+      bytesVector.setVal(row, buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+    } else {
+      bytesVector.setVal(row, Bytes.getBytes(buffer));
+    }
+  }
+
+  private static ValueSetter compileList(Schema componentSchema, TypeDescription elementType, String fieldName) {
+    ValueSetter elementSetter = compile(componentSchema, elementType, fieldName);
+    return (vector, row, value) -> {
+      ListColumnVector listVector = (ListColumnVector) vector;
+      int offset = listVector.childCount;
+      int length;
+      if (value instanceof Collection) {
+        Collection<?> values = (Collection<?>) value;
+        length = values.size();
+        reserve(listVector, listVector.child, offset + length);
+        int index = offset;
+        for (Object element : values) {
+          elementSetter.set(listVector.child, index++, element);
+        }
+      } else {
+        // arrays can also be java arrays, including arrays of primitives
+        length = Array.getLength(value);
+        reserve(listVector, listVector.child, offset + length);
+        for (int i = 0; i < length; i++) {
+          elementSetter.set(listVector.child, offset + i, Array.get(value, i));
+        }
+      }
+      listVector.offsets[row] = offset;
+      listVector.lengths[row] = length;
+    };
+  }
+
+  private static ValueSetter compileMap(Map.Entry<Schema, Schema> mapSchema, TypeDescription type, String fieldName) {
+    ValueSetter keySetter = compile(mapSchema.getKey(), type.getChildren().get(0), fieldName);
+    ValueSetter valueSetter = compile(mapSchema.getValue(), type.getChildren().get(1), fieldName);
+    return (vector, row, value) -> {
+      MapColumnVector mapVector = (MapColumnVector) vector;
+      Map<?, ?> values = (Map<?, ?>) value;
+      int offset = mapVector.childCount;
+      reserve(mapVector, mapVector.keys, offset + values.size());
+      mapVector.values.ensureSize(offset + values.size(), true);
+      int index = offset;
+      for (Map.Entry<?, ?> entry : values.entrySet()) {
+        keySetter.set(mapVector.keys, index, entry.getKey());
+        valueSetter.set(mapVector.values, index, entry.getValue());
+        index++;
+      }
+      mapVector.offsets[row] = offset;
+      mapVector.lengths[row] = values.size();
+    };
+  }
+
+  /**
+   * Grows the child vector of a list or map to hold the given number of elements, keeping the elements it holds.
+   */
+  private static void reserve(MultiValuedColumnVector vector, ColumnVector child, int childCount) {
+    child.ensureSize(childCount, true);
+    vector.childCount = childCount;
+  }
+
+  /**
+   * Sets the fields of records into the column vectors of a struct.
+   */
+  private static final class RecordSetter {
+    private final String[] fieldNames;
+    // index of the field of the record that each column is set from, or -1 if the column is always null
+    private final int[] fields;
+    private final ValueSetter[] setters;
+
+    RecordSetter(Schema schema, TypeDescription struct) {
+      List<String> columnNames = struct.getFieldNames();
+      List<Schema.Field> schemaFields = schema.getFields();
+      this.fieldNames = new String[schemaFields.size()];
+      this.fields = new int[columnNames.size()];
+      this.setters = new ValueSetter[columnNames.size()];
+      for (int i = 0; i < fieldNames.length; i++) {
+        fieldNames[i] = schemaFields.get(i).getName();
+      }
+      for (int column = 0; column < columnNames.size(); column++) {
+        fields[column] = -1;
+        for (int i = 0; i < fieldNames.length; i++) {
+          if (fieldNames[i].equals(columnNames.get(column))) {
+            fields[column] = i;
+            Schema.Field field = schemaFields.get(i);
+            setters[column] = compile(field.getSchema(), struct.getChildren().get(column), field.getName());
+            break;
+          }
+        }
+      }
+    }
+
+    void set(ColumnVector[] vectors, int row, StructuredRecord record) {
+      for (int column = 0; column < fields.length; column++) {
+        ColumnVector vector = vectors[column];
+        if (fields[column] < 0) {
+          vector.noNulls = false;
+          vector.isNull[row] = true;
+        } else {
+          setters[column].set(vector, row, record.get(fieldNames[fields[column]]));
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.orc.input;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.format.input.PathTrackingInputFormat;
+import io.cdap.plugin.format.orc.OrcToStructuredTransformer;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.StructColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.apache.orc.OrcFile;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.Writer;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for {@link PathTrackingOrcInputFormat}.
+ */
+public class PathTrackingOrcInputFormatTest {
+  @ClassRule
+  public static final TemporaryFolder TMP_FOLDER = new TemporaryFolder();
+
+  private static final TypeDescription ORC_SCHEMA =
+    TypeDescription.fromString("struct<id:int,name:string,score:double,address:struct<zip:string>>");
+  private static final Schema ADDRESS_SCHEMA = Schema.recordOf(
+    "record1",
+    Schema.Field.of("zip", Schema.nullableOf(Schema.of(Schema.Type.STRING))));
+  private static final Schema SCHEMA = Schema.recordOf(
+    "record",
+    Schema.Field.of("id", Schema.nullableOf(Schema.of(Schema.Type.INT))),
+    Schema.Field.of("name", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("score", Schema.nullableOf(Schema.of(Schema.Type.DOUBLE))),
+    Schema.Field.of("address", Schema.nullableOf(ADDRESS_SCHEMA)));
+
+  private static File orcFile;
+
+  @BeforeClass
+  public static void writeFile() throws IOException {
+    orcFile = new File(TMP_FOLDER.newFolder(), "test.orc");
+    Writer writer = OrcFile.createWriter(new Path(orcFile.toURI()),
+                                         OrcFile.writerOptions(new Configuration()).setSchema(ORC_SCHEMA));
+    VectorizedRowBatch batch = ORC_SCHEMA.createRowBatch();
+    batch.reset();
+    LongColumnVector id = (LongColumnVector) batch.cols[0];
+    BytesColumnVector name = (BytesColumnVector) batch.cols[1];
+    DoubleColumnVector score = (DoubleColumnVector) batch.cols[2];
+    BytesColumnVector zip = (BytesColumnVector) ((StructColumnVector) batch.cols[3]).fields[0];
+    for (int row = 0; row < 4; row++) {
+      batch.size++;
+      id.vector[row] = row;
+      name.setVal(row, String.valueOf((char) ('a' + row)).getBytes(StandardCharsets.UTF_8));
+      if (row == 2) {
+        score.noNulls = false;
+        score.isNull[row] = true;
+      } else {
+        score.vector[row] = row * 1.5d;
+      }
+      zip.setVal(row, ("z" + row).getBytes(StandardCharsets.UTF_8));
+    }
+    writer.addRowBatch(batch);
+    writer.close();
+  }
+
+  @Test
+  public void testConvertSchema() {
+    Assert.assertEquals(SCHEMA, OrcToStructuredTransformer.convertSchema(ORC_SCHEMA));
+  }
+
+  @Test
+  public void testReadWithoutSchema() throws Exception {
+    List<StructuredRecord> expected = new ArrayList<>();
+    for (int id = 0; id < 4; id++) {
+      expected.add(StructuredRecord.builder(SCHEMA)
+                     .set("id", id)
+                     .set("name", String.valueOf((char) ('a' + id)))
+                     .set("score", id == 2 ? null : id * 1.5d)
+                     .set("address", StructuredRecord.builder(ADDRESS_SCHEMA).set("zip", "z" + id).build())
+                     .build());
+    }
+    Assert.assertEquals(expected, read(new Configuration()));
+  }
+
+  @Test
+  public void testReadWithFilterAndProjection() throws Exception {
+    Schema readSchema = Schema.recordOf(
+      "x",
+      Schema.Field.of("name", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("id", Schema.of(Schema.Type.LONG)),
+      Schema.Field.of("missing", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+      Schema.Field.of("file", Schema.of(Schema.Type.STRING)));
+    Configuration hConf = new Configuration();
+    hConf.set(PathTrackingInputFormat.SCHEMA, readSchema.toString());
+    hConf.set("path.tracking.path.field", "file");
+    hConf.set("path.tracking.filename.only", "true");
+    hConf.set(PathTrackingOrcInputFormat.FILTER, "id >= 1 and not name = 'b' and missing is null");
+
+    List<StructuredRecord> expected = new ArrayList<>();
+    for (long id : new long[] { 2, 3 }) {
+      expected.add(StructuredRecord.builder(readSchema)
+                     .set("name", String.valueOf((char) ('a' + id)))
+                     .set("id", id)
+                     .set("file", "test.orc")
+                     .build());
+    }
+    Assert.assertEquals(expected, read(hConf));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingRequiredField() throws Exception {
+    Schema readSchema = Schema.recordOf("x", Schema.Field.of("missing", Schema.of(Schema.Type.STRING)));
+    Configuration hConf = new Configuration();
+    hConf.set(PathTrackingInputFormat.SCHEMA, readSchema.toString());
+    read(hConf);
+  }
+
+  private static List<StructuredRecord> read(Configuration hConf) throws Exception {
+    TaskAttemptContext context = new TaskAttemptContextImpl(hConf, new TaskAttemptID());
+    FileSplit split = new FileSplit(new Path(orcFile.toURI()), 0, orcFile.length(), null);
+    List<StructuredRecord> records = new ArrayList<>();
+    try (RecordReader<NullWritable, StructuredRecord> reader =
+           new PathTrackingOrcInputFormat().createRecordReader(split, context)) {
+      reader.initialize(split, context);
+      while (reader.nextKeyValue()) {
+        records.add(reader.getCurrentValue());
+      }
+    }
+    return records;
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.orc.output;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.common.HiveSchemaConverter;
+import io.cdap.plugin.format.input.PathTrackingInputFormat;
+import io.cdap.plugin.format.orc.input.PathTrackingOrcInputFormat;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.apache.orc.OrcFile;
+import org.apache.orc.TypeDescription;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for {@link StructuredOrcRecordWriter}.
+ */
+public class StructuredOrcRecordWriterTest {
+  @ClassRule
+  public static final TemporaryFolder TMP_FOLDER = new TemporaryFolder();
+
+  private static final Schema ADDRESS_SCHEMA = Schema.recordOf(
+    "address",
+    Schema.Field.of("zip", Schema.of(Schema.Type.STRING)));
+  private static final Schema SCHEMA = Schema.recordOf(
+    "x",
+    Schema.Field.of("id", Schema.of(Schema.Type.INT)),
+    Schema.Field.of("name", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("score", Schema.of(Schema.Type.DOUBLE)),
+    Schema.Field.of("active", Schema.of(Schema.Type.BOOLEAN)),
+    Schema.Field.of("data", Schema.of(Schema.Type.BYTES)),
+    Schema.Field.of("day", Schema.of(Schema.LogicalType.DATE)),
+    Schema.Field.of("tags", Schema.arrayOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("counts", Schema.mapOf(Schema.of(Schema.Type.STRING), Schema.of(Schema.Type.LONG))),
+    Schema.Field.of("address", Schema.nullableOf(ADDRESS_SCHEMA)));
+
+  @Test
+  public void testWriteBatches() throws Exception {
+    File orcFile = new File(TMP_FOLDER.newFolder(), "test.orc");
+    StringBuilder orcSchema = new StringBuilder();
+    HiveSchemaConverter.appendType(orcSchema, SCHEMA);
+    OrcFile.WriterOptions options = OrcFile.writerOptions(new Configuration())
+      .setSchema(TypeDescription.fromString(orcSchema.toString()));
+
+    // more records than fit in a batch, so that batches are reused
+    List<StructuredRecord> records = new ArrayList<>();
+    for (int id = 0; id < 2500; id++) {
+      records.add(StructuredRecord.builder(SCHEMA)
+                    .set("id", id)
+                    .set("name", id % 3 == 0 ? null : "name" + id)
+                    .set("score", id / 2d)
+                    .set("active", id % 2 == 0)
+                    .set("data", id % 2 == 0 ? new byte[] { (byte) id } : ByteBuffer.wrap(new byte[] { (byte) id }))
+                    .setDate("day", LocalDate.ofEpochDay(id))
+                    .set("tags", id % 2 == 0 ? Arrays.asList("a" + id, "b" + id) : new String[] { "c" + id })
+                    .set("counts", Collections.singletonMap("id", (long) id))
+                    .set("address", id % 5 == 0 ? null :
+                      StructuredRecord.builder(ADDRESS_SCHEMA).set("zip", "z" + id).build())
+                    .build());
+    }
+    StructuredOrcRecordWriter writer =
+      new StructuredOrcRecordWriter(OrcFile.createWriter(new Path(orcFile.toURI()), options));
+    for (StructuredRecord record : records) {
+      writer.write(NullWritable.get(), record);
+    }
+    writer.close(null);
+
+    Configuration hConf = new Configuration();
+    hConf.set(PathTrackingInputFormat.SCHEMA, SCHEMA.toString());
+    TaskAttemptContext context = new TaskAttemptContextImpl(hConf, new TaskAttemptID());
+    FileSplit split = new FileSplit(new Path(orcFile.toURI()), 0, orcFile.length(), null);
+    List<StructuredRecord> actual = new ArrayList<>();
+    try (RecordReader<NullWritable, StructuredRecord> reader =
+           new PathTrackingOrcInputFormat().createRecordReader(split, context)) {
+      reader.initialize(split, context);
+      while (reader.nextKeyValue()) {
+        actual.add(reader.getCurrentValue());
+      }
+    }
+
+    Assert.assertEquals(records.size(), actual.size());
+    for (int i = 0; i < records.size(); i++) {
+      StructuredRecord expected = records.get(i);
+      StructuredRecord record = actual.get(i);
+      for (String field : Arrays.asList("id", "name", "score", "active", "day", "counts", "address")) {
+        Assert.assertEquals(expected.get(field), record.get(field));
+      }
+      Assert.assertEquals(ByteBuffer.wrap(new byte[] { (byte) i }), ByteBuffer.wrap(record.get("data")));
+      Assert.assertEquals(i % 2 == 0 ? Arrays.asList("a" + i, "b" + i) : Arrays.asList("c" + i),
+                          record.get("tags"));
+    }
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.parquet.input;
+
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.format.input.FilterExpression;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.Operators;
+import org.apache.parquet.io.api.Binary;
+
+import javax.annotation.Nullable;
+
+/**
+ * Parses filter expressions into Parquet filter predicates, which Parquet uses to skip row groups and pages using
+ * their statistics and dictionaries, and to filter the records it reads.
+ *
+ * See {@link FilterExpression} for the syntax of the expressions.
+ */
+final class ParquetFilterParser {
+
+  private ParquetFilterParser() {
+    // no-op
+  }
+
+  /**
+   * Parses a filter expression on columns of the given schema.
+   *
+   * @throws IllegalArgumentException if the expression is not valid
+   */
+  static FilterPredicate parse(String expression, Schema schema) {
+    return toPredicate(FilterExpression.parse(expression, schema));
+  }
+
+  private static FilterPredicate toPredicate(FilterExpression filter) {
+    if (filter instanceof FilterExpression.And) {
+      FilterExpression.And and = (FilterExpression.And) filter;
+      return FilterApi.and(toPredicate(and.getLeft()), toPredicate(and.getRight()));
+    }
+    if (filter instanceof FilterExpression.Or) {
+      FilterExpression.Or or = (FilterExpression.Or) filter;
+      return FilterApi.or(toPredicate(or.getLeft()), toPredicate(or.getRight()));
+    }
+    FilterExpression.Comparison comparison = (FilterExpression.Comparison) filter;
+    String column = comparison.getColumn();
+    FilterExpression.Operator operator = comparison.getOperator();
+    Object value = comparison.getValue();
+    switch (comparison.getType()) {
+      case BOOLEAN:
+        Operators.BooleanColumn booleanColumn = FilterApi.booleanColumn(column);
+        return operator == FilterExpression.Operator.EQ ? FilterApi.eq(booleanColumn, (Boolean) value) :
+          FilterApi.notEq(booleanColumn, (Boolean) value);
+      case INT:
+        return compare(FilterApi.intColumn(column), operator, (Integer) value);
+      case LONG:
+        return compare(FilterApi.longColumn(column), operator, (Long) value);
+      case FLOAT:
+        return compare(FilterApi.floatColumn(column), operator, (Float) value);
+      case DOUBLE:
+        return compare(FilterApi.doubleColumn(column), operator, (Double) value);
+      default:
+        return compare(FilterApi.binaryColumn(column), operator,
+                       value == null ? null : Binary.fromString((String) value));
+    }
+  }
+
+  private static <T extends Comparable<T>, C extends Operators.Column<T> & Operators.SupportsLtGt>
+  FilterPredicate compare(C column, FilterExpression.Operator operator, @Nullable T value) {
+    switch (operator) {
+      case EQ:
+        return FilterApi.eq(column, value);
+      case NOT_EQ:
+        return FilterApi.notEq(column, value);
+      case LT:
+        return FilterApi.lt(column, value);
+      case LT_EQ:
+        return FilterApi.ltEq(column, value);
+      case GT:
+        return FilterApi.gt(column, value);
+      default:
+        return FilterApi.gtEq(column, value);
+    }
+  }
+}
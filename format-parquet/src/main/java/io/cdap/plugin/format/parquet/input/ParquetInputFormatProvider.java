@@ -23,12 +23,14 @@ import io.cdap.cdap.api.annotation.Name;
 import io.cdap.cdap.api.annotation.Plugin;
 import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.api.plugin.PluginClass;
+import io.cdap.cdap.api.plugin.PluginPropertyField;
 import io.cdap.cdap.etl.api.validation.FormatContext;
 import io.cdap.cdap.etl.api.validation.InputFile;
 import io.cdap.cdap.etl.api.validation.InputFiles;
 import io.cdap.cdap.etl.api.validation.SeekableInputStream;
 import io.cdap.cdap.etl.api.validation.ValidatingInputFormat;
 import io.cdap.plugin.format.avro.AvroToStructuredTransformer;
+import io.cdap.plugin.format.input.FilterProperty;
 import io.cdap.plugin.format.input.PathTrackingConfig;
 import io.cdap.plugin.format.input.PathTrackingInputFormatProvider;
 import org.apache.parquet.ParquetReadOptions;
@@ -38,6 +40,8 @@ import org.apache.parquet.io.DelegatingSeekableInputStream;
 import org.apache.parquet.schema.MessageType;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
@@ -51,9 +55,10 @@ import javax.annotation.Nullable;
 public class ParquetInputFormatProvider extends PathTrackingInputFormatProvider<ParquetInputFormatProvider.Conf> {
   static final String NAME = "parquet";
   static final String DESC = "Plugin for reading files in text format.";
+  static final String NAME_FILTER = FilterProperty.NAME;
   public static final PluginClass PLUGIN_CLASS =
     new PluginClass(ValidatingInputFormat.PLUGIN_TYPE, NAME, DESC, ParquetInputFormatProvider.class.getName(),
-                    "conf", PathTrackingConfig.FIELDS);
+                    "conf", Conf.PARQUET_FIELDS);
 
   public ParquetInputFormatProvider(ParquetInputFormatProvider.Conf conf) {
     super(conf);
@@ -70,6 +75,13 @@ public class ParquetInputFormatProvider extends PathTrackingInputFormatProvider<
     if (schema != null) {
       properties.put("parquet.avro.read.schema", schema.toString());
     }
+    FilterProperty.addTo(properties, PathTrackingParquetInputFormat.FILTER, conf.filter);
+  }
+
+  @Override
+  public void validate(FormatContext context) {
+    FilterProperty.validate(conf, conf.filter, getSchema(context), context.getFailureCollector(),
+                            ParquetFilterParser::parse);
   }
 
   @Nullable
@@ -124,12 +136,28 @@ public class ParquetInputFormatProvider extends PathTrackingInputFormatProvider<
    * Common config for Parquet format
    */
   public static class Conf extends PathTrackingConfig {
+    public static final Map<String, PluginPropertyField> PARQUET_FIELDS;
+    private static final String FILTER_DESC =
+      "Filter on the columns of the schema, such as \"age >= 21 and country = 'US'\". Row groups and pages whose "
+        + "statistics or dictionaries show that they don't match the filter are skipped, and only the records that "
+        + "match the filter are read.";
+
+    static {
+      Map<String, PluginPropertyField> fields = new HashMap<>(FIELDS);
+      fields.put(NAME_FILTER, new PluginPropertyField(NAME_FILTER, FILTER_DESC, "string", false, true));
+      PARQUET_FIELDS = Collections.unmodifiableMap(fields);
+    }
 
     @Macro
     @Nullable
     @Description(NAME_SCHEMA)
     public String schema;
 
+    @Macro
+    @Nullable
+    @Description(FILTER_DESC)
+    public String filter;
+
     @VisibleForTesting
     public Conf(String pathField) {
       super(pathField);
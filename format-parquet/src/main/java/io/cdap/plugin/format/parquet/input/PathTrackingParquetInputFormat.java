@@ -21,12 +21,19 @@ import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.plugin.format.avro.AvroToStructuredTransformer;
 import io.cdap.plugin.format.input.PathTrackingInputFormat;
 import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.RecordReader;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.hadoop.mapreduce.lib.input.FileSplit;
-import org.apache.parquet.avro.AvroParquetInputFormat;
+import org.apache.parquet.avro.AvroSchemaConverter;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetInputFormat;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.schema.MessageType;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -37,6 +44,10 @@ import javax.annotation.Nullable;
  * Parquet format that tracks which file each record was read from.
  */
 public class PathTrackingParquetInputFormat extends PathTrackingInputFormat {
+  /**
+   * Filter expression on the columns of the schema, parsed by {@link ParquetFilterParser}.
+   */
+  static final String FILTER = "path.tracking.parquet.filter";
 
   @Override
   protected RecordReader<NullWritable, StructuredRecord.Builder> createRecordReader(FileSplit split,
@@ -44,11 +55,30 @@ public class PathTrackingParquetInputFormat extends PathTrackingInputFormat {
                                                                                     @Nullable String pathField,
                                                                                     @Nullable Schema schema)
     throws IOException, InterruptedException {
-    RecordReader<Void, GenericRecord> delegate = (new AvroParquetInputFormat<GenericRecord>())
-      .createRecordReader(split, context);
+    // only the columns of the schema are read, and row groups and pages that don't match the filter are skipped
+    Configuration conf = context.getConfiguration();
+    String filter = conf.get(FILTER);
+    FilterCompat.Filter recordFilter = ParquetInputFormat.getFilter(conf);
+    if (filter != null) {
+      // without a schema, the filter applies to the columns of the file
+      Schema filterSchema = schema == null ? readSchema(split.getPath(), conf) : schema;
+      recordFilter = FilterCompat.get(ParquetFilterParser.parse(filter, filterSchema));
+    }
+    RecordReader<Void, GenericRecord> delegate =
+      new org.apache.parquet.hadoop.ParquetRecordReader<>(new ProjectingAvroReadSupport(), recordFilter);
     return new ParquetRecordReader(delegate, schema, pathField);
   }
 
+  /**
+   * Reads the schema of a file from its footer.
+   */
+  private static Schema readSchema(Path path, Configuration conf) throws IOException {
+    try (ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(path, conf))) {
+      MessageType parquetSchema = reader.getFooter().getFileMetaData().getSchema();
+      return new AvroToStructuredTransformer().convertSchema(new AvroSchemaConverter(conf).convert(parquetSchema));
+    }
+  }
+
   /**
    * Transforms GenericRecords into StructuredRecord.
    */
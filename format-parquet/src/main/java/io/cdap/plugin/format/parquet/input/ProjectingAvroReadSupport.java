@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.parquet.input;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.avro.AvroReadSupport;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Avro read support that only reads the columns of the file that are in the Avro read schema.
+ *
+ * The requested schema is the schema of the file without the fields that are not in the read schema, so that their
+ * columns are not read from the file, instead of being read and then dropped when the records are materialized.
+ * Fields of nested records are projected too. Lists and maps are read entirely.
+ */
+class ProjectingAvroReadSupport extends AvroReadSupport<GenericRecord> {
+
+  @Override
+  public ReadContext init(Configuration configuration, Map<String, String> keyValueMetaData, MessageType fileSchema) {
+    ReadContext context = super.init(configuration, keyValueMetaData, fileSchema);
+    String readSchema = configuration.get(AVRO_READ_SCHEMA);
+    if (readSchema == null) {
+      return context;
+    }
+    MessageType requestedSchema = context.getRequestedSchema();
+    List<Type> fields = project(requestedSchema, new Schema.Parser().parse(readSchema));
+    if (fields.isEmpty() || fields.equals(requestedSchema.getFields())) {
+      // none of the fields are in the file, or all of them are read
+      return context;
+    }
+    return new ReadContext(new MessageType(requestedSchema.getName(), fields), context.getReadSupportMetadata());
+  }
+
+  /**
+   * Returns the fields of a group that are in the given Avro record schema.
+   */
+  private static List<Type> project(GroupType group, Schema recordSchema) {
+    List<Type> fields = new ArrayList<>();
+    for (Type field : group.getFields()) {
+      Schema.Field avroField = recordSchema.getField(field.getName());
+      if (avroField == null) {
+        continue;
+      }
+      Schema nestedSchema = getRecordSchema(avroField.schema());
+      if (field.isPrimitive() || field.getLogicalTypeAnnotation() != null || nestedSchema == null) {
+        fields.add(field);
+        continue;
+      }
+      List<Type> nestedFields = project(field.asGroupType(), nestedSchema);
+      fields.add(nestedFields.isEmpty() ? field : field.asGroupType().withNewFields(nestedFields));
+    }
+    return fields;
+  }
+
+  /**
+   * Returns the record schema of a record or nullable record schema, or null if it is not a record.
+   */
+  @Nullable
+  private static Schema getRecordSchema(Schema schema) {
+    if (schema.getType() == Schema.Type.RECORD) {
+      return schema;
+    }
+    if (schema.getType() == Schema.Type.UNION) {
+      Schema record = null;
+      for (Schema unionSchema : schema.getTypes()) {
+        if (unionSchema.getType() == Schema.Type.RECORD && record == null) {
+          record = unionSchema;
+        } else if (unionSchema.getType() != Schema.Type.NULL) {
+          return null;
+        }
+      }
+      return record;
+    }
+    return null;
+  }
+}
@@ -46,7 +46,7 @@ public class StructuredParquetOutputFormat extends DelegatingOutputFormat<Void,
 
     Configuration hConf = context.getConfiguration();
     Schema schema = Schema.parseJson(hConf.get(ParquetOutputFormatProvider.SCHEMA_KEY));
-    StructuredToAvroTransformer transformer = new StructuredToAvroTransformer(schema);
+    StructuredToAvroTransformer transformer = new StructuredToAvroTransformer(schema, true);
     return record -> {
       try {
         return new KeyValue<>(null, transformer.transform(record));
@@ -0,0 +1,169 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin.format.parquet.input;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.plugin.format.input.PathTrackingInputFormat;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.apache.parquet.avro.AvroParquetWriter;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.util.HadoopOutputFile;
+import org.apache.parquet.io.api.Binary;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for {@link ParquetFilterParser} and reading parquet files with a filter and a projection.
+ */
+public class ParquetFilterParserTest {
+  @ClassRule
+  public static final TemporaryFolder TMP_FOLDER = new TemporaryFolder();
+
+  private static final Schema ADDRESS_SCHEMA = Schema.recordOf(
+    "address",
+    Schema.Field.of("zip", Schema.nullableOf(Schema.of(Schema.Type.STRING))));
+  private static final Schema SCHEMA = Schema.recordOf(
+    "x",
+    Schema.Field.of("id", Schema.of(Schema.Type.INT)),
+    Schema.Field.of("name", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("score", Schema.nullableOf(Schema.of(Schema.Type.DOUBLE))),
+    Schema.Field.of("active", Schema.of(Schema.Type.BOOLEAN)),
+    Schema.Field.of("address", ADDRESS_SCHEMA));
+
+  @Test
+  public void testParse() {
+    Assert.assertEquals(
+      FilterApi.or(FilterApi.and(FilterApi.gtEq(FilterApi.intColumn("id"), 2),
+                                 FilterApi.notEq(FilterApi.binaryColumn("name"), Binary.fromString("it's"))),
+                   FilterApi.notEq(FilterApi.booleanColumn("active"), true)),
+      ParquetFilterParser.parse("id >= 2 AND name <> 'it''s' or not active = true", SCHEMA));
+    Assert.assertEquals(
+      FilterApi.and(FilterApi.lt(FilterApi.doubleColumn("score"), -1.5d),
+                    FilterApi.or(FilterApi.eq(FilterApi.binaryColumn("address.zip"), null),
+                                 FilterApi.notEq(FilterApi.intColumn("id"), null))),
+      ParquetFilterParser.parse("score<-1.5 and (address.zip is null or id is not null)", SCHEMA));
+  }
+
+  @Test
+  public void testInvalidFilters() {
+    for (String filter : Arrays.asList("", "id", "id >", "id = 'a'", "id = 1.5", "name = a", "unknown = 1",
+                                       "active > true", "address = 1", "id = 1 and", "(id = 1", "id = 1)",
+                                       "id = 1 # 2", "name is 'a'")) {
+      try {
+        ParquetFilterParser.parse(filter, SCHEMA);
+        Assert.fail(String.format("Filter '%s' was parsed.", filter));
+      } catch (IllegalArgumentException e) {
+        Assert.assertTrue(e.getMessage(), e.getMessage().startsWith(String.format("Invalid filter '%s': ", filter)));
+      }
+    }
+  }
+
+  @Test
+  public void testReadWithFilterAndProjection() throws Exception {
+    Configuration hConf = new Configuration();
+    File parquetFile = writeFile(hConf);
+
+    Schema readSchema = Schema.recordOf(
+      "x",
+      Schema.Field.of("name", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("id", Schema.of(Schema.Type.INT)),
+      Schema.Field.of("file", Schema.of(Schema.Type.STRING)));
+    hConf.set(PathTrackingInputFormat.SCHEMA, readSchema.toString());
+    hConf.set("parquet.avro.read.schema", readSchema.toString());
+    hConf.set("path.tracking.path.field", "file");
+    hConf.set("path.tracking.filename.only", "true");
+    hConf.set(PathTrackingParquetInputFormat.FILTER, "id >= 1 and name != 'c'");
+
+    List<StructuredRecord> expected = new ArrayList<>();
+    for (int id : new int[] { 1, 3 }) {
+      expected.add(StructuredRecord.builder(readSchema)
+                     .set("name", String.valueOf((char) ('a' + id)))
+                     .set("id", id)
+                     .set("file", "test.parquet")
+                     .build());
+    }
+    Assert.assertEquals(expected, read(hConf, parquetFile));
+  }
+
+  @Test
+  public void testReadWithFilterWithoutSchema() throws Exception {
+    Configuration hConf = new Configuration();
+    File parquetFile = writeFile(hConf);
+    // the filter applies to the columns of the file
+    hConf.set(PathTrackingParquetInputFormat.FILTER, "id >= 1 and address.zip != 'z3'");
+
+    List<StructuredRecord> records = read(hConf, parquetFile);
+    Assert.assertEquals(2, records.size());
+    Assert.assertEquals(1, (int) records.get(0).get("id"));
+    Assert.assertEquals(2, (int) records.get(1).get("id"));
+  }
+
+  private File writeFile(Configuration hConf) throws Exception {
+    File parquetFile = new File(TMP_FOLDER.newFolder(), "test.parquet");
+    Path parquetPath = new Path(parquetFile.toURI());
+    org.apache.avro.Schema avroSchema = new org.apache.avro.Schema.Parser().parse(SCHEMA.toString());
+    org.apache.avro.Schema addressSchema = avroSchema.getField("address").schema();
+    try (ParquetWriter<GenericRecord> parquetWriter =
+           AvroParquetWriter.<GenericRecord>builder(HadoopOutputFile.fromPath(parquetPath, hConf))
+             .withSchema(avroSchema)
+             .build()) {
+      for (int id = 0; id < 4; id++) {
+        parquetWriter.write(new GenericRecordBuilder(avroSchema)
+                              .set("id", id)
+                              .set("name", String.valueOf((char) ('a' + id)))
+                              .set("score", id * 1.5d)
+                              .set("active", id % 2 == 0)
+                              .set("address", new GenericRecordBuilder(addressSchema).set("zip", "z" + id).build())
+                              .build());
+      }
+    }
+    return parquetFile;
+  }
+
+  private List<StructuredRecord> read(Configuration hConf, File parquetFile) throws Exception {
+    TaskAttemptContext context = new TaskAttemptContextImpl(hConf, new TaskAttemptID());
+    FileSplit split = new FileSplit(new Path(parquetFile.toURI()), 0, parquetFile.length(), null);
+
+    List<StructuredRecord> records = new ArrayList<>();
+    try (RecordReader<NullWritable, StructuredRecord> reader =
+           new PathTrackingParquetInputFormat().createRecordReader(split, context)) {
+      reader.initialize(split, context);
+      while (reader.nextKeyValue()) {
+        records.add(reader.getCurrentValue());
+      }
+    }
+    return records;
+  }
+}
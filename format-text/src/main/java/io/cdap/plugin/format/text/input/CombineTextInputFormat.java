@@ -18,6 +18,7 @@ package io.cdap.plugin.format.text.input;
 
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.plugin.common.batch.JobUtils;
+import io.cdap.plugin.format.input.CombinePathTrackingInputFormat;
 import io.cdap.plugin.format.input.PathTrackingInputFormat;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
@@ -32,8 +33,6 @@ import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.JobContext;
 import org.apache.hadoop.mapreduce.RecordReader;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
-import org.apache.hadoop.mapreduce.lib.input.CombineFileInputFormat;
-import org.apache.hadoop.mapreduce.lib.input.CombineFileRecordReader;
 import org.apache.hadoop.mapreduce.lib.input.CombineFileRecordReaderWrapper;
 import org.apache.hadoop.mapreduce.lib.input.CombineFileSplit;
 
@@ -50,7 +49,7 @@ import javax.annotation.Nullable;
  * Combined input format that tracks which file each text record was read from and optionally emits a file header
  * as the first record for each split.
  */
-public class CombineTextInputFormat extends CombineFileInputFormat<NullWritable, StructuredRecord> {
+public class CombineTextInputFormat extends CombinePathTrackingInputFormat {
   static final String HEADER = "combine.path.tracking.header";
   static final String SKIP_HEADER = "skip_header";
 
@@ -124,7 +123,12 @@ public class CombineTextInputFormat extends CombineFileInputFormat<NullWritable,
     if (combineSplit.getHeader() != null) {
       context.getConfiguration().set(HEADER, combineSplit.getHeader());
     }
-    return new CombineFileRecordReader<>(combineSplit, context, WrapperReader.class);
+    return super.createRecordReader(combineSplit, context);
+  }
+
+  @Override
+  protected Class<? extends RecordReader<NullWritable, StructuredRecord>> getRecordReaderClass() {
+    return WrapperReader.class;
   }
 
   /**
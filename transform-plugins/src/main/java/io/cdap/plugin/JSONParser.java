@@ -19,6 +19,7 @@ package io.cdap.plugin;
 import com.google.common.base.Strings;
 import com.google.common.collect.Maps;
 import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.InvalidPathException;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.PathNotFoundException;
 import io.cdap.cdap.api.annotation.Description;
@@ -68,6 +69,14 @@ public final class JSONParser extends Transform<StructuredRecord, StructuredReco
   // Specifies whether mapping is simple or complex.
   private boolean isSimple = true;
 
+  private final Configuration jsonPathConfiguration = Configuration.defaultConfiguration();
+
+  // Compiled JSON path of each output field, or null if the field is not mapped.
+  private JsonPath[] paths;
+
+  // Reader evaluating the mapped paths in a single pass when they are all simple, or null.
+  private StreamingJsonPathReader streamingReader;
+
   // Mainly used for testing.
   public JSONParser(Config config) {
     this.config = config;
@@ -137,6 +146,14 @@ public final class JSONParser extends Transform<StructuredRecord, StructuredReco
           collector.addFailure("Both field name and JSON expression map must be provided.", null)
             .withConfigElement(Config.MAPPING, pathMap);
         } else {
+          try {
+            JsonPath.compile(mapParts[1]);
+          } catch (InvalidPathException e) {
+            collector.addFailure(String.format("Invalid JSON path expression '%s': %s", mapParts[1], e.getMessage()),
+                                 null)
+              .withConfigElement(Config.MAPPING, pathMap);
+            continue;
+          }
           mapping.put(mapParts[0], mapParts[1]);
         }
       }
@@ -156,6 +173,24 @@ public final class JSONParser extends Transform<StructuredRecord, StructuredReco
     }
     extractMappings(collector);
     collector.getOrThrowException();
+
+    if (isSimple) {
+      return;
+    }
+    // Paths are compiled once, and evaluated in a single pass over the JSON when they only navigate properties and
+    // array indexes.
+    paths = new JsonPath[fields.size()];
+    String[] streamedPaths = new String[fields.size()];
+    boolean streaming = true;
+    for (int i = 0; i < fields.size(); i++) {
+      String path = mapping.get(fields.get(i).getName());
+      if (path != null) {
+        paths[i] = JsonPath.compile(path);
+        streamedPaths[i] = path;
+        streaming &= StreamingJsonPathReader.isSimplePath(path);
+      }
+    }
+    streamingReader = streaming ? new StreamingJsonPathReader(streamedPaths) : null;
   }
 
   @Override
@@ -168,27 +203,42 @@ public final class JSONParser extends Transform<StructuredRecord, StructuredReco
     }
 
     // When it's not a simple Json to be parsed, we use the Json path to map the input Json fields into the
-    // output schema. In order to optimize for reading multiple paths from the Json we create a document that
-    // allows the Json to be parsed only once. We then iterate through the output fields and apply the
-    // path to extract the fields.
-    Object document = Configuration.defaultConfiguration().jsonProvider().parse((String) input.get(config.field));
+    // output schema. The paths are read in a single pass over the Json when possible. Otherwise, in order to
+    // optimize for reading multiple paths from the Json, we create a document that allows the Json to be parsed
+    // only once. We then iterate through the output fields and apply the path to extract the fields.
+    String json = input.get(config.field);
+    Object document = null;
+    if (streamingReader == null || !streamingReader.read(json)) {
+      document = jsonPathConfiguration.jsonProvider().parse(json);
+    }
     StructuredRecord.Builder builder = StructuredRecord.builder(outSchema);
-    for (Schema.Field field : fields) {
+    for (int i = 0; i < fields.size(); i++) {
+      Schema.Field field = fields.get(i);
       String name = field.getName();
-      if (mapping.containsKey(name)) {
-        String path = mapping.get(name);
-        try {
-          Object value = JsonPath.read(document, path);
-          builder.set(field.getName(), value);
-        } catch (PathNotFoundException e) {
-          if (field.getSchema().isNullable()) {
-            builder.set(field.getName(), null);
-          } else {
-            LOG.error("Json path '" + path + "' specified for the field '" + name + "' doesn't exist. " +
-                        "Dropping the error record: " + StructuredRecordStringConverter.toJsonString(input));
-            return;
+      if (paths[i] != null) {
+        Object value;
+        boolean found;
+        if (document == null) {
+          value = streamingReader.getValue(i);
+          found = streamingReader.isFound(i);
+        } else {
+          try {
+            value = paths[i].read(document, jsonPathConfiguration);
+            found = true;
+          } catch (PathNotFoundException e) {
+            value = null;
+            found = false;
           }
         }
+        if (found) {
+          builder.set(name, value);
+        } else if (field.getSchema().isNullable()) {
+          builder.set(name, null);
+        } else {
+          LOG.error("Json path '" + mapping.get(name) + "' specified for the field '" + name + "' doesn't exist. " +
+                      "Dropping the error record: " + StructuredRecordStringConverter.toJsonString(input));
+          return;
+        }
       } else {
         // We didn't find the field name in the mapping, we will not attempt to see if the field is present
         // in the input; if it is, then we will transfer the input field value to the output field value.
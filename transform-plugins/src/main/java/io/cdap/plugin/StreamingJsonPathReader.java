@@ -0,0 +1,207 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+
+/**
+ * Evaluates simple JSON paths, made of property names and array indexes from the root of the document such as
+ * $.store.book[0].title or $['store']['bicycle'], in a single pass over a JSON document, without building the
+ * document.
+ *
+ * Values are read like the JsonPath default provider reads them, so that integers are returned as {@link Integer},
+ * {@link Long} or {@link BigInteger}, and decimals as {@link Double}, or {@link BigDecimal} when they are long.
+ * Only values that are not objects or arrays can be read. When a path leads to an object or an array, or when the
+ * document cannot be read, {@link #read(String)} returns false so that the document can be evaluated by JsonPath.
+ */
+final class StreamingJsonPathReader {
+  private static final Pattern SIMPLE_PATH =
+    Pattern.compile("\\$(\\.[A-Za-z_][\\w\\-]*|\\['[^'\\\\]*'\\]|\\[\\d+\\])+");
+  private static final Pattern STEP = Pattern.compile("\\.([A-Za-z_][\\w\\-]*)|\\['([^'\\\\]*)'\\]|\\[(\\d+)\\]");
+
+  private final Step root = new Step();
+  private final Object[] values;
+  private final boolean[] found;
+
+  /**
+   * A step of the paths, with the following steps for property names and array indexes, and the paths ending here.
+   */
+  private static final class Step {
+    private final Map<String, Step> properties = new HashMap<>();
+    private final Map<Integer, Step> indexes = new HashMap<>();
+    private final List<Integer> paths = new ArrayList<>();
+  }
+
+  /**
+   * @param paths the simple JSON paths to evaluate, where null paths are ignored
+   */
+  StreamingJsonPathReader(String[] paths) {
+    this.values = new Object[paths.length];
+    this.found = new boolean[paths.length];
+    for (int i = 0; i < paths.length; i++) {
+      if (paths[i] == null) {
+        continue;
+      }
+      Step step = root;
+      Matcher matcher = STEP.matcher(paths[i]);
+      while (matcher.find()) {
+        if (matcher.group(3) != null) {
+          step = step.indexes.computeIfAbsent(Integer.parseInt(matcher.group(3)), index -> new Step());
+        } else {
+          String property = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+          step = step.properties.computeIfAbsent(property, name -> new Step());
+        }
+      }
+      step.paths.add(i);
+    }
+  }
+
+  /**
+   * Returns whether the given JSON path can be evaluated while streaming.
+   */
+  static boolean isSimplePath(String path) {
+    return SIMPLE_PATH.matcher(path).matches();
+  }
+
+  /**
+   * Reads a document and evaluates the paths on it.
+   *
+   * @return false if the paths could not be evaluated while streaming, in which case the document must be
+   *         evaluated with JsonPath
+   */
+  boolean read(String json) {
+    Arrays.fill(values, null);
+    Arrays.fill(found, false);
+    JsonReader reader = new JsonReader(new StringReader(json));
+    // the default provider is permissive too, and documents it does not accept fail when evaluated with JsonPath
+    reader.setLenient(true);
+    try {
+      return readValue(reader, root) && reader.peek() == JsonToken.END_DOCUMENT;
+    } catch (IOException | IllegalStateException | NumberFormatException e) {
+      return false;
+    }
+  }
+
+  /**
+   * @return whether the path was found in the last document read
+   */
+  boolean isFound(int path) {
+    return found[path];
+  }
+
+  /**
+   * @return the value of the path in the last document read, or null if it was not found
+   */
+  @Nullable
+  Object getValue(int path) {
+    return values[path];
+  }
+
+  private boolean readValue(JsonReader reader, @Nullable Step step) throws IOException {
+    if (step == null) {
+      reader.skipValue();
+      return true;
+    }
+    JsonToken token = reader.peek();
+    boolean container = token == JsonToken.BEGIN_OBJECT || token == JsonToken.BEGIN_ARRAY;
+    if (!step.paths.isEmpty()) {
+      if (container) {
+        return false;
+      }
+      Object value = readScalar(reader, token);
+      for (int path : step.paths) {
+        values[path] = value;
+        found[path] = true;
+      }
+      return true;
+    }
+    if (token == JsonToken.BEGIN_OBJECT && !step.properties.isEmpty()) {
+      reader.beginObject();
+      while (reader.hasNext()) {
+        if (!readValue(reader, step.properties.get(reader.nextName()))) {
+          return false;
+        }
+      }
+      reader.endObject();
+    } else if (token == JsonToken.BEGIN_ARRAY && !step.indexes.isEmpty()) {
+      reader.beginArray();
+      for (int index = 0; reader.hasNext(); index++) {
+        if (!readValue(reader, step.indexes.get(index))) {
+          return false;
+        }
+      }
+      reader.endArray();
+    } else {
+      // the paths through this step are not found
+      reader.skipValue();
+    }
+    return true;
+  }
+
+  @Nullable
+  private static Object readScalar(JsonReader reader, JsonToken token) throws IOException {
+    switch (token) {
+      case NULL:
+        reader.nextNull();
+        return null;
+      case BOOLEAN:
+        return reader.nextBoolean();
+      case NUMBER:
+        return toNumber(reader.nextString());
+      default:
+        return reader.nextString();
+    }
+  }
+
+  /**
+   * Converts a number to the type the JsonPath default provider gives it.
+   */
+  private static Number toNumber(String number) {
+    if (number.indexOf('.') >= 0 || number.indexOf('e') >= 0 || number.indexOf('E') >= 0) {
+      return number.length() > 18 ? new BigDecimal(number) : (Number) Double.parseDouble(number);
+    }
+    if (number.length() <= 18) {
+      long longValue = Long.parseLong(number);
+      if (longValue == (int) longValue) {
+        return (int) longValue;
+      }
+      return longValue;
+    }
+    BigInteger value = new BigInteger(number);
+    if (value.bitLength() < 32) {
+      return value.intValue();
+    }
+    if (value.bitLength() < 64) {
+      return value.longValue();
+    }
+    return value;
+  }
+}
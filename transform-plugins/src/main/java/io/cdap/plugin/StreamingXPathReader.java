@@ -0,0 +1,226 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Evaluates simple XPaths, made of element names from the root of the document such as /book/title, while
+ * streaming through an XML document with StAX, without building a DOM.
+ *
+ * For each path, the first matching element gives the value, which is the text content of the element as with
+ * {@link org.w3c.dom.Node#getTextContent()}. Reading stops as soon as all paths have a value, unless all matches
+ * must be counted.
+ */
+final class StreamingXPathReader {
+  private static final Pattern SIMPLE_PATH = Pattern.compile("(/[A-Za-z_][\\w.\\-]*)+");
+
+  private final XMLInputFactory inputFactory;
+  private final boolean disallowDocType;
+  private final boolean countAllMatches;
+  private final String[][] paths;
+  private final String[] values;
+  private final int[] matches;
+  private final boolean[] childElements;
+  private final StringBuilder[] texts;
+  // depth of the element being captured for each path, or -1
+  private final int[] captureDepths;
+  // number of child nodes of the element being captured, used to detect child elements like the DOM parsing does
+  private final int[] childNodes;
+  private final boolean[] lastChildText;
+  private String[] elements = new String[16];
+
+  /**
+   * @param paths the simple XPaths to evaluate
+   * @param countAllMatches whether all matches of the paths must be counted, which requires reading whole documents
+   * @param enableExternalEntities whether external entities are resolved
+   * @param disallowDocType whether documents with a DOCTYPE declaration are rejected
+   */
+  StreamingXPathReader(String[] paths, boolean countAllMatches, boolean enableExternalEntities,
+                       boolean disallowDocType) {
+    this.inputFactory = XMLInputFactory.newInstance();
+    // element names are matched with their prefix, like the XPaths are evaluated on documents without namespaces
+    inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+    inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, enableExternalEntities);
+    inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, !disallowDocType);
+    this.disallowDocType = disallowDocType;
+    this.countAllMatches = countAllMatches;
+    this.paths = new String[paths.length][];
+    for (int i = 0; i < paths.length; i++) {
+      this.paths[i] = paths[i].substring(1).split("/");
+    }
+    this.values = new String[paths.length];
+    this.matches = new int[paths.length];
+    this.childElements = new boolean[paths.length];
+    this.texts = new StringBuilder[paths.length];
+    this.captureDepths = new int[paths.length];
+    this.childNodes = new int[paths.length];
+    this.lastChildText = new boolean[paths.length];
+    for (int i = 0; i < paths.length; i++) {
+      texts[i] = new StringBuilder();
+    }
+  }
+
+  /**
+   * Returns whether the given XPath can be evaluated while streaming.
+   */
+  static boolean isSimplePath(String xpath) {
+    return SIMPLE_PATH.matcher(xpath).matches();
+  }
+
+  /**
+   * Reads a document and evaluates the paths on it.
+   */
+  void read(Reader reader) throws XMLStreamException {
+    Arrays.fill(values, null);
+    Arrays.fill(matches, 0);
+    Arrays.fill(childElements, false);
+    Arrays.fill(captureDepths, -1);
+    int remaining = paths.length;
+    int depth = 0;
+
+    XMLStreamReader streamReader = inputFactory.createXMLStreamReader(reader);
+    try {
+      while (streamReader.hasNext() && (remaining > 0 || countAllMatches)) {
+        switch (streamReader.next()) {
+          case XMLStreamConstants.START_ELEMENT:
+            addChildNode(depth, true, false);
+            if (depth == elements.length) {
+              elements = Arrays.copyOf(elements, depth * 2);
+            }
+            elements[depth++] = streamReader.getLocalName();
+            startElement(depth);
+            break;
+          case XMLStreamConstants.END_ELEMENT:
+            remaining -= endElement(depth);
+            depth--;
+            break;
+          case XMLStreamConstants.CHARACTERS:
+          case XMLStreamConstants.SPACE:
+          case XMLStreamConstants.CDATA:
+            addChildNode(depth, false, streamReader.getEventType() != XMLStreamConstants.CDATA);
+            addText(streamReader);
+            break;
+          case XMLStreamConstants.COMMENT:
+          case XMLStreamConstants.PROCESSING_INSTRUCTION:
+            addChildNode(depth, false, false);
+            break;
+          case XMLStreamConstants.DTD:
+            if (disallowDocType) {
+              throw new XMLStreamException("DOCTYPE is disallowed when the feature " +
+                                             "\"http://apache.org/xml/features/disallow-doctype-decl\" set to true.",
+                                           streamReader.getLocation());
+            }
+            break;
+          default:
+            break;
+        }
+      }
+    } finally {
+      streamReader.close();
+    }
+  }
+
+  /**
+   * @return the text content of the first element matching the path, or null if no element matched
+   */
+  @Nullable
+  String getValue(int path) {
+    return values[path];
+  }
+
+  /**
+   * @return the number of elements matching the path, which is only accurate when all matches are counted
+   */
+  int getMatches(int path) {
+    return matches[path];
+  }
+
+  /**
+   * @return whether the first element matching the path starts with a child element, in which case the DOM parsing
+   *         returns the element as XML rather than its text content
+   */
+  boolean hasChildElements(int path) {
+    return childElements[path];
+  }
+
+  private void startElement(int depth) {
+    for (int i = 0; i < paths.length; i++) {
+      if (captureDepths[i] < 0 && paths[i].length == depth && matches(paths[i])) {
+        if (matches[i]++ == 0) {
+          captureDepths[i] = depth;
+          texts[i].setLength(0);
+          childNodes[i] = 0;
+          lastChildText[i] = false;
+        }
+      }
+    }
+  }
+
+  private int endElement(int depth) {
+    int captured = 0;
+    for (int i = 0; i < paths.length; i++) {
+      if (captureDepths[i] == depth) {
+        captureDepths[i] = -1;
+        values[i] = texts[i].toString();
+        captured++;
+      }
+    }
+    return captured;
+  }
+
+  private void addChildNode(int depth, boolean element, boolean text) {
+    for (int i = 0; i < paths.length; i++) {
+      if (captureDepths[i] != depth) {
+        continue;
+      }
+      // adjacent text is a single node
+      if (!(text && lastChildText[i])) {
+        // the DOM parsing only looks at the first two child nodes to detect child elements
+        if (element && childNodes[i] < 2) {
+          childElements[i] = true;
+        }
+        childNodes[i]++;
+      }
+      lastChildText[i] = text;
+    }
+  }
+
+  private void addText(XMLStreamReader streamReader) {
+    for (int i = 0; i < paths.length; i++) {
+      if (captureDepths[i] >= 0) {
+        texts[i].append(streamReader.getTextCharacters(), streamReader.getTextStart(), streamReader.getTextLength());
+      }
+    }
+  }
+
+  private boolean matches(String[] path) {
+    for (int i = 0; i < path.length; i++) {
+      if (!path[i].equals(elements[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -49,6 +49,7 @@ import java.util.Map;
 import javax.annotation.Nullable;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
@@ -57,6 +58,8 @@ import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
 /**
@@ -73,6 +76,10 @@ public class XMLParser extends Transform<StructuredRecord, StructuredRecord> {
   private final Config config;
   private Schema outSchema;
   private Map<String, String> xPathMapping = new HashMap<>();
+  private DocumentBuilder documentBuilder;
+  private XPathExpression[] xPathExpressions;
+  private StreamingXPathReader streamingReader;
+  private Transformer transformer;
 
   // Required only for testing.
   public XMLParser(Config config) {
@@ -113,8 +120,42 @@ public class XMLParser extends Transform<StructuredRecord, StructuredRecord> {
     super.initialize(context);
     FailureCollector collector = getContext().getFailureCollector();
     outSchema = config.getOutputSchema(collector);
-    xPathMapping = getXPathMapping(collector);
+    validateXpathAndSchema(collector);
     collector.getOrThrowException();
+
+    // the parser and the XPaths are set up once, instead of for every record
+    List<Schema.Field> outFields = outSchema.getFields();
+    if (config.isStreaming()) {
+      String[] paths = new String[outFields.size()];
+      for (int i = 0; i < paths.length; i++) {
+        paths[i] = xPathMapping.get(outFields.get(i).getName());
+      }
+      streamingReader = new StreamingXPathReader(paths, Boolean.TRUE.equals(config.failOnArray),
+                                                 Boolean.TRUE.equals(config.enableExternalGeneralEntities),
+                                                 Boolean.TRUE.equals(config.disallowDocTypeDTD));
+    } else {
+      documentBuilder = newDocumentBuilder();
+      XPath xpath = XPathFactory.newInstance().newXPath();
+      xPathExpressions = new XPathExpression[outFields.size()];
+      for (int i = 0; i < xPathExpressions.length; i++) {
+        xPathExpressions[i] = xpath.compile(xPathMapping.get(outFields.get(i).getName()));
+      }
+    }
+  }
+
+  private DocumentBuilder newDocumentBuilder() throws ParserConfigurationException {
+    DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
+    builderFactory.setFeature("http://xml.org/sax/features/external-general-entities",
+            Boolean.TRUE.equals(config.enableExternalGeneralEntities));
+    builderFactory.setFeature("http://xml.org/sax/features/external-parameter-entities",
+            Boolean.TRUE.equals(config.enableExternalParameterEntities));
+    builderFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd",
+            Boolean.TRUE.equals(config.loadExternalDTD));
+    builderFactory.setFeature("http://apache.org/xml/features/disallow-doctype-decl",
+            Boolean.TRUE.equals(config.disallowDocTypeDTD));
+    builderFactory.setXIncludeAware(false);
+    builderFactory.setExpandEntityReferences(false);
+    return builderFactory.newDocumentBuilder();
   }
 
   /**
@@ -122,6 +163,22 @@ public class XMLParser extends Transform<StructuredRecord, StructuredRecord> {
    */
   private void validateXpathAndSchema(FailureCollector collector) {
     xPathMapping = getXPathMapping(collector);
+    XPath xpath = XPathFactory.newInstance().newXPath();
+    for (Map.Entry<String, String> mapping : xPathMapping.entrySet()) {
+      try {
+        xpath.compile(mapping.getValue());
+      } catch (XPathExpressionException e) {
+        collector.addFailure(String.format("Invalid XPath '%s' for field '%s'.", mapping.getValue(), mapping.getKey()),
+                             null).withConfigProperty(XPATH_MAPPINGS);
+      }
+      if (config.isStreaming() && !StreamingXPathReader.isSimplePath(mapping.getValue())) {
+        collector.addFailure(
+          String.format("XPath '%s' for field '%s' cannot be evaluated while streaming.",
+                        mapping.getValue(), mapping.getKey()),
+          "Use absolute paths made of element names, such as /book/title, or disable streaming.")
+          .withConfigProperty(Config.STREAMING);
+      }
+    }
     List<Schema.Field> outFields = outSchema.getFields();
     // Checks if all the fields in the XPath mapping are present in the output schema.
     // If they are not a list of fields that are not present is included in the error message.
@@ -174,43 +231,12 @@ public class XMLParser extends Transform<StructuredRecord, StructuredRecord> {
   @Override
   public void transform(StructuredRecord input, Emitter<StructuredRecord> emitter) {
     try {
-      InputSource source = new InputSource(new StringReader((String) input.get(config.inputField)));
-      source.setEncoding(config.encoding);
-      DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
-      builderFactory.setFeature("http://xml.org/sax/features/external-general-entities",
-              config.enableExternalGeneralEntities);
-      builderFactory.setFeature("http://xml.org/sax/features/external-parameter-entities",
-              config.enableExternalParameterEntities);
-      builderFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd",
-              config.loadExternalDTD);
-      builderFactory.setFeature("http://apache.org/xml/features/disallow-doctype-decl",
-              config.disallowDocTypeDTD);
-      builderFactory.setXIncludeAware(false);
-      builderFactory.setExpandEntityReferences(false);
-      DocumentBuilder documentBuilder = builderFactory.newDocumentBuilder();
-      Document document = documentBuilder.parse(source);
-      XPathFactory xpathFactory = XPathFactory.newInstance();
-      XPath xpath = xpathFactory.newXPath();
+      String xml = input.get(config.inputField);
       StructuredRecord.Builder builder = StructuredRecord.builder(outSchema);
-      for (Schema.Field field : outSchema.getFields()) {
-        String fieldName = field.getName();
-        //To evaluate a node, the type(Nodelist or Node) should be known before hand.
-        //Since, the type is not specified from user inputs, taking everything as NodeList and then evaluating.
-        NodeList nodeList = (NodeList) xpath.compile(xPathMapping.get(fieldName)).evaluate(document,
-                                                                                           XPathConstants.NODESET);
-        if (config.failOnArray && nodeList.getLength() > 1) {
-          throw new IllegalArgumentException("Field " + fieldName + " is an array. " +
-                                               "Cannot specify an XPath that is an array unless failOnArray is false.");
-        }
-        Node node = nodeList.item(0);
-        //Since all columns have nullable schema extracting not nullable type.
-        Schema.Type type = field.getSchema().getNonNullable().getType();
-        String value = getValue(node, type, fieldName);
-        if (value == null) {
-          builder.set(fieldName, null);
-        } else {
-          builder.convertAndSet(fieldName, value);
-        }
+      if (streamingReader != null) {
+        setStreamedValues(xml, builder);
+      } else {
+        setValues(xml, builder);
       }
       emitter.emit(builder.build());
     } catch (Exception e) {
@@ -227,6 +253,59 @@ public class XMLParser extends Transform<StructuredRecord, StructuredRecord> {
     }
   }
 
+  private void setValues(String xml, StructuredRecord.Builder builder) throws Exception {
+    InputSource source = new InputSource(new StringReader(xml));
+    source.setEncoding(config.encoding);
+    Document document = documentBuilder.parse(source);
+    List<Schema.Field> fields = outSchema.getFields();
+    for (int i = 0; i < xPathExpressions.length; i++) {
+      String fieldName = fields.get(i).getName();
+      //To evaluate a node, the type(Nodelist or Node) should be known before hand.
+      //Since, the type is not specified from user inputs, taking everything as NodeList and then evaluating.
+      NodeList nodeList = (NodeList) xPathExpressions[i].evaluate(document, XPathConstants.NODESET);
+      checkArray(fieldName, nodeList.getLength());
+      Node node = nodeList.item(0);
+      //Since all columns have nullable schema extracting not nullable type.
+      Schema.Type type = fields.get(i).getSchema().getNonNullable().getType();
+      setValue(builder, fieldName, getValue(node, type, fieldName));
+    }
+  }
+
+  private void setStreamedValues(String xml, StructuredRecord.Builder builder) throws Exception {
+    streamingReader.read(new StringReader(xml));
+    List<Schema.Field> fields = outSchema.getFields();
+    for (int i = 0; i < fields.size(); i++) {
+      String fieldName = fields.get(i).getName();
+      checkArray(fieldName, streamingReader.getMatches(i));
+      if (streamingReader.hasChildElements(i)) {
+        Schema.Type type = fields.get(i).getSchema().getNonNullable().getType();
+        if (!type.equals(Schema.Type.STRING)) {
+          throw new IllegalArgumentException(String.format("The xpath returned node which contains child nodes. " +
+                                                             "Cannot convert %s to type %s", fieldName, type));
+        }
+        throw new IllegalArgumentException(String.format("The xpath returned node which contains child nodes. " +
+                                                           "Cannot return %s as XML when streaming is enabled.",
+                                                         fieldName));
+      }
+      setValue(builder, fieldName, streamingReader.getValue(i));
+    }
+  }
+
+  private void checkArray(String fieldName, int numNodes) {
+    if (config.failOnArray && numNodes > 1) {
+      throw new IllegalArgumentException("Field " + fieldName + " is an array. " +
+                                           "Cannot specify an XPath that is an array unless failOnArray is false.");
+    }
+  }
+
+  private static void setValue(StructuredRecord.Builder builder, String fieldName, @Nullable String value) {
+    if (value == null) {
+      builder.set(fieldName, null);
+    } else {
+      builder.convertAndSet(fieldName, value);
+    }
+  }
+
   /**
    * Get the node value to be parsed into the required format by parseValues().
    *
@@ -264,9 +343,11 @@ public class XMLParser extends Transform<StructuredRecord, StructuredRecord> {
   private String nodeToString(Node node) {
     StringWriter stringWriter = new StringWriter();
     try {
-      Transformer transformer = TransformerFactory.newInstance().newTransformer();
-      transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-      transformer.setOutputProperty(OutputKeys.INDENT, "no");
+      if (transformer == null) {
+        transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+        transformer.setOutputProperty(OutputKeys.INDENT, "no");
+      }
       transformer.transform(new DOMSource(node), new StreamResult(stringWriter));
     } catch (TransformerException e) {
       throw new IllegalArgumentException("Cannot convert node to string. Transformer exception ", e);
@@ -280,6 +361,7 @@ public class XMLParser extends Transform<StructuredRecord, StructuredRecord> {
   public static class Config extends PluginConfig {
     public static final String FIELD_TYPE_MAPPING = "fieldTypeMapping";
     public static final String INPUT = "input";
+    public static final String STREAMING = "streaming";
 
     @Name("input")
     @Description("The field in the input record that is the source of the XML event or record.")
@@ -333,18 +415,34 @@ public class XMLParser extends Transform<StructuredRecord, StructuredRecord> {
             " 'http://apache.org/xml/features/disallow-doctype-decl'")
     private final Boolean disallowDocTypeDTD;
 
+    @Nullable
+    @Description("Whether to evaluate the XPaths while streaming through the XML record, without building a " +
+      "document. Only absolute paths made of element names, such as /book/title, are supported, and they cannot " +
+      "select elements with child elements. Defaults to false.")
+    private final Boolean streaming;
+
     public Config() {
-      this("", "", "", "", "", false, false, false, false);
+      this("", "", "", "", "", false, false, false, false, false);
     }
     public Config(String inputField, String encoding, String xPathFieldMapping, String fieldTypeMapping,
                   String processOnError) {
-      this(inputField, encoding, xPathFieldMapping, fieldTypeMapping, processOnError, false, false, false, false);
+      this(inputField, encoding, xPathFieldMapping, fieldTypeMapping, processOnError, false, false, false, false,
+           false);
     }
 
     public Config(String inputField, String encoding, String xPathFieldMapping, String fieldTypeMapping,
                   String processOnError,
                   Boolean enableExternalGeneralEntities,
                   Boolean enableExternalParameterEntities, Boolean loadExternalDTD, Boolean disallowDocTypeDTD) {
+      this(inputField, encoding, xPathFieldMapping, fieldTypeMapping, processOnError, enableExternalGeneralEntities,
+           enableExternalParameterEntities, loadExternalDTD, disallowDocTypeDTD, false);
+    }
+
+    public Config(String inputField, String encoding, String xPathFieldMapping, String fieldTypeMapping,
+                  String processOnError,
+                  Boolean enableExternalGeneralEntities,
+                  Boolean enableExternalParameterEntities, Boolean loadExternalDTD, Boolean disallowDocTypeDTD,
+                  Boolean streaming) {
       this.inputField = inputField;
       this.encoding = encoding;
       this.xPathFieldMapping = xPathFieldMapping;
@@ -355,6 +453,11 @@ public class XMLParser extends Transform<StructuredRecord, StructuredRecord> {
       this.enableExternalParameterEntities = enableExternalParameterEntities;
       this.loadExternalDTD = loadExternalDTD;
       this.disallowDocTypeDTD = disallowDocTypeDTD;
+      this.streaming = streaming;
+    }
+
+    private boolean isStreaming() {
+      return streaming != null && streaming;
     }
 
     /**
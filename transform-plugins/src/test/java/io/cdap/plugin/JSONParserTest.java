@@ -30,6 +30,8 @@ import io.cdap.cdap.etl.mock.transform.MockTransformContext;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Collections;
+
 /**
  * Tests {@link JSONParser}
  */
@@ -270,4 +272,55 @@ public class JSONParserTest {
     Assert.assertEquals(19.95d, emitter.getEmitted().get(0).get("bicycle_price"), 0.0001d);
     Assert.assertEquals(null, emitter.getEmitted().get(0).get("window"));
   }
+
+  @Test
+  public void testArrayIndexAndDeepScanPaths() throws Exception {
+    Schema output = Schema.recordOf("output",
+                                    Schema.Field.of("isbn", Schema.of(Schema.Type.STRING)),
+                                    Schema.Field.of("first_price", Schema.of(Schema.Type.DOUBLE)),
+                                    Schema.Field.of("expensive", Schema.of(Schema.Type.INT)),
+                                    Schema.Field.of("missing", Schema.nullableOf(Schema.of(Schema.Type.STRING))));
+    String mapping = "isbn:$.store.book[2].isbn,first_price:$['store']['book'][0]['price'],expensive:$.expensive," +
+      "missing:$.store.book[7].isbn";
+    StructuredRecord streamed = transform(new JSONParser.Config("body", mapping, output.toString()), json);
+    Assert.assertEquals("0-553-21311-3", streamed.get("isbn"));
+    Assert.assertEquals(8.95d, streamed.<Double>get("first_price"), 0.0001d);
+    Assert.assertEquals(10, streamed.<Integer>get("expensive").intValue());
+    Assert.assertNull(streamed.get("missing"));
+
+    // a deep scan path is evaluated on the whole document, with the same results for the other paths
+    Schema deepScanOutput = Schema.recordOf("output",
+                                            Schema.Field.of("isbn", Schema.of(Schema.Type.STRING)),
+                                            Schema.Field.of("first_price", Schema.of(Schema.Type.DOUBLE)),
+                                            Schema.Field.of("expensive", Schema.of(Schema.Type.INT)),
+                                            Schema.Field.of("missing", Schema.nullableOf(
+                                              Schema.of(Schema.Type.STRING))),
+                                            Schema.Field.of("colors", Schema.arrayOf(Schema.of(Schema.Type.STRING))));
+    StructuredRecord parsed = transform(new JSONParser.Config("body", mapping + ",colors:$..color",
+                                                              deepScanOutput.toString()), json);
+    for (String field : new String[] { "isbn", "first_price", "expensive", "missing" }) {
+      Assert.assertEquals(streamed.<Object>get(field), parsed.get(field));
+    }
+    Assert.assertEquals(Collections.singletonList("red"), parsed.get("colors"));
+  }
+
+  @Test
+  public void testInvalidJsonPath() throws Exception {
+    JSONParser.Config config = new JSONParser.Config("body", "expensive:$.store[", OUTPUT3.toString());
+    Transform<StructuredRecord, StructuredRecord> transform = new JSONParser(config);
+
+    MockPipelineConfigurer mockPipelineConfigurer = new MockPipelineConfigurer(INPUT1);
+    transform.configurePipeline(mockPipelineConfigurer);
+    FailureCollector collector = mockPipelineConfigurer.getStageConfigurer().getFailureCollector();
+    Assert.assertEquals(1, collector.getValidationFailures().size());
+  }
+
+  private static StructuredRecord transform(JSONParser.Config config, String body) throws Exception {
+    Transform<StructuredRecord, StructuredRecord> transform = new JSONParser(config);
+    transform.initialize(new MockTransformContext());
+    MockEmitter<StructuredRecord> emitter = new MockEmitter<>();
+    transform.transform(StructuredRecord.builder(INPUT1).set("body", body).build(), emitter);
+    Assert.assertEquals(1, emitter.getEmitted().size());
+    return emitter.getEmitted().get(0);
+  }
 }
@@ -259,6 +259,52 @@ public class XMLParserTest {
     Assert.assertEquals(expected, emitter.getEmitted());
   }
 
+  @Test
+  public void testStreaming() throws Exception {
+    Schema schema = Schema.recordOf("record",
+                                    Schema.Field.of("title", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+                                    Schema.Field.of("year", Schema.nullableOf(Schema.of(Schema.Type.INT))),
+                                    Schema.Field.of("isbn", Schema.nullableOf(Schema.of(Schema.Type.STRING))));
+
+    XMLParser.Config config = new XMLParser.Config(
+      "body", "UTF-8",
+      "title:/bookstore/book/title,year:/bookstore/book/year,isbn:/bookstore/book/isbn",
+      "title:string,year:int,isbn:string",
+      "Write to error dataset", false, false, false, true, true);
+    Transform<StructuredRecord, StructuredRecord> transform = new XMLParser(config);
+    transform.initialize(new MockTransformContext());
+    MockEmitter<StructuredRecord> emitter = new MockEmitter<>();
+
+    transform.transform(StructuredRecord.builder(INPUT)
+                          .set("offset", 1)
+                          .set("body", "<bookstore><book category=\"cooking\"><title lang=\"en\">Everyday &amp; " +
+                            "<![CDATA[Italian]]></title><year>2005</year></book><book><title>Harry Potter</title>" +
+                            "<year>2005</year></book></bookstore>").build(), emitter);
+    transform.transform(StructuredRecord.builder(INPUT)
+                          .set("offset", 2)
+                          .set("body", "<bookstore><book><year><value>2005</value></year></book></bookstore>")
+                          .build(), emitter);
+
+    List<StructuredRecord> expected = ImmutableList.of(
+      StructuredRecord.builder(schema).set("title", "Everyday & Italian").set("year", 2005).build());
+    Assert.assertEquals(expected, emitter.getEmitted());
+    Assert.assertEquals(1, emitter.getErrors().size());
+  }
+
+  @Test
+  public void testStreamingUnsupportedXPath() throws Exception {
+    XMLParser.Config config = new XMLParser.Config(
+      "body", "UTF-8", "category://book/@category,title:/book/title", "category:string,title:string",
+      "Exit on error", false, false, false, true, true);
+    MockPipelineConfigurer configurer = new MockPipelineConfigurer(INPUT);
+    new XMLParser(config).configurePipeline(configurer);
+    FailureCollector collector = configurer.getStageConfigurer().getFailureCollector();
+    Assert.assertEquals(1, collector.getValidationFailures().size());
+    Cause expectedCause = new Cause();
+    expectedCause.addAttribute(CauseAttributes.STAGE_CONFIG, XMLParser.Config.STREAMING);
+    Assert.assertEquals(expectedCause, collector.getValidationFailures().get(0).getCauses().get(0));
+  }
+
   @Test
   public void testInputFieldNotInSchema() throws Exception {
     Schema schema = Schema.recordOf("record",